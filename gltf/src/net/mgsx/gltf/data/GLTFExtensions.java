@@ -8,8 +8,7 @@ import com.badlogic.gdx.utils.ObjectMap.Entry;
 
 public class GLTFExtensions implements Serializable{
 
-	private static final Json json = new Json();
-	
+	private Json json;
 	private JsonValue value;
 	private ObjectMap<String, Object> extentions = new ObjectMap<String, Object>();
 
@@ -22,17 +21,28 @@ public class GLTFExtensions implements Serializable{
 
 	@Override
 	public void read(Json json, JsonValue jsonData) {
+		// keep the parser instance (rather than a shared one) so that concurrent loads don't share any Json state.
+		this.json = json;
 		value = jsonData;
 	}
 	
+	/**
+	 * Extensions are lazily parsed with the parser used to read the model, which is shared by all objects of this model:
+	 * parsing is synchronized on it so that extensions can be requested from concurrent loading tasks.
+	 */
 	public <T> T get(Class<T> type, String ext) 
 	{
-		T result = (T)extentions.get(ext);
-		if(result == null && value != null){
-			result = json.readValue(type, value.get(ext));
-			extentions.put(ext, result);
+		if(json == null){
+			return (T)extentions.get(ext);
+		}
+		synchronized (json) {
+			T result = (T)extentions.get(ext);
+			if(result == null && value != null){
+				result = json.readValue(type, value.get(ext));
+				extentions.put(ext, result);
+			}
+			return result;
 		}
-		return result;
 	}
 	
 	public void set(String ext, Object object){
@@ -0,0 +1,19 @@
+package net.mgsx.gltf.data.extensions;
+
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * {@link net.mgsx.gltf.data.scene.GLTFNode} extension.
+ * See https://github.com/KhronosGroup/glTF/blob/main/extensions/2.0/Vendor/EXT_mesh_gpu_instancing/README.md
+ */
+public class EXTMeshGpuInstancing {
+	
+	public static final String EXT = "EXT_mesh_gpu_instancing";
+	
+	public static final String TRANSLATION = "TRANSLATION";
+	public static final String ROTATION = "ROTATION";
+	public static final String SCALE = "SCALE";
+	
+	/** instance attribute name to accessor index */
+	public ObjectMap<String, Integer> attributes;
+}
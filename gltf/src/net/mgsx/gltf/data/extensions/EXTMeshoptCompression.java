@@ -0,0 +1,29 @@
+package net.mgsx.gltf.data.extensions;
+
+/**
+ * {@link net.mgsx.gltf.data.data.GLTFBufferView} extension, compressed buffer views are decoded by
+ * {@link net.mgsx.gltf.loaders.shared.data.DataResolver}.
+ * See https://github.com/KhronosGroup/glTF/blob/main/extensions/2.0/Vendor/EXT_meshopt_compression/README.md
+ */
+public class EXTMeshoptCompression {
+
+	public static final String EXT = "EXT_meshopt_compression";
+
+	public static final String MODE_ATTRIBUTES = "ATTRIBUTES";
+	public static final String MODE_TRIANGLES = "TRIANGLES";
+	public static final String MODE_INDICES = "INDICES";
+
+	public static final String FILTER_NONE = "NONE";
+	public static final String FILTER_OCTAHEDRAL = "OCTAHEDRAL";
+	public static final String FILTER_QUATERNION = "QUATERNION";
+	public static final String FILTER_EXPONENTIAL = "EXPONENTIAL";
+
+	/** compressed data location */
+	public int buffer, byteOffset = 0, byteLength;
+
+	/** decoded elements stride and count */
+	public int byteStride, count;
+
+	public String mode;
+	public String filter = FILTER_NONE;
+}
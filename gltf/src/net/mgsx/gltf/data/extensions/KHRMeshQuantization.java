@@ -0,0 +1,10 @@
+package net.mgsx.gltf.data.extensions;
+
+/**
+ * Allows integer vertex attributes (positions, normals, tangents, texture coordinates and morph targets),
+ * see {@link net.mgsx.gltf.loaders.shared.geometry.MeshLoader}.
+ * See https://github.com/KhronosGroup/glTF/tree/main/extensions/2.0/Khronos/KHR_mesh_quantization
+ */
+public class KHRMeshQuantization {
+	public static final String EXT = "KHR_mesh_quantization";
+}
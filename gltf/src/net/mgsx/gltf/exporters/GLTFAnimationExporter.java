@@ -18,6 +18,7 @@ import net.mgsx.gltf.loaders.exceptions.GLTFIllegalException;
 import net.mgsx.gltf.loaders.shared.GLTFTypes;
 import net.mgsx.gltf.loaders.shared.animation.Interpolation;
 import net.mgsx.gltf.scene3d.animation.NodeAnimationHack;
+import net.mgsx.gltf.scene3d.animation.PackedTrack;
 import net.mgsx.gltf.scene3d.model.CubicQuaternion;
 import net.mgsx.gltf.scene3d.model.CubicVector3;
 import net.mgsx.gltf.scene3d.model.CubicWeightVector;
@@ -41,18 +42,7 @@ class GLTFAnimationExporter {
 		}
 
 		private void export(GLTFExporter base, GLTFAnimation a, int nodeID, Array<NodeKeyframe<T>> keyFrames, String chanName, Interpolation interpolation){
-			if(a.channels == null) a.channels = new Array<GLTFAnimationChannel>();
-			GLTFAnimationChannel chan = new GLTFAnimationChannel();
-			a.channels.add(chan);
-			if(a.samplers == null) a.samplers = new Array<GLTFAnimationSampler>();
-			GLTFAnimationSampler sampler = new GLTFAnimationSampler();
-			a.samplers.add(sampler);
-			chan.sampler = a.samplers.size - 1;
-			sampler.interpolation = mapInterpolation(interpolation);
-			
-			chan.target = new GLTFAnimationTarget();
-			chan.target.node = nodeID;
-			chan.target.path = chanName;
+			GLTFAnimationSampler sampler = exportChannel(a, nodeID, chanName, interpolation);
 			int numKeyframes = keyFrames.size;
 			float[] inputs = new float[numKeyframes];
 			boolean cubic = interpolation == Interpolation.CUBICSPLINE;
@@ -65,19 +55,50 @@ class GLTFAnimationExporter {
 				inputs[i] = kf.keytime;
 				getOutput(outputs, kf.value);
 			}
+			exportOutputs(base, sampler, outputCount);
+			exportInputs(base, sampler, inputs);
+		}
+		
+		private void export(GLTFExporter base, GLTFAnimation a, int nodeID, PackedTrack track, String chanName){
+			GLTFAnimationSampler sampler = exportChannel(a, nodeID, chanName, track.interpolation);
+			// packed values are already in glTF layout
+			base.binManager.beginFloats(track.values.length).put(track.values);
+			exportOutputs(base, sampler, track.values.length / numComponents);
+			exportInputs(base, sampler, track.times);
+		}
+		
+		private GLTFAnimationSampler exportChannel(GLTFAnimation a, int nodeID, String chanName, Interpolation interpolation){
+			if(a.channels == null) a.channels = new Array<GLTFAnimationChannel>();
+			GLTFAnimationChannel chan = new GLTFAnimationChannel();
+			a.channels.add(chan);
+			if(a.samplers == null) a.samplers = new Array<GLTFAnimationSampler>();
+			GLTFAnimationSampler sampler = new GLTFAnimationSampler();
+			a.samplers.add(sampler);
+			chan.sampler = a.samplers.size - 1;
+			sampler.interpolation = mapInterpolation(interpolation);
+			
+			chan.target = new GLTFAnimationTarget();
+			chan.target.node = nodeID;
+			chan.target.path = chanName;
+			return sampler;
+		}
+		
+		private void exportOutputs(GLTFExporter base, GLTFAnimationSampler sampler, int outputCount){
 			GLTFAccessor outputAccessor = base.obtainAccessor();
 			outputAccessor.bufferView = base.binManager.end();
 			outputAccessor.componentType = GLTFTypes.C_FLOAT;
 			outputAccessor.count = outputCount;
 			outputAccessor.type = outputType;
 			sampler.output = base.root.accessors.size-1; 
-			
-			FloatBuffer inputBuffer = base.binManager.beginFloats(numKeyframes);
+		}
+		
+		private void exportInputs(GLTFExporter base, GLTFAnimationSampler sampler, float[] inputs){
+			FloatBuffer inputBuffer = base.binManager.beginFloats(inputs.length);
 			inputBuffer.put(inputs);
 			
 			GLTFAccessor inputAccessor = base.obtainAccessor();
 			inputAccessor.componentType = GLTFTypes.C_FLOAT;
-			inputAccessor.count = numKeyframes;
+			inputAccessor.count = inputs.length;
 			inputAccessor.type = GLTFTypes.TYPE_SCALAR;
 			inputAccessor.bufferView = base.binManager.end();
 			// min max are mandatory for sampler inputs
@@ -176,20 +197,29 @@ class GLTFAnimationExporter {
 		for(NodeAnimation nodeAnim : animation.nodeAnimations){
 			int nodeID = base.nodeMapping.indexOf(nodeAnim.node, true);
 			
-			if(nodeAnim.translation != null){
+			NodeAnimationHack nodeAnimHack = nodeAnim instanceof NodeAnimationHack ? (NodeAnimationHack) nodeAnim : null;
+			
+			if(nodeAnimHack != null && nodeAnimHack.translationTrack != null){
+				channelExporterVector3.export(base, a, nodeID, nodeAnimHack.translationTrack, "translation");
+			}else if(nodeAnim.translation != null){
 				channelExporterVector3.export(base, a, nodeID, nodeAnim.translation, "translation", translationInterpolation(nodeAnim));
 			}
-			if(nodeAnim.rotation != null){
+			if(nodeAnimHack != null && nodeAnimHack.rotationTrack != null){
+				channelExporterQuaternion.export(base, a, nodeID, nodeAnimHack.rotationTrack, "rotation");
+			}else if(nodeAnim.rotation != null){
 				channelExporterQuaternion.export(base, a, nodeID, nodeAnim.rotation, "rotation", rotationInterpolation(nodeAnim));
 			}
-			if(nodeAnim.scaling != null){
+			if(nodeAnimHack != null && nodeAnimHack.scalingTrack != null){
+				channelExporterVector3.export(base, a, nodeID, nodeAnimHack.scalingTrack, "scale");
+			}else if(nodeAnim.scaling != null){
 				channelExporterVector3.export(base, a, nodeID, nodeAnim.scaling, "scale", scaleInterpolation(nodeAnim));
 			}
-			if(nodeAnim instanceof NodeAnimationHack){
-				NodeAnimationHack nodeAnimMorph = (NodeAnimationHack) nodeAnim;
-				if(nodeAnimMorph.weights != null){
-					int count = nodeAnimMorph.weights.first().value.count;
-					channelExporterWeights(count).export(base, a, nodeID, nodeAnimMorph.weights, "weights", nodeAnimMorph.weightsMode);
+			if(nodeAnimHack != null){
+				if(nodeAnimHack.weightsTrack != null){
+					channelExporterWeights(nodeAnimHack.weightsTrack.components).export(base, a, nodeID, nodeAnimHack.weightsTrack, "weights");
+				}else if(nodeAnimHack.weights != null){
+					int count = nodeAnimHack.weights.first().value.count;
+					channelExporterWeights(count).export(base, a, nodeID, nodeAnimHack.weights, "weights", nodeAnimHack.weightsMode);
 				}
 			}
 		}
@@ -4,6 +4,7 @@ import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
 
 import com.badlogic.gdx.Application.ApplicationType;
@@ -76,6 +77,12 @@ class GLTFBinaryExporter {
 		return shortBuffer;
 	}
 	
+	public IntBuffer beginInts(int count) {
+		IntBuffer intBuffer = begin(count * 4).asIntBuffer();
+		currentBuffer = intBuffer;
+		return intBuffer;
+	}
+	
 	/**
 	 * end local buffering
 	 * @return GLTFBufferView id
@@ -90,6 +97,8 @@ class GLTFBinaryExporter {
 		int size;
 		if(currentBuffer instanceof FloatBuffer){
 			size = currentBuffer.position() * 4;
+		}else if(currentBuffer instanceof IntBuffer){
+			size = currentBuffer.position() * 4;
 		}else if(currentBuffer instanceof ShortBuffer){
 			size = currentBuffer.position() * 2;
 		}else{
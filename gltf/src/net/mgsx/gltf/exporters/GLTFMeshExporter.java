@@ -1,6 +1,7 @@
 package net.mgsx.gltf.exporters;
 
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
 
 import com.badlogic.gdx.graphics.GL20;
@@ -17,6 +18,7 @@ import net.mgsx.gltf.data.geometry.GLTFPrimitive;
 import net.mgsx.gltf.loaders.exceptions.GLTFUnsupportedException;
 import net.mgsx.gltf.loaders.shared.GLTFTypes;
 import net.mgsx.gltf.scene3d.attributes.PBRVertexAttributes;
+import net.mgsx.gltf.scene3d.model.IntIndexMesh;
 
 class GLTFMeshExporter {
 	
@@ -44,7 +46,25 @@ class GLTFMeshExporter {
 		}
 		
 		// mesh may not have indices
-		if(mesh.getNumIndices() > 0)
+		if(mesh instanceof IntIndexMesh && mesh.getNumIndices() > 0)
+		{
+			IntBuffer outBuffer = base.binManager.beginInts(meshPart.size);
+			IntBuffer inBuffer = ((IntIndexMesh)mesh).getIntIndicesBuffer();
+			int[] localIndices = new int[meshPart.size];
+			inBuffer.position(meshPart.offset);
+			inBuffer.get(localIndices);
+			inBuffer.rewind();
+			outBuffer.put(localIndices);
+			
+			GLTFAccessor accessor = base.obtainAccessor();
+			accessor.type = GLTFTypes.TYPE_SCALAR;
+			accessor.componentType = GLTFTypes.C_UINT;
+			accessor.count = meshPart.size;
+			accessor.bufferView = base.binManager.end();
+			
+			primitive.indices = base.root.accessors.size-1;
+		}
+		else if(mesh.getNumIndices() > 0)
 		{
 			ShortBuffer outBuffer = base.binManager.beginShorts(meshPart.size);
 			ShortBuffer inBuffer = mesh.getIndicesBuffer();
@@ -90,6 +110,9 @@ class GLTFMeshExporter {
 		int stride = mesh.getVertexAttributes().vertexSize / 4;
 		int numVertices = mesh.getNumVertices();
 		for(VertexAttribute a : mesh.getVertexAttributes()){
+			if(a.type != GL20.GL_FLOAT && a.usage != Usage.ColorUnpacked){
+				throw new GLTFUnsupportedException("quantized vertex attribute export not supported: " + a.alias);
+			}
 			String accessorType;
 			int accessorComponentType = GLTFTypes.C_FLOAT;
 			boolean useTargets = false;
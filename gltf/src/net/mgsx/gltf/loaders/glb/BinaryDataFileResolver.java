@@ -1,6 +1,5 @@
 package net.mgsx.gltf.loaders.glb;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
@@ -12,6 +11,7 @@ import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.LittleEndianInputStream;
 import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
 
 import net.mgsx.gltf.data.GLTF;
 import net.mgsx.gltf.data.data.GLTFBufferView;
@@ -29,60 +29,70 @@ public class BinaryDataFileResolver implements DataFileResolver
 	
 	@Override
 	public void load(FileHandle file) {
-		load(file.read());
+		load(file.readBytes());
 	}
 	
 	public void load(byte[] bytes){
-		load(new ByteArrayInputStream(bytes));
+		load(ByteBuffer.wrap(bytes));
 	}
 
 	public void load(InputStream stream) {
-		load(new LittleEndianInputStream(stream));
-	}
-	
-	public void load(LittleEndianInputStream stream) {
 		try {
-			loadInternal(stream);
-			
+			load(StreamUtils.copyStreamToByteArray(stream));
 		} catch (IOException e) {
 			throw new GLTFRuntimeException(e);
 		}
 	}
 	
-	private void loadInternal(LittleEndianInputStream stream) throws IOException {
-		long magic = stream.readInt(); // & 0xFFFFFFFFL;
+	public void load(LittleEndianInputStream stream) {
+		load((InputStream)stream);
+	}
+	
+	/**
+	 * Load GLB file using memory mapping : binary chunk is not copied into heap memory,
+	 * it is directly read from the mapped file.
+	 * Only works with files backed by the file system (not supported by GWT nor Android internal files).
+	 */
+	public void map(FileHandle file) {
+		load(file.map());
+	}
+	
+	/**
+	 * Load GLB data from a buffer without copying it : binary chunk is a read only view of the provided buffer
+	 * which must not be modified while loading. Other loading methods read the whole data and call this method.
+	 */
+	public void load(ByteBuffer data) {
+		ByteBuffer bytes = data.duplicate();
+		bytes.order(ByteOrder.LITTLE_ENDIAN);
+		
+		long magic = bytes.getInt();
 		if(magic != 0x46546C67) throw new GLTFIllegalException("bad magic");
-		int version = stream.readInt();
+		int version = bytes.getInt();
 		if(version != 2) throw new GLTFIllegalException("bad version");
-		long length = stream.readInt();// & 0xFFFFFFFFL;
+		long length = bytes.getInt();
+		if(length > bytes.remaining() + 12) throw new GLTFIllegalException("premature end of file");
 		
-		byte[] buffer = new byte[1024 * 1024]; // 1MB buffer
 		String jsonData = null;
 		for(int i=12 ; i<length ; ){
-			int chunkLen = stream.readInt();
-			int chunkType = stream.readInt();
-			i += 8;			// chunkLen % 4;
+			int chunkLen = bytes.getInt();
+			int chunkType = bytes.getInt();
+			i += 8;
+			if(chunkLen > bytes.remaining()) throw new GLTFIllegalException("premature end of file");
 			if(chunkType == 0x4E4F534A){
-				byte[] data = new byte[(int)chunkLen];
-				stream.readFully(data, 0, chunkLen);
-				jsonData = new String(data);
+				byte[] jsonBytes = new byte[chunkLen];
+				bytes.get(jsonBytes);
+				jsonData = new String(jsonBytes);
 			}else if(chunkType == 0x004E4942){
-				ByteBuffer bufferData = ByteBuffer.allocate(chunkLen);
+				int limit = bytes.limit();
+				bytes.limit(bytes.position() + chunkLen);
+				ByteBuffer bufferData = bytes.slice().asReadOnlyBuffer();
 				bufferData.order(ByteOrder.LITTLE_ENDIAN);
-				int bytesToRead = chunkLen;
-				int bytesRead;
-				while (bytesToRead > 0 && (bytesRead = stream.read(buffer, 0, Math.min(buffer.length, bytesToRead))) != -1) {
-					bufferData.put(buffer, 0, bytesRead);
-					bytesToRead -= bytesRead;
-				}
-				if(bytesToRead > 0) throw new GLTFIllegalException("premature end of file");
-				bufferData.flip();
+				bytes.position(bytes.limit());
+				bytes.limit(limit);
 				bufferMap.put(bufferMap.size, bufferData);
 			}else{
 				Gdx.app.log(GLTFLoaderBase.TAG, "skip buffer type " + chunkType);
-				if(chunkLen > 0){
-					stream.skip(chunkLen);
-				}
+				bytes.position(bytes.position() + chunkLen);
 			}
 			i += chunkLen;
 		}
@@ -104,7 +114,8 @@ public class BinaryDataFileResolver implements DataFileResolver
 	public Pixmap load(GLTFImage glImage) {
 		if(glImage.bufferView != null){
 			GLTFBufferView bufferView = glModel.bufferViews.get(glImage.bufferView);
-			ByteBuffer buffer = bufferMap.get(bufferView.buffer);
+			// duplicate buffer to not alter shared buffer position (images may be decoded concurrently)
+			ByteBuffer buffer = bufferMap.get(bufferView.buffer).duplicate();
 			buffer.position(bufferView.byteOffset);
 			byte [] data = new byte[bufferView.byteLength];
 			buffer.get(data);
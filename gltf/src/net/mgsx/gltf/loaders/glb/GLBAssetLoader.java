@@ -13,6 +13,8 @@ import net.mgsx.gltf.scene3d.scene.SceneAsset;
 
 public class GLBAssetLoader  extends AsynchronousAssetLoader<SceneAsset, SceneAssetLoaderParameters>{
 
+	private GLBLoader loader;
+
 	public GLBAssetLoader() {
 		this(new InternalFileHandleResolver());
 	}
@@ -23,13 +25,33 @@ public class GLBAssetLoader  extends AsynchronousAssetLoader<SceneAsset, SceneAs
 	@Override
 	public void loadAsync(AssetManager manager, String fileName, FileHandle file,
 			SceneAssetLoaderParameters parameter) {
+		final boolean withData = parameter != null && parameter.withData;
+		final boolean memoryMapped = parameter != null && parameter.memoryMapped;
+		
+		BinaryDataFileResolver dataFileResolver = new BinaryDataFileResolver();
+		if(memoryMapped){
+			dataFileResolver.map(file);
+		}else{
+			dataFileResolver.load(file);
+		}
+		
+		// CPU work is done here, GL resources are created in loadSync.
+		loader = new GLBLoader();
+		if(parameter != null){
+			loader.setExecutor(parameter.executor);
+			loader.setPackedAnimations(parameter.packedAnimations);
+			loader.setMorphTargetsTexture(parameter.morphTargetsTexture);
+			loader.setCompressNormals(parameter.compressNormals);
+			loader.setCompressTexCoords(parameter.compressTexCoords);
+		}
+		loader.prepare(dataFileResolver, withData);
 	}
 
 	@Override
 	public SceneAsset loadSync(AssetManager manager, String fileName, FileHandle file,
 			SceneAssetLoaderParameters parameter) {
-		final boolean withData = parameter != null && parameter.withData;
-		SceneAsset sceneAsset = new GLBLoader().load(file, withData);
+		SceneAsset sceneAsset = loader.upload();
+		loader = null;
 		return sceneAsset;
 	}
 
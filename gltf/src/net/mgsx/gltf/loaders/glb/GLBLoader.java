@@ -16,6 +16,16 @@ public class GLBLoader extends GLTFLoaderBase {
 		return load(dataFileResolver, withData);
 	}
 	
+	/**
+	 * Load a GLB file using memory mapping, see {@link BinaryDataFileResolver#map(FileHandle)}.
+	 * Binary data are directly read from the mapped file which reduces heap usage when loading large files.
+	 */
+	public SceneAsset loadMapped(FileHandle file, boolean withData){
+		BinaryDataFileResolver dataFileResolver = new BinaryDataFileResolver();
+		dataFileResolver.map(file);
+		return load(dataFileResolver, withData);
+	}
+	
 	public SceneAsset load(byte[] bytes) {
 		return load(bytes, false);
 	}
@@ -114,6 +114,7 @@ public class GLTFAssetLoader  extends AsynchronousAssetLoader<SceneAsset, SceneA
 	
 	private SeparatedDataFileResolver dataFileResolver;
 	private ManagedTextureResolver textureResolver;
+	private GLTFLoaderBase loader;
 
 	public GLTFAssetLoader() {
 		this(new InternalFileHandleResolver());
@@ -127,19 +128,29 @@ public class GLTFAssetLoader  extends AsynchronousAssetLoader<SceneAsset, SceneA
 	public void loadAsync(AssetManager manager, String fileName, FileHandle file,
 			SceneAssetLoaderParameters parameter) {
 		
+		final boolean withData = parameter != null && parameter.withData;
+		
 		textureResolver.fetch(manager);
+		
+		// CPU work is done here, GL resources are created in loadSync.
+		loader = new GLTFLoaderBase(textureResolver);
+		if(parameter != null){
+			loader.setExecutor(parameter.executor);
+			loader.setPackedAnimations(parameter.packedAnimations);
+			loader.setMorphTargetsTexture(parameter.morphTargetsTexture);
+			loader.setCompressNormals(parameter.compressNormals);
+			loader.setCompressTexCoords(parameter.compressTexCoords);
+		}
+		loader.prepare(dataFileResolver, withData);
 	}
 
 	@Override
 	public SceneAsset loadSync(AssetManager manager, String fileName, FileHandle file,
 			SceneAssetLoaderParameters parameter) {
 		
-		final boolean withData = parameter != null && parameter.withData;
-		
 		textureResolver.loadTextures();
 		
-		GLTFLoaderBase loader = new GLTFLoaderBase(textureResolver);
-		SceneAsset sceneAsset = loader.load(dataFileResolver, withData);
+		SceneAsset sceneAsset = loader.upload();
 		
 		// Delegates texture disposal to AssetManager.
 		Array<String> deps = manager.getDependencies(fileName);
@@ -154,6 +165,7 @@ public class GLTFAssetLoader  extends AsynchronousAssetLoader<SceneAsset, SceneA
 		
 		this.textureResolver = null;
 		this.dataFileResolver = null;
+		this.loader = null;
 		return sceneAsset;
 	}
 
@@ -42,6 +42,8 @@ public class SeparatedDataFileResolver implements DataFileResolver
 		if(glModel.buffers != null){
 			for(int i=0 ; i<glModel.buffers.size ; i++){
 				GLTFBuffer glBuffer = glModel.buffers.get(i);
+				// buffers without data (EXT_meshopt_compression fallback buffers) are never read.
+				if(glBuffer.uri == null) continue;
 				ByteBuffer buffer = ByteBuffer.allocate(glBuffer.byteLength);
 				buffer.order(ByteOrder.LITTLE_ENDIAN);
 				if(glBuffer.uri.startsWith("data:")){
@@ -101,11 +103,11 @@ public class SeparatedDataFileResolver implements DataFileResolver
 			}
 			if(glImage.mimeType.equals("image/png") || glImage.mimeType.equals("image/jpeg")){
 				GLTFBufferView bufferView = glModel.bufferViews.get(glImage.bufferView);
-				ByteBuffer data = bufferMap.get(bufferView.buffer, null);
+				// duplicate buffer to not alter shared buffer position (images may be decoded concurrently)
+				ByteBuffer data = bufferMap.get(bufferView.buffer, null).duplicate();
 				byte [] bytes = new byte[bufferView.byteLength];
 				data.position(bufferView.byteOffset);
 				data.get(bytes, 0, bufferView.byteLength);
-				data.rewind();
 				return PixmapBinaryLoaderHack.load(bytes, 0, bytes.length);
 			}else{
 				throw new GLTFIllegalException("GLTF image: unexpected mimeType: " + glImage.mimeType);
@@ -14,12 +14,17 @@ import com.badlogic.gdx.graphics.g3d.model.NodePart;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntSet;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.ObjectMap.Entry;
 import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
 
 import net.mgsx.gltf.data.GLTF;
 import net.mgsx.gltf.data.camera.GLTFCamera;
+import net.mgsx.gltf.data.extensions.EXTMeshGpuInstancing;
+import net.mgsx.gltf.data.extensions.EXTMeshoptCompression;
 import net.mgsx.gltf.data.extensions.KHRLightsPunctual;
 import net.mgsx.gltf.data.extensions.KHRLightsPunctual.GLTFLight;
 import net.mgsx.gltf.data.extensions.KHRMaterialsEmissiveStrength;
@@ -30,7 +35,10 @@ import net.mgsx.gltf.data.extensions.KHRMaterialsSpecular;
 import net.mgsx.gltf.data.extensions.KHRMaterialsTransmission;
 import net.mgsx.gltf.data.extensions.KHRMaterialsUnlit;
 import net.mgsx.gltf.data.extensions.KHRMaterialsVolume;
+import net.mgsx.gltf.data.extensions.KHRMeshQuantization;
 import net.mgsx.gltf.data.extensions.KHRTextureTransform;
+import net.mgsx.gltf.data.geometry.GLTFMesh;
+import net.mgsx.gltf.data.geometry.GLTFPrimitive;
 import net.mgsx.gltf.data.scene.GLTFNode;
 import net.mgsx.gltf.data.scene.GLTFScene;
 import net.mgsx.gltf.loaders.exceptions.GLTFUnsupportedException;
@@ -40,14 +48,25 @@ import net.mgsx.gltf.loaders.shared.data.DataResolver;
 import net.mgsx.gltf.loaders.shared.geometry.MeshLoader;
 import net.mgsx.gltf.loaders.shared.material.MaterialLoader;
 import net.mgsx.gltf.loaders.shared.material.PBRMaterialLoader;
+import net.mgsx.gltf.loaders.shared.scene.MeshInstancingLoader;
 import net.mgsx.gltf.loaders.shared.scene.NodeResolver;
 import net.mgsx.gltf.loaders.shared.scene.SkinLoader;
 import net.mgsx.gltf.loaders.shared.texture.ImageResolver;
 import net.mgsx.gltf.loaders.shared.texture.TextureResolver;
+import net.mgsx.gltf.scene3d.model.InstancedMesh;
 import net.mgsx.gltf.scene3d.model.NodePlus;
+import net.mgsx.gltf.scene3d.model.WeightVector;
 import net.mgsx.gltf.scene3d.scene.SceneAsset;
 import net.mgsx.gltf.scene3d.scene.SceneModel;
 
+/**
+ * Base class for glTF loaders.
+ * <p>
+ * Thread safety: loaders don't share any mutable state, distinct loader instances can be used concurrently
+ * (a single instance can't). Note that loading creates GPU resources (meshes and textures), so {@link #load(DataFileResolver, boolean)}
+ * has to be called from the GL thread. Alternatively, CPU work can be done from any thread with {@link #prepare(DataFileResolver, boolean)}
+ * followed by {@link #upload()} on the GL thread.
+ */
 public class GLTFLoaderBase implements Disposable {
 
 	public static final String TAG = "GLTF";
@@ -64,13 +83,16 @@ public class GLTFLoaderBase implements Disposable {
 			KHRMaterialsIOR.EXT,
 			KHRMaterialsSpecular.EXT,
 			KHRMaterialsIridescence.EXT,
-			KHRMaterialsEmissiveStrength.EXT
+			KHRMaterialsEmissiveStrength.EXT,
+			EXTMeshGpuInstancing.EXT,
+			KHRMeshQuantization.EXT,
+			EXTMeshoptCompression.EXT
 		);
 	}
 	
-	private static final ObjectSet<Material> materialSet = new ObjectSet<Material>();
-	private static final ObjectSet<MeshPart> meshPartSet = new ObjectSet<MeshPart>();
-	private static final ObjectSet<Mesh> meshSet = new ObjectSet<Mesh>();
+	private final ObjectSet<Material> materialSet = new ObjectSet<Material>();
+	private final ObjectSet<MeshPart> meshPartSet = new ObjectSet<MeshPart>();
+	private final ObjectSet<Mesh> meshSet = new ObjectSet<Mesh>();
 	private final ObjectSet<Mesh> loadedMeshes = new ObjectSet<Mesh>();
 	
 	private final Array<Camera> cameras = new Array<Camera>();
@@ -85,6 +107,13 @@ public class GLTFLoaderBase implements Disposable {
 
 	private Array<SceneModel> scenes = new Array<SceneModel>();
 	
+	/** nodes (ids) having a mesh, in loading order */
+	private final IntArray meshNodes = new IntArray();
+	
+	private boolean withData;
+	private int uploadedSteps;
+	private SceneAsset asset;
+	
 	protected GLTF glModel;
 	
 	protected DataFileResolver dataFileResolver;
@@ -95,8 +124,11 @@ public class GLTFLoaderBase implements Disposable {
 	protected SkinLoader skinLoader;
 	protected NodeResolver nodeResolver;
 	protected MeshLoader meshLoader;
+	protected MeshInstancingLoader meshInstancingLoader;
 	protected ImageResolver imageResolver;
 	
+	protected AsyncExecutor executor;
+	
 	public GLTFLoaderBase() 
 	{
 		this(null);
@@ -107,12 +139,89 @@ public class GLTFLoaderBase implements Disposable {
 		animationLoader = new AnimationLoader();
 		nodeResolver = new NodeResolver();
 		meshLoader = new MeshLoader();
+		meshInstancingLoader = new MeshInstancingLoader();
 		skinLoader = new SkinLoader();
 	}
 	
+	/**
+	 * Set executor used to run CPU intensive loading tasks in parallel (eg. image decoding, mesh decoding).
+	 * Executor is not owned by this loader and won't be disposed by it.
+	 * The calling thread waits for tasks results: executor must not be the one running the loading itself
+	 * (eg. AssetManager executor) otherwise loading never ends.
+	 * @param executor null (default) to run all tasks on the calling thread.
+	 */
+	public void setExecutor(AsyncExecutor executor) {
+		this.executor = executor;
+	}
+	
+	/**
+	 * Load animations keyframes as {@link net.mgsx.gltf.scene3d.animation.PackedTrack} (float arrays shared by all instances)
+	 * instead of keyframes objects. Reduces memory usage for models with lot of animations.
+	 * Packed animations are only supported by {@link net.mgsx.gltf.scene3d.animation.AnimationControllerHack}.
+	 * @param packed false by default.
+	 */
+	public void setPackedAnimations(boolean packed) {
+		animationLoader.packed = packed;
+	}
+	
+	/**
+	 * Store morph targets in a float texture (see {@link net.mgsx.gltf.scene3d.model.MorphTargetsTexture}) instead of 
+	 * vertex attributes: vertex size no longer depends on morph targets count and there is no limit on morph targets count.
+	 * Requires GL30, ignored otherwise. Primitives with more than 8 morph targets always use a texture when GL30 is available.
+	 * @param enabled false by default.
+	 */
+	public void setMorphTargetsTexture(boolean enabled) {
+		meshLoader.morphTargetsTexture = enabled;
+	}
+	
+	/**
+	 * Store float normals and tangents as normalized bytes (4 bytes instead of 12 and 16 bytes per vertex).
+	 * Shaders are unchanged since attributes are converted back to floats when fetched by the GPU. 
+	 * Normals used to generate missing tangents are kept as floats.
+	 * Not supported on GWT (option is ignored): vertices are float arrays and WebGL doesn't preserve
+	 * packed bytes forming NaN floats.
+	 * @param enabled false by default.
+	 */
+	public void setCompressNormals(boolean enabled) {
+		meshLoader.compressNormals = enabled;
+	}
+	
+	/**
+	 * Store float texture coordinates as normalized shorts (4 bytes instead of 8 bytes per vertex), 
+	 * only for primitives which texture coordinates are in [0, 1] or [-1, 1] range (other are kept as floats). 
+	 * Texture coordinates used to generate missing tangents are kept as floats.
+	 * Not supported on GWT (option is ignored), see {@link #setCompressNormals(boolean)}.
+	 * @param enabled false by default.
+	 */
+	public void setCompressTexCoords(boolean enabled) {
+		meshLoader.compressTexCoords = enabled;
+	}
+	
+	/**
+	 * Load a model from the GL thread. Without executor, meshes are decoded one by one while uploading them, 
+	 * so that only one mesh vertices and indices are kept in memory at a time.
+	 */
 	public SceneAsset load(DataFileResolver dataFileResolver, boolean withData){
+		prepare(dataFileResolver, withData, executor != null);
+		return upload();
+	}
+	
+	/**
+	 * First loading step: parse the model and decode all data that don't require a GL context 
+	 * (images, vertices and indices, nodes hierarchy, animations).
+	 * This method can be called from any thread, {@link #upload()} then has to be called from the GL thread.
+	 * <p>
+	 * Note that vertices and indices of all meshes are kept in memory until their GPU meshes are created, 
+	 * peak memory usage is then higher than {@link #load(DataFileResolver, boolean)} without executor.
+	 */
+	public void prepare(DataFileResolver dataFileResolver, boolean withData){
+		prepare(dataFileResolver, withData, true);
+	}
+	
+	private void prepare(DataFileResolver dataFileResolver, boolean withData, boolean prepareMeshes){
 		try{
 			this.dataFileResolver = dataFileResolver;
+			this.withData = withData;
 			
 			glModel = dataFileResolver.getRoot();
 			
@@ -139,49 +248,126 @@ public class GLTFLoaderBase implements Disposable {
 			dataResolver = new DataResolver(glModel, dataFileResolver);
 			
 			if(textureResolver == null){
-				imageResolver = new ImageResolver(dataFileResolver); // TODO no longer necessary
+				imageResolver = new ImageResolver(dataFileResolver, executor); // TODO no longer necessary
 				imageResolver.load(glModel.images);
+				// textures are created when uploading
 				textureResolver = new TextureResolver();
-				textureResolver.loadTextures(glModel.textures, glModel.samplers, imageResolver);
+				textureResolver.setTextures(glModel.textures, glModel.samplers);
 			}
 			
-			materialLoader = createMaterialLoader(textureResolver);
-			materialLoader.loadMaterials(glModel.materials);
+			// vertices and indices, GPU meshes are created when uploading (meshes not prepared here are decoded at that time).
+			if(prepareMeshes){
+				meshLoader.prepare(collectMeshes(), dataResolver, glModel.materials, executor);
+			}
 			
 			loadCameras();
 			loadLights();
 			loadScenes();
 			
 			animationLoader.load(glModel.animations, nodeResolver, dataResolver);
-			skinLoader.load(glModel.skins, glModel.nodes, nodeResolver, dataResolver);
-			
-			// create scene asset
-			SceneAsset model = new SceneAsset();
-			if(withData) model.data = glModel;
-			model.scenes = scenes;
-			model.scene = scenes.get(glModel.scene);
-			model.maxBones = skinLoader.getMaxBones();
-			model.textures = textureResolver.getTextures(new Array<Texture>());
-			if(imageResolver != null){
-				model.pixmaps = imageResolver.getPixmaps(new Array<Pixmap>());
-				imageResolver.clear();
-			}
-			model.animations = animationLoader.animations;
-			// XXX don't know where the animation are ...
-			for(SceneModel scene : model.scenes){
-				scene.model.animations.addAll(animationLoader.animations);
+		}catch(RuntimeException e){
+			dispose();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Second loading step, has to be called from the GL thread after {@link #prepare(DataFileResolver, boolean)}:
+	 * create textures, materials and meshes.
+	 */
+	public SceneAsset upload(){
+		while(!uploadStep());
+		return asset;
+	}
+	
+	/**
+	 * Perform a single upload step: create one texture, all materials, one node meshes or the final asset.
+	 * Has to be called from the GL thread after {@link #prepare(DataFileResolver, boolean)}, 
+	 * see {@link SceneAssetUploader} to spread upload over several frames.
+	 * @return true when upload is complete, asset is then available with {@link #getAsset()}.
+	 */
+	public boolean uploadStep(){
+		if(asset != null) return true;
+		try{
+			int step = uploadedSteps;
+			int textureSteps = getTextureSteps();
+			if(step < textureSteps){
+				textureResolver.loadTexture(step, imageResolver);
+			}else if(step == textureSteps){
+				materialLoader = createMaterialLoader(textureResolver);
+				materialLoader.loadMaterials(glModel.materials);
+			}else if(step - textureSteps - 1 < meshNodes.size){
+				int id = meshNodes.get(step - textureSteps - 1);
+				meshLoader.load(nodeResolver.get(id), glModel.meshes.get(glModel.nodes.get(id).mesh), dataResolver, materialLoader);
+				meshInstancingLoader.load(id, nodeResolver.get(id));
+			}else{
+				asset = createAsset();
 			}
-			
-			copy(loadedMeshes, model.meshes = new Array<Mesh>());
-			loadedMeshes.clear();
-			
-			return model;
+			uploadedSteps++;
+			return asset != null;
 		}catch(RuntimeException e){
 			dispose();
 			throw e;
 		}
 	}
 	
+	/**
+	 * @return total number of upload steps, available after {@link #prepare(DataFileResolver, boolean)}
+	 */
+	public int getUploadSteps(){
+		return getTextureSteps() + 1 + meshNodes.size + 1;
+	}
+	
+	/**
+	 * @return number of upload steps already performed
+	 */
+	public int getUploadedSteps(){
+		return uploadedSteps;
+	}
+	
+	/**
+	 * @return loaded asset, null until upload is complete
+	 */
+	public SceneAsset getAsset(){
+		return asset;
+	}
+	
+	private int getTextureSteps(){
+		return imageResolver != null && glModel.textures != null ? glModel.textures.size : 0;
+	}
+	
+	private SceneAsset createAsset(){
+		skinLoader.load(glModel.skins, glModel.nodes, nodeResolver, dataResolver);
+		
+		for(SceneModel sceneModel : scenes){
+			collectSceneData(sceneModel);
+		}
+		
+		// create scene asset
+		SceneAsset model = new SceneAsset();
+		if(withData) model.data = glModel;
+		model.scenes = scenes;
+		model.scene = scenes.get(glModel.scene);
+		model.maxBones = skinLoader.getMaxBones();
+		model.textures = textureResolver.getTextures(new Array<Texture>());
+		if(imageResolver != null){
+			model.pixmaps = imageResolver.getPixmaps(new Array<Pixmap>());
+			imageResolver.clear();
+		}
+		model.animations = animationLoader.animations;
+		// XXX don't know where the animation are ...
+		for(SceneModel scene : model.scenes){
+			scene.model.animations.addAll(animationLoader.animations);
+		}
+		
+		copy(loadedMeshes, model.meshes = new Array<Mesh>());
+		loadedMeshes.clear();
+		
+		dataResolver.clearCache();
+		
+		return model;
+	}
+	
 	protected MaterialLoader createMaterialLoader(TextureResolver textureResolver) {
 		return new PBRMaterialLoader(textureResolver);
 	}
@@ -208,10 +394,19 @@ public class GLTFLoaderBase implements Disposable {
 		for(SceneModel scene : scenes){
 			scene.dispose();
 		}
+		if(asset == null){
+			// meshes uploaded before a failure are not owned by any asset yet.
+			for(Mesh mesh : meshLoader.getMeshes()){
+				loadedMeshes.add(mesh);
+			}
+		}
 		for(Mesh mesh : loadedMeshes){
 			mesh.dispose();
 		}
 		loadedMeshes.clear();
+		if(dataResolver != null){
+			dataResolver.clearCache();
+		}
 	}
 
 	private void loadScenes() {
@@ -252,6 +447,11 @@ public class GLTFLoaderBase implements Disposable {
 			if(node != null) sceneModel.lights.put(node, lights.get(entry.value));
 		}
 
+		return sceneModel;
+	}
+	
+	private void collectSceneData(SceneModel sceneModel)
+	{
 		// collect data references to store in model
 		collectData(sceneModel.model, sceneModel.model.nodes);
 		
@@ -264,14 +464,17 @@ public class GLTFLoaderBase implements Disposable {
 		meshSet.clear();
 		meshPartSet.clear();
 		materialSet.clear();
-		
-		return sceneModel;
 	}
 	
 	private void collectData(Model model, Iterable<Node> nodes){
 		for(Node node : nodes){
 			for(NodePart part : node.parts){
 				meshSet.add(part.meshPart.mesh);
+				if(part.meshPart.mesh instanceof InstancedMesh){
+					InstancedMesh instancedMesh = (InstancedMesh)part.meshPart.mesh;
+					meshSet.add(instancedMesh.mesh);
+					model.manageDisposable(instancedMesh.instances);
+				}
 				meshPartSet.add(part.meshPart);
 				materialSet.add(part.material);
 			}
@@ -279,10 +482,48 @@ public class GLTFLoaderBase implements Disposable {
 		}
 	}
 	
+	private static WeightVector createWeights(GLTFMesh glMesh){
+		for(GLTFPrimitive primitive : glMesh.primitives){
+			if(primitive.targets != null){
+				return new WeightVector(primitive.targets.size);
+			}
+		}
+		return null;
+	}
+	
 	private static <T> void copy(ObjectSet<T> src, Array<T> dst){
 		for(T e : src) dst.add(e);
 	}
 
+	/** collect meshes used by scenes nodes */
+	private Array<GLTFMesh> collectMeshes() {
+		ObjectSet<GLTFMesh> glMeshes = new ObjectSet<GLTFMesh>();
+		IntSet visitedNodes = new IntSet();
+		for(GLTFScene gltfScene : glModel.scenes){
+			if(gltfScene.nodes != null){
+				for(int id : gltfScene.nodes){
+					collectMeshes(glMeshes, visitedNodes, id);
+				}
+			}
+		}
+		Array<GLTFMesh> result = new Array<GLTFMesh>();
+		copy(glMeshes, result);
+		return result;
+	}
+	
+	private void collectMeshes(ObjectSet<GLTFMesh> glMeshes, IntSet visitedNodes, int id) {
+		if(!visitedNodes.add(id)) return;
+		GLTFNode glNode = glModel.nodes.get(id);
+		if(glNode.mesh != null){
+			glMeshes.add(glModel.meshes.get(glNode.mesh));
+		}
+		if(glNode.children != null){
+			for(int childId : glNode.children){
+				collectMeshes(glMeshes, visitedNodes, childId);
+			}
+		}
+	}
+	
 	private Node getNode(int id) 
 	{
 		Node node = nodeResolver.get(id);
@@ -318,7 +559,9 @@ public class GLTFLoaderBase implements Disposable {
 			}
 			
 			if(glNode.mesh != null){
-				meshLoader.load(node, glModel.meshes.get(glNode.mesh), dataResolver, materialLoader);
+				// node parts are created when uploading but morph weights are required by animations
+				meshNodes.add(id);
+				((NodePlus)node).weights = createWeights(glModel.meshes.get(glNode.mesh));
 			}
 			
 			if(glNode.camera != null){
@@ -331,6 +574,9 @@ public class GLTFLoaderBase implements Disposable {
 				if(nodeLight != null){
 					lightMap.put(node.id, nodeLight.light);
 				}
+				if(glNode.mesh != null){
+					meshInstancingLoader.prepare(id, glNode, dataResolver);
+				}
 			}
 			
 		}
@@ -163,6 +163,26 @@ public class GLTFTypes {
 			throw new GLTFIllegalException("illegal accessor component type: " + accessor.componentType);
 		}
 	}
+	/**
+	 * Convert an accessor component value (eg. min/max) to float: normalized integers are mapped
+	 * to [0, 1] or [-1, 1] range, other values are left as is.
+	 * See https://github.com/KhronosGroup/glTF/tree/master/specification/2.0#animations (normalized integers)
+	 */
+	public static float dequantize(GLTFAccessor accessor, float value){
+		if(!accessor.normalized) return value;
+		switch(accessor.componentType){
+		case C_BYTE:
+			return Math.max(value / 127f, -1f);
+		case C_UBYTE:
+			return value / 255f;
+		case C_SHORT:
+			return Math.max(value / 32767f, -1f);
+		case C_USHORT:
+			return value / 65535f;
+		default:
+			return value;
+		}
+	}
 	public static int accessorStrideSize(GLTFAccessor accessor){
 		return accessorTypeSize(accessor) * accessorComponentTypeSize(accessor);
 	}
@@ -1,6 +1,7 @@
 package net.mgsx.gltf.loaders.shared;
 
 import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
 
 import net.mgsx.gltf.scene3d.scene.SceneAsset;
 
@@ -8,4 +9,29 @@ public class SceneAssetLoaderParameters extends AssetLoaderParameters<SceneAsset
 
 	/** load scene asset with underlying GLTF {@link SceneAsset#data} structure */
 	public boolean withData = false;
+	
+	/** load GLB binary chunk from a memory mapped file instead of copying it into heap memory.
+	 * Only supported for files backed by the file system (not GWT nor Android internal files). */
+	public boolean memoryMapped = false;
+	
+	/** optional executor used to run CPU intensive loading tasks in parallel (eg. image decoding), 
+	 * it must be a dedicated executor: AssetManager one runs the asynchronous loading which waits for these tasks (deadlock),
+	 * see {@link net.mgsx.gltf.loaders.shared.GLTFLoaderBase#setExecutor(AsyncExecutor)} */
+	public AsyncExecutor executor = null;
+	
+	/** load animations keyframes packed into float arrays, 
+	 * see {@link net.mgsx.gltf.loaders.shared.GLTFLoaderBase#setPackedAnimations(boolean)} */
+	public boolean packedAnimations = false;
+	
+	/** store morph targets in a float texture instead of vertex attributes, 
+	 * see {@link net.mgsx.gltf.loaders.shared.GLTFLoaderBase#setMorphTargetsTexture(boolean)} */
+	public boolean morphTargetsTexture = false;
+	
+	/** store float normals and tangents as normalized bytes in vertex buffers, 
+	 * see {@link net.mgsx.gltf.loaders.shared.GLTFLoaderBase#setCompressNormals(boolean)} */
+	public boolean compressNormals = false;
+	
+	/** store float texture coordinates as normalized shorts in vertex buffers when in range, 
+	 * see {@link net.mgsx.gltf.loaders.shared.GLTFLoaderBase#setCompressTexCoords(boolean)} */
+	public boolean compressTexCoords = false;
 }
@@ -0,0 +1,79 @@
+package net.mgsx.gltf.loaders.shared;
+
+import com.badlogic.gdx.utils.TimeUtils;
+
+import net.mgsx.gltf.loaders.shared.data.DataFileResolver;
+import net.mgsx.gltf.scene3d.scene.SceneAsset;
+
+/**
+ * Create GPU resources of a prepared loader (see {@link GLTFLoaderBase#prepare(DataFileResolver, boolean)}) over several frames.
+ * <p>
+ * Each call to {@link #step(int)} creates textures and meshes one by one until the time budget is consumed,
+ * it has to be called from the GL thread, typically once per frame, until it returns true.
+ * <p>
+ * At least one upload step is performed per call and a single step can't be split,
+ * so a very large texture or mesh can exceed the budget.
+ */
+public class SceneAssetUploader {
+
+	private final GLTFLoaderBase loader;
+	private SceneAsset asset;
+	private long maxStepTime;
+
+	/**
+	 * @param loader a loader which {@link GLTFLoaderBase#prepare(DataFileResolver, boolean)} step is complete.
+	 */
+	public SceneAssetUploader(GLTFLoaderBase loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * Perform upload steps until the time budget is consumed (same semantic as AssetManager#update(int)).
+	 * @param budgetMillis time budget in milliseconds.
+	 * @return true when upload is complete, asset is then available with {@link #getAsset()}.
+	 */
+	public boolean step(int budgetMillis) {
+		if(asset != null) return true;
+		long endTime = TimeUtils.nanoTime() + TimeUtils.millisToNanos(budgetMillis);
+		while(true){
+			long stepStart = TimeUtils.nanoTime();
+			boolean done = loader.uploadStep();
+			long stepEnd = TimeUtils.nanoTime();
+			maxStepTime = Math.max(maxStepTime, stepEnd - stepStart);
+			if(done){
+				asset = loader.getAsset();
+				return true;
+			}
+			if(stepEnd >= endTime) return false;
+		}
+	}
+
+	/**
+	 * @return upload progress from 0 to 1.
+	 */
+	public float getProgress() {
+		return (float)loader.getUploadedSteps() / (float)loader.getUploadSteps();
+	}
+
+	/**
+	 * @return true when upload is complete.
+	 */
+	public boolean isDone() {
+		return asset != null;
+	}
+
+	/**
+	 * @return loaded asset, null until upload is complete.
+	 */
+	public SceneAsset getAsset() {
+		return asset;
+	}
+
+	/**
+	 * @return longest single upload step duration in milliseconds,
+	 * it gives the minimum frame time budget to use for this asset.
+	 */
+	public float getMaxStepTime() {
+		return maxStepTime / 1e6f;
+	}
+}
@@ -7,6 +7,7 @@ import com.badlogic.gdx.graphics.g3d.model.NodeKeyframe;
 import com.badlogic.gdx.math.Quaternion;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
 import com.badlogic.gdx.utils.ObjectMap;
 
 import net.mgsx.gltf.data.animation.GLTFAnimation;
@@ -18,6 +19,7 @@ import net.mgsx.gltf.loaders.shared.GLTFTypes;
 import net.mgsx.gltf.loaders.shared.data.DataResolver;
 import net.mgsx.gltf.loaders.shared.scene.NodeResolver;
 import net.mgsx.gltf.scene3d.animation.NodeAnimationHack;
+import net.mgsx.gltf.scene3d.animation.PackedTrack;
 import net.mgsx.gltf.scene3d.model.CubicQuaternion;
 import net.mgsx.gltf.scene3d.model.CubicVector3;
 import net.mgsx.gltf.scene3d.model.CubicWeightVector;
@@ -28,6 +30,12 @@ public class AnimationLoader {
 	
 	public final Array<Animation> animations = new Array<Animation>();
 	
+	/** when true, keyframes are loaded as {@link PackedTrack} instead of keyframes arrays. */
+	public boolean packed = false;
+	
+	/** packed keyframes times by accessor, shared by channels using the same sampler input */
+	private final IntMap<float[]> packedTimes = new IntMap<float[]>();
+	
 	public void load(Array<GLTFAnimation> glAnimations, NodeResolver nodeResolver, DataResolver dataResolver) {
 		
 		if(glAnimations != null){
@@ -39,6 +47,7 @@ public class AnimationLoader {
 				
 				animations.add(animation);
 			}
+			packedTimes.clear();
 		}
 	}
 	
@@ -60,11 +69,21 @@ public class AnimationLoader {
 				animation.nodeAnimations.add(nodeAnimation);
 			}
 			
+			final Interpolation interpolation = GLTFTypes.mapInterpolation(glSampler.interpolation);
+			
+			GLTFAccessor inputAccessor = dataResolver.getAccessor(glSampler.input);
+			animation.duration = Math.max(animation.duration, inputAccessor.max[0]);
+			
+			String property = glChannel.target.path;
+			
+			if(packed){
+				loadPacked((NodeAnimationHack)nodeAnimation, property, interpolation, glSampler, dataResolver);
+				continue;
+			}
+			
 			float[] inputData = dataResolver.readBufferFloat(glSampler.input);
 			float[] outputData = dataResolver.readBufferFloat(glSampler.output);
 
-			final Interpolation interpolation = GLTFTypes.mapInterpolation(glSampler.interpolation);
-			
 			// case of cubic spline, we skip anchor vectors if cubic is disabled.
 			int dataOffset = 0;
 			int dataStride = 1;
@@ -73,10 +92,6 @@ public class AnimationLoader {
 				dataStride = 3;
 			}
 			
-			GLTFAccessor inputAccessor = dataResolver.getAccessor(glSampler.input);
-			animation.duration = Math.max(animation.duration, inputAccessor.max[0]);
-			
-			String property = glChannel.target.path;
 			if("translation".equals(property)){
 				
 				((NodeAnimationHack)nodeAnimation).translationMode = interpolation;
@@ -175,4 +190,48 @@ public class AnimationLoader {
 		return animation;
 	}
 	
+	private void loadPacked(NodeAnimationHack nodeAnimation, String property, Interpolation interpolation, GLTFAnimationSampler glSampler, DataResolver dataResolver){
+		if("translation".equals(property)){
+			nodeAnimation.translationMode = interpolation;
+			nodeAnimation.translationTrack = pack(interpolation, 3, glSampler, dataResolver);
+		}else if("rotation".equals(property)){
+			nodeAnimation.rotationMode = interpolation;
+			nodeAnimation.rotationTrack = pack(interpolation, 4, glSampler, dataResolver);
+		}else if("scale".equals(property)){
+			nodeAnimation.scalingMode = interpolation;
+			nodeAnimation.scalingTrack = pack(interpolation, 3, glSampler, dataResolver);
+		}else if("weights".equals(property)){
+			nodeAnimation.weightsMode = interpolation;
+			nodeAnimation.weightsTrack = pack(interpolation, ((NodePlus)nodeAnimation.node).weights.count, glSampler, dataResolver);
+		}else{
+			throw new GLTFUnsupportedException("unsupported " + property);
+		}
+	}
+	
+	private PackedTrack pack(Interpolation interpolation, int components, GLTFAnimationSampler glSampler, DataResolver dataResolver){
+		float[] times = packedTimes.get(glSampler.input);
+		if(times == null){
+			times = dataResolver.readBufferFloat(glSampler.input);
+			// copy first frame if not at zero time
+			if(times.length > 0 && times[0] > 0){
+				float[] shifted = new float[times.length + 1];
+				System.arraycopy(times, 0, shifted, 1, times.length);
+				times = shifted;
+			}
+			packedTimes.put(glSampler.input, times);
+		}
+		
+		float[] outputData = dataResolver.readBufferFloat(glSampler.output);
+		int stride = interpolation == Interpolation.CUBICSPLINE ? components * 3 : components;
+		float[] values;
+		if(times.length > dataResolver.getAccessor(glSampler.input).count){
+			// copy first frame values as well
+			values = new float[times.length * stride];
+			System.arraycopy(outputData, 0, values, 0, stride);
+			System.arraycopy(outputData, 0, values, stride, (times.length - 1) * stride);
+		}else{
+			values = outputData;
+		}
+		return new PackedTrack(interpolation, components, times, values);
+	}
 }
@@ -12,5 +12,9 @@ public interface DataFileResolver {
 	public void load(FileHandle file);
 	public GLTF getRoot();
 	public ByteBuffer getBuffer(int buffer);
+	/** 
+	 * Decode an image. Implementations should support concurrent calls since 
+	 * images may be decoded in parallel (see {@link net.mgsx.gltf.loaders.shared.texture.ImageResolver}).
+	 */
 	public Pixmap load(GLTFImage glImage);
 }
@@ -1,20 +1,45 @@
 package net.mgsx.gltf.loaders.shared.data;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
 
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
 import net.mgsx.gltf.data.GLTF;
 import net.mgsx.gltf.data.data.GLTFAccessor;
 import net.mgsx.gltf.data.data.GLTFBufferView;
+import net.mgsx.gltf.data.extensions.EXTMeshoptCompression;
+import net.mgsx.gltf.loaders.exceptions.GLTFIllegalException;
 import net.mgsx.gltf.loaders.shared.GLTFTypes;
 
+/**
+ * Resolve accessors data from glTF buffers.
+ * Returned buffers are views on shared buffers, with their own position, so it's safe to read 
+ * accessors concurrently from several threads.
+ * <p>
+ * Decoded float accessors are cached per load: exporters usually share accessors (animation times
+ * shared by all channels of a clip for instance), they are decoded once. Arrays returned by
+ * {@link #readBufferFloat(int)} may then be shared and must not be modified.
+ * <p>
+ * Buffer views compressed with EXT_meshopt_compression are transparently decoded (see {@link MeshoptDecoder}).
+ */
 public class DataResolver {
 	
+	/** default cache size in number of floats (16MB) */
+	public static final int DEFAULT_CACHE_SIZE = 4 * 1024 * 1024;
+	
 	private GLTF glModel;
 	private DataFileResolver dataFileResolver;
 	
+	private final IntMap<float[]> floatCache = new IntMap<float[]>();
+	private final ObjectMap<GLTFBufferView, ByteBuffer> decodedViews = new ObjectMap<GLTFBufferView, ByteBuffer>();
+	private int cacheSize = DEFAULT_CACHE_SIZE;
+	private int cachedFloats;
+	
 	public DataResolver(GLTF glModel, DataFileResolver dataFileResolver) {
 		super();
 		this.glModel = glModel;
@@ -25,11 +50,53 @@ public class DataResolver {
 		return glModel.accessors.get(accessorID);
 	}
 
+	/**
+	 * Set the maximum number of floats kept in decoded accessors cache. Accessors decoded once the cache is full
+	 * are not cached. 0 disables the cache.
+	 */
+	public void setCacheSize(int maxFloats) {
+		this.cacheSize = maxFloats;
+	}
+	
+	/**
+	 * Release cached accessors and decoded buffer views, should be called once loading is complete.
+	 */
+	public synchronized void clearCache() {
+		floatCache.clear();
+		decodedViews.clear();
+		cachedFloats = 0;
+	}
+	
+	/**
+	 * @return decoded accessor as floats, integer components are converted (see {@link GLTFTypes#dequantize(GLTFAccessor, float)}).
+	 * Returned array may be shared with other callers and must not be modified.
+	 */
 	public float[] readBufferFloat(int accessorID) {
+		synchronized (this) {
+			float[] data = floatCache.get(accessorID);
+			if(data != null) return data;
+		}
+		float[] data = decodeBufferFloat(accessorID);
+		synchronized (this) {
+			// another thread may have decoded it in the meantime.
+			float[] cached = floatCache.get(accessorID);
+			if(cached != null) return cached;
+			if(cachedFloats + data.length <= cacheSize){
+				floatCache.put(accessorID, data);
+				cachedFloats += data.length;
+			}
+		}
+		return data;
+	}
+	
+	private float[] decodeBufferFloat(int accessorID) {
 		GLTFAccessor accessor = glModel.accessors.get(accessorID);
 		GLTFBufferView bufferView = glModel.bufferViews.get(accessor.bufferView);
-		ByteBuffer bytes = dataFileResolver.getBuffer(bufferView.buffer);
-		bytes.position(bufferView.byteOffset + accessor.byteOffset);
+		ByteBuffer bytes = getBufferView(bufferView);
+		bytes.position(bytes.position() + accessor.byteOffset);
+		if(accessor.componentType != GLTFTypes.C_FLOAT){
+			return decodeBufferQuantized(accessor, bufferView, bytes);
+		}
 		float [] data = new float[GLTFTypes.accessorSize(accessor)/4];
 		
 		int nbFloatsPerVertex = GLTFTypes.accessorTypeSize(accessor);
@@ -49,11 +116,35 @@ public class DataResolver {
 		return data;
 	}
 	
+	private static float[] decodeBufferQuantized(GLTFAccessor accessor, GLTFBufferView bufferView, ByteBuffer bytes) {
+		int components = GLTFTypes.accessorTypeSize(accessor);
+		int componentSize = GLTFTypes.accessorComponentTypeSize(accessor);
+		int stride = bufferView.byteStride != null ? bufferView.byteStride : components * componentSize;
+		float [] data = new float[accessor.count * components];
+		int base = bytes.position();
+		for(int i=0 ; i<accessor.count ; i++){
+			for(int j=0 ; j<components ; j++){
+				int position = base + i * stride + j * componentSize;
+				float value;
+				switch(accessor.componentType){
+				case GLTFTypes.C_BYTE: value = bytes.get(position); break;
+				case GLTFTypes.C_UBYTE: value = bytes.get(position) & 0xFF; break;
+				case GLTFTypes.C_SHORT: value = bytes.getShort(position); break;
+				case GLTFTypes.C_USHORT: value = bytes.getShort(position) & 0xFFFF; break;
+				case GLTFTypes.C_UINT: value = bytes.getInt(position) & 0xFFFFFFFFL; break;
+				default: throw new GLTFIllegalException("illegal accessor component type: " + accessor.componentType);
+				}
+				data[i*components+j] = GLTFTypes.dequantize(accessor, value);
+			}
+		}
+		return data;
+	}
+	
 	public int[] readBufferUByte(int accessorID) {
 		GLTFAccessor accessor = glModel.accessors.get(accessorID);
 		GLTFBufferView bufferView = glModel.bufferViews.get(accessor.bufferView);
-		ByteBuffer bytes = dataFileResolver.getBuffer(bufferView.buffer);
-		bytes.position(bufferView.byteOffset + accessor.byteOffset);
+		ByteBuffer bytes = getBufferView(bufferView);
+		bytes.position(bytes.position() + accessor.byteOffset);
 		int [] data = new int[GLTFTypes.accessorSize(accessor)];
 		
 		int nbBytesPerVertex = GLTFTypes.accessorTypeSize(accessor);
@@ -78,8 +169,8 @@ public class DataResolver {
 	public int[] readBufferUShort(int accessorID) {
 		GLTFAccessor accessor = glModel.accessors.get(accessorID);
 		GLTFBufferView bufferView = glModel.bufferViews.get(accessor.bufferView);
-		ByteBuffer bytes = dataFileResolver.getBuffer(bufferView.buffer);
-		bytes.position(bufferView.byteOffset + accessor.byteOffset);
+		ByteBuffer bytes = getBufferView(bufferView);
+		bytes.position(bytes.position() + accessor.byteOffset);
 		int [] data = new int[GLTFTypes.accessorSize(accessor)/2];
 		
 		int nbShortsPerVertex = GLTFTypes.accessorTypeSize(accessor);
@@ -142,14 +233,57 @@ public class DataResolver {
 
 	public ByteBuffer getBufferByte(GLTFAccessor glAccessor) {
 		GLTFBufferView bufferView = glModel.bufferViews.get(glAccessor.bufferView);
-		ByteBuffer bytes = dataFileResolver.getBuffer(bufferView.buffer);
-		bytes.position(bufferView.byteOffset + glAccessor.byteOffset);
+		ByteBuffer bytes = getBufferView(bufferView);
+		bytes.position(bytes.position() + glAccessor.byteOffset);
 		return bytes;
 	}
 
 	public ByteBuffer getBufferByte(GLTFBufferView bufferView) {
-		ByteBuffer bytes = dataFileResolver.getBuffer(bufferView.buffer);
+		return getBufferView(bufferView);
+	}
+
+	/**
+	 * @return a little endian view of the buffer view data, positioned at its first byte.
+	 * Compressed buffer views are decoded once and then shared.
+	 */
+	private ByteBuffer getBufferView(GLTFBufferView bufferView) {
+		if(bufferView.extensions != null){
+			synchronized (this) {
+				ByteBuffer decoded = decodedViews.get(bufferView);
+				if(decoded != null) return view(decoded);
+			}
+			// extensions are lazily parsed, outside of this lock since parsing is synchronized on the model parser.
+			EXTMeshoptCompression meshopt = bufferView.extensions.get(EXTMeshoptCompression.class, EXTMeshoptCompression.EXT);
+			if(meshopt != null){
+				ByteBuffer source = getBuffer(meshopt.buffer);
+				source.position(meshopt.byteOffset);
+				ByteBuffer decoded = MeshoptDecoder.decode(meshopt, source);
+				synchronized (this) {
+					// another thread may have decoded it in the meantime.
+					ByteBuffer cached = decodedViews.get(bufferView);
+					if(cached != null) return view(cached);
+					decodedViews.put(bufferView, decoded);
+				}
+				return view(decoded);
+			}
+		}
+		ByteBuffer bytes = getBuffer(bufferView.buffer);
 		bytes.position(bufferView.byteOffset);
 		return bytes;
 	}
+
+	private static ByteBuffer view(ByteBuffer decoded) {
+		ByteBuffer bytes = decoded.duplicate();
+		bytes.order(ByteOrder.LITTLE_ENDIAN);
+		return bytes;
+	}
+
+	/**
+	 * @return a little endian view of the shared buffer with its own position and limit.
+	 */
+	private ByteBuffer getBuffer(int buffer) {
+		ByteBuffer bytes = dataFileResolver.getBuffer(buffer).duplicate();
+		bytes.order(ByteOrder.LITTLE_ENDIAN);
+		return bytes;
+	}
 }
@@ -0,0 +1,427 @@
+package net.mgsx.gltf.loaders.shared.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import net.mgsx.gltf.data.extensions.EXTMeshoptCompression;
+import net.mgsx.gltf.loaders.exceptions.GLTFIllegalException;
+import net.mgsx.gltf.loaders.exceptions.GLTFUnsupportedException;
+
+/**
+ * Pure Java decoder for meshoptimizer vertex and index codecs and filters (EXT_meshopt_compression).
+ * Port of meshoptimizer scalar decoders, see https://github.com/zeux/meshoptimizer
+ * <p>
+ * Decoded data is little endian, as uncompressed glTF buffers.
+ */
+public class MeshoptDecoder {
+
+	private static final int VERTEX_HEADER = 0xA0;
+	private static final int INDEX_HEADER = 0xE0;
+	private static final int SEQUENCE_HEADER = 0xD0;
+
+	private static final int VERTEX_BLOCK_SIZE_BYTES = 8192;
+	private static final int VERTEX_BLOCK_MAX_SIZE = 256;
+	private static final int BYTE_GROUP_SIZE = 16;
+	private static final int BYTE_GROUP_DECODE_LIMIT = 24;
+	private static final int TAIL_MAX_SIZE = 32;
+
+	private final byte[] src;
+	/** read position in compressed data */
+	private int position;
+
+	private MeshoptDecoder(byte[] src) {
+		this.src = src;
+	}
+
+	/**
+	 * Decode a compressed buffer view.
+	 * @param ext buffer view extension.
+	 * @param source buffer holding compressed data, positioned at {@link EXTMeshoptCompression#byteOffset}.
+	 * @return decoded buffer view data (count * byteStride bytes), little endian.
+	 */
+	public static ByteBuffer decode(EXTMeshoptCompression ext, ByteBuffer source) {
+		byte[] src = new byte[ext.byteLength];
+		source.get(src);
+		byte[] dst = new byte[ext.count * ext.byteStride];
+		if(EXTMeshoptCompression.MODE_ATTRIBUTES.equals(ext.mode)){
+			decodeVertexBuffer(dst, ext.count, ext.byteStride, src);
+		}else if(EXTMeshoptCompression.MODE_TRIANGLES.equals(ext.mode)){
+			decodeIndexBuffer(dst, ext.count, ext.byteStride, src);
+		}else if(EXTMeshoptCompression.MODE_INDICES.equals(ext.mode)){
+			decodeIndexSequence(dst, ext.count, ext.byteStride, src);
+		}else{
+			throw new GLTFIllegalException("meshopt: illegal mode " + ext.mode);
+		}
+		if(ext.filter == null || EXTMeshoptCompression.FILTER_NONE.equals(ext.filter)){
+			// no filter
+		}else if(EXTMeshoptCompression.FILTER_OCTAHEDRAL.equals(ext.filter)){
+			decodeFilterOct(dst, ext.count, ext.byteStride);
+		}else if(EXTMeshoptCompression.FILTER_QUATERNION.equals(ext.filter)){
+			decodeFilterQuat(dst, ext.count, ext.byteStride);
+		}else if(EXTMeshoptCompression.FILTER_EXPONENTIAL.equals(ext.filter)){
+			decodeFilterExp(dst, ext.count, ext.byteStride);
+		}else{
+			throw new GLTFIllegalException("meshopt: illegal filter " + ext.filter);
+		}
+		ByteBuffer result = ByteBuffer.wrap(dst);
+		result.order(ByteOrder.LITTLE_ENDIAN);
+		return result;
+	}
+
+	/**
+	 * Decode vertex codec data.
+	 * @param dst decoded vertices (count * size bytes).
+	 * @param size vertex size in bytes, multiple of 4 and up to 256.
+	 */
+	public static void decodeVertexBuffer(byte[] dst, int count, int size, byte[] src) {
+		if(size <= 0 || size > 256 || size % 4 != 0) throw new GLTFIllegalException("meshopt: illegal vertex size " + size);
+		if(src.length < 1 + size) throw new GLTFIllegalException("meshopt: truncated vertex data");
+		int header = src[0] & 0xFF;
+		if((header & 0xF0) != VERTEX_HEADER) throw new GLTFIllegalException("meshopt: illegal vertex data header");
+		if((header & 0x0F) > 0) throw new GLTFUnsupportedException("meshopt: unsupported vertex codec version " + (header & 0x0F));
+
+		MeshoptDecoder decoder = new MeshoptDecoder(src);
+		decoder.position = 1;
+
+		// first block is delta encoded from the last vertex stored in the tail.
+		byte[] lastVertex = new byte[size];
+		System.arraycopy(src, src.length - size, lastVertex, 0, size);
+
+		int blockSize = Math.min((VERTEX_BLOCK_SIZE_BYTES / size) & ~(BYTE_GROUP_SIZE - 1), VERTEX_BLOCK_MAX_SIZE);
+		byte[] buffer = new byte[VERTEX_BLOCK_MAX_SIZE];
+		for(int offset=0 ; offset<count ; offset+=blockSize){
+			decoder.decodeVertexBlock(dst, offset * size, Math.min(blockSize, count - offset), size, lastVertex, buffer);
+		}
+
+		int tailSize = Math.max(size, TAIL_MAX_SIZE);
+		if(src.length - decoder.position != tailSize) throw new GLTFIllegalException("meshopt: illegal vertex data size");
+	}
+
+	private void decodeVertexBlock(byte[] dst, int dstOffset, int count, int size, byte[] lastVertex, byte[] buffer) {
+		int countAligned = (count + BYTE_GROUP_SIZE - 1) & ~(BYTE_GROUP_SIZE - 1);
+		for(int k=0 ; k<size ; k++){
+			decodeBytes(buffer, countAligned);
+			// bytes are zigzag encoded deltas from previous vertex.
+			int p = lastVertex[k] & 0xFF;
+			for(int i=0, d=dstOffset+k ; i<count ; i++, d+=size){
+				int v = buffer[i] & 0xFF;
+				p = (p + ((-(v & 1)) ^ (v >>> 1))) & 0xFF;
+				dst[d] = (byte)p;
+			}
+			lastVertex[k] = (byte)p;
+		}
+	}
+
+	private void decodeBytes(byte[] buffer, int bufferSize) {
+		// 2 bits header per group of 16 bytes.
+		int headerSize = (bufferSize / BYTE_GROUP_SIZE + 3) / 4;
+		if(src.length - position < headerSize) throw new GLTFIllegalException("meshopt: truncated vertex data");
+		int header = position;
+		position += headerSize;
+		for(int i=0 ; i<bufferSize ; i+=BYTE_GROUP_SIZE){
+			if(src.length - position < BYTE_GROUP_DECODE_LIMIT) throw new GLTFIllegalException("meshopt: truncated vertex data");
+			int group = i / BYTE_GROUP_SIZE;
+			int bitslog2 = (src[header + group / 4] >> ((group % 4) * 2)) & 3;
+			switch(bitslog2){
+			case 0:
+				for(int j=0 ; j<BYTE_GROUP_SIZE ; j++) buffer[i + j] = 0;
+				break;
+			case 1:
+				decodeBitsGroup(buffer, i, 2);
+				break;
+			case 2:
+				decodeBitsGroup(buffer, i, 4);
+				break;
+			default:
+				System.arraycopy(src, position, buffer, i, BYTE_GROUP_SIZE);
+				position += BYTE_GROUP_SIZE;
+			}
+		}
+	}
+
+	/**
+	 * Decode 16 values packed on 2 or 4 bits, values having all bits set are followed by a full byte.
+	 */
+	private void decodeBitsGroup(byte[] buffer, int offset, int bits) {
+		int perByte = 8 / bits;
+		int mask = (1 << bits) - 1;
+		int data = position;
+		int extra = data + BYTE_GROUP_SIZE / perByte;
+		for(int i=0 ; i<BYTE_GROUP_SIZE ; i++){
+			int enc = (src[data + i / perByte] >> (8 - bits - (i % perByte) * bits)) & mask;
+			buffer[offset + i] = enc == mask ? src[extra++] : (byte)enc;
+		}
+		position = extra;
+	}
+
+	/**
+	 * Decode index codec data (triangle lists).
+	 * @param dst decoded indices (count * indexSize bytes).
+	 * @param count number of indices, multiple of 3.
+	 * @param indexSize 2 or 4 bytes.
+	 */
+	public static void decodeIndexBuffer(byte[] dst, int count, int indexSize, byte[] src) {
+		if(count % 3 != 0) throw new GLTFIllegalException("meshopt: illegal triangles index count " + count);
+		if(indexSize != 2 && indexSize != 4) throw new GLTFIllegalException("meshopt: illegal index size " + indexSize);
+		if(src.length < 1 + count / 3 + 16) throw new GLTFIllegalException("meshopt: truncated index data");
+		int header = src[0] & 0xFF;
+		if((header & 0xF0) != INDEX_HEADER) throw new GLTFIllegalException("meshopt: illegal index data header");
+		int version = header & 0x0F;
+		if(version > 1) throw new GLTFUnsupportedException("meshopt: unsupported index codec version " + version);
+
+		MeshoptDecoder decoder = new MeshoptDecoder(src);
+
+		// edge fifo stores (a, b) pairs.
+		int[] edgeFifo = new int[32];
+		int[] vertexFifo = new int[16];
+		for(int i=0 ; i<edgeFifo.length ; i++) edgeFifo[i] = -1;
+		for(int i=0 ; i<vertexFifo.length ; i++) vertexFifo[i] = -1;
+		int edgeOffset = 0;
+		int vertexOffset = 0;
+		int next = 0;
+		int last = 0;
+		int fecmax = version >= 1 ? 13 : 15;
+
+		// triangle codes, then free indices data and finally a 16 bytes code auxiliary table.
+		int code = 1;
+		decoder.position = code + count / 3;
+		int dataSafeEnd = src.length - 16;
+		int codeauxTable = dataSafeEnd;
+
+		for(int i=0 ; i<count ; i+=3){
+			// each triangle reads at most 16 bytes of data.
+			if(decoder.position > dataSafeEnd) throw new GLTFIllegalException("meshopt: truncated index data");
+			int codetri = src[code++] & 0xFF;
+			int a, b, c;
+			if(codetri < 0xF0){
+				// edge from fifo and a vertex from fifo, a new vertex or a free index.
+				int fe = codetri >> 4;
+				int e = ((edgeOffset - 1 - fe) & 15) * 2;
+				a = edgeFifo[e];
+				b = edgeFifo[e + 1];
+				int fec = codetri & 15;
+				if(fec < fecmax){
+					int fec0 = fec == 0 ? 1 : 0;
+					c = fec0 == 1 ? next : vertexFifo[(vertexOffset - 1 - fec) & 15];
+					next += fec0;
+					vertexFifo[vertexOffset] = c;
+					vertexOffset = (vertexOffset + fec0) & 15;
+				}else{
+					// 13 and 14 are -1 and +1 deltas from last free index (version 1).
+					c = last = fec != 15 ? last + (fec - (fec ^ 3)) : decoder.decodeIndex(last);
+					vertexFifo[vertexOffset] = c;
+					vertexOffset = (vertexOffset + 1) & 15;
+				}
+				writeIndex(dst, i, indexSize, a);
+				writeIndex(dst, i + 1, indexSize, b);
+				writeIndex(dst, i + 2, indexSize, c);
+				edgeFifo[edgeOffset * 2] = c;
+				edgeFifo[edgeOffset * 2 + 1] = b;
+				edgeOffset = (edgeOffset + 1) & 15;
+				edgeFifo[edgeOffset * 2] = a;
+				edgeFifo[edgeOffset * 2 + 1] = c;
+				edgeOffset = (edgeOffset + 1) & 15;
+			}else{
+				int feb, fec;
+				if(codetri < 0xFE){
+					// code auxiliary from table.
+					int codeaux = src[codeauxTable + (codetri & 15)] & 0xFF;
+					feb = codeaux >> 4;
+					fec = codeaux & 15;
+					a = next++;
+					b = feb == 0 ? next++ : vertexFifo[(vertexOffset - feb) & 15];
+					c = fec == 0 ? next++ : vertexFifo[(vertexOffset - fec) & 15];
+				}else{
+					// code auxiliary from data, free indices are delta encoded.
+					int codeaux = src[decoder.position++] & 0xFF;
+					int fea = codetri == 0xFE ? 0 : 15;
+					feb = codeaux >> 4;
+					fec = codeaux & 15;
+					if(codeaux == 0) next = 0;
+					a = fea == 0 ? next++ : 0;
+					b = feb == 0 ? next++ : vertexFifo[(vertexOffset - feb) & 15];
+					c = fec == 0 ? next++ : vertexFifo[(vertexOffset - fec) & 15];
+					if(fea == 15) last = a = decoder.decodeIndex(last);
+					if(feb == 15) last = b = decoder.decodeIndex(last);
+					if(fec == 15) last = c = decoder.decodeIndex(last);
+				}
+				writeIndex(dst, i, indexSize, a);
+				writeIndex(dst, i + 1, indexSize, b);
+				writeIndex(dst, i + 2, indexSize, c);
+				vertexFifo[vertexOffset] = a;
+				vertexOffset = (vertexOffset + 1) & 15;
+				vertexFifo[vertexOffset] = b;
+				vertexOffset = (vertexOffset + (feb == 0 || feb == 15 ? 1 : 0)) & 15;
+				vertexFifo[vertexOffset] = c;
+				vertexOffset = (vertexOffset + (fec == 0 || fec == 15 ? 1 : 0)) & 15;
+				edgeFifo[edgeOffset * 2] = b;
+				edgeFifo[edgeOffset * 2 + 1] = a;
+				edgeOffset = (edgeOffset + 1) & 15;
+				edgeFifo[edgeOffset * 2] = c;
+				edgeFifo[edgeOffset * 2 + 1] = b;
+				edgeOffset = (edgeOffset + 1) & 15;
+				edgeFifo[edgeOffset * 2] = a;
+				edgeFifo[edgeOffset * 2 + 1] = c;
+				edgeOffset = (edgeOffset + 1) & 15;
+			}
+		}
+
+		// all data should have been read, up to the code auxiliary table.
+		if(decoder.position != dataSafeEnd) throw new GLTFIllegalException("meshopt: illegal index data size");
+	}
+
+	/**
+	 * Decode index sequence codec data (any index list).
+	 * @param dst decoded indices (count * indexSize bytes).
+	 * @param indexSize 2 or 4 bytes.
+	 */
+	public static void decodeIndexSequence(byte[] dst, int count, int indexSize, byte[] src) {
+		if(indexSize != 2 && indexSize != 4) throw new GLTFIllegalException("meshopt: illegal index size " + indexSize);
+		if(src.length < 1 + count + 4) throw new GLTFIllegalException("meshopt: truncated index data");
+		int header = src[0] & 0xFF;
+		if((header & 0xF0) != SEQUENCE_HEADER) throw new GLTFIllegalException("meshopt: illegal index sequence header");
+		int version = header & 0x0F;
+		if(version > 1) throw new GLTFUnsupportedException("meshopt: unsupported index sequence version " + version);
+
+		MeshoptDecoder decoder = new MeshoptDecoder(src);
+		decoder.position = 1;
+		int dataSafeEnd = src.length - 4;
+
+		// two baselines, low bit of each value selects one.
+		int last0 = 0, last1 = 0;
+		for(int i=0 ; i<count ; i++){
+			if(decoder.position >= dataSafeEnd) throw new GLTFIllegalException("meshopt: truncated index data");
+			int v = decoder.decodeVByte();
+			int current = v & 1;
+			v >>>= 1;
+			int d = (v >>> 1) ^ -(v & 1);
+			int index;
+			if(current == 0){
+				index = last0 += d;
+			}else{
+				index = last1 += d;
+			}
+			writeIndex(dst, i, indexSize, index);
+		}
+
+		if(decoder.position != dataSafeEnd) throw new GLTFIllegalException("meshopt: illegal index sequence size");
+	}
+
+	private int decodeVByte() {
+		int lead = src[position++] & 0xFF;
+		if(lead < 128) return lead;
+		int result = lead & 127;
+		int shift = 7;
+		for(int i=0 ; i<4 ; i++){
+			int group = src[position++] & 0xFF;
+			result |= (group & 127) << shift;
+			shift += 7;
+			if(group < 128) break;
+		}
+		return result;
+	}
+
+	private int decodeIndex(int last) {
+		int v = decodeVByte();
+		return last + ((v >>> 1) ^ -(v & 1));
+	}
+
+	private static void writeIndex(byte[] dst, int index, int indexSize, int value) {
+		int offset = index * indexSize;
+		dst[offset] = (byte)value;
+		dst[offset + 1] = (byte)(value >> 8);
+		if(indexSize == 4){
+			dst[offset + 2] = (byte)(value >> 16);
+			dst[offset + 3] = (byte)(value >> 24);
+		}
+	}
+
+	/**
+	 * Decode octahedral encoded unit vectors (normals and tangents) in place, as normalized bytes (stride 4)
+	 * or normalized shorts (stride 8). Fourth component is kept as is.
+	 */
+	public static void decodeFilterOct(byte[] data, int count, int stride) {
+		if(stride != 4 && stride != 8) throw new GLTFIllegalException("meshopt: illegal octahedral filter stride " + stride);
+		int componentSize = stride / 4;
+		float max = stride == 4 ? 127f : 32767f;
+		for(int i=0, o=0 ; i<count ; i++, o+=stride){
+			float x = readSigned(data, o, componentSize);
+			float y = readSigned(data, o + componentSize, componentSize);
+			float z = readSigned(data, o + 2 * componentSize, componentSize) - Math.abs(x) - Math.abs(y);
+
+			// fixup octahedral coordinates for z < 0
+			float t = z < 0 ? z : 0;
+			x += x >= 0 ? t : -t;
+			y += y >= 0 ? t : -t;
+
+			float s = max / (float)Math.sqrt(x * x + y * y + z * z);
+			writeSigned(data, o, componentSize, round(x * s));
+			writeSigned(data, o + componentSize, componentSize, round(y * s));
+			writeSigned(data, o + 2 * componentSize, componentSize, round(z * s));
+		}
+	}
+
+	/**
+	 * Decode quaternions in place (stride 8), as normalized shorts. Encoded quaternions store 3 components
+	 * and the index of the largest one, which is reconstructed.
+	 */
+	public static void decodeFilterQuat(byte[] data, int count, int stride) {
+		if(stride != 8) throw new GLTFIllegalException("meshopt: illegal quaternion filter stride " + stride);
+		final float scale = 1f / (float)Math.sqrt(2);
+		for(int i=0, o=0 ; i<count ; i++, o+=stride){
+			int w = readSigned(data, o + 6, 2);
+			// scale is stored in high bits of the fourth component.
+			float ss = scale / (w | 3);
+			float x = readSigned(data, o, 2) * ss;
+			float y = readSigned(data, o + 2, 2) * ss;
+			float z = readSigned(data, o + 4, 2) * ss;
+
+			// clamp to avoid NaN due to precision errors
+			float ww = 1f - x * x - y * y - z * z;
+			float wf = (float)Math.sqrt(ww >= 0 ? ww : 0);
+
+			int qc = w & 3;
+			writeSigned(data, o + ((qc + 1) & 3) * 2, 2, round(x * 32767f));
+			writeSigned(data, o + ((qc + 2) & 3) * 2, 2, round(y * 32767f));
+			writeSigned(data, o + ((qc + 3) & 3) * 2, 2, round(z * 32767f));
+			writeSigned(data, o + qc * 2, 2, (int)(wf * 32767f + 0.5f));
+		}
+	}
+
+	/**
+	 * Decode exponential encoded floats in place: each 32 bits value stores a 24 bits signed mantissa
+	 * and an 8 bits signed exponent.
+	 */
+	public static void decodeFilterExp(byte[] data, int count, int stride) {
+		if(stride % 4 != 0) throw new GLTFIllegalException("meshopt: illegal exponential filter stride " + stride);
+		for(int o=0, end=count*stride ; o<end ; o+=4){
+			int v = readSigned(data, o, 4);
+			int m = (v << 8) >> 8;
+			int e = v >> 24;
+			float f = Float.intBitsToFloat((e + 127) << 23) * m;
+			writeSigned(data, o, 4, Float.floatToRawIntBits(f));
+		}
+	}
+
+	/** rounded signed float to int */
+	private static int round(float value) {
+		return (int)(value + (value >= 0 ? 0.5f : -0.5f));
+	}
+
+	private static int readSigned(byte[] data, int offset, int size) {
+		switch(size){
+		case 1: return data[offset];
+		case 2: return (short)((data[offset] & 0xFF) | (data[offset + 1] << 8));
+		default: return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8 | (data[offset + 2] & 0xFF) << 16 | data[offset + 3] << 24;
+		}
+	}
+
+	private static void writeSigned(byte[] data, int offset, int size, int value) {
+		data[offset] = (byte)value;
+		if(size > 1) data[offset + 1] = (byte)(value >> 8);
+		if(size > 2){
+			data[offset + 2] = (byte)(value >> 16);
+			data[offset + 3] = (byte)(value >> 24);
+		}
+	}
+}
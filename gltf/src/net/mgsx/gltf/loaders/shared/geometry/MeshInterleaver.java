@@ -0,0 +1,215 @@
+package net.mgsx.gltf.loaders.shared.geometry;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import com.badlogic.gdx.graphics.GL20;
+
+import net.mgsx.gltf.loaders.exceptions.GLTFIllegalException;
+import net.mgsx.gltf.loaders.shared.GLTFTypes;
+
+/**
+ * Interleaves accessors data into a vertex array, reading source buffers once without intermediate copies.
+ * All methods are stateless and can be called concurrently.
+ */
+class MeshInterleaver {
+
+	/**
+	 * Copy a whole attribute stream into a vertex array.
+	 * Raw bits are copied, so non float attributes (eg. normalized colors) packed in floats are copied as is.
+	 * @param src source buffer, positioned at first element.
+	 * @param srcStride source element stride in floats (different from components when source is interleaved).
+	 * @param count number of elements to copy.
+	 * @param components number of floats per element.
+	 * @param dst vertex array.
+	 * @param dstOffset offset in floats of the attribute in the first vertex.
+	 * @param dstStride vertex size in floats.
+	 */
+	public static void copy(FloatBuffer src, int srcStride, int count, int components, float[] dst, int dstOffset, int dstStride){
+		if(count <= 0) return;
+
+		// source and destination are both packed : single bulk copy.
+		if(srcStride == components && dstStride == components){
+			src.get(dst, dstOffset, count * components);
+			return;
+		}
+
+		// scatter elements straight into the vertex array.
+		int s = src.position();
+		int d = dstOffset;
+		switch(components){
+		case 1:
+			for(int i=0 ; i<count ; i++, s+=srcStride, d+=dstStride){
+				dst[d] = src.get(s);
+			}
+			break;
+		case 2:
+			for(int i=0 ; i<count ; i++, s+=srcStride, d+=dstStride){
+				dst[d] = src.get(s);
+				dst[d+1] = src.get(s+1);
+			}
+			break;
+		case 3:
+			for(int i=0 ; i<count ; i++, s+=srcStride, d+=dstStride){
+				dst[d] = src.get(s);
+				dst[d+1] = src.get(s+1);
+				dst[d+2] = src.get(s+2);
+			}
+			break;
+		case 4:
+			for(int i=0 ; i<count ; i++, s+=srcStride, d+=dstStride){
+				dst[d] = src.get(s);
+				dst[d+1] = src.get(s+1);
+				dst[d+2] = src.get(s+2);
+				dst[d+3] = src.get(s+3);
+			}
+			break;
+		default:
+			for(int i=0 ; i<count ; i++, s+=srcStride, d+=dstStride){
+				for(int c=0 ; c<components ; c++){
+					dst[d+c] = src.get(s+c);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Copy integer attribute elements (eg. quantized positions) into a vertex array. Raw bytes are packed in floats
+	 * (little endian) and each element is padded with zeros to a multiple of 4 bytes.
+	 * @param src source buffer (little endian), positioned at first element.
+	 * @param byteStride source element stride in bytes.
+	 * @param count number of elements to copy.
+	 * @param elementBytes element size in bytes.
+	 * @param dst vertex array.
+	 * @param dstOffset offset in floats of the attribute in the first vertex.
+	 * @param dstStride vertex size in floats.
+	 */
+	public static void copyBytes(ByteBuffer src, int byteStride, int count, int elementBytes, float[] dst, int dstOffset, int dstStride){
+		int s = src.position();
+		int d = dstOffset;
+		int slots = (elementBytes + 3) / 4;
+		for(int i=0 ; i<count ; i++, s+=byteStride, d+=dstStride){
+			for(int k=0 ; k<slots ; k++){
+				int bits = 0;
+				for(int b=0, n=Math.min(4, elementBytes - k * 4) ; b<n ; b++){
+					bits |= (src.get(s + k * 4 + b) & 0xFF) << (b * 8);
+				}
+				dst[d + k] = Float.intBitsToFloat(bits);
+			}
+		}
+	}
+
+	/**
+	 * Copy a float attribute stream into a vertex array, converting components to normalized integers.
+	 * Integers are packed in floats (little endian) and each element is padded with zeros to a multiple of 4 bytes.
+	 * @param src source buffer, positioned at first element.
+	 * @param srcStride source element stride in floats.
+	 * @param count number of elements to copy.
+	 * @param components number of components per element.
+	 * @param type {@link GL20#GL_BYTE}, {@link GL20#GL_SHORT} or {@link GL20#GL_UNSIGNED_SHORT}, values are clamped to
+	 * [-1, 1] or [0, 1] range.
+	 * @param dst vertex array.
+	 * @param dstOffset offset in floats of the attribute in the first vertex.
+	 * @param dstStride vertex size in floats.
+	 */
+	public static void copyNormalized(FloatBuffer src, int srcStride, int count, int components, int type, float[] dst, int dstOffset, int dstStride){
+		if(count <= 0) return;
+
+		final int componentBits;
+		if(type == GL20.GL_BYTE) componentBits = 8;
+		else if(type == GL20.GL_SHORT || type == GL20.GL_UNSIGNED_SHORT) componentBits = 16;
+		else throw new GLTFIllegalException("illegal normalized type: " + type);
+		final int perSlot = 32 / componentBits;
+		final int slots = (components + perSlot - 1) / perSlot;
+		final int mask = (1 << componentBits) - 1;
+
+		for(int i=0, s=src.position(), d=dstOffset ; i<count ; i++, s+=srcStride, d+=dstStride){
+			for(int k=0 ; k<slots ; k++){
+				int bits = 0;
+				for(int c=0, n=Math.min(perSlot, components - k * perSlot) ; c<n ; c++){
+					float value = src.get(s + k * perSlot + c);
+					int q;
+					if(type == GL20.GL_BYTE){
+						q = Math.round(Math.max(-1f, Math.min(1f, value)) * 127f);
+					}else if(type == GL20.GL_SHORT){
+						q = Math.round(Math.max(-1f, Math.min(1f, value)) * 32767f);
+					}else{
+						q = Math.round(Math.max(0f, Math.min(1f, value)) * 65535f);
+					}
+					bits |= (q & mask) << (c * componentBits);
+				}
+				dst[d + k] = Float.intBitsToFloat(bits);
+			}
+		}
+	}
+
+	/**
+	 * Write one joint index component (JOINTS_n) of each vertex into the vertex array.
+	 * @param src source buffer (little endian), positioned at first element.
+	 * @param componentType {@link GLTFTypes#C_UBYTE} or {@link GLTFTypes#C_USHORT}
+	 * @param byteStride source element stride in bytes.
+	 * @param count number of vertices.
+	 * @param component joint component (0 to 3).
+	 * @param dst vertex array.
+	 * @param dstOffset offset in floats of the bone attribute joint in the first vertex.
+	 * @param dstStride vertex size in floats.
+	 */
+	public static void copyJoints(ByteBuffer src, int componentType, int byteStride, int count, int component, float[] dst, int dstOffset, int dstStride){
+		int s = src.position();
+		int d = dstOffset;
+		switch(componentType){
+		case GLTFTypes.C_UBYTE:
+			s += component;
+			for(int i=0 ; i<count ; i++, s+=byteStride, d+=dstStride){
+				dst[d] = src.get(s) & 0xFF;
+			}
+			break;
+		case GLTFTypes.C_USHORT:
+			s += component * 2;
+			for(int i=0 ; i<count ; i++, s+=byteStride, d+=dstStride){
+				dst[d] = src.getShort(s) & 0xFFFF;
+			}
+			break;
+		default:
+			throw new GLTFIllegalException("illegal type for joints: " + componentType);
+		}
+	}
+
+	/**
+	 * Write one weight component (WEIGHTS_n) of each vertex into the vertex array, normalized integers are converted to floats.
+	 * @param src source buffer (little endian), positioned at first element.
+	 * @param componentType {@link GLTFTypes#C_FLOAT}, {@link GLTFTypes#C_USHORT} or {@link GLTFTypes#C_UBYTE}
+	 * @param byteStride source element stride in bytes.
+	 * @param count number of vertices.
+	 * @param component weight component (0 to 3).
+	 * @param dst vertex array.
+	 * @param dstOffset offset in floats of the bone attribute weight in the first vertex.
+	 * @param dstStride vertex size in floats.
+	 */
+	public static void copyWeights(ByteBuffer src, int componentType, int byteStride, int count, int component, float[] dst, int dstOffset, int dstStride){
+		int s = src.position();
+		int d = dstOffset;
+		switch(componentType){
+		case GLTFTypes.C_FLOAT:
+			s += component * 4;
+			for(int i=0 ; i<count ; i++, s+=byteStride, d+=dstStride){
+				dst[d] = src.getFloat(s);
+			}
+			break;
+		case GLTFTypes.C_USHORT:
+			s += component * 2;
+			for(int i=0 ; i<count ; i++, s+=byteStride, d+=dstStride){
+				dst[d] = (src.getShort(s) & 0xFFFF) / 65535f;
+			}
+			break;
+		case GLTFTypes.C_UBYTE:
+			s += component;
+			for(int i=0 ; i<count ; i++, s+=byteStride, d+=dstStride){
+				dst[d] = (src.get(s) & 0xFF) / 255f;
+			}
+			break;
+		default:
+			throw new GLTFIllegalException("illegal weight attribute type: " + componentType);
+		}
+	}
+}
@@ -2,7 +2,9 @@ package net.mgsx.gltf.loaders.shared.geometry;
 
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 
+import com.badlogic.gdx.Application.ApplicationType;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Mesh;
@@ -14,14 +16,21 @@ import com.badlogic.gdx.graphics.g3d.model.MeshPart;
 import com.badlogic.gdx.graphics.g3d.model.Node;
 import com.badlogic.gdx.graphics.g3d.model.NodePart;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.collision.BoundingBox;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.ObjectMap.Entry;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
 
 import net.mgsx.gltf.data.data.GLTFAccessor;
 import net.mgsx.gltf.data.data.GLTFBufferView;
+import net.mgsx.gltf.data.extensions.KHRTextureTransform;
 import net.mgsx.gltf.data.geometry.GLTFMesh;
 import net.mgsx.gltf.data.geometry.GLTFPrimitive;
+import net.mgsx.gltf.data.material.GLTFMaterial;
+import net.mgsx.gltf.data.texture.GLTFTextureInfo;
 import net.mgsx.gltf.loaders.blender.BlenderShapeKeys;
 import net.mgsx.gltf.loaders.exceptions.GLTFIllegalException;
 import net.mgsx.gltf.loaders.exceptions.GLTFUnsupportedException;
@@ -30,348 +39,667 @@ import net.mgsx.gltf.loaders.shared.data.DataResolver;
 import net.mgsx.gltf.loaders.shared.material.MaterialLoader;
 import net.mgsx.gltf.scene3d.attributes.PBRTextureAttribute;
 import net.mgsx.gltf.scene3d.attributes.PBRVertexAttributes;
+import net.mgsx.gltf.scene3d.model.IntIndexMesh;
+import net.mgsx.gltf.scene3d.model.MorphTargetsMesh;
+import net.mgsx.gltf.scene3d.model.MorphTargetsTexture;
 import net.mgsx.gltf.scene3d.model.NodePartPlus;
 import net.mgsx.gltf.scene3d.model.NodePlus;
+import net.mgsx.gltf.scene3d.model.QuantizedMesh;
 import net.mgsx.gltf.scene3d.model.WeightVector;
+import net.mgsx.gltf.scene3d.shaders.PBRCommon;
 
 public class MeshLoader {
 	
+	/** CPU side data of a primitive : vertices and indices ready to be uploaded to GPU. */
+	private static class PrimitiveData {
+		GLTFPrimitive primitive;
+		VertexAttributes attributes;
+		int primitiveType;
+		/** local bounds, invalid if unknown */
+		final BoundingBox bounds = new BoundingBox();
+		final Array<float[]> vertices = new Array<float[]>();
+		final Array<short[]> indices = new Array<short[]>();
+		/** 32 bits indices of the single vertices array, null for 16 bits indices. Mesh is split at load time if not supported. */
+		int[] intIndices;
+		/** null when morph targets are stored in vertex attributes */
+		MorphTargetsTexture morphTargets;
+	}
+	
+	/** when true, morph targets are stored in a {@link MorphTargetsTexture} (requires GL30) instead of vertex attributes.
+	 * Primitives having more morph targets than vertex attributes based shaders support always use a texture when GL30 is available. */
+	public boolean morphTargetsTexture = false;
+
+	/** when true, float normals and tangents are stored as normalized bytes in vertex buffers. Ignored on GWT. */
+	public boolean compressNormals = false;
+
+	/** when true, float texture coordinates in [0, 1] or [-1, 1] range are stored as normalized shorts in vertex buffers. Ignored on GWT. */
+	public boolean compressTexCoords = false;
+
 	private ObjectMap<GLTFMesh, Array<NodePart>> meshMap = new ObjectMap<GLTFMesh, Array<NodePart>>();
+	private final ObjectMap<GLTFMesh, Array<PrimitiveData>> preparedMap = new ObjectMap<GLTFMesh, Array<PrimitiveData>>();
 	private final Array<Mesh> meshes = new Array<Mesh>();
 	
+	/**
+	 * Decode vertices and indices of given meshes, generating missing normals and tangents.
+	 * This step doesn't require a GL context (it only relies on glTF materials, not on loaded ones) and can be run from any thread, 
+	 * primitives are processed in parallel when an executor is provided.
+	 * GPU meshes are then created on the GL thread by {@link #load(Node, GLTFMesh, DataResolver, MaterialLoader)}.
+	 * @param glMaterials glTF materials, used to know which primitives require tangents.
+	 * @param executor null to process primitives sequentially on the calling thread.
+	 */
+	public void prepare(Array<GLTFMesh> glMeshes, final DataResolver dataResolver, Array<GLTFMaterial> glMaterials, AsyncExecutor executor){
+		if(executor == null){
+			for(GLTFMesh glMesh : glMeshes){
+				if(meshMap.containsKey(glMesh) || preparedMap.containsKey(glMesh)) continue;
+				Array<PrimitiveData> primitives = new Array<PrimitiveData>();
+				for(GLTFPrimitive primitive : glMesh.primitives){
+					primitives.add(preparePrimitive(glMesh, primitive, dataResolver, getNormalMapUVIndex(glMaterials, primitive)));
+				}
+				preparedMap.put(glMesh, primitives);
+			}
+		}else{
+			Array<GLTFMesh> pendingMeshes = new Array<GLTFMesh>();
+			Array<AsyncResult<PrimitiveData>> results = new Array<AsyncResult<PrimitiveData>>();
+			for(final GLTFMesh glMesh : glMeshes){
+				if(meshMap.containsKey(glMesh) || preparedMap.containsKey(glMesh) || pendingMeshes.contains(glMesh, true)) continue;
+				pendingMeshes.add(glMesh);
+				for(final GLTFPrimitive primitive : glMesh.primitives){
+					final int normalMapUVIndex = getNormalMapUVIndex(glMaterials, primitive);
+					results.add(executor.submit(new AsyncTask<PrimitiveData>() {
+						@Override
+						public PrimitiveData call() throws Exception {
+							return preparePrimitive(glMesh, primitive, dataResolver, normalMapUVIndex);
+						}
+					}));
+				}
+			}
+			// wait for all tasks, even in case of error, so that no task is still running when this method returns.
+			RuntimeException error = null;
+			int index = 0;
+			for(GLTFMesh glMesh : pendingMeshes){
+				Array<PrimitiveData> primitives = new Array<PrimitiveData>();
+				for(int i=0 ; i<glMesh.primitives.size ; i++){
+					try{
+						primitives.add(results.get(index++).get());
+					}catch(RuntimeException e){
+						if(error == null) error = e;
+					}
+				}
+				preparedMap.put(glMesh, primitives);
+			}
+			if(error != null){
+				preparedMap.clear();
+				throw error;
+			}
+		}
+	}
+	
 	public void load(Node node, GLTFMesh glMesh, DataResolver dataResolver, MaterialLoader materialLoader) 
 	{
 		((NodePlus)node).morphTargetNames = BlenderShapeKeys.parse(glMesh);
 		
 		Array<NodePart> parts = meshMap.get(glMesh);
 		if(parts == null){
+			Array<PrimitiveData> primitives = preparedMap.remove(glMesh);
+			if(primitives == null){
+				primitives = prepareMesh(glMesh, dataResolver, materialLoader);
+			}
+			
 			parts = new Array<NodePart>();
+			for(PrimitiveData data : primitives){
+				if(data.primitive.targets != null && ((NodePlus)node).weights == null){
+					((NodePlus)node).weights = new WeightVector(data.primitive.targets.size);
+				}
+				Material material = getMaterial(materialLoader, data.primitive);
+				if(data.intIndices != null){
+					generateParts(node, parts, data, material, glMesh.name, data.vertices.first(), data.intIndices);
+				}else{
+					for(int i=0 ; i<data.vertices.size ; i++){
+						generateParts(node, parts, data, material, glMesh.name, data.vertices.get(i), data.indices.get(i));
+					}
+				}
+			}
+			meshMap.put(glMesh, parts);
+		}
+		node.parts.addAll(parts);
+	}
+	
+	private Array<PrimitiveData> prepareMesh(GLTFMesh glMesh, DataResolver dataResolver, MaterialLoader materialLoader){
+		Array<PrimitiveData> primitives = new Array<PrimitiveData>();
+		for(GLTFPrimitive primitive : glMesh.primitives){
+			PBRTextureAttribute normalMap = getMaterial(materialLoader, primitive).get(PBRTextureAttribute.class, PBRTextureAttribute.NormalTexture);
+			primitives.add(preparePrimitive(glMesh, primitive, dataResolver, normalMap != null ? normalMap.uvIndex : -1));
+		}
+		return primitives;
+	}
+	
+	private Material getMaterial(MaterialLoader materialLoader, GLTFPrimitive primitive){
+		if(primitive.material != null){
+			return materialLoader.get(primitive.material);
+		}else{
+			return materialLoader.getDefaultMaterial();
+		}
+	}
+	
+	/** 
+	 * @return texture coordinates unit used by the primitive material normal map (same rules as material loader), 
+	 * -1 if there is no normal map.
+	 */
+	private static int getNormalMapUVIndex(Array<GLTFMaterial> glMaterials, GLTFPrimitive primitive){
+		if(primitive.material == null || glMaterials == null) return -1;
+		GLTFTextureInfo normalTexture = glMaterials.get(primitive.material).normalTexture;
+		if(normalTexture == null) return -1;
+		if(normalTexture.extensions != null){
+			KHRTextureTransform ext = normalTexture.extensions.get(KHRTextureTransform.class, KHRTextureTransform.EXT);
+			if(ext != null && ext.texCoord != null){
+				return ext.texCoord;
+			}
+		}
+		return normalTexture.texCoord;
+	}
+	
+	/**
+	 * @param normalMapUVIndex texture coordinates unit used by the normal map, -1 if material doesn't have a normal map.
+	 */
+	private PrimitiveData preparePrimitive(GLTFMesh glMesh, GLTFPrimitive primitive, DataResolver dataResolver, int normalMapUVIndex){
+		
+		final int glPrimitiveType = GLTFTypes.mapPrimitiveMode(primitive.mode);
+		
+		// vertices
+		Array<VertexAttribute> vertexAttributes = new Array<VertexAttribute>();
+		Array<GLTFAccessor> glAccessors = new Array<GLTFAccessor>();
+		
+		Array<GLTFAccessor> bonesIndices = new Array<GLTFAccessor>();
+		Array<GLTFAccessor> bonesWeights = new Array<GLTFAccessor>();
+		
+		boolean hasNormals = false;
+		boolean hasTangent = false;
+		
+		for(Entry<String, Integer> attribute : primitive.attributes){
+			String attributeName = attribute.key;
+			int accessorId = attribute.value;
+			GLTFAccessor accessor = dataResolver.getAccessor(accessorId);
+			boolean rawAttribute = true;
 			
-			for(GLTFPrimitive primitive : glMesh.primitives){
+			if(attributeName.equals("POSITION")){
+				if(!isValidFormat(accessor, GLTFTypes.TYPE_VEC3, false)) throw new GLTFIllegalException("illegal position attribute format");
+				vertexAttributes.add(accessor.componentType == GLTFTypes.C_FLOAT ? VertexAttribute.Position() : 
+					createQuantizedAttribute(Usage.Position, accessor, ShaderProgram.POSITION_ATTRIBUTE, 0));
+			}else if(attributeName.equals("NORMAL")){
+				if(!isValidFormat(accessor, GLTFTypes.TYPE_VEC3, true)) throw new GLTFIllegalException("illegal normal attribute format");
+				vertexAttributes.add(accessor.componentType == GLTFTypes.C_FLOAT ? VertexAttribute.Normal() : 
+					createQuantizedAttribute(Usage.Normal, accessor, ShaderProgram.NORMAL_ATTRIBUTE, 0));
+				hasNormals = true;
+			}else if(attributeName.equals("TANGENT")){
+				if(!isValidFormat(accessor, GLTFTypes.TYPE_VEC4, true)) throw new GLTFIllegalException("illegal tangent attribute format");
+				vertexAttributes.add(accessor.componentType == GLTFTypes.C_FLOAT ? new VertexAttribute(Usage.Tangent, 4, ShaderProgram.TANGENT_ATTRIBUTE) : 
+					createQuantizedAttribute(Usage.Tangent, accessor, ShaderProgram.TANGENT_ATTRIBUTE, 0));
+				hasTangent = true;
+			}else if(attributeName.startsWith("TEXCOORD_")){
+				if(!GLTFTypes.TYPE_VEC2.equals(accessor.type)) throw new GLTFIllegalException("illegal texture coordinate attribute type : " + accessor.type);
+				if(!isValidFormat(accessor, GLTFTypes.TYPE_VEC2, false)) throw new GLTFIllegalException("illegal texture coordinate component type : " + accessor.componentType);
+				int unit = parseAttributeUnit(attributeName);
+				vertexAttributes.add(accessor.componentType == GLTFTypes.C_FLOAT ? VertexAttribute.TexCoords(unit) : 
+					createQuantizedAttribute(Usage.TextureCoordinates, accessor, ShaderProgram.TEXCOORD_ATTRIBUTE + unit, unit));
+			}else if(attributeName.startsWith("COLOR_")){
+				int unit = parseAttributeUnit(attributeName);
+				String alias = unit > 0 ? ShaderProgram.COLOR_ATTRIBUTE + unit : ShaderProgram.COLOR_ATTRIBUTE;
+				if(GLTFTypes.TYPE_VEC4.equals(accessor.type)){
+					if(GLTFTypes.C_FLOAT == accessor.componentType){
+						vertexAttributes.add(new VertexAttribute(Usage.ColorUnpacked, 4, GL20.GL_FLOAT, false, alias));
+					}
+					else if(GLTFTypes.C_USHORT == accessor.componentType){
+						vertexAttributes.add(new VertexAttribute(Usage.ColorUnpacked, 4, GL20.GL_UNSIGNED_SHORT, true, alias));
+					}
+					else if(GLTFTypes.C_UBYTE == accessor.componentType){
+						vertexAttributes.add(new VertexAttribute(Usage.ColorUnpacked, 4, GL20.GL_UNSIGNED_BYTE, true, alias));
+					}else{
+						throw new GLTFIllegalException("illegal color attribute component type: " + accessor.type);
+					}
+				}
+				else if(GLTFTypes.TYPE_VEC3.equals(accessor.type)){
+					if(GLTFTypes.C_FLOAT == accessor.componentType){
+						vertexAttributes.add(new VertexAttribute(Usage.ColorUnpacked, 3, GL20.GL_FLOAT, false, alias));
+					}
+					else if(GLTFTypes.C_USHORT == accessor.componentType){
+						throw new GLTFUnsupportedException("RGB unsigned short color attribute not supported");
+					}
+					else if(GLTFTypes.C_UBYTE == accessor.componentType){
+						throw new GLTFUnsupportedException("RGB unsigned byte color attribute not supported");
+					}else{
+						throw new GLTFIllegalException("illegal color attribute component type: " + accessor.type);
+					}
+				}
+				else{
+					throw new GLTFIllegalException("illegal color attribute type: " + accessor.type);
+				}
+					
+			}else if(attributeName.startsWith("WEIGHTS_")){
+				rawAttribute = false;
 				
-				final int glPrimitiveType = GLTFTypes.mapPrimitiveMode(primitive.mode);
+				if(!GLTFTypes.TYPE_VEC4.equals(accessor.type)){
+					throw new GLTFIllegalException("illegal weight attribute type: " + accessor.type);
+				}
 				
-				// material
-				Material material;
-				if(primitive.material != null){
-					material = materialLoader.get(primitive.material);
+				int unit = parseAttributeUnit(attributeName);
+				if(unit >= bonesWeights.size) bonesWeights.setSize(unit+1);
+
+				if(accessor.componentType == GLTFTypes.C_FLOAT ||
+						accessor.componentType == GLTFTypes.C_USHORT ||
+						accessor.componentType == GLTFTypes.C_UBYTE){ 
+					bonesWeights.set(unit, accessor);
 				}else{
-					material = materialLoader.getDefaultMaterial();
+					throw new GLTFIllegalException("illegal weight attribute type: " + accessor.componentType);
 				}
+			}else if(attributeName.startsWith("JOINTS_")){
+				rawAttribute = false;
 				
-				// vertices
-				Array<VertexAttribute> vertexAttributes = new Array<VertexAttribute>();
-				Array<GLTFAccessor> glAccessors = new Array<GLTFAccessor>();
-				
-				Array<int[]> bonesIndices = new Array<int[]>();
-				Array<float[]> bonesWeights = new Array<float[]>();
+				if(!GLTFTypes.TYPE_VEC4.equals(accessor.type)){
+					throw new GLTFIllegalException("illegal joints attribute type: " + accessor.type);
+				}
 				
-				boolean hasNormals = false;
-				boolean hasTangent = false;
+				int unit = parseAttributeUnit(attributeName);
+				if(unit >= bonesIndices.size) bonesIndices.setSize(unit+1);
 				
-				for(Entry<String, Integer> attribute : primitive.attributes){
+				if(accessor.componentType == GLTFTypes.C_UBYTE || accessor.componentType == GLTFTypes.C_USHORT){
+					bonesIndices.set(unit, accessor);
+				}else{
+					throw new GLTFIllegalException("illegal type for joints: " + accessor.componentType);
+				}
+			}
+			else if(attributeName.startsWith("_")){
+				Gdx.app.error("GLTF", "skip unsupported custom attribute: " + attributeName);
+			}else{
+				throw new GLTFIllegalException("illegal attribute type " + attributeName);
+			}
+			
+			if(rawAttribute){
+				glAccessors.add(accessor);
+			}
+		}
+		
+		// morph targets
+		boolean morphTexture = primitive.targets != null && useMorphTargetsTexture(primitive.targets.size);
+		if(morphTexture){
+			// only vertex index is stored in vertices
+			vertexAttributes.add(new VertexAttribute(PBRVertexAttributes.Usage.MorphTargetsIndex, 1, PBRVertexAttributes.MORPH_TARGETS_INDEX_ATTRIBUTE));
+			glAccessors.add(null);
+		}else if(primitive.targets != null){
+			for(int t=0 ; t<primitive.targets.size ; t++){
+				int unit = t;
+				for(Entry<String, Integer> attribute : primitive.targets.get(t)){
 					String attributeName = attribute.key;
-					int accessorId = attribute.value;
+					int accessorId = attribute.value.intValue();
 					GLTFAccessor accessor = dataResolver.getAccessor(accessorId);
-					boolean rawAttribute = true;
+					glAccessors.add(accessor);
 					
 					if(attributeName.equals("POSITION")){
-						if(!(GLTFTypes.TYPE_VEC3.equals(accessor.type) && accessor.componentType == GLTFTypes.C_FLOAT)) throw new GLTFIllegalException("illegal position attribute format");
-						vertexAttributes.add(VertexAttribute.Position());
+						if(!isValidFormat(accessor, GLTFTypes.TYPE_VEC3, false)) throw new GLTFIllegalException("illegal morph target position attribute format");
+						vertexAttributes.add(createTargetAttribute(PBRVertexAttributes.Usage.PositionTarget, accessor, ShaderProgram.POSITION_ATTRIBUTE+unit, unit));
 					}else if(attributeName.equals("NORMAL")){
-						if(!(GLTFTypes.TYPE_VEC3.equals(accessor.type) && accessor.componentType == GLTFTypes.C_FLOAT)) throw new GLTFIllegalException("illegal normal attribute format");
-						vertexAttributes.add(VertexAttribute.Normal());
-						hasNormals = true;
+						if(!isValidFormat(accessor, GLTFTypes.TYPE_VEC3, true)) throw new GLTFIllegalException("illegal morph target normal attribute format");
+						vertexAttributes.add(createTargetAttribute(PBRVertexAttributes.Usage.NormalTarget, accessor, ShaderProgram.NORMAL_ATTRIBUTE + unit, unit));
 					}else if(attributeName.equals("TANGENT")){
-						if(!(GLTFTypes.TYPE_VEC4.equals(accessor.type) && accessor.componentType == GLTFTypes.C_FLOAT)) throw new GLTFIllegalException("illegal tangent attribute format");
-						vertexAttributes.add(new VertexAttribute(Usage.Tangent, 4, ShaderProgram.TANGENT_ATTRIBUTE));
-						hasTangent = true;
-					}else if(attributeName.startsWith("TEXCOORD_")){
-						if(!GLTFTypes.TYPE_VEC2.equals(accessor.type)) throw new GLTFIllegalException("illegal texture coordinate attribute type : " + accessor.type);
-						if(accessor.componentType == GLTFTypes.C_UBYTE) throw new GLTFUnsupportedException("unsigned byte texture coordinate attribute not supported");
-						if(accessor.componentType == GLTFTypes.C_USHORT) throw new GLTFUnsupportedException("unsigned short texture coordinate attribute not supported");
-						if(accessor.componentType != GLTFTypes.C_FLOAT) throw new GLTFIllegalException("illegal texture coordinate component type : " + accessor.componentType);
-						int unit = parseAttributeUnit(attributeName);
-						vertexAttributes.add(VertexAttribute.TexCoords(unit));
-					}else if(attributeName.startsWith("COLOR_")){
-						int unit = parseAttributeUnit(attributeName);
-						String alias = unit > 0 ? ShaderProgram.COLOR_ATTRIBUTE + unit : ShaderProgram.COLOR_ATTRIBUTE;
-						if(GLTFTypes.TYPE_VEC4.equals(accessor.type)){
-							if(GLTFTypes.C_FLOAT == accessor.componentType){
-								vertexAttributes.add(new VertexAttribute(Usage.ColorUnpacked, 4, GL20.GL_FLOAT, false, alias));
-							}
-							else if(GLTFTypes.C_USHORT == accessor.componentType){
-								vertexAttributes.add(new VertexAttribute(Usage.ColorUnpacked, 4, GL20.GL_UNSIGNED_SHORT, true, alias));
-							}
-							else if(GLTFTypes.C_UBYTE == accessor.componentType){
-								vertexAttributes.add(new VertexAttribute(Usage.ColorUnpacked, 4, GL20.GL_UNSIGNED_BYTE, true, alias));
-							}else{
-								throw new GLTFIllegalException("illegal color attribute component type: " + accessor.type);
-							}
-						}
-						else if(GLTFTypes.TYPE_VEC3.equals(accessor.type)){
-							if(GLTFTypes.C_FLOAT == accessor.componentType){
-								vertexAttributes.add(new VertexAttribute(Usage.ColorUnpacked, 3, GL20.GL_FLOAT, false, alias));
-							}
-							else if(GLTFTypes.C_USHORT == accessor.componentType){
-								throw new GLTFUnsupportedException("RGB unsigned short color attribute not supported");
-							}
-							else if(GLTFTypes.C_UBYTE == accessor.componentType){
-								throw new GLTFUnsupportedException("RGB unsigned byte color attribute not supported");
-							}else{
-								throw new GLTFIllegalException("illegal color attribute component type: " + accessor.type);
-							}
-						}
-						else{
-							throw new GLTFIllegalException("illegal color attribute type: " + accessor.type);
-						}
-							
-					}else if(attributeName.startsWith("WEIGHTS_")){
-						rawAttribute = false;
-						
-						if(!GLTFTypes.TYPE_VEC4.equals(accessor.type)){
-							throw new GLTFIllegalException("illegal weight attribute type: " + accessor.type);
-						}
-						
-						int unit = parseAttributeUnit(attributeName);
-						if(unit >= bonesWeights.size) bonesWeights.setSize(unit+1);
-
-						if(accessor.componentType == GLTFTypes.C_FLOAT){
-							bonesWeights.set(unit, dataResolver.readBufferFloat(accessorId));
-						}else if(accessor.componentType == GLTFTypes.C_USHORT){ 
-							bonesWeights.set(unit, dataResolver.readBufferUShortAsFloat(accessorId));
-						}else if(accessor.componentType == GLTFTypes.C_UBYTE){ 
-							bonesWeights.set(unit, dataResolver.readBufferUByteAsFloat(accessorId));
-						}else{
-							throw new GLTFIllegalException("illegal weight attribute type: " + accessor.componentType);
-						}
-					}else if(attributeName.startsWith("JOINTS_")){
-						rawAttribute = false;
-						
-						if(!GLTFTypes.TYPE_VEC4.equals(accessor.type)){
-							throw new GLTFIllegalException("illegal joints attribute type: " + accessor.type);
-						}
-						
-						int unit = parseAttributeUnit(attributeName);
-						if(unit >= bonesIndices.size) bonesIndices.setSize(unit+1);
-						
-						if(accessor.componentType == GLTFTypes.C_UBYTE){ // unsigned byte
-							bonesIndices.set(unit, dataResolver.readBufferUByte(accessorId));
-						}else if(accessor.componentType == GLTFTypes.C_USHORT){ // unsigned short
-							bonesIndices.set(unit, dataResolver.readBufferUShort(accessorId));
-						}else{
-							throw new GLTFIllegalException("illegal type for joints: " + accessor.componentType);
-						}
-					}
-					else if(attributeName.startsWith("_")){
-						Gdx.app.error("GLTF", "skip unsupported custom attribute: " + attributeName);
+						if(!isValidFormat(accessor, GLTFTypes.TYPE_VEC3, true)) throw new GLTFIllegalException("illegal morph target tangent attribute format");
+						vertexAttributes.add(createTargetAttribute(PBRVertexAttributes.Usage.TangentTarget, accessor, ShaderProgram.TANGENT_ATTRIBUTE + unit, unit));
 					}else{
-						throw new GLTFIllegalException("illegal attribute type " + attributeName);
-					}
-					
-					if(rawAttribute){
-						glAccessors.add(accessor);
+						throw new GLTFIllegalException("illegal morph target attribute type " + attributeName);
 					}
 				}
-				
-				// morph targets
-				if(primitive.targets != null){
-					int morphTargetCount = primitive.targets.size;
-					((NodePlus)node).weights = new WeightVector(morphTargetCount);
-					
-					for(int t=0 ; t<primitive.targets.size ; t++){
-						int unit = t;
-						for(Entry<String, Integer> attribute : primitive.targets.get(t)){
-							String attributeName = attribute.key;
-							int accessorId = attribute.value.intValue();
-							GLTFAccessor accessor = dataResolver.getAccessor(accessorId);
-							glAccessors.add(accessor);
-							
-							if(attributeName.equals("POSITION")){
-								if(!(GLTFTypes.TYPE_VEC3.equals(accessor.type) && accessor.componentType == GLTFTypes.C_FLOAT)) throw new GLTFIllegalException("illegal morph target position attribute format");
-								vertexAttributes.add(new VertexAttribute(PBRVertexAttributes.Usage.PositionTarget, 3, ShaderProgram.POSITION_ATTRIBUTE+unit, unit));
-							}else if(attributeName.equals("NORMAL")){
-								if(!(GLTFTypes.TYPE_VEC3.equals(accessor.type) && accessor.componentType == GLTFTypes.C_FLOAT)) throw new GLTFIllegalException("illegal morph target normal attribute format");
-								vertexAttributes.add(new VertexAttribute(PBRVertexAttributes.Usage.NormalTarget, 3, ShaderProgram.NORMAL_ATTRIBUTE + unit, unit));
-							}else if(attributeName.equals("TANGENT")){
-								if(!(GLTFTypes.TYPE_VEC3.equals(accessor.type) && accessor.componentType == GLTFTypes.C_FLOAT)) throw new GLTFIllegalException("illegal morph target tangent attribute format");
-								vertexAttributes.add(new VertexAttribute(PBRVertexAttributes.Usage.TangentTarget, 3, ShaderProgram.TANGENT_ATTRIBUTE + unit, unit));
-							}else{
-								throw new GLTFIllegalException("illegal morph target attribute type " + attributeName);
-							}
+			}
+			
+		}
+		
+		int bSize = bonesIndices.size * 4;
+
+		Array<VertexAttribute> bonesAttributes = new Array<VertexAttribute>();
+		for(int b=0 ; b<bSize ; b++){
+			VertexAttribute boneAttribute = VertexAttribute.BoneWeight(b);
+			vertexAttributes.add(boneAttribute);
+			bonesAttributes.add(boneAttribute);
+		}
+		
+		// add missing vertex attributes (normals and tangent)
+		boolean computeNormals = false;
+		boolean computeTangents = false;
+		VertexAttribute normalMapUVs = null;
+		if(glPrimitiveType == GL20.GL_TRIANGLES){
+			if(!hasNormals){
+				vertexAttributes.add(VertexAttribute.Normal());
+				glAccessors.add(null);
+				computeNormals = true;
+			}
+			if(!hasTangent){
+				// tangent is only needed when normal map is used
+				if(normalMapUVIndex >= 0){
+					vertexAttributes.add(new VertexAttribute(Usage.Tangent, 4, ShaderProgram.TANGENT_ATTRIBUTE));
+					glAccessors.add(null);
+					computeTangents = true;
+					for(VertexAttribute attribute : vertexAttributes){
+						if(attribute.usage == Usage.TextureCoordinates && attribute.unit == normalMapUVIndex){
+							normalMapUVs = attribute;
 						}
 					}
-					
+					if(normalMapUVs == null) throw new GLTFIllegalException("UVs not found for normal map");
 				}
-				
-				int bSize = bonesIndices.size * 4;
-
-				Array<VertexAttribute> bonesAttributes = new Array<VertexAttribute>();
-				for(int b=0 ; b<bSize ; b++){
-					VertexAttribute boneAttribute = VertexAttribute.BoneWeight(b);
-					vertexAttributes.add(boneAttribute);
-					bonesAttributes.add(boneAttribute);
+			}
+		}
+		
+		// normals and tangents are generated from float positions, normals and texture coordinates.
+		if(computeNormals || computeTangents){
+			for(VertexAttribute attribute : vertexAttributes){
+				boolean required = attribute.usage == Usage.Position || attribute.usage == Usage.Normal || attribute == normalMapUVs;
+				if(required && attribute.type != GL20.GL_FLOAT){
+					throw new GLTFUnsupportedException("normals and tangents generation not supported for quantized attributes");
 				}
-				
-				// add missing vertex attributes (normals and tangent)
-				boolean computeNormals = false;
-				boolean computeTangents = false;
-				VertexAttribute normalMapUVs = null;
-				if(glPrimitiveType == GL20.GL_TRIANGLES){
-					if(!hasNormals){
-						vertexAttributes.add(VertexAttribute.Normal());
-						glAccessors.add(null);
-						computeNormals = true;
-					}
-					if(!hasTangent){
-						// tangent is only needed when normal map is used
-						PBRTextureAttribute normalMap = material.get(PBRTextureAttribute.class, PBRTextureAttribute.NormalTexture);
-						if(normalMap != null){
-							vertexAttributes.add(new VertexAttribute(Usage.Tangent, 4, ShaderProgram.TANGENT_ATTRIBUTE));
-							glAccessors.add(null);
-							computeTangents = true;
-							for(VertexAttribute attribute : vertexAttributes){
-								if(attribute.usage == Usage.TextureCoordinates && attribute.unit == normalMap.uvIndex){
-									normalMapUVs = attribute;
-								}
-							}
-							if(normalMapUVs == null) throw new GLTFIllegalException("UVs not found for normal map");
-						}
+			}
+		}
+
+		// optional compression of float attributes, converted when copied into vertices.
+		// not supported by GWT: packed integers may form NaN floats which are not preserved by WebGL float arrays.
+		if((compressNormals || compressTexCoords) && Gdx.app.getType() != ApplicationType.WebGL){
+			for(int i=0 ; i<glAccessors.size ; i++){
+				GLTFAccessor glAccessor = glAccessors.get(i);
+				if(glAccessor == null || glAccessor.componentType != GLTFTypes.C_FLOAT) continue;
+				VertexAttribute attribute = vertexAttributes.get(i);
+				VertexAttribute compressed = null;
+				if(compressNormals && attribute.usage == Usage.Normal && !computeTangents){
+					// padded to 4 bytes, extra component is ignored by vec3 shader attribute.
+					compressed = new VertexAttribute(Usage.Normal, 4, GL20.GL_BYTE, true, attribute.alias);
+				}else if(compressNormals && attribute.usage == Usage.Tangent){
+					compressed = new VertexAttribute(Usage.Tangent, 4, GL20.GL_BYTE, true, attribute.alias);
+				}else if(compressTexCoords && attribute.usage == Usage.TextureCoordinates && attribute != normalMapUVs){
+					int type = getTexCoordsCompressedType(glAccessor, dataResolver);
+					if(type != GL20.GL_FLOAT){
+						compressed = new VertexAttribute(Usage.TextureCoordinates, 2, type, true, attribute.alias, attribute.unit);
 					}
 				}
-				
-				VertexAttributes attributesGroup = new VertexAttributes((VertexAttribute[])vertexAttributes.toArray(VertexAttribute.class));
-				
-				int vertexFloats = attributesGroup.vertexSize/4;
-				
-				int maxVertices = glAccessors.first().count;
+				if(compressed != null){
+					vertexAttributes.set(i, compressed);
+				}
+			}
+		}
+
+		VertexAttributes attributesGroup = new VertexAttributes((VertexAttribute[])vertexAttributes.toArray(VertexAttribute.class));
+		
+		PrimitiveData data = new PrimitiveData();
+		data.primitive = primitive;
+		data.attributes = attributesGroup;
+		data.primitiveType = glPrimitiveType;
+		computeBounds(primitive, dataResolver, data.bounds);
+		
+		int vertexFloats = attributesGroup.vertexSize/4;
+		
+		int maxVertices = glAccessors.first().count;
+
+		float [] vertices = new float [maxVertices * vertexFloats];
+		
+		// bones are directly written from source buffers
+		for(int b=0 ; b<bSize ; b++){
+			VertexAttribute boneAttribute = bonesAttributes.get(b);
+			GLTFAccessor jointsAccessor = bonesIndices.get(b/4);
+			GLTFAccessor weightsAccessor = b/4 < bonesWeights.size ? bonesWeights.get(b/4) : null;
+			if(jointsAccessor == null || weightsAccessor == null){
+				throw new GLTFIllegalException("joints and weights attributes mismatch");
+			}
+			int vOffset = boneAttribute.offset/4;
+			MeshInterleaver.copyJoints(dataResolver.getBufferByte(jointsAccessor), jointsAccessor.componentType, 
+					getByteStride(dataResolver, jointsAccessor), maxVertices, b%4, vertices, vOffset, vertexFloats);
+			MeshInterleaver.copyWeights(dataResolver.getBufferByte(weightsAccessor), weightsAccessor.componentType, 
+					getByteStride(dataResolver, weightsAccessor), maxVertices, b%4, vertices, vOffset+1, vertexFloats);
+		}
+		
+		for(int i=0 ; i<glAccessors.size ; i++){
+			GLTFAccessor glAccessor = glAccessors.get(i);
+			VertexAttribute attribute = vertexAttributes.get(i);
+			
+			
+			if(glAccessor == null) continue;
+			
+			if(glAccessor.bufferView == null){
+				throw new GLTFIllegalException("bufferView is null (mesh compression ?)");
+			}
+			
+			if(glAccessor.componentType != GLTFTypes.C_FLOAT){
+				MeshInterleaver.copyBytes(dataResolver.getBufferByte(glAccessor), getByteStride(dataResolver, glAccessor), glAccessor.count, 
+						GLTFTypes.accessorStrideSize(glAccessor), vertices, attribute.offset/4, vertexFloats);
+				continue;
+			}
+			
+			GLTFBufferView glBufferView = dataResolver.getBufferView(glAccessor.bufferView);
+			
+			FloatBuffer floatBuffer = dataResolver.getBufferFloat(glAccessor);
+			
+			int attributeFloats = GLTFTypes.accessorStrideSize(glAccessor) / 4;
 
-				float [] vertices = new float [maxVertices * vertexFloats];
+			// buffer can be interleaved, so vertex stride may be different than vertex size 
+			int floatStride = glBufferView.byteStride == null ? attributeFloats : glBufferView.byteStride / 4;
+			
+			if(attribute.type != GL20.GL_FLOAT){
+				MeshInterleaver.copyNormalized(floatBuffer, floatStride, glAccessor.count, attributeFloats, attribute.type, vertices, attribute.offset/4, vertexFloats);
+				continue;
+			}
+			
+			MeshInterleaver.copy(floatBuffer, floatStride, glAccessor.count, attributeFloats, vertices, attribute.offset/4, vertexFloats);
+		}
+		
+		if(morphTexture){
+			int indexOffset = attributesGroup.findByUsage(PBRVertexAttributes.Usage.MorphTargetsIndex).offset/4;
+			for(int v=0 ; v<maxVertices ; v++){
+				vertices[v * vertexFloats + indexOffset] = v;
+			}
+			data.morphTargets = loadMorphTargets(primitive, dataResolver, maxVertices);
+		}
+		
+		// indices
+		if(primitive.indices != null){
+			
+			GLTFAccessor indicesAccessor = dataResolver.getAccessor(primitive.indices);
+			
+			if(!indicesAccessor.type.equals(GLTFTypes.TYPE_SCALAR)){
+				throw new GLTFIllegalException("indices accessor must be SCALAR but was " + indicesAccessor.type);
+			}
 				
-				for(int b=0 ; b<bSize ; b++){
-					VertexAttribute boneAttribute = bonesAttributes.get(b);
-					for(int i=0 ; i<maxVertices ; i++){
-						vertices[i * vertexFloats + boneAttribute.offset/4] = bonesIndices.get(b/4)[i * 4 + b%4];
-						vertices[i * vertexFloats + boneAttribute.offset/4+1] = bonesWeights.get(b/4)[i * 4 + b%4];
+			int maxIndices = indicesAccessor.count;
+			
+			switch(indicesAccessor.componentType){
+			case GLTFTypes.C_UINT:
+			{
+				IntBuffer intBuffer = dataResolver.getBufferInt(indicesAccessor);
+				// 65535 is excluded since it can be used as primitive restart index.
+				if(maxVertices < 65535){
+					short [] indices = new short[maxIndices];
+					for(int i=0 ; i<maxIndices ; i++){
+						indices[i] = (short)intBuffer.get();
 					}
+					addPart(data, glMesh.name, vertices, indices, computeNormals, computeTangents, normalMapUVs);
+				}else{
+					int [] indices = new int[maxIndices];
+					intBuffer.get(indices);
+					addPart(data, glMesh.name, vertices, indices, computeNormals, computeTangents, normalMapUVs);
 				}
-				
-				for(int i=0 ; i<glAccessors.size ; i++){
-					GLTFAccessor glAccessor = glAccessors.get(i);
-					VertexAttribute attribute = vertexAttributes.get(i);
-					
-					
-					if(glAccessor == null) continue;
-					
-					if(glAccessor.bufferView == null){
-						throw new GLTFIllegalException("bufferView is null (mesh compression ?)");
-					}
-					
-					GLTFBufferView glBufferView = dataResolver.getBufferView(glAccessor.bufferView);
-					
-					FloatBuffer floatBuffer = dataResolver.getBufferFloat(glAccessor);
-					
-					int attributeFloats = GLTFTypes.accessorStrideSize(glAccessor) / 4;
-
-					// buffer can be interleaved, so vertex stride may be different than vertex size 
-					int floatStride = glBufferView.byteStride == null ? attributeFloats : glBufferView.byteStride / 4;
-					
-					for(int j=0 ; j<glAccessor.count ; j++){
-						
-						floatBuffer.position(j * floatStride);
-						
-						int vIndex = j * vertexFloats + attribute.offset/4;
-						
-						floatBuffer.get(vertices, vIndex, attributeFloats);
-					}
+				break;
+			}
+			case GLTFTypes.C_USHORT:
+			case GLTFTypes.C_SHORT:
+			{
+				short [] indices = new short[maxIndices];
+				dataResolver.getBufferShort(indicesAccessor).get(indices);
+				addPart(data, glMesh.name, vertices, indices, computeNormals, computeTangents, normalMapUVs);
+				break;
+			}
+			case GLTFTypes.C_UBYTE:
+			{
+				short [] indices = new short[maxIndices];
+				ByteBuffer byteBuffer = dataResolver.getBufferByte(indicesAccessor);
+				for(int i=0 ; i<maxIndices ; i++){
+					indices[i] = (short)(byteBuffer.get() & 0xFF);
 				}
-				
-				// indices
-				if(primitive.indices != null){
-					
-					GLTFAccessor indicesAccessor = dataResolver.getAccessor(primitive.indices);
-					
-					if(!indicesAccessor.type.equals(GLTFTypes.TYPE_SCALAR)){
-						throw new GLTFIllegalException("indices accessor must be SCALAR but was " + indicesAccessor.type);
-					}
-						
-					int maxIndices = indicesAccessor.count;
-					
-					switch(indicesAccessor.componentType){
-					case GLTFTypes.C_UINT:
-						{
-							Gdx.app.error("GLTF", "integer indices partially supported, mesh will be split");
-							Gdx.app.error("GLTF", "splitting mesh: " + maxVertices + " vertices, " + maxIndices + " indices.");
+				addPart(data, glMesh.name, vertices, indices, computeNormals, computeTangents, normalMapUVs);
+				break;
+			}
+			default:
+				throw new GLTFIllegalException("illegal componentType " + indicesAccessor.componentType);
+			}
+		}else{
+			// non indexed mesh
+			addPart(data, glMesh.name, vertices, null, computeNormals, computeTangents, normalMapUVs);
+		}
+		return data;
+	}
 
-							int verticesPerPrimitive;
-							if(glPrimitiveType == GL20.GL_TRIANGLES){
-								verticesPerPrimitive = 3;
-							}else if(glPrimitiveType == GL20.GL_LINES){
-								verticesPerPrimitive = 2;
-							}else{
-								throw new GLTFUnsupportedException("integer indices only supported for triangles or lines");
-							}
-							
-							int [] indices = new int[maxIndices];
-							dataResolver.getBufferInt(indicesAccessor).get(indices);
-							
-							Array<float[]> splitVertices = new Array<float[]>();
-							Array<short[]> splitIndices = new Array<short[]>();
-							
-							MeshSpliter.split(splitVertices, splitIndices, vertices, attributesGroup, indices, verticesPerPrimitive);
-							
-							int stride = attributesGroup.vertexSize / 4;
-							int groups = splitIndices.size;
-							int totalVertices = 0;
-							int totalIndices = 0;
-							for(int i=0 ; i<groups ; i++){
-								float[] groupVertices = splitVertices.get(i);
-								short[] groupIndices = splitIndices.get(i);
-								int groupVertexCount = groupVertices.length / stride;
-								
-								totalVertices += groupVertexCount;
-								totalIndices += groupIndices.length;
-								
-								Gdx.app.error("GLTF", "generate mesh: " + groupVertexCount + " vertices, " + groupIndices.length + " indices.");
-								
-								generateParts(node, parts, material, glMesh.name, groupVertices, groupVertexCount, groupIndices, attributesGroup, glPrimitiveType, computeNormals, computeTangents, normalMapUVs);
-							}
-							Gdx.app.error("GLTF", "mesh split: " + parts.size + " meshes generated: " + totalVertices + " vertices, " + totalIndices + " indices.");
-						}
-						break;
-					case GLTFTypes.C_USHORT:
-					case GLTFTypes.C_SHORT:
-					{
-						short [] indices = new short[maxIndices];
-						dataResolver.getBufferShort(indicesAccessor).get(indices);
-						generateParts(node, parts, material, glMesh.name, vertices, maxVertices, indices, attributesGroup, glPrimitiveType, computeNormals, computeTangents, normalMapUVs);
-						break;
-					}
-					case GLTFTypes.C_UBYTE:
-					{
-						short [] indices = new short[maxIndices];
-						ByteBuffer byteBuffer = dataResolver.getBufferByte(indicesAccessor);
-						for(int i=0 ; i<maxIndices ; i++){
-							indices[i] = (short)(byteBuffer.get() & 0xFF);
-						}
-						generateParts(node, parts, material, glMesh.name, vertices, maxVertices, indices, attributesGroup, glPrimitiveType, computeNormals, computeTangents, normalMapUVs);
-						break;
-					}
-					default:
-						throw new GLTFIllegalException("illegal componentType " + indicesAccessor.componentType);
-					}
+	private boolean useMorphTargetsTexture(int targets){
+		if(!morphTargetsTexture && targets <= PBRCommon.MAX_MORPH_TARGETS) return false;
+		if(Gdx.gl30 == null){
+			if(morphTargetsTexture) Gdx.app.error("GLTF", "morph targets texture requires GL30, vertex attributes are used instead");
+			return false;
+		}
+		return true;
+	}
+	
+	private static MorphTargetsTexture loadMorphTargets(GLTFPrimitive primitive, DataResolver dataResolver, int vertices){
+		boolean positions = false, normals = false, tangents = false;
+		for(int t=0 ; t<primitive.targets.size ; t++){
+			for(Entry<String, Integer> attribute : primitive.targets.get(t)){
+				GLTFAccessor accessor = dataResolver.getAccessor(attribute.value);
+				if(!isValidFormat(accessor, GLTFTypes.TYPE_VEC3, !attribute.key.equals("POSITION"))){
+					throw new GLTFIllegalException("illegal morph target " + attribute.key + " attribute format");
+				}
+				if(accessor.bufferView == null){
+					throw new GLTFUnsupportedException("sparse morph target accessors not supported");
+				}
+				if(attribute.key.equals("POSITION")){
+					positions = true;
+				}else if(attribute.key.equals("NORMAL")){
+					normals = true;
+				}else if(attribute.key.equals("TANGENT")){
+					tangents = true;
 				}else{
-					// non indexed mesh
-					generateParts(node, parts, material, glMesh.name, vertices, maxVertices, null, attributesGroup, glPrimitiveType, computeNormals, computeTangents, normalMapUVs);
+					throw new GLTFIllegalException("illegal morph target attribute type " + attribute.key);
 				}
 			}
-			meshMap.put(glMesh, parts);
 		}
-		node.parts.addAll(parts);
+		MorphTargetsTexture morphTargets = new MorphTargetsTexture(vertices, primitive.targets.size, positions, normals, tangents);
+		for(int t=0 ; t<primitive.targets.size ; t++){
+			for(Entry<String, Integer> attribute : primitive.targets.get(t)){
+				int offset;
+				if(attribute.key.equals("POSITION")){
+					offset = morphTargets.positionOffset;
+				}else if(attribute.key.equals("NORMAL")){
+					offset = morphTargets.normalOffset;
+				}else{
+					offset = morphTargets.tangentOffset;
+				}
+				morphTargets.set(t, offset, dataResolver.readBufferFloat(attribute.value));
+			}
+		}
+		return morphTargets;
 	}
-
-	private void generateParts(Node node, Array<NodePart> parts, Material material, String id, float[] vertices, int vertexCount, short[] indices, VertexAttributes attributesGroup, int glPrimitiveType, boolean computeNormals, boolean computeTangents, VertexAttribute normalMapUVs) {
-
+	
+	/**
+	 * Compute primitive local bounds from POSITION accessors min/max, morph targets displacements are included
+	 * assuming weights in [0, 1] range. Bounds are left invalid when min/max are missing.
+	 */
+	private static void computeBounds(GLTFPrimitive primitive, DataResolver dataResolver, BoundingBox bounds){
+		bounds.inf();
+		Integer positionAccessorId = primitive.attributes.get("POSITION");
+		if(positionAccessorId == null) return;
+		GLTFAccessor accessor = dataResolver.getAccessor(positionAccessorId);
+		if(!hasBounds(accessor)) return;
+		float minX = GLTFTypes.dequantize(accessor, accessor.min[0]), minY = GLTFTypes.dequantize(accessor, accessor.min[1]), minZ = GLTFTypes.dequantize(accessor, accessor.min[2]);
+		float maxX = GLTFTypes.dequantize(accessor, accessor.max[0]), maxY = GLTFTypes.dequantize(accessor, accessor.max[1]), maxZ = GLTFTypes.dequantize(accessor, accessor.max[2]);
+		if(primitive.targets != null){
+			for(int t=0 ; t<primitive.targets.size ; t++){
+				Integer targetAccessorId = primitive.targets.get(t).get("POSITION");
+				if(targetAccessorId == null) continue;
+				GLTFAccessor targetAccessor = dataResolver.getAccessor(targetAccessorId);
+				if(!hasBounds(targetAccessor)) return;
+				minX += Math.min(0, GLTFTypes.dequantize(targetAccessor, targetAccessor.min[0]));
+				minY += Math.min(0, GLTFTypes.dequantize(targetAccessor, targetAccessor.min[1]));
+				minZ += Math.min(0, GLTFTypes.dequantize(targetAccessor, targetAccessor.min[2]));
+				maxX += Math.max(0, GLTFTypes.dequantize(targetAccessor, targetAccessor.max[0]));
+				maxY += Math.max(0, GLTFTypes.dequantize(targetAccessor, targetAccessor.max[1]));
+				maxZ += Math.max(0, GLTFTypes.dequantize(targetAccessor, targetAccessor.max[2]));
+			}
+		}
+		bounds.min.set(minX, minY, minZ);
+		bounds.max.set(maxX, maxY, maxZ);
+		bounds.update();
+	}
+	
+	/**
+	 * @param directions when true (normals and tangents), integer components have to be signed normalized.
+	 * @return true if accessor has given type and either float or integer components (KHR_mesh_quantization).
+	 */
+	private static boolean isValidFormat(GLTFAccessor accessor, String type, boolean directions){
+		if(!type.equals(accessor.type)) return false;
+		switch(accessor.componentType){
+		case GLTFTypes.C_FLOAT:
+			return true;
+		case GLTFTypes.C_BYTE:
+		case GLTFTypes.C_SHORT:
+			return !directions || accessor.normalized;
+		case GLTFTypes.C_UBYTE:
+		case GLTFTypes.C_USHORT:
+			return !directions;
+		default:
+			return false;
+		}
+	}
+	
+	/**
+	 * Integer attributes are kept as is in vertices (with the same normalization),
+	 * number of components is padded so that attribute size is a multiple of 4 bytes.
+	 */
+	private static VertexAttribute createQuantizedAttribute(int usage, GLTFAccessor accessor, String alias, int unit){
+		int componentSize = GLTFTypes.accessorComponentTypeSize(accessor);
+		int bytes = (GLTFTypes.accessorStrideSize(accessor) + 3) / 4 * 4;
+		return new VertexAttribute(usage, bytes / componentSize, accessor.componentType, accessor.normalized, alias, unit);
+	}
+	
+	/**
+	 * @return normalized type able to store texture coordinates of given accessor, {@link GL20#GL_FLOAT} if out of range.
+	 */
+	private static int getTexCoordsCompressedType(GLTFAccessor accessor, DataResolver dataResolver){
+		float min, max;
+		if(accessor.min != null && accessor.max != null && accessor.min.length >= 2 && accessor.max.length >= 2){
+			min = Math.min(accessor.min[0], accessor.min[1]);
+			max = Math.max(accessor.max[0], accessor.max[1]);
+		}else if(accessor.bufferView != null){
+			// optional for texture coordinates : scan data.
+			FloatBuffer buffer = dataResolver.getBufferFloat(accessor);
+			GLTFBufferView bufferView = dataResolver.getBufferView(accessor.bufferView);
+			int stride = bufferView.byteStride == null ? 2 : bufferView.byteStride / 4;
+			int start = buffer.position();
+			min = 0;
+			max = 0;
+			for(int i=0 ; i<accessor.count ; i++){
+				float u = buffer.get(start + i * stride);
+				float v = buffer.get(start + i * stride + 1);
+				min = Math.min(min, Math.min(u, v));
+				max = Math.max(max, Math.max(u, v));
+			}
+		}else{
+			return GL20.GL_FLOAT;
+		}
+		if(min >= 0 && max <= 1) return GL20.GL_UNSIGNED_SHORT;
+		if(min >= -1 && max <= 1) return GL20.GL_SHORT;
+		return GL20.GL_FLOAT;
+	}
+	
+	private static VertexAttribute createTargetAttribute(int usage, GLTFAccessor accessor, String alias, int unit){
+		if(accessor.componentType == GLTFTypes.C_FLOAT){
+			return new VertexAttribute(usage, 3, alias, unit);
+		}
+		return createQuantizedAttribute(usage, accessor, alias, unit);
+	}
+	
+	private static boolean hasBounds(GLTFAccessor accessor){
+		return accessor.min != null && accessor.max != null && accessor.min.length >= 3 && accessor.max.length >= 3;
+	}
+	
+	private void addPart(PrimitiveData data, String id, float[] vertices, short[] indices, boolean computeNormals, boolean computeTangents, VertexAttribute normalMapUVs) {
+		
 		// skip empty meshes
 		if(vertices.length == 0 || (indices != null && indices.length == 0)){
 			return;
@@ -381,10 +709,99 @@ public class MeshLoader {
 			if(computeNormals && computeTangents) Gdx.app.log("GLTF", "compute normals and tangents for primitive " + id);
 			else if(computeTangents) Gdx.app.log("GLTF", "compute tangents for primitive " + id);
 			else Gdx.app.log("GLTF", "compute normals for primitive " + id);
-			MeshTangentSpaceGenerator.computeTangentSpace(vertices, indices, attributesGroup, computeNormals, computeTangents, normalMapUVs);
+			MeshTangentSpaceGenerator.computeTangentSpace(vertices, indices, data.attributes, computeNormals, computeTangents, normalMapUVs);
+		}
+		
+		data.vertices.add(vertices);
+		data.indices.add(indices);
+	}
+	
+	private void addPart(PrimitiveData data, String id, float[] vertices, int[] indices, boolean computeNormals, boolean computeTangents, VertexAttribute normalMapUVs) {
+		
+		// skip empty meshes
+		if(vertices.length == 0 || indices.length == 0){
+			return;
+		}
+		
+		if(computeNormals || computeTangents){
+			if(computeNormals && computeTangents) Gdx.app.log("GLTF", "compute normals and tangents for primitive " + id);
+			else if(computeTangents) Gdx.app.log("GLTF", "compute tangents for primitive " + id);
+			else Gdx.app.log("GLTF", "compute normals for primitive " + id);
+			MeshTangentSpaceGenerator.computeTangentSpace(vertices, indices, data.attributes, computeNormals, computeTangents, normalMapUVs);
+		}
+		
+		data.intIndices = indices;
+		data.vertices.add(vertices);
+	}
+	
+	/**
+	 * Generate parts of a primitive having 32 bits indices: a single {@link IntIndexMesh} when supported,
+	 * split into 16 bits indices meshes otherwise.
+	 */
+	private void generateParts(Node node, Array<NodePart> parts, PrimitiveData data, Material material, String id, float[] vertices, int[] indices) {
+		
+		int vertexCount = vertices.length / (data.attributes.vertexSize / 4);
+		
+		// morph targets texture meshes can't have 32 bits indices but they support splitting.
+		if(data.morphTargets == null && IntIndexMesh.isSupported()){
+			IntIndexMesh mesh = new IntIndexMesh(true, vertexCount, indices.length, data.attributes);
+			meshes.add(mesh);
+			mesh.setVertices(vertices);
+			mesh.setIndices(indices);
+			addNodePart(node, parts, data, material, id, mesh, indices.length);
+			return;
+		}
+		
+		Gdx.app.error("GLTF", "integer indices not supported, mesh will be split");
+		Gdx.app.error("GLTF", "splitting mesh: " + vertexCount + " vertices, " + indices.length + " indices.");
+		
+		int verticesPerPrimitive;
+		if(data.primitiveType == GL20.GL_TRIANGLES){
+			verticesPerPrimitive = 3;
+		}else if(data.primitiveType == GL20.GL_LINES){
+			verticesPerPrimitive = 2;
+		}else{
+			throw new GLTFUnsupportedException("integer indices only supported for triangles or lines");
+		}
+		
+		Array<float[]> splitVertices = new Array<float[]>();
+		Array<short[]> splitIndices = new Array<short[]>();
+		
+		MeshSpliter.split(splitVertices, splitIndices, vertices, data.attributes, indices, verticesPerPrimitive);
+		
+		int stride = data.attributes.vertexSize / 4;
+		int groups = splitIndices.size;
+		int totalVertices = 0;
+		int totalIndices = 0;
+		for(int i=0 ; i<groups ; i++){
+			float[] groupVertices = splitVertices.get(i);
+			short[] groupIndices = splitIndices.get(i);
+			int groupVertexCount = groupVertices.length / stride;
+			
+			totalVertices += groupVertexCount;
+			totalIndices += groupIndices.length;
+			
+			Gdx.app.error("GLTF", "generate mesh: " + groupVertexCount + " vertices, " + groupIndices.length + " indices.");
+			
+			generateParts(node, parts, data, material, id, groupVertices, groupIndices);
 		}
+		Gdx.app.error("GLTF", "mesh split: " + groups + " meshes generated: " + totalVertices + " vertices, " + totalIndices + " indices.");
+	}
+	
+	private void generateParts(Node node, Array<NodePart> parts, PrimitiveData data, Material material, String id, float[] vertices, short[] indices) {
+		
+		int vertexCount = vertices.length / (data.attributes.vertexSize / 4);
 		
-		Mesh mesh = new Mesh(true, vertexCount, indices == null ? 0 : indices.length, attributesGroup);
+		Mesh mesh;
+		if(data.morphTargets != null){
+			// texture is shared by all meshes of a split primitive
+			data.morphTargets.load();
+			mesh = new MorphTargetsMesh(true, vertexCount, indices == null ? 0 : indices.length, data.attributes, data.morphTargets);
+		}else if(data.attributes.findByUsage(Usage.Position).type != GL20.GL_FLOAT){
+			mesh = new QuantizedMesh(true, vertexCount, indices == null ? 0 : indices.length, data.attributes);
+		}else{
+			mesh = new Mesh(true, vertexCount, indices == null ? 0 : indices.length, data.attributes);
+		}
 		meshes.add(mesh);
 		mesh.setVertices(vertices);
 		
@@ -392,9 +809,17 @@ public class MeshLoader {
 			mesh.setIndices(indices);
 		}
 		
-		int len = indices == null ? vertexCount : indices.length;
-		
-		MeshPart meshPart = new MeshPart(id, mesh, 0, len, glPrimitiveType);
+		addNodePart(node, parts, data, material, id, mesh, indices == null ? vertexCount : indices.length);
+	}
+	
+	private void addNodePart(Node node, Array<NodePart> parts, PrimitiveData data, Material material, String id, Mesh mesh, int len) {
+		MeshPart meshPart = new MeshPart(id, mesh, 0, len, data.primitiveType);
+		if(data.bounds.isValid()){
+			// conservative bounds when primitive has been split.
+			data.bounds.getCenter(meshPart.center);
+			data.bounds.getDimensions(meshPart.halfExtents).scl(.5f);
+			meshPart.radius = meshPart.halfExtents.len();
+		}
 		
 		
 		NodePartPlus nodePart = new NodePartPlus();
@@ -405,6 +830,11 @@ public class MeshLoader {
 		
 	}
 
+	private int getByteStride(DataResolver dataResolver, GLTFAccessor accessor){
+		GLTFBufferView bufferView = dataResolver.getBufferView(accessor.bufferView);
+		return bufferView.byteStride != null ? bufferView.byteStride : GLTFTypes.accessorStrideSize(accessor);
+	}
+
 	private int parseAttributeUnit(String attributeName) {
 		int lastUnderscoreIndex = attributeName.lastIndexOf('_');
 		try{
@@ -1,135 +1,100 @@
 package net.mgsx.gltf.loaders.shared.geometry;
 
+import java.util.Arrays;
+
 import com.badlogic.gdx.graphics.VertexAttributes;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.IntArray;
-import com.badlogic.gdx.utils.IntIntMap;
-import com.badlogic.gdx.utils.IntMap;
-import com.badlogic.gdx.utils.IntMap.Entry;
+import com.badlogic.gdx.utils.ShortArray;
+
+import net.mgsx.gltf.loaders.exceptions.GLTFIllegalException;
 
+/**
+ * Split a mesh having 32 bits indices into several meshes having 16 bits indices.
+ * <p>
+ * Primitives are processed in a single pass, in order: they are added to the current batch until it is full,
+ * vertices are remapped to batch local indices and shared vertices are duplicated across batches.
+ * Batches are emitted in primitive order, so draw order and vertex cache locality of the original
+ * index buffer are preserved. Extra memory is bounded by one remap entry per source vertex and a single batch.
+ */
 class MeshSpliter {
 
+	/**
+	 * Values used by some graphics APIs as "primitive restart" values are disallowed.
+	 * Specifically, the value 65535 (in UINT16) cannot be used as a vertex index.
+	 */
+	static final int MAX_VERTICES = 65535;
+
 	public static void split(Array<float[]> splitVertices, Array<short[]> splitIndices, float[] vertices, VertexAttributes attributes, int[] indices,
 			int verticesPerPrimitive) {
-		
-		// Values used by some graphics APIs as "primitive restart" values are disallowed.
-		// Specifically, the value 65535 (in UINT16) cannot be used as a vertex index. 
-		int size16 = 65535;
-		
-		int stride = attributes.vertexSize / 4;
-		
-		int vertexMaxSize = size16 * stride;
-		
-		IntArray primitiveIndices = new IntArray(verticesPerPrimitive);
-		IntArray remainingIndices = new IntArray();
-		
-		int maxIndexFound = 0;
-		for(int i=0 ; i<indices.length ; i++){
-			maxIndexFound = Math.max(maxIndexFound, indices[i]);
-		}
-		
-		IntMap<IntArray> groups = new IntMap<IntArray>();
-		for(int i=0 , count=indices.length; i<count ; ){
-			int index0 = indices[i++];
-			primitiveIndices.add(index0);
-			int group0 = index0 / size16;
-			boolean sameGroup = true;
-			for(int j=1 ; j<verticesPerPrimitive ; j++){
-				int indexI = indices[i++];
-				primitiveIndices.add(indexI);
-				int groupI = indexI / size16;
-				if(groupI != group0){
-					sameGroup = false;
-				}
-			}
-			if(sameGroup){
-				IntArray group = groups.get(group0);
-				if(group == null) groups.put(group0, group = new IntArray());
+		split(splitVertices, splitIndices, vertices, attributes.vertexSize / 4, indices, verticesPerPrimitive, MAX_VERTICES);
+	}
+
+	/**
+	 * @param stride number of floats per vertex
+	 * @param maxVertices max number of vertices per batch
+	 */
+	static void split(Array<float[]> splitVertices, Array<short[]> splitIndices, float[] vertices, int stride, int[] indices,
+			int verticesPerPrimitive, int maxVertices) {
+
+		int vertexCount = vertices.length / stride;
+
+		// source vertex index to batch vertex index, -1 when not in current batch.
+		int[] remap = new int[vertexCount];
+		Arrays.fill(remap, -1);
+
+		// batch vertex index to source vertex index, used to reset remap entries.
+		int[] batchSources = new int[Math.min(vertexCount, maxVertices)];
+		float[] batchVertices = new float[batchSources.length * stride];
+		ShortArray batchIndices = new ShortArray();
+		int batchVertexCount = 0;
+
+		int count = indices.length - indices.length % verticesPerPrimitive;
+		for(int i=0 ; ; i+=verticesPerPrimitive){
+			boolean end = i >= count;
+
+			// count primitive vertices not in current batch yet.
+			int newVertices = 0;
+			if(!end){
 				for(int j=0 ; j<verticesPerPrimitive ; j++){
-					group.add(primitiveIndices.get(j) - group0 * size16);
+					int index = indices[i+j];
+					if(index < 0 || index >= vertexCount) throw new GLTFIllegalException("vertex index out of bounds: " + index);
+					if(remap[index] >= 0) continue;
+					boolean duplicate = false;
+					for(int k=0 ; k<j ; k++){
+						if(indices[i+k] == index) duplicate = true;
+					}
+					if(!duplicate) newVertices++;
 				}
-			}else{
-				remainingIndices.addAll(primitiveIndices);
-			}
-			
-			primitiveIndices.clear();
-		}
-		
-		int maxGroup = 0;
-		for(Entry<IntArray> entry : groups){
-			maxGroup = Math.max(maxGroup, entry.key);
-		}
-		
-		IntArray lastGroup = groups.get(maxGroup);
-		int maxIndex = 0;
-		for(int i=0 ; i<lastGroup.size ; i++){
-			maxIndex = Math.max(maxIndex, lastGroup.get(i));
-		}
-		
-		for(int i=0 ; i<=maxGroup ; i++){
-			float[] groupVertices = new float[vertexMaxSize];
-			int offset = i * size16 * stride;
-			int size = Math.min(vertices.length - offset, groupVertices.length);
-			System.arraycopy(vertices, offset, groupVertices, 0, size);
-			splitVertices.add(groupVertices);
-		}
-		
-		
-		float[] lastVertices = splitVertices.peek();
-		
-		IntArray toProcess = new IntArray();
-		
-		while(remainingIndices.size > 0){
-			if(maxIndex < 0 || maxIndex >= size16-1){
-				maxIndex = -1;
-				groups.put(++maxGroup, lastGroup = new IntArray());
-				splitVertices.add(lastVertices = new float[vertexMaxSize]);
 			}
-			IntIntMap reindex = new IntIntMap();
-			for(int i=0 ; i<remainingIndices.size ; i++){
-				int oindex = remainingIndices.get(i);
-				int tindex = reindex.get(oindex, -1);
-				
-				if(tindex < 0){
-					tindex = maxIndex+1;
-					if(tindex >= size16){
-						toProcess.add(oindex);
-					}else{
-						reindex.put(oindex, tindex);
-						maxIndex = tindex;
-						lastGroup.add(tindex);
+
+			// emit current batch.
+			if(end || batchVertexCount + newVertices > maxVertices){
+				if(batchIndices.size > 0){
+					float[] groupVertices = new float[batchVertexCount * stride];
+					System.arraycopy(batchVertices, 0, groupVertices, 0, groupVertices.length);
+					splitVertices.add(groupVertices);
+					splitIndices.add(batchIndices.toArray());
+					batchIndices.clear();
+					for(int k=0 ; k<batchVertexCount ; k++){
+						remap[batchSources[k]] = -1;
 					}
-				}else{
-					lastGroup.add(tindex);
+					batchVertexCount = 0;
 				}
+				if(end) break;
 			}
-			
-			for(com.badlogic.gdx.utils.IntIntMap.Entry entry : reindex){
-				System.arraycopy(vertices, entry.key * stride, lastVertices, entry.value * stride, stride);
-			}
-			
-			if(toProcess.size == 0) break;
-			
-			remainingIndices.clear();
-			IntArray tmp = toProcess;
-			toProcess = remainingIndices;
-			remainingIndices = tmp;
-			maxIndex = -1;
-		}
-		
-		for(int i=0 ; i<=maxGroup ; i++){
-			IntArray group = groups.get(i);
-			short[] shortIndices = new short[group.size];
-			for(int j=0 ; j<group.size ; j++){
-				int index = group.get(j);
-				shortIndices[j] = (short)index;
+
+			// add primitive to current batch.
+			for(int j=0 ; j<verticesPerPrimitive ; j++){
+				int index = indices[i+j];
+				int target = remap[index];
+				if(target < 0){
+					target = batchVertexCount++;
+					remap[index] = target;
+					batchSources[target] = index;
+					System.arraycopy(vertices, index * stride, batchVertices, target * stride, stride);
+				}
+				batchIndices.add((short)target);
 			}
-			splitIndices.add(shortIndices);
 		}
-		
-		int size = (maxIndex+1) * stride;
-		float[] tmp = new float[size];
-		System.arraycopy(lastVertices, 0, tmp, 0, size);
-		splitVertices.set(splitIndices.size-1, tmp);
 	}
 }
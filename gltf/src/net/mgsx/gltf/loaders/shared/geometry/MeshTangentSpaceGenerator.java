@@ -1,5 +1,7 @@
 package net.mgsx.gltf.loaders.shared.geometry;
 
+import java.nio.IntBuffer;
+
 import com.badlogic.gdx.graphics.Mesh;
 import com.badlogic.gdx.graphics.VertexAttribute;
 import com.badlogic.gdx.graphics.VertexAttributes;
@@ -8,6 +10,7 @@ import com.badlogic.gdx.graphics.g3d.Material;
 import com.badlogic.gdx.math.Vector3;
 
 import net.mgsx.gltf.scene3d.attributes.PBRTextureAttribute;
+import net.mgsx.gltf.scene3d.model.IntIndexMesh;
 
 public class MeshTangentSpaceGenerator {
 	
@@ -16,9 +19,7 @@ public class MeshTangentSpaceGenerator {
 		if(mesh.getNumIndices() == 0) throw new IllegalArgumentException("non indexed mesh not implemented");
 		
 		float [] vertices = new float[mesh.getNumVertices() * mesh.getVertexAttributes().vertexSize/4];
-		short [] indices = new short[mesh.getNumIndices()];
 		mesh.getVertices(vertices);
-		mesh.getIndices(indices);
 		
 		PBRTextureAttribute normalMap = material.get(PBRTextureAttribute.class, PBRTextureAttribute.NormalTexture);
 		if(normalMap == null) throw new IllegalArgumentException("normal map not found in material");
@@ -33,18 +34,38 @@ public class MeshTangentSpaceGenerator {
 		
 		if(normalMapUVs == null) throw new IllegalArgumentException("texture coordinates not found");
 		
-		computeTangentSpace(vertices, indices, attributesGroup, computeNormals, computeTangents, normalMapUVs);
+		if(mesh instanceof IntIndexMesh){
+			int [] indices = new int[mesh.getNumIndices()];
+			IntBuffer indicesBuffer = ((IntIndexMesh)mesh).getIntIndicesBuffer();
+			indicesBuffer.get(indices);
+			indicesBuffer.rewind();
+			computeTangentSpace(vertices, indices, attributesGroup, computeNormals, computeTangents, normalMapUVs);
+		}else{
+			short [] indices = new short[mesh.getNumIndices()];
+			mesh.getIndices(indices);
+			computeTangentSpace(vertices, indices, attributesGroup, computeNormals, computeTangents, normalMapUVs);
+		}
 		
 		mesh.setVertices(vertices);
-		mesh.setIndices(indices);
 	}
 	
 	public static void computeTangentSpace(float[] vertices, short[] indices, VertexAttributes attributesGroup, boolean computeNormals, boolean computeTangents, VertexAttribute normalMapUVs) {
+		int[] intIndices = null;
+		if(indices != null){
+			intIndices = new int[indices.length];
+			for(int i=0 ; i<indices.length ; i++){
+				intIndices[i] = indices[i] & 0xFFFF;
+			}
+		}
+		computeTangentSpace(vertices, intIndices, attributesGroup, computeNormals, computeTangents, normalMapUVs);
+	}
+	
+	public static void computeTangentSpace(float[] vertices, int[] indices, VertexAttributes attributesGroup, boolean computeNormals, boolean computeTangents, VertexAttribute normalMapUVs) {
 		if(computeNormals) computeNormals(vertices, indices, attributesGroup);
 		if(computeTangents) computeTangents(vertices, indices, attributesGroup, normalMapUVs);
 	}
 	
-	private static void computeNormals(float[] vertices, short[] indices, VertexAttributes attributesGroup) {
+	private static void computeNormals(float[] vertices, int[] indices, VertexAttributes attributesGroup) {
 		int posOffset = attributesGroup.getOffset(VertexAttributes.Usage.Position);
 		int normalOffset = attributesGroup.getOffset(VertexAttributes.Usage.Normal);
 		int stride = attributesGroup.vertexSize / 4;
@@ -54,17 +75,17 @@ public class MeshTangentSpaceGenerator {
 		if(indices != null){
 			for(int index = 0, count = indices.length ; index<count ; ){
 				
-				int vIndexA = indices[index++] & 0xFFFF;
+				int vIndexA = indices[index++];
 				float ax = vertices[vIndexA * stride + posOffset];
 				float ay = vertices[vIndexA * stride + posOffset+1];
 				float az = vertices[vIndexA * stride + posOffset+2];
 				
-				int vIndexB = indices[index++] & 0xFFFF;
+				int vIndexB = indices[index++];
 				float bx = vertices[vIndexB * stride + posOffset];
 				float by = vertices[vIndexB * stride + posOffset+1];
 				float bz = vertices[vIndexB * stride + posOffset+2];
 				
-				int vIndexC = indices[index++] & 0xFFFF;
+				int vIndexC = indices[index++];
 				float cx = vertices[vIndexC * stride + posOffset];
 				float cy = vertices[vIndexC * stride + posOffset+1];
 				float cz = vertices[vIndexC * stride + posOffset+2];
@@ -124,7 +145,7 @@ public class MeshTangentSpaceGenerator {
 	
 	// inspired by: https://gamedev.stackexchange.com/questions/68612/how-to-compute-tangent-and-bitangent-vectors
 	//
-	private static void computeTangents(float[] vertices, short[] indices, VertexAttributes attributesGroup, VertexAttribute normalMapUVs) {
+	private static void computeTangents(float[] vertices, int[] indices, VertexAttributes attributesGroup, VertexAttribute normalMapUVs) {
 		int posOffset = attributesGroup.getOffset(VertexAttributes.Usage.Position);
 		int normalOffset = attributesGroup.getOffset(VertexAttributes.Usage.Normal);
 		int tangentOffset = attributesGroup.getOffset(VertexAttributes.Usage.Tangent);
@@ -143,17 +164,17 @@ public class MeshTangentSpaceGenerator {
 		
 		for(int index = 0, count = indices.length ; index<count ; ){
 			
-			int vIndexA = indices[index++] & 0xFFFF;
+			int vIndexA = indices[index++];
 			float ax = vertices[vIndexA * stride + posOffset];
 			float ay = vertices[vIndexA * stride + posOffset+1];
 			float az = vertices[vIndexA * stride + posOffset+2];
 			
-			int vIndexB = indices[index++] & 0xFFFF;
+			int vIndexB = indices[index++];
 			float bx = vertices[vIndexB * stride + posOffset];
 			float by = vertices[vIndexB * stride + posOffset+1];
 			float bz = vertices[vIndexB * stride + posOffset+2];
 			
-			int vIndexC = indices[index++] & 0xFFFF;
+			int vIndexC = indices[index++];
 			float cx = vertices[vIndexC * stride + posOffset];
 			float cy = vertices[vIndexC * stride + posOffset+1];
 			float cz = vertices[vIndexC * stride + posOffset+2];
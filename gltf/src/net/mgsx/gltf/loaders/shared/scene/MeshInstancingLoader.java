@@ -0,0 +1,149 @@
+package net.mgsx.gltf.loaders.shared.scene;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.IntMap;
+
+import net.mgsx.gltf.data.data.GLTFAccessor;
+import net.mgsx.gltf.data.extensions.EXTMeshGpuInstancing;
+import net.mgsx.gltf.data.scene.GLTFNode;
+import net.mgsx.gltf.loaders.exceptions.GLTFIllegalException;
+import net.mgsx.gltf.loaders.exceptions.GLTFUnsupportedException;
+import net.mgsx.gltf.loaders.shared.GLTFLoaderBase;
+import net.mgsx.gltf.loaders.shared.GLTFTypes;
+import net.mgsx.gltf.loaders.shared.data.DataResolver;
+import net.mgsx.gltf.scene3d.model.InstanceBuffer;
+import net.mgsx.gltf.scene3d.model.InstancedMesh;
+
+/**
+ * Load EXT_mesh_gpu_instancing node instances: instance transforms are decoded when preparing nodes and
+ * node parts are replaced by instanced node parts (see {@link InstancedMesh}) once meshes are loaded.
+ */
+public class MeshInstancingLoader {
+
+	/** node index to instances */
+	private final IntMap<InstanceBuffer> nodeInstances = new IntMap<InstanceBuffer>();
+
+	private final Matrix4 transform = new Matrix4();
+	private final Vector3 corner = new Vector3();
+	private final BoundingBox bounds = new BoundingBox();
+
+	/**
+	 * Decode node instances if node has the instancing extension.
+	 * @param id node index
+	 * @param glNode
+	 * @param dataResolver
+	 */
+	public void prepare(int id, GLTFNode glNode, DataResolver dataResolver){
+		if(glNode.extensions == null) return;
+		EXTMeshGpuInstancing ext = glNode.extensions.get(EXTMeshGpuInstancing.class, EXTMeshGpuInstancing.EXT);
+		if(ext == null || ext.attributes == null) return;
+		if(glNode.skin != null) throw new GLTFUnsupportedException("skinned mesh instancing not supported");
+		nodeInstances.put(id, load(ext, dataResolver));
+	}
+
+	/**
+	 * Replace node parts by instanced node parts if node has instances. Has to be called from the GL thread
+	 * after node parts have been loaded. Without GL30, node parts are kept as is (single instance with node transform).
+	 * @param id node index
+	 * @param node
+	 */
+	public void load(int id, Node node){
+		InstanceBuffer instances = nodeInstances.get(id);
+		if(instances == null) return;
+		if(Gdx.gl30 == null){
+			Gdx.app.error(GLTFLoaderBase.TAG, "Extension " + EXTMeshGpuInstancing.EXT + " requires GL30, instances ignored");
+			return;
+		}
+		for(int i=0 ; i<node.parts.size ; i++){
+			NodePart nodePart = node.parts.get(i);
+			// node parts may be shared with other nodes using the same mesh.
+			NodePart instancedPart = nodePart.copy();
+			MeshPart meshPart = new MeshPart(nodePart.meshPart);
+			meshPart.mesh = new InstancedMesh(nodePart.meshPart.mesh, instances, true);
+			computeBounds(meshPart, instances);
+			instancedPart.meshPart = meshPart;
+			node.parts.set(i, instancedPart);
+		}
+	}
+
+	private static InstanceBuffer load(EXTMeshGpuInstancing ext, DataResolver dataResolver){
+		Integer translationAccessor = ext.attributes.get(EXTMeshGpuInstancing.TRANSLATION);
+		Integer rotationAccessor = ext.attributes.get(EXTMeshGpuInstancing.ROTATION);
+		Integer scaleAccessor = ext.attributes.get(EXTMeshGpuInstancing.SCALE);
+		int count = -1;
+		count = getCount(dataResolver, translationAccessor, count);
+		count = getCount(dataResolver, rotationAccessor, count);
+		count = getCount(dataResolver, scaleAccessor, count);
+		return createInstances(Math.max(0, count),
+			read(dataResolver, translationAccessor),
+			read(dataResolver, rotationAccessor),
+			read(dataResolver, scaleAccessor));
+	}
+
+	private static int getCount(DataResolver dataResolver, Integer accessorID, int count){
+		if(accessorID == null) return count;
+		GLTFAccessor accessor = dataResolver.getAccessor(accessorID);
+		if(count >= 0 && accessor.count != count) throw new GLTFIllegalException("instance attributes count mismatch");
+		return accessor.count;
+	}
+
+	private static float[] read(DataResolver dataResolver, Integer accessorID){
+		if(accessorID == null) return null;
+		GLTFAccessor accessor = dataResolver.getAccessor(accessorID);
+		// integer attributes are allowed with KHR_mesh_quantization, they are converted to floats.
+		if(accessor.componentType == GLTFTypes.C_UINT){
+			throw new GLTFUnsupportedException("instance attribute component type not supported: " + accessor.componentType);
+		}
+		return dataResolver.readBufferFloat(accessorID);
+	}
+
+	/**
+	 * Compose instance transforms from optional TRS arrays.
+	 * @param count number of instances
+	 * @param translations 3 floats per instance, may be null
+	 * @param rotations 4 floats per instance (quaternion x, y, z, w), may be null
+	 * @param scales 3 floats per instance, may be null
+	 */
+	static InstanceBuffer createInstances(int count, float[] translations, float[] rotations, float[] scales){
+		InstanceBuffer instances = new InstanceBuffer(count);
+		Matrix4 matrix = new Matrix4();
+		Vector3 translation = new Vector3();
+		Quaternion rotation = new Quaternion();
+		Vector3 scale = new Vector3();
+		for(int i=0 ; i<count ; i++){
+			if(translations != null) GLTFTypes.map(translation, translations, i * 3); else translation.setZero();
+			if(rotations != null) GLTFTypes.map(rotation, rotations, i * 4); else rotation.idt();
+			if(scales != null) GLTFTypes.map(scale, scales, i * 3); else scale.set(1, 1, 1);
+			instances.add(matrix.set(translation, rotation, scale));
+		}
+		return instances;
+	}
+
+	/** mesh part bounds containing all its instances. */
+	private void computeBounds(MeshPart meshPart, InstanceBuffer instances){
+		if(meshPart.radius < 0 || instances.size() == 0) return;
+		bounds.inf();
+		Vector3 c = meshPart.center;
+		Vector3 h = meshPart.halfExtents;
+		for(int i=0, n=instances.size() ; i<n ; i++){
+			instances.get(i, transform);
+			for(int k=0 ; k<8 ; k++){
+				corner.set(
+					(k & 1) == 0 ? c.x - h.x : c.x + h.x,
+					(k & 2) == 0 ? c.y - h.y : c.y + h.y,
+					(k & 4) == 0 ? c.z - h.z : c.z + h.z);
+				bounds.ext(corner.mul(transform));
+			}
+		}
+		bounds.getCenter(meshPart.center);
+		bounds.getDimensions(meshPart.halfExtents).scl(.5f);
+		meshPart.radius = meshPart.halfExtents.len();
+	}
+}
@@ -3,6 +3,9 @@ package net.mgsx.gltf.loaders.shared.texture;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
 
 import net.mgsx.gltf.data.texture.GLTFImage;
 import net.mgsx.gltf.loaders.shared.data.DataFileResolver;
@@ -13,21 +16,62 @@ public class ImageResolver implements Disposable {
 	
 	private DataFileResolver dataFileResolver;
 	
+	private AsyncExecutor executor;
+	
 	public ImageResolver(DataFileResolver dataFileResolver) {
+		this(dataFileResolver, null);
+	}
+	
+	/**
+	 * @param executor executor used to decode images in parallel, 
+	 * null to decode them sequentially on the calling thread (default, required for GWT).
+	 */
+	public ImageResolver(DataFileResolver dataFileResolver, AsyncExecutor executor) {
 		super();
 		this.dataFileResolver = dataFileResolver;
+		this.executor = executor;
 	}
 
 	public void load(Array<GLTFImage> glImages) {
 		if(glImages != null){
-			for(int i=0 ; i<glImages.size ; i++){
-				GLTFImage glImage = glImages.get(i);
-				Pixmap pixmap = dataFileResolver.load(glImage);
-				pixmaps.add(pixmap);
+			if(executor == null){
+				for(int i=0 ; i<glImages.size ; i++){
+					GLTFImage glImage = glImages.get(i);
+					Pixmap pixmap = dataFileResolver.load(glImage);
+					pixmaps.add(pixmap);
+				}
+			}else{
+				loadParallel(glImages);
 			}
 		}
 	}
 	
+	private void loadParallel(Array<GLTFImage> glImages) {
+		Array<AsyncResult<Pixmap>> results = new Array<AsyncResult<Pixmap>>();
+		for(int i=0 ; i<glImages.size ; i++){
+			final GLTFImage glImage = glImages.get(i);
+			results.add(executor.submit(new AsyncTask<Pixmap>() {
+				@Override
+				public Pixmap call() throws Exception {
+					return dataFileResolver.load(glImage);
+				}
+			}));
+		}
+		// wait for all tasks, even in case of error, in order to dispose all decoded pixmaps.
+		RuntimeException error = null;
+		for(AsyncResult<Pixmap> result : results){
+			try{
+				pixmaps.add(result.get());
+			}catch(RuntimeException e){
+				if(error == null) error = e;
+			}
+		}
+		if(error != null){
+			dispose();
+			throw error;
+		}
+	}
+	
 	public Pixmap get(int index) {
 		return pixmaps.get(index);
 	}
@@ -24,30 +24,45 @@ public class TextureResolver implements Disposable
 	protected Array<GLTFSampler> glSamplers;
 	
 	public void loadTextures(Array<GLTFTexture> glTextures, Array<GLTFSampler> glSamplers, ImageResolver imageResolver) {
-		this.glTextures = glTextures;
-		this.glSamplers = glSamplers;
+		setTextures(glTextures, glSamplers);
 		if(glTextures != null){
 			for(int i=0 ; i<glTextures.size ; i++){
-				GLTFTexture glTexture = glTextures.get(i);
-				
-				// check if mipmap needed for this texture configuration
-				boolean useMipMaps = false;
-				if(glTexture.sampler != null){
-					GLTFSampler sampler = glSamplers.get(glTexture.sampler);
-					if(GLTFTypes.isMipMapFilter(sampler)){
-						useMipMaps = true;
-					}
-				}
-				
-				ObjectMap<Integer, Texture> textureMap = useMipMaps ? texturesMipmap : texturesSimple;
-				
-				if(!textureMap.containsKey(glTexture.source)){
-					Pixmap pixmap = imageResolver.get(glTexture.source);
-					Texture texture = new Texture(pixmap, useMipMaps);
-					textureMap.put(glTexture.source, texture);
-				}
+				loadTexture(i, imageResolver);
+			}
+		}
+	}
+	
+	/**
+	 * Set glTF textures and samplers, required before creating textures one by one with {@link #loadTexture(int, ImageResolver)}.
+	 */
+	public void setTextures(Array<GLTFTexture> glTextures, Array<GLTFSampler> glSamplers) {
+		this.glTextures = glTextures;
+		this.glSamplers = glSamplers;
+	}
+	
+	/**
+	 * Create a single texture (if not already created by another glTF texture sharing the same image).
+	 * @param index glTF texture index
+	 */
+	public void loadTexture(int index, ImageResolver imageResolver) {
+		GLTFTexture glTexture = glTextures.get(index);
+		
+		// check if mipmap needed for this texture configuration
+		boolean useMipMaps = false;
+		if(glTexture.sampler != null){
+			GLTFSampler sampler = glSamplers.get(glTexture.sampler);
+			if(GLTFTypes.isMipMapFilter(sampler)){
+				useMipMaps = true;
 			}
 		}
+		
+		ObjectMap<Integer, Texture> textureMap = useMipMaps ? texturesMipmap : texturesSimple;
+		
+		if(!textureMap.containsKey(glTexture.source)){
+			Pixmap pixmap = imageResolver.get(glTexture.source);
+			Texture texture = new Texture(pixmap, useMipMaps);
+			textureMap.put(glTexture.source, texture);
+		}
 	}
 	
 	public TextureDescriptor<Texture> getTexture(GLTFTextureInfo glMap) {
@@ -1,5 +1,6 @@
 package net.mgsx.gltf.scene3d.animation;
 
+import com.badlogic.gdx.graphics.g3d.Model;
 import com.badlogic.gdx.graphics.g3d.ModelInstance;
 import com.badlogic.gdx.graphics.g3d.model.Animation;
 import com.badlogic.gdx.graphics.g3d.model.Node;
@@ -26,7 +27,11 @@ import net.mgsx.gltf.scene3d.model.NodePlus;
 import net.mgsx.gltf.scene3d.model.WeightVector;
 
 /**
- * {@link AnimationController} hack to run morph targets animations
+ * {@link AnimationController} hack to run morph targets animations.
+ * <p>
+ * All temporary state is held per controller instance: several controllers can be updated concurrently
+ * from different threads as long as they don't animate the same {@link ModelInstance}.
+ * A single controller is not thread safe.
  */
 public class AnimationControllerHack extends AnimationController
 {
@@ -96,7 +101,7 @@ public class AnimationControllerHack extends AnimationController
 			return new Transform();
 		}
 	};
-	private final static ObjectMap<Node, Transform> transforms = new ObjectMap<Node, Transform>();
+	private final ObjectMap<Node, Transform> transforms = new ObjectMap<Node, Transform>();
 	private boolean applying = false;
 	public boolean calculateTransforms = true;
 
@@ -113,7 +118,7 @@ public class AnimationControllerHack extends AnimationController
 	@Override
 	protected void apply (final Animation animation, final float time, final float weight) {
 		if (!applying) throw new GdxRuntimeException("You must call begin() before adding an animation");
-		applyAnimationPlus(transforms, transformPool, weight, animation, time);
+		applyNodeAnimations(transforms, transformPool, weight, animation, time);
 	}
 
 	/** End applying multiple animations to the instance and update it to reflect the changes. */
@@ -133,7 +138,7 @@ public class AnimationControllerHack extends AnimationController
 	@Override
 	protected void applyAnimation (final Animation animation, final float time) {
 		if (applying) throw new GdxRuntimeException("Call end() first");
-		applyAnimationPlus(null, (Pool<Transform>)null, 1.f, animation, time);
+		applyNodeAnimations(null, (Pool<Transform>)null, 1.f, animation, time);
 		if(calculateTransforms) target.calculateTransforms();
 	}
 
@@ -156,23 +161,55 @@ public class AnimationControllerHack extends AnimationController
 	}
 	
 	
-	private final static Transform tmpT = new Transform();
+	private final Transform tmpT = new Transform();
 
-	private final static <T> int getFirstKeyframeIndexAtTime (final Array<NodeKeyframe<T>> arr, final float time) {
+	/**
+	 * Find the keyframe index for given time: first index i such that time is in [keytime(i), keytime(i+1)],
+	 * last index when time is out of keyframes range.
+	 * <p>
+	 * Given cursor (typically previous result) and the next index are checked first, which is O(1) for
+	 * typical playback, otherwise a binary search is performed. Result is the same as a linear scan.
+	 */
+	final static <T> int getFirstKeyframeIndexAtTime (final Array<NodeKeyframe<T>> arr, final float time, final int cursor) {
 		final int n = arr.size - 1;
-		for (int i = 0; i < n; i++) {
-			if (time >= arr.get(i).keytime && time <= arr.get(i + 1).keytime) {
-				return i;
+		if (n <= 0 || !(time >= arr.get(0).keytime && time <= arr.get(n).keytime)) return n;
+		if (isFirstKeyframeIndexAtTime(arr, time, cursor)) return cursor;
+		if (isFirstKeyframeIndexAtTime(arr, time, cursor + 1)) return cursor + 1;
+		
+		// first index i such that keytime(i+1) >= time, time being in keyframes range.
+		int low = 0;
+		int high = n - 1;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (arr.get(mid + 1).keytime >= time) {
+				high = mid;
+			} else {
+				low = mid + 1;
 			}
 		}
-		return n;
+		return low;
+	}
+	
+	private final static <T> boolean isFirstKeyframeIndexAtTime (final Array<NodeKeyframe<T>> arr, final float time, final int index) {
+		return index >= 0 && index < arr.size - 1 && arr.get(index + 1).keytime >= time && (index == 0 || arr.get(index).keytime < time);
 	}
 
 	private final static Vector3 getTranslationAtTime (final NodeAnimation nodeAnim, final float time, final Vector3 out) {
+		if (nodeAnim instanceof NodeAnimationHack && ((NodeAnimationHack)nodeAnim).translationTrack != null){
+			NodeAnimationHack nodeAnimHack = (NodeAnimationHack)nodeAnim;
+			nodeAnimHack.translationCursor = sample(nodeAnimHack.translationTrack, time, nodeAnimHack.translationCursor, out);
+			return out;
+		}
 		if (nodeAnim.translation == null) return out.set(nodeAnim.node.translation);
 		if (nodeAnim.translation.size == 1) return out.set(nodeAnim.translation.get(0).value);
 
-		int index = getFirstKeyframeIndexAtTime(nodeAnim.translation, time);
+		int index;
+		if(nodeAnim instanceof NodeAnimationHack){
+			NodeAnimationHack nodeAnimHack = (NodeAnimationHack)nodeAnim;
+			index = nodeAnimHack.translationCursor = getFirstKeyframeIndexAtTime(nodeAnim.translation, time, nodeAnimHack.translationCursor);
+		}else{
+			index = getFirstKeyframeIndexAtTime(nodeAnim.translation, time, 0);
+		}
 
 		Interpolation interpolation = null;
 		if(nodeAnim instanceof NodeAnimationHack){
@@ -219,16 +256,16 @@ public class AnimationControllerHack extends AnimationController
 		out.set(p0).scl(2*t3 - 3*t2 + 1).mulAdd(m0, t3 - 2*t2 + t).mulAdd(p1, -2*t3 + 3*t2).mulAdd(m1, t3-t2);
 	}
 
-	private static final Quaternion q1 = new Quaternion();
-	private static final Quaternion q2 = new Quaternion();
-	private static final Quaternion q3 = new Quaternion();
-	private static final Quaternion q4 = new Quaternion();
+	private final Quaternion q1 = new Quaternion();
+	private final Quaternion q2 = new Quaternion();
+	private final Quaternion q3 = new Quaternion();
+	private final Quaternion q4 = new Quaternion();
 	
 	/** https://github.com/KhronosGroup/glTF/blob/master/specification/2.0/README.md#appendix-c-spline-interpolation 
 	 * 
 	 * https://github.com/KhronosGroup/glTF-Sample-Viewer/blob/6a862d2607fb47ac48f54786b04e40be2ad866a4/src/interpolator.js
 	 * */
-	private static void cubic(Quaternion out, float t, float delta, Quaternion p0, Quaternion m0, Quaternion p1, Quaternion m1){
+	private void cubic(Quaternion out, float t, float delta, Quaternion p0, Quaternion m0, Quaternion p1, Quaternion m1){
 		
 		// XXX not good, see https://github.com/KhronosGroup/glTF-Sample-Viewer/blob/master/src/interpolator.js#L42
 		delta =- delta;
@@ -252,11 +289,22 @@ public class AnimationControllerHack extends AnimationController
 	}
 
 
-	private final static Quaternion getRotationAtTime (final NodeAnimation nodeAnim, final float time, final Quaternion out) {
+	private Quaternion getRotationAtTime (final NodeAnimation nodeAnim, final float time, final Quaternion out) {
+		if (nodeAnim instanceof NodeAnimationHack && ((NodeAnimationHack)nodeAnim).rotationTrack != null){
+			NodeAnimationHack nodeAnimHack = (NodeAnimationHack)nodeAnim;
+			nodeAnimHack.rotationCursor = sample(nodeAnimHack.rotationTrack, time, nodeAnimHack.rotationCursor, out);
+			return out;
+		}
 		if (nodeAnim.rotation == null) return out.set(nodeAnim.node.rotation);
 		if (nodeAnim.rotation.size == 1) return out.set(nodeAnim.rotation.get(0).value);
 
-		int index = getFirstKeyframeIndexAtTime(nodeAnim.rotation, time);
+		int index;
+		if(nodeAnim instanceof NodeAnimationHack){
+			NodeAnimationHack nodeAnimHack = (NodeAnimationHack)nodeAnim;
+			index = nodeAnimHack.rotationCursor = getFirstKeyframeIndexAtTime(nodeAnim.rotation, time, nodeAnimHack.rotationCursor);
+		}else{
+			index = getFirstKeyframeIndexAtTime(nodeAnim.rotation, time, 0);
+		}
 		
 
 		Interpolation interpolation = null;
@@ -297,10 +345,21 @@ public class AnimationControllerHack extends AnimationController
 	}
 
 	private final static Vector3 getScalingAtTime (final NodeAnimation nodeAnim, final float time, final Vector3 out) {
+		if (nodeAnim instanceof NodeAnimationHack && ((NodeAnimationHack)nodeAnim).scalingTrack != null){
+			NodeAnimationHack nodeAnimHack = (NodeAnimationHack)nodeAnim;
+			nodeAnimHack.scalingCursor = sample(nodeAnimHack.scalingTrack, time, nodeAnimHack.scalingCursor, out);
+			return out;
+		}
 		if (nodeAnim.scaling == null) return out.set(nodeAnim.node.scale);
 		if (nodeAnim.scaling.size == 1) return out.set(nodeAnim.scaling.get(0).value);
 
-		int index = getFirstKeyframeIndexAtTime(nodeAnim.scaling, time);
+		int index;
+		if(nodeAnim instanceof NodeAnimationHack){
+			NodeAnimationHack nodeAnimHack = (NodeAnimationHack)nodeAnim;
+			index = nodeAnimHack.scalingCursor = getFirstKeyframeIndexAtTime(nodeAnim.scaling, time, nodeAnimHack.scalingCursor);
+		}else{
+			index = getFirstKeyframeIndexAtTime(nodeAnim.scaling, time, 0);
+		}
 		
 		
 		Interpolation interpolation = null;
@@ -340,10 +399,14 @@ public class AnimationControllerHack extends AnimationController
 	}
 	
 	private final static WeightVector getMorphTargetAtTime (final NodeAnimationHack nodeAnim, final float time, final WeightVector out) {
+		if (nodeAnim.weightsTrack != null){
+			nodeAnim.weightsCursor = sample(nodeAnim.weightsTrack, time, nodeAnim.weightsCursor, out);
+			return out;
+		}
 		if (nodeAnim.weights == null) return out.set();
 		if (nodeAnim.weights.size == 1) return out.set(nodeAnim.weights.get(0).value);
 
-		int index = getFirstKeyframeIndexAtTime(nodeAnim.weights, time);
+		int index = nodeAnim.weightsCursor = getFirstKeyframeIndexAtTime(nodeAnim.weights, time, nodeAnim.weightsCursor);
 		
 		Interpolation interpolation = null;
 		if(nodeAnim instanceof NodeAnimationHack){
@@ -382,7 +445,102 @@ public class AnimationControllerHack extends AnimationController
 		return out;
 	}
 
-	private final static Transform getNodeAnimationTransform (final NodeAnimation nodeAnim, final float time) {
+	/**
+	 * Sample a packed track, same results as keyframes arrays sampling.
+	 * @return keyframe index found, to be used as cursor for next sampling.
+	 */
+	final static int sample (final PackedTrack track, final float time, final int cursor, final Vector3 out) {
+		final int index = track.getKeyframeIndex(time, cursor);
+		final float[] v = track.values;
+		final int o0 = track.getValueOffset(index);
+		out.set(v[o0], v[o0+1], v[o0+2]);
+		if (index + 1 < track.size()) {
+			final float t = (time - track.times[index]) / (track.times[index + 1] - track.times[index]);
+			final int o1 = track.getValueOffset(index + 1);
+			if (track.interpolation == Interpolation.LINEAR) {
+				out.x += t * (v[o1] - out.x);
+				out.y += t * (v[o1+1] - out.y);
+				out.z += t * (v[o1+2] - out.z);
+			} else if (track.interpolation == Interpolation.CUBICSPLINE) {
+				final int m0 = track.getOutTangentOffset(index);
+				final int m1 = track.getInTangentOffset(index + 1);
+				final float t2 = t*t;
+				final float t3 = t2*t;
+				final float h00 = 2*t3 - 3*t2 + 1, h10 = t3 - 2*t2 + t, h01 = -2*t3 + 3*t2, h11 = t3-t2;
+				out.x = v[o0] * h00 + v[m0] * h10 + v[o1] * h01 + v[m1] * h11;
+				out.y = v[o0+1] * h00 + v[m0+1] * h10 + v[o1+1] * h01 + v[m1+1] * h11;
+				out.z = v[o0+2] * h00 + v[m0+2] * h10 + v[o1+2] * h01 + v[m1+2] * h11;
+			}
+		}
+		return index;
+	}
+	
+	/**
+	 * Sample a packed track, same results as keyframes arrays sampling.
+	 * @return keyframe index found, to be used as cursor for next sampling.
+	 */
+	final int sample (final PackedTrack track, final float time, final int cursor, final Quaternion out) {
+		final int index = track.getKeyframeIndex(time, cursor);
+		final float[] v = track.values;
+		final int o0 = track.getValueOffset(index);
+		out.set(v[o0], v[o0+1], v[o0+2], v[o0+3]);
+		if (index + 1 < track.size()) {
+			final float delta = track.times[index + 1] - track.times[index];
+			final float t = (time - track.times[index]) / delta;
+			final int o1 = track.getValueOffset(index + 1);
+			if (track.interpolation == Interpolation.LINEAR) {
+				out.slerp(q1.set(v[o1], v[o1+1], v[o1+2], v[o1+3]), t);
+			} else if (track.interpolation == Interpolation.CUBICSPLINE) {
+				final int m0 = track.getOutTangentOffset(index);
+				final int m1 = track.getInTangentOffset(index + 1);
+				final float t2 = t*t;
+				final float t3 = t2*t;
+				// same as cubic(Quaternion...) including tangents scaling by negative delta
+				final float h00 = 2*t3 - 3*t2 + 1, h10 = t3 - 2*t2 + t, h01 = -2*t3 + 3*t2, h11 = t3-t2;
+				final float d = -delta;
+				out.x = v[o0] * h00 + v[m0] * d * h10 + v[o1] * h01 + v[m1] * d * h11;
+				out.y = v[o0+1] * h00 + v[m0+1] * d * h10 + v[o1+1] * h01 + v[m1+1] * d * h11;
+				out.z = v[o0+2] * h00 + v[m0+2] * d * h10 + v[o1+2] * h01 + v[m1+2] * d * h11;
+				out.w = v[o0+3] * h00 + v[m0+3] * d * h10 + v[o1+3] * h01 + v[m1+3] * d * h11;
+				out.nor();
+			}
+		}
+		return index;
+	}
+	
+	/**
+	 * Sample a packed track, same results as keyframes arrays sampling.
+	 * @return keyframe index found, to be used as cursor for next sampling.
+	 */
+	final static int sample (final PackedTrack track, final float time, final int cursor, final WeightVector out) {
+		final int index = track.getKeyframeIndex(time, cursor);
+		final float[] v = track.values;
+		final int n = track.components;
+		final int o0 = track.getValueOffset(index);
+		out.set(v, o0, n);
+		if (index + 1 < track.size()) {
+			final float t = (time - track.times[index]) / (track.times[index + 1] - track.times[index]);
+			final int o1 = track.getValueOffset(index + 1);
+			final float[] w = out.values;
+			if (track.interpolation == Interpolation.LINEAR) {
+				for (int i = 0; i < n; i++) {
+					w[i] += (v[o1+i] - w[i]) * t;
+				}
+			} else if (track.interpolation == Interpolation.CUBICSPLINE) {
+				final int m0 = track.getOutTangentOffset(index);
+				final int m1 = track.getInTangentOffset(index + 1);
+				final float t2 = t*t;
+				final float t3 = t2*t;
+				final float h00 = 2*t3 - 3*t2 + 1, h10 = t3 - 2*t2 + t, h01 = -2*t3 + 3*t2, h11 = t3-t2;
+				for (int i = 0; i < n; i++) {
+					w[i] = v[o0+i] * h00 + v[m0+i] * h10 + v[o1+i] * h01 + v[m1+i] * h11;
+				}
+			}
+		}
+		return index;
+	}
+
+	private Transform getNodeAnimationTransform (final NodeAnimation nodeAnim, final float time) {
 		final Transform transform = tmpT;
 		getTranslationAtTime(nodeAnim, time, transform.translation);
 		getRotationAtTime(nodeAnim, time, transform.rotation);
@@ -392,7 +550,7 @@ public class AnimationControllerHack extends AnimationController
 		return transform;
 	}
 
-	private final static void applyNodeAnimationDirectly (final NodeAnimation nodeAnim, final float time) {
+	private void applyNodeAnimationDirectly (final NodeAnimation nodeAnim, final float time) {
 		final Node node = nodeAnim.node;
 		node.isAnimated = true;
 		final Transform transform = getNodeAnimationTransform(nodeAnim, time);
@@ -407,7 +565,7 @@ public class AnimationControllerHack extends AnimationController
 		}
 	}
 
-	private final static void applyNodeAnimationBlending (final NodeAnimation nodeAnim, final ObjectMap<Node, Transform> out,
+	private void applyNodeAnimationBlending (final NodeAnimation nodeAnim, final ObjectMap<Node, Transform> out,
 		final Pool<Transform> pool, final float alpha, final float time) {
 
 		final Node node = nodeAnim.node;
@@ -428,9 +586,24 @@ public class AnimationControllerHack extends AnimationController
 		}
 	}
 
-	/** Helper method to apply one animation to either an objectmap for blending or directly to the bones. */
+	private static AnimationControllerHack sharedController;
+	
+	/**
+	 * Helper method to apply one animation to either an objectmap for blending or directly to the bones.
+	 * @deprecated calls are serialized on a shared controller, use {@link #applyNodeAnimations(ObjectMap, Pool, float, Animation, float)} instead.
+	 */
+	@Deprecated
 	protected static void applyAnimationPlus (final ObjectMap<Node, Transform> out, final Pool<Transform> pool, final float alpha,
 		final Animation animation, final float time) {
+		synchronized (AnimationControllerHack.class) {
+			if (sharedController == null) sharedController = new AnimationControllerHack(new ModelInstance(new Model()));
+			sharedController.applyNodeAnimations(out, pool, alpha, animation, time);
+		}
+	}
+
+	/** Helper method to apply one animation to either an objectmap for blending or directly to the bones. */
+	protected void applyNodeAnimations (final ObjectMap<Node, Transform> out, final Pool<Transform> pool, final float alpha,
+		final Animation animation, final float time) {
 
 		if (out == null) {
 			for (final NodeAnimation nodeAnim : animation.nodeAnimations)
@@ -63,6 +63,26 @@ public class AnimationsPlayer {
 		clearAnimations();
 	}
 	
+	/**
+	 * @return true when an animation is applied on update: played by {@link #playAll()}, {@link #loopAll()},
+	 * {@link #addAnimation(AnimationDesc)} or by the scene animation controller (playing or transitioning animation).
+	 */
+	public boolean isAnimating(){
+		if(controllers.size > 0){
+			for(int i=0 ; i<controllers.size ; i++){
+				if(isAnimating(controllers.get(i))) return true;
+			}
+			return false;
+		}
+		return isAnimating(scene.animationController);
+	}
+	
+	private static boolean isAnimating(AnimationController controller){
+		if(controller == null || controller.paused) return false;
+		if(controller.previous != null) return true;
+		return controller.current != null && controller.current.animation != null && controller.current.loopCount != 0;
+	}
+	
 	public void update(float delta){
 		if(controllers.size > 0){
 			for(AnimationController controller : controllers){
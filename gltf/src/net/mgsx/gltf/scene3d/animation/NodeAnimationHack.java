@@ -18,4 +18,10 @@ public class NodeAnimationHack extends NodeAnimation
 	public Interpolation weightsMode;
 	
 	public Array<NodeKeyframe<WeightVector>> weights = null;
+	
+	/** packed keyframes, used instead of keyframes arrays when not null (see {@link PackedTrack}) */
+	public PackedTrack translationTrack, rotationTrack, scalingTrack, weightsTrack;
+	
+	/** last keyframe index found per channel, used as a hint by {@link AnimationControllerHack} */
+	int translationCursor, rotationCursor, scalingCursor, weightsCursor;
 }
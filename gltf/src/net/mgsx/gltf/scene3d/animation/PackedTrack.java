@@ -0,0 +1,89 @@
+package net.mgsx.gltf.scene3d.animation;
+
+import net.mgsx.gltf.loaders.shared.animation.Interpolation;
+
+/**
+ * Animation channel keyframes packed into float arrays, an alternative to {@link com.badlogic.gdx.graphics.g3d.model.NodeKeyframe}
+ * arrays which require several objects per keyframe.
+ * <p>
+ * Values are stored in glTF layout: {@link #components} floats per keyframe, or for cubic spline interpolation
+ * in tangent, value and out tangent per keyframe.
+ * <p>
+ * Tracks are immutable and shared by all model instances (arrays content must not be modified),
+ * playback state is held by {@link NodeAnimationHack}.
+ */
+public class PackedTrack {
+
+	public final Interpolation interpolation;
+
+	/** number of floats per value: 3 for translation and scale, 4 for rotation, morph targets count for weights. */
+	public final int components;
+
+	/** keyframes times, in ascending order */
+	public final float[] times;
+
+	/** keyframes values */
+	public final float[] values;
+
+	/** number of floats per keyframe */
+	private final int stride;
+
+	public PackedTrack(Interpolation interpolation, int components, float[] times, float[] values) {
+		this.interpolation = interpolation;
+		this.components = components;
+		this.times = times;
+		this.values = values;
+		this.stride = interpolation == Interpolation.CUBICSPLINE ? components * 3 : components;
+	}
+
+	/** @return number of keyframes */
+	public int size(){
+		return times.length;
+	}
+
+	/** @return offset of keyframe value in {@link #values} */
+	public int getValueOffset(int index){
+		return interpolation == Interpolation.CUBICSPLINE ? index * stride + components : index * stride;
+	}
+
+	/** @return offset of keyframe in tangent in {@link #values}, only relevant for cubic spline interpolation */
+	public int getInTangentOffset(int index){
+		return index * stride;
+	}
+
+	/** @return offset of keyframe out tangent in {@link #values}, only relevant for cubic spline interpolation */
+	public int getOutTangentOffset(int index){
+		return index * stride + components * 2;
+	}
+
+	/**
+	 * Find the keyframe index for given time, same as
+	 * {@link AnimationControllerHack#getFirstKeyframeIndexAtTime(com.badlogic.gdx.utils.Array, float, int)}.
+	 * @param cursor hint, typically previous result.
+	 * @return first index i such that time is in [times(i), times(i+1)], last index when time is out of range.
+	 */
+	public int getKeyframeIndex(final float time, final int cursor){
+		final float[] times = this.times;
+		final int n = times.length - 1;
+		if (n <= 0 || !(time >= times[0] && time <= times[n])) return n;
+		if (isKeyframeIndex(time, cursor)) return cursor;
+		if (isKeyframeIndex(time, cursor + 1)) return cursor + 1;
+
+		// first index i such that times(i+1) >= time, time being in range.
+		int low = 0;
+		int high = n - 1;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (times[mid + 1] >= time) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		return low;
+	}
+
+	private boolean isKeyframeIndex(final float time, final int index){
+		return index >= 0 && index < times.length - 1 && times[index + 1] >= time && (index == 0 || times[index] < time);
+	}
+}
@@ -7,5 +7,9 @@ public class PBRVertexAttributes
 		public static final int PositionTarget = 512;
 		public static final int NormalTarget = 1024;
 		public static final int TangentTarget = 2048;
+		/** vertex index in a {@link net.mgsx.gltf.scene3d.model.MorphTargetsTexture} */
+		public static final int MorphTargetsIndex = 4096;
 	}
+	
+	public static final String MORPH_TARGETS_INDEX_ATTRIBUTE = "a_morphIndex";
 }
@@ -0,0 +1,199 @@
+package net.mgsx.gltf.scene3d.model;
+
+import java.nio.FloatBuffer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.glutils.IndexArray;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.graphics.glutils.VertexArray;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Per instance world transforms, uploaded as an instanced vertex buffer (requires GL30) and read by shaders
+ * as 4 vec4 attributes (matrix columns), see {@link InstancedMesh}.
+ * <p>
+ * Transforms are stored on CPU side and uploaded lazily when bound after a modification.
+ * Like libGDX managed buffers, GL buffer is created again and transforms uploaded after a context loss.
+ */
+public class InstanceBuffer implements Disposable {
+
+	/** shader attributes prefix, attributes are named a_instanceTrans0 to a_instanceTrans3 */
+	public static final String ATTRIBUTE_PREFIX = "a_instanceTrans";
+
+	/** number of floats per instance: a column major 4x4 matrix */
+	public static final int STRIDE = 16;
+
+	private float [] transforms;
+	private int count;
+	private boolean dirty;
+
+	private int handle;
+	private FloatBuffer buffer;
+	private Mesh contextListener;
+	private final int [] locations = {-1, -1, -1, -1};
+
+	public InstanceBuffer() {
+		this(16);
+	}
+
+	public InstanceBuffer(int capacity) {
+		transforms = new float[Math.max(1, capacity) * STRIDE];
+	}
+
+	/** @return number of instances */
+	public int size(){
+		return count;
+	}
+
+	/**
+	 * Add an instance.
+	 * @param transform instance world transform
+	 * @return instance index
+	 */
+	public int add(Matrix4 transform){
+		if((count + 1) * STRIDE > transforms.length){
+			float [] newTransforms = new float[Math.max(count + 1, count * 7 / 4) * STRIDE];
+			System.arraycopy(transforms, 0, newTransforms, 0, count * STRIDE);
+			transforms = newTransforms;
+		}
+		System.arraycopy(transform.val, 0, transforms, count * STRIDE, STRIDE);
+		dirty = true;
+		return count++;
+	}
+
+	public void set(int index, Matrix4 transform){
+		checkIndex(index);
+		System.arraycopy(transform.val, 0, transforms, index * STRIDE, STRIDE);
+		dirty = true;
+	}
+
+	public Matrix4 get(int index, Matrix4 out){
+		checkIndex(index);
+		System.arraycopy(transforms, index * STRIDE, out.val, 0, STRIDE);
+		return out;
+	}
+
+	/**
+	 * Remove an instance, the last instance takes its place.
+	 * @param index
+	 */
+	public void remove(int index){
+		checkIndex(index);
+		count--;
+		if(index != count){
+			System.arraycopy(transforms, count * STRIDE, transforms, index * STRIDE, STRIDE);
+		}
+		dirty = true;
+	}
+
+	public void clear(){
+		count = 0;
+		dirty = true;
+	}
+
+	/**
+	 * Raw transforms, {@link #STRIDE} floats per instance. Call {@link #invalidate()} after modifying them.
+	 */
+	public float[] getTransforms(){
+		return transforms;
+	}
+
+	/** notify transforms have been modified in place, they will be uploaded at next binding. */
+	public void invalidate(){
+		dirty = true;
+	}
+
+	private void checkIndex(int index){
+		if(index < 0 || index >= count) throw new GdxRuntimeException("instance index out of bounds: " + index);
+	}
+
+	private void upload(){
+		GL20 gl = Gdx.gl;
+		if(handle == 0){
+			handle = gl.glGenBuffer();
+		}
+		if(contextListener == null){
+			contextListener = createContextListener();
+		}
+		if(buffer == null || buffer.capacity() < count * STRIDE){
+			buffer = BufferUtils.newFloatBuffer(transforms.length);
+		}
+		buffer.clear();
+		buffer.put(transforms, 0, count * STRIDE);
+		buffer.flip();
+		gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, handle);
+		gl.glBufferData(GL20.GL_ARRAY_BUFFER, count * STRIDE * 4, buffer, GL20.GL_DYNAMIC_DRAW);
+		dirty = false;
+	}
+
+	/**
+	 * @return a libGDX managed mesh without GL buffers, only used to be notified of context loss
+	 * (see {@link Mesh#invalidateAllMeshes(com.badlogic.gdx.Application)}).
+	 */
+	private Mesh createContextListener(){
+		VertexArray vertices = new VertexArray(1, VertexAttribute.Position()){
+			@Override
+			public void invalidate() {
+				// previous buffer is lost with the context, a new one is created at next binding.
+				handle = 0;
+				dirty = true;
+			}
+		};
+		return new Mesh(vertices, new IndexArray(0), true){};
+	}
+
+	/**
+	 * Enable instance attributes for the given shader, uploading transforms if necessary.
+	 * Should be called after the instanced mesh is bound.
+	 */
+	public void bind(ShaderProgram shader){
+		GL30 gl = Gdx.gl30;
+		if(gl == null) throw new GdxRuntimeException("instanced rendering requires GL30");
+		if(dirty) upload();
+		gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, handle);
+		for(int i=0 ; i<4 ; i++){
+			int location = shader.getAttributeLocation(ATTRIBUTE_PREFIX + i);
+			locations[i] = location;
+			if(location < 0) continue;
+			gl.glEnableVertexAttribArray(location);
+			gl.glVertexAttribPointer(location, 4, GL20.GL_FLOAT, false, STRIDE * 4, i * 4 * 4);
+			gl.glVertexAttribDivisor(location, 1);
+		}
+		gl.glBindBuffer(GL20.GL_ARRAY_BUFFER, 0);
+	}
+
+	/**
+	 * Disable instance attributes previously enabled by {@link #bind(ShaderProgram)}.
+	 * Should be called before the instanced mesh is unbound in order to leave its vertex array state untouched.
+	 */
+	public void unbind(ShaderProgram shader){
+		GL30 gl = Gdx.gl30;
+		for(int i=0 ; i<4 ; i++){
+			int location = locations[i];
+			if(location < 0) continue;
+			gl.glVertexAttribDivisor(location, 0);
+			gl.glDisableVertexAttribArray(location);
+		}
+	}
+
+	@Override
+	public void dispose() {
+		if(handle != 0){
+			Gdx.gl.glDeleteBuffer(handle);
+			handle = 0;
+		}
+		if(contextListener != null){
+			contextListener.dispose();
+			contextListener = null;
+		}
+		buffer = null;
+		dirty = true;
+	}
+}
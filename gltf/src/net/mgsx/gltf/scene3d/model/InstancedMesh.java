@@ -0,0 +1,226 @@
+package net.mgsx.gltf.scene3d.model;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.IndexData;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.graphics.glutils.VertexData;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * {@link Mesh} hack to draw a shared mesh once per instance of an {@link InstanceBuffer} with a single
+ * instanced draw call (requires GL30).
+ * <p>
+ * It doesn't hold any vertices or indices (no GL buffer is allocated): vertices and indices are read only views of
+ * the shared mesh ones, binding and rendering are delegated to the shared mesh. It has the same
+ * vertex attributes so it can be used in place of the shared mesh in renderables, shaders need to read
+ * instance attributes though, see {@link net.mgsx.gltf.scene3d.shaders.PBRShaderProvider}.
+ * <p>
+ * It is not a managed mesh: shared mesh restores its own data on context loss.
+ */
+public class InstancedMesh extends Mesh {
+
+	/** shared mesh, not owned by this mesh. */
+	public final Mesh mesh;
+
+	/** instances transforms, not owned by this mesh. */
+	public final InstanceBuffer instances;
+
+	/**
+	 * When false, instance transforms are applied on top of the renderable world transform (instance * world), used
+	 * to draw a whole model many times. When true, they are relative to the node (world * instance) as glTF
+	 * EXT_mesh_gpu_instancing transforms.
+	 */
+	public final boolean local;
+
+	public InstancedMesh(Mesh mesh, InstanceBuffer instances) {
+		this(mesh, instances, false);
+	}
+
+	public InstancedMesh(Mesh mesh, InstanceBuffer instances, boolean local) {
+		super(new SharedVertexData(mesh), new SharedIndexData(mesh), false);
+		// unregister from libGDX managed meshes, shared data dispose does nothing.
+		super.dispose();
+		this.mesh = mesh;
+		this.instances = instances;
+		this.local = local;
+	}
+
+	/**
+	 * @return 0 when mesh is not instanced, 1 for instances applied on top of world transform, 2 for local instances.
+	 * See {@link #local}.
+	 */
+	public static int getInstancingMode(Mesh mesh){
+		if(mesh instanceof InstancedMesh){
+			return ((InstancedMesh)mesh).local ? 2 : 1;
+		}
+		return 0;
+	}
+
+	@Override
+	public void bind(ShaderProgram shader, int[] locations) {
+		mesh.bind(shader, locations);
+		instances.bind(shader);
+	}
+
+	@Override
+	public void unbind(ShaderProgram shader, int[] locations) {
+		instances.unbind(shader);
+		mesh.unbind(shader, locations);
+	}
+
+	@Override
+	public void render(ShaderProgram shader, int primitiveType, int offset, int count, boolean autoBind) {
+		if(count == 0 || instances.size() == 0) return;
+		if(autoBind) bind(shader);
+		if(mesh instanceof IntIndexMesh && mesh.getNumIndices() > 0){
+			Gdx.gl30.glDrawElementsInstanced(primitiveType, count, GL20.GL_UNSIGNED_INT, offset * 4, instances.size());
+		}else if(mesh.getNumIndices() > 0){
+			Gdx.gl30.glDrawElementsInstanced(primitiveType, count, GL20.GL_UNSIGNED_SHORT, offset * 2, instances.size());
+		}else{
+			Gdx.gl30.glDrawArraysInstanced(primitiveType, offset, count, instances.size());
+		}
+		if(autoBind) unbind(shader);
+	}
+
+	@Override
+	public BoundingBox calculateBoundingBox(BoundingBox bbox) {
+		return mesh.calculateBoundingBox(bbox);
+	}
+
+	@Override
+	public BoundingBox extendBoundingBox(BoundingBox out, int offset, int count, Matrix4 transform) {
+		return mesh.extendBoundingBox(out, offset, count, transform);
+	}
+
+	/**
+	 * Read only view of shared mesh vertices, binding is done by {@link InstancedMesh#bind(ShaderProgram, int[])}.
+	 */
+	private static class SharedVertexData implements VertexData {
+
+		private final Mesh mesh;
+
+		SharedVertexData(Mesh mesh) {
+			this.mesh = mesh;
+		}
+
+		@Override
+		public int getNumVertices() {
+			return mesh.getNumVertices();
+		}
+
+		@Override
+		public int getNumMaxVertices() {
+			return mesh.getMaxVertices();
+		}
+
+		@Override
+		public VertexAttributes getAttributes() {
+			return mesh.getVertexAttributes();
+		}
+
+		@Override
+		public void setVertices(float[] vertices, int offset, int count) {
+			throw new GdxRuntimeException("instanced mesh vertices are shared, update source mesh instead");
+		}
+
+		@Override
+		public void updateVertices(int targetOffset, float[] vertices, int sourceOffset, int count) {
+			throw new GdxRuntimeException("instanced mesh vertices are shared, update source mesh instead");
+		}
+
+		@Override
+		public FloatBuffer getBuffer() {
+			return mesh.getVerticesBuffer();
+		}
+
+		@Override
+		public void bind(ShaderProgram shader) {
+		}
+
+		@Override
+		public void bind(ShaderProgram shader, int[] locations) {
+		}
+
+		@Override
+		public void unbind(ShaderProgram shader) {
+		}
+
+		@Override
+		public void unbind(ShaderProgram shader, int[] locations) {
+		}
+
+		@Override
+		public void invalidate() {
+		}
+
+		@Override
+		public void dispose() {
+		}
+	}
+
+	/**
+	 * Read only view of shared mesh indices, binding is done by {@link InstancedMesh#bind(ShaderProgram, int[])}.
+	 */
+	private static class SharedIndexData implements IndexData {
+
+		private final Mesh mesh;
+
+		SharedIndexData(Mesh mesh) {
+			this.mesh = mesh;
+		}
+
+		@Override
+		public int getNumIndices() {
+			return mesh.getNumIndices();
+		}
+
+		@Override
+		public int getNumMaxIndices() {
+			return mesh.getMaxIndices();
+		}
+
+		@Override
+		public void setIndices(short[] indices, int offset, int count) {
+			throw new GdxRuntimeException("instanced mesh indices are shared, update source mesh instead");
+		}
+
+		@Override
+		public void setIndices(ShortBuffer indices) {
+			throw new GdxRuntimeException("instanced mesh indices are shared, update source mesh instead");
+		}
+
+		@Override
+		public void updateIndices(int targetOffset, short[] indices, int offset, int count) {
+			throw new GdxRuntimeException("instanced mesh indices are shared, update source mesh instead");
+		}
+
+		@Override
+		public ShortBuffer getBuffer() {
+			return mesh.getIndicesBuffer();
+		}
+
+		@Override
+		public void bind() {
+		}
+
+		@Override
+		public void unbind() {
+		}
+
+		@Override
+		public void invalidate() {
+		}
+
+		@Override
+		public void dispose() {
+		}
+	}
+}
@@ -0,0 +1,214 @@
+package net.mgsx.gltf.scene3d.model;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+import com.badlogic.gdx.Application.ApplicationType;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.IndexData;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.graphics.glutils.VertexBufferObject;
+import com.badlogic.gdx.graphics.glutils.VertexBufferObjectWithVAO;
+import com.badlogic.gdx.graphics.glutils.VertexData;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * {@link Mesh} with 32 bits indices drawn with GL_UNSIGNED_INT, allowing more than 65535 vertices in a single mesh.
+ * Requires GL30, desktop OpenGL or OES_element_index_uint extension, see {@link #isSupported()}.
+ * <p>
+ * Indices are set with {@link #setIndices(int[])} and read with {@link #getIntIndicesBuffer()}, short indices
+ * are converted when set but {@link #getIndicesBuffer()} is not supported.
+ */
+public class IntIndexMesh extends QuantizedMesh {
+
+	private static Boolean supported;
+
+	private final IntIndexBufferObject intIndices;
+
+	public IntIndexMesh(boolean isStatic, int maxVertices, int maxIndices, VertexAttributes attributes) {
+		this(createVertexData(isStatic, maxVertices, attributes), new IntIndexBufferObject(isStatic, maxIndices));
+	}
+
+	private IntIndexMesh(VertexData vertices, IntIndexBufferObject indices) {
+		super(vertices, indices, false);
+		this.intIndices = indices;
+	}
+
+	private static VertexData createVertexData(boolean isStatic, int maxVertices, VertexAttributes attributes){
+		// same vertex buffers as standard meshes.
+		if(Gdx.gl30 != null){
+			return new VertexBufferObjectWithVAO(isStatic, maxVertices, attributes);
+		}
+		return new VertexBufferObject(isStatic, maxVertices, attributes);
+	}
+
+	/**
+	 * @return true if 32 bits indices can be drawn by current GL context. Has to be called from the GL thread.
+	 */
+	public static boolean isSupported(){
+		if(supported == null){
+			supported = Gdx.gl30 != null ||
+					Gdx.app.getType() == ApplicationType.Desktop ||
+					Gdx.graphics.supportsExtension("GL_OES_element_index_uint") ||
+					Gdx.graphics.supportsExtension("OES_element_index_uint");
+		}
+		return supported;
+	}
+
+	public IntIndexMesh setIndices(int[] indices){
+		intIndices.setIndices(indices, 0, indices.length);
+		return this;
+	}
+
+	public IntIndexMesh setIndices(int[] indices, int offset, int count){
+		intIndices.setIndices(indices, offset, count);
+		return this;
+	}
+
+	/**
+	 * @return indices buffer, its limit is the number of indices.
+	 */
+	public IntBuffer getIntIndicesBuffer(){
+		return intIndices.buffer;
+	}
+
+	@Override
+	public void render(ShaderProgram shader, int primitiveType, int offset, int count, boolean autoBind) {
+		if(count == 0) return;
+		if(autoBind) bind(shader);
+		if(intIndices.getNumIndices() > 0){
+			if(count + offset > intIndices.getNumMaxIndices()){
+				throw new GdxRuntimeException("Mesh attempting to access memory outside of the index buffer (count: "
+						+ count + ", offset: " + offset + ", max: " + intIndices.getNumMaxIndices() + ")");
+			}
+			Gdx.gl20.glDrawElements(primitiveType, count, GL20.GL_UNSIGNED_INT, offset * 4);
+		}else{
+			Gdx.gl20.glDrawArrays(primitiveType, offset, count);
+		}
+		if(autoBind) unbind(shader);
+	}
+
+	@Override
+	protected int getIndex(int index) {
+		return intIndices.buffer.get(index);
+	}
+
+	/**
+	 * Index buffer object holding 32 bits indices.
+	 */
+	private static class IntIndexBufferObject implements IndexData {
+
+		final IntBuffer buffer;
+		final ByteBuffer byteBuffer;
+		int bufferHandle;
+		final int usage;
+		boolean isDirty = true;
+		boolean isBound = false;
+
+		public IntIndexBufferObject(boolean isStatic, int maxIndices) {
+			byteBuffer = BufferUtils.newByteBuffer(maxIndices * 4);
+			buffer = byteBuffer.asIntBuffer();
+			buffer.flip();
+			byteBuffer.flip();
+			bufferHandle = Gdx.gl20.glGenBuffer();
+			usage = isStatic ? GL20.GL_STATIC_DRAW : GL20.GL_DYNAMIC_DRAW;
+		}
+
+		@Override
+		public int getNumIndices() {
+			return buffer.limit();
+		}
+
+		@Override
+		public int getNumMaxIndices() {
+			return buffer.capacity();
+		}
+
+		public void setIndices(int[] indices, int offset, int count) {
+			buffer.clear();
+			buffer.put(indices, offset, count);
+			buffer.flip();
+			updated();
+		}
+
+		@Override
+		public void setIndices(short[] indices, int offset, int count) {
+			buffer.clear();
+			for(int i=0 ; i<count ; i++){
+				buffer.put(indices[offset + i] & 0xFFFF);
+			}
+			buffer.flip();
+			updated();
+		}
+
+		@Override
+		public void setIndices(ShortBuffer indices) {
+			int pos = indices.position();
+			buffer.clear();
+			while(indices.hasRemaining()){
+				buffer.put(indices.get() & 0xFFFF);
+			}
+			buffer.flip();
+			indices.position(pos);
+			updated();
+		}
+
+		@Override
+		public void updateIndices(int targetOffset, short[] indices, int offset, int count) {
+			for(int i=0 ; i<count ; i++){
+				buffer.put(targetOffset + i, indices[offset + i] & 0xFFFF);
+			}
+			updated();
+		}
+
+		private void updated(){
+			byteBuffer.position(0);
+			byteBuffer.limit(buffer.limit() * 4);
+			isDirty = true;
+			if(isBound){
+				Gdx.gl20.glBufferData(GL20.GL_ELEMENT_ARRAY_BUFFER, byteBuffer.limit(), byteBuffer, usage);
+				isDirty = false;
+			}
+		}
+
+		@Override
+		public ShortBuffer getBuffer() {
+			throw new GdxRuntimeException("32 bits indices mesh, use IntIndexMesh.getIntIndicesBuffer instead");
+		}
+
+		@Override
+		public void bind() {
+			if(bufferHandle == 0) throw new GdxRuntimeException("No buffer allocated!");
+			Gdx.gl20.glBindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, bufferHandle);
+			if(isDirty){
+				Gdx.gl20.glBufferData(GL20.GL_ELEMENT_ARRAY_BUFFER, byteBuffer.limit(), byteBuffer, usage);
+				isDirty = false;
+			}
+			isBound = true;
+		}
+
+		@Override
+		public void unbind() {
+			Gdx.gl20.glBindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, 0);
+			isBound = false;
+		}
+
+		@Override
+		public void invalidate() {
+			bufferHandle = Gdx.gl20.glGenBuffer();
+			isDirty = true;
+		}
+
+		@Override
+		public void dispose() {
+			Gdx.gl20.glBindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, 0);
+			Gdx.gl20.glDeleteBuffer(bufferHandle);
+			bufferHandle = 0;
+		}
+	}
+}
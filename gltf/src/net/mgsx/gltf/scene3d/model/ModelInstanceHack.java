@@ -38,19 +38,26 @@ public class ModelInstanceHack extends ModelInstance
 		for (final NodeAnimation nanim : anim.nodeAnimations) {
 			final Node node = getNode(nanim.node.id);
 			if (node == null) continue;
+			NodeAnimationHack nanimHack = (NodeAnimationHack)nanim;
 			NodeAnimationHack nodeAnim = new NodeAnimationHack();
 			nodeAnim.node = node;
 			
-			nodeAnim.translationMode = ((NodeAnimationHack)nanim).translationMode;
-			nodeAnim.rotationMode = ((NodeAnimationHack)nanim).rotationMode;
-			nodeAnim.scalingMode = ((NodeAnimationHack)nanim).scalingMode;
-			nodeAnim.weightsMode = ((NodeAnimationHack)nanim).weightsMode;
+			nodeAnim.translationMode = nanimHack.translationMode;
+			nodeAnim.rotationMode = nanimHack.rotationMode;
+			nodeAnim.scalingMode = nanimHack.scalingMode;
+			nodeAnim.weightsMode = nanimHack.weightsMode;
+			
+			// packed tracks are immutable and always shared
+			nodeAnim.translationTrack = nanimHack.translationTrack;
+			nodeAnim.rotationTrack = nanimHack.rotationTrack;
+			nodeAnim.scalingTrack = nanimHack.scalingTrack;
+			nodeAnim.weightsTrack = nanimHack.weightsTrack;
 			
 			if (shareKeyframes) {
 				nodeAnim.translation = nanim.translation;
 				nodeAnim.rotation = nanim.rotation;
 				nodeAnim.scaling = nanim.scaling;
-				nodeAnim.weights = ((NodeAnimationHack)nanim).weights;
+				nodeAnim.weights = nanimHack.weights;
 			} else {
 				if (nanim.translation != null) {
 					nodeAnim.translation = new Array<NodeKeyframe<Vector3>>();
@@ -67,13 +74,14 @@ public class ModelInstanceHack extends ModelInstance
 					for (final NodeKeyframe<Vector3> kf : nanim.scaling)
 						nodeAnim.scaling.add(new NodeKeyframe<Vector3>(kf.keytime, kf.value));
 				}
-				if (((NodeAnimationHack)nanim).weights != null) {
-					((NodeAnimationHack)nanim).weights = new Array<NodeKeyframe<WeightVector>>();
-					for (final NodeKeyframe<WeightVector> kf : ((NodeAnimationHack)nanim).weights)
-						((NodeAnimationHack)nanim).weights.add(new NodeKeyframe<WeightVector>(kf.keytime, kf.value));
+				if (nanimHack.weights != null) {
+					nodeAnim.weights = new Array<NodeKeyframe<WeightVector>>();
+					for (final NodeKeyframe<WeightVector> kf : nanimHack.weights)
+						nodeAnim.weights.add(new NodeKeyframe<WeightVector>(kf.keytime, kf.value));
 				}
 			}
-			if (nodeAnim.translation != null || nodeAnim.rotation != null || nodeAnim.scaling != null || ((NodeAnimationHack)nanim).weights != null)
+			if (nodeAnim.translation != null || nodeAnim.rotation != null || nodeAnim.scaling != null || nodeAnim.weights != null ||
+				nodeAnim.translationTrack != null || nodeAnim.rotationTrack != null || nodeAnim.scalingTrack != null || nodeAnim.weightsTrack != null)
 				animation.nodeAnimations.add(nodeAnim);
 		}
 		if (animation.nodeAnimations.size > 0) animations.add(animation);
@@ -0,0 +1,40 @@
+package net.mgsx.gltf.scene3d.model;
+
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttributes;
+
+/**
+ * Mesh which morph targets are stored in a {@link MorphTargetsTexture} instead of vertex attributes.
+ * Its vertices have a {@link net.mgsx.gltf.scene3d.attributes.PBRVertexAttributes.Usage#MorphTargetsIndex} attribute
+ * holding their index in the texture. Morph targets texture is disposed with this mesh.
+ */
+public class MorphTargetsMesh extends QuantizedMesh {
+
+	/** morph targets, may be shared by several meshes */
+	public final MorphTargetsTexture morphTargets;
+
+	public MorphTargetsMesh(boolean isStatic, int maxVertices, int maxIndices, VertexAttributes attributes, MorphTargetsTexture morphTargets) {
+		super(isStatic, maxVertices, maxIndices, attributes);
+		this.morphTargets = morphTargets;
+	}
+
+	/**
+	 * @return morph targets texture of given mesh (or of its shared mesh for {@link InstancedMesh}), null if mesh
+	 * doesn't use a morph targets texture.
+	 */
+	public static MorphTargetsTexture getMorphTargets(Mesh mesh){
+		if(mesh instanceof InstancedMesh){
+			mesh = ((InstancedMesh)mesh).mesh;
+		}
+		if(mesh instanceof MorphTargetsMesh){
+			return ((MorphTargetsMesh)mesh).morphTargets;
+		}
+		return null;
+	}
+
+	@Override
+	public void dispose() {
+		super.dispose();
+		morphTargets.dispose();
+	}
+}
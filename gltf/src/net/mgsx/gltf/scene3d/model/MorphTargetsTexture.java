@@ -0,0 +1,139 @@
+package net.mgsx.gltf.scene3d.model;
+
+import java.nio.FloatBuffer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.glutils.FloatTextureData;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import net.mgsx.gltf.scene3d.shaders.PBRCommon;
+
+/**
+ * Morph targets displacements stored in a float texture (RGBA32F, requires GL30) instead of vertex attributes,
+ * there is no limit on the number of morph targets and vertex size doesn't depend on it.
+ * <p>
+ * Each vertex has one texel per target and per target attribute (position, normal, tangent):
+ * texel index is (vertex * targets + target) * stride + attribute offset, {@link #WIDTH} texels per row.
+ * Meshes refer to their vertex index with a {@link net.mgsx.gltf.scene3d.attributes.PBRVertexAttributes.Usage#MorphTargetsIndex}
+ * vertex attribute, see {@link MorphTargetsMesh}.
+ * <p>
+ * Displacements are set from any thread, texture is created on the GL thread by {@link #load()}.
+ */
+public class MorphTargetsTexture implements Disposable {
+
+	/** texture width in texels */
+	public static final int WIDTH = 2048;
+
+	/** maximum number of texels: texel indices are computed with floats in shaders, which are exact up to 2^24. */
+	public static final int MAX_TEXELS = 1 << 24;
+
+	/** number of vertices */
+	public final int vertices;
+	/** number of morph targets */
+	public final int targets;
+	/** number of texels per vertex and per target */
+	public final int stride;
+	/** texel offset of target attributes, -1 when no target has this attribute */
+	public final int positionOffset, normalOffset, tangentOffset;
+
+	private final int rows;
+	private float[] data;
+	private Texture texture;
+
+	public MorphTargetsTexture(int vertices, int targets, boolean positions, boolean normals, boolean tangents) {
+		this.vertices = vertices;
+		this.targets = targets;
+		int offset = 0;
+		positionOffset = positions ? offset++ : -1;
+		normalOffset = normals ? offset++ : -1;
+		tangentOffset = tangents ? offset++ : -1;
+		stride = offset;
+		long texels = (long)vertices * targets * stride;
+		if(texels > MAX_TEXELS){
+			throw new GdxRuntimeException("too many morph targets vertices: " + texels + " texels > " + MAX_TEXELS);
+		}
+		rows = (int)Math.max(1, (texels + WIDTH - 1) / WIDTH);
+		data = new float[rows * WIDTH * 4];
+	}
+
+	/**
+	 * Set displacements of a target attribute for all vertices.
+	 * @param target target index
+	 * @param attributeOffset one of {@link #positionOffset}, {@link #normalOffset} or {@link #tangentOffset}
+	 * @param values 3 floats per vertex
+	 */
+	public void set(int target, int attributeOffset, float[] values){
+		if(data == null) throw new GdxRuntimeException("morph targets texture already loaded");
+		if(target < 0 || target >= targets || attributeOffset < 0 || attributeOffset >= stride){
+			throw new GdxRuntimeException("morph target attribute out of bounds");
+		}
+		int n = Math.min(vertices, values.length / 3);
+		for(int v=0 ; v<n ; v++){
+			int index = ((v * targets + target) * stride + attributeOffset) * 4;
+			data[index] = values[v*3];
+			data[index+1] = values[v*3+1];
+			data[index+2] = values[v*3+2];
+		}
+	}
+
+	/** @return raw texels (4 floats per texel), null once loaded. */
+	public float[] getData(){
+		return data;
+	}
+
+	/**
+	 * Create the texture, has to be called from the GL thread. CPU data are released.
+	 */
+	public void load(){
+		if(texture != null) return;
+		if(Gdx.gl30 == null) throw new GdxRuntimeException("morph targets texture requires GL30");
+		int maxSize = PBRCommon.getCapability(GL20.GL_MAX_TEXTURE_SIZE);
+		if(rows > maxSize){
+			throw new GdxRuntimeException("too many morph targets vertices: texture height " + rows + " > " + maxSize);
+		}
+		FloatTextureData textureData = new FloatTextureData(WIDTH, rows, GL30.GL_RGBA32F, GL20.GL_RGBA, GL20.GL_FLOAT, false);
+		textureData.prepare();
+		FloatBuffer buffer = textureData.getBuffer();
+		buffer.clear();
+		buffer.put(data);
+		buffer.flip();
+		texture = new Texture(textureData);
+		texture.setFilter(TextureFilter.Nearest, TextureFilter.Nearest);
+		data = null;
+	}
+
+	/** @return texture, null until loaded */
+	public Texture getTexture(){
+		return texture;
+	}
+
+	public float getInvWidth(){
+		return 1f / WIDTH;
+	}
+
+	public float getInvHeight(){
+		return 1f / rows;
+	}
+
+	/**
+	 * @return a mask identifying shader code required by this texture layout (target count and attributes).
+	 */
+	public long getShaderMask(){
+		return ((long)targets << 3) | (positionOffset >= 0 ? 1 : 0) | (normalOffset >= 0 ? 2 : 0) | (tangentOffset >= 0 ? 4 : 0);
+	}
+
+	/** Texture may be shared by several meshes (split meshes), it can be disposed several times. */
+	@Override
+	public void dispose() {
+		if(texture != null){
+			texture.dispose();
+			texture = null;
+		}
+		data = null;
+	}
+}
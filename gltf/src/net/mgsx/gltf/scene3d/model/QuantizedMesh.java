@@ -0,0 +1,96 @@
+package net.mgsx.gltf.scene3d.model;
+
+import java.nio.FloatBuffer;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.graphics.glutils.IndexData;
+import com.badlogic.gdx.graphics.glutils.VertexData;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * {@link Mesh} which positions may be quantized (KHR_mesh_quantization): byte or short components are packed
+ * in vertices floats (little endian). Bounding boxes are computed from dequantized positions while
+ * libGDX implementation reads positions as floats.
+ */
+public class QuantizedMesh extends Mesh {
+
+	public QuantizedMesh(boolean isStatic, int maxVertices, int maxIndices, VertexAttributes attributes) {
+		super(isStatic, maxVertices, maxIndices, attributes);
+	}
+
+	protected QuantizedMesh(VertexData vertices, IndexData indices, boolean isVertexArray) {
+		super(vertices, indices, isVertexArray);
+	}
+
+	@Override
+	public BoundingBox calculateBoundingBox(BoundingBox bbox) {
+		final int numVertices = getNumVertices();
+		if(numVertices == 0) throw new GdxRuntimeException("No vertices defined");
+		bbox.inf();
+		return extendBounds(bbox, 0, numVertices, null, false);
+	}
+
+	@Override
+	public BoundingBox extendBoundingBox(BoundingBox out, int offset, int count, Matrix4 transform) {
+		final int numIndices = getNumIndices();
+		final int max = numIndices == 0 ? getNumVertices() : numIndices;
+		if(offset < 0 || count < 1 || offset + count > max){
+			throw new GdxRuntimeException("Invalid part specified ( offset=" + offset + ", count=" + count + ", max=" + max + " )");
+		}
+		return extendBounds(out, offset, count, transform, numIndices > 0);
+	}
+
+	/**
+	 * @return vertex index at given position in indices buffer.
+	 */
+	protected int getIndex(int index){
+		return getIndicesBuffer().get(index) & 0xFFFF;
+	}
+
+	private BoundingBox extendBounds(BoundingBox out, int offset, int count, Matrix4 transform, boolean indexed){
+		final VertexAttribute posAttrib = getVertexAttribute(Usage.Position);
+		final int posOffset = posAttrib.offset / 4;
+		final int vertexSize = getVertexAttributes().vertexSize / 4;
+		final FloatBuffer vertices = getVerticesBuffer();
+		final Vector3 tmp = new Vector3();
+		for(int i = offset, end = offset + count ; i < end ; i++){
+			final int index = (indexed ? getIndex(i) : i) * vertexSize + posOffset;
+			tmp.set(getPositionComponent(vertices, index, posAttrib, 0),
+					posAttrib.numComponents > 1 ? getPositionComponent(vertices, index, posAttrib, 1) : 0,
+					posAttrib.numComponents > 2 ? getPositionComponent(vertices, index, posAttrib, 2) : 0);
+			if(transform != null) tmp.mul(transform);
+			out.ext(tmp);
+		}
+		return out;
+	}
+
+	/**
+	 * Read a position component, quantized components (packed in floats, little endian) are converted to floats.
+	 * @param index vertex position offset in floats.
+	 */
+	private static float getPositionComponent(FloatBuffer vertices, int index, VertexAttribute attribute, int component){
+		if(attribute.type == GL20.GL_FLOAT) return vertices.get(index + component);
+		final int componentSize = attribute.type == GL20.GL_BYTE || attribute.type == GL20.GL_UNSIGNED_BYTE ? 1 : 2;
+		final int byteOffset = component * componentSize;
+		final int bits = Float.floatToRawIntBits(vertices.get(index + byteOffset / 4)) >>> ((byteOffset % 4) * 8);
+		switch(attribute.type){
+		case GL20.GL_BYTE:
+			return attribute.normalized ? Math.max((byte)bits / 127f, -1f) : (byte)bits;
+		case GL20.GL_UNSIGNED_BYTE:
+			return attribute.normalized ? (bits & 0xFF) / 255f : (bits & 0xFF);
+		case GL20.GL_SHORT:
+			return attribute.normalized ? Math.max((short)bits / 32767f, -1f) : (short)bits;
+		case GL20.GL_UNSIGNED_SHORT:
+			return attribute.normalized ? (bits & 0xFFFF) / 65535f : (bits & 0xFFFF);
+		default:
+			throw new GdxRuntimeException("unsupported position type: " + attribute.type);
+		}
+	}
+}
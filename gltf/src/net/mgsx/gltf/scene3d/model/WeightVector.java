@@ -33,6 +33,15 @@ public class WeightVector {
 		return this;
 	}
 
+	public WeightVector set(float[] values, int offset, int count) {
+		if(count > this.values.length){
+			this.values = new float[count];
+		}
+		this.count = count;
+		System.arraycopy(values, offset, this.values, 0, count);
+		return this;
+	}
+
 	public void lerp(WeightVector value, float t) {
 		if(count != value.count) throw new GdxRuntimeException("WeightVector count mismatch");
 		for(int i=0 ; i<count ; i++){
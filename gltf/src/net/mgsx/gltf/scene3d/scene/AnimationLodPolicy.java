@@ -0,0 +1,107 @@
+package net.mgsx.gltf.scene3d.scene;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Animation level of detail, see {@link SceneManager#setAnimationLodPolicy(AnimationLodPolicy)} :
+ * decide how often scenes are updated (animations, nodes and bones transforms) depending on their visibility
+ * and distance to the camera.
+ * <p>
+ * Time of skipped updates is accumulated and applied at next update: animations stay in sync but animation
+ * listeners may be notified later. Scenes having lights or cameras are always updated since they could affect
+ * other scenes. Updates are staggered so that scenes with the same interval are not all updated on the same frame.
+ */
+public class AnimationLodPolicy {
+
+	/** visible scenes closer than this distance to the camera are updated every frame */
+	public float nearDistance = 10f;
+
+	/** visible scenes beyond {@link #nearDistance} are updated every farInterval frames */
+	public int farInterval = 4;
+
+	/** scenes outside of the camera frustum are updated every hiddenInterval frames, 0 to not update them until visible. */
+	public int hiddenInterval = 0;
+
+	/** bounding sphere radius of scenes without bounds (eg. skinned scenes), centered at scene origin. 
+	 * Such scenes are considered visible, this radius is only used to compute their distance to the camera. */
+	public float defaultRadius = 1f;
+
+	private static class SceneState {
+		float delta;
+		int phase;
+	}
+
+	private final ObjectMap<Scene, SceneState> states = new ObjectMap<Scene, SceneState>();
+	private int frame;
+	private int phases;
+
+	/** delta time to update scene with, set by {@link #update(Scene, Camera, float)} */
+	float delta;
+
+	private final Vector3 center = new Vector3();
+	private final Vector3 dimensions = new Vector3();
+
+	/** called once per frame before {@link #update(Scene, Camera, float)} calls */
+	void begin(){
+		frame++;
+	}
+
+	/**
+	 * @param bounds scene world bounds (see {@link Scene#getBounds(BoundingBox)}), null if unknown.
+	 * @return true if scene should be updated this frame with {@link #delta} time, false to skip its update.
+	 */
+	boolean update(Scene scene, BoundingBox bounds, Camera camera, float delta){
+		if(scene.lights.size > 0 || scene.cameras.size > 0){
+			this.delta = delta;
+			return true;
+		}
+		SceneState state = states.get(scene);
+		if(state == null){
+			state = new SceneState();
+			state.phase = phases++;
+			states.put(scene, state);
+		}
+		state.delta += delta;
+		int interval = getUpdateInterval(scene, bounds, camera);
+		if(interval > 0 && (frame + state.phase) % interval == 0){
+			this.delta = state.delta;
+			state.delta = 0;
+			return true;
+		}
+		return false;
+	}
+
+	/** forget a scene, called when scene is removed from the manager */
+	void remove(Scene scene){
+		states.remove(scene);
+	}
+
+	/**
+	 * Compute how often a scene should be updated.
+	 * Subclasses may override this method in order to implement another policy (eg. based on screen size).
+	 * @param scene
+	 * @param bounds scene world bounds, null if unknown (eg. skinned scenes): scene is then considered visible.
+	 * @param camera
+	 * @return 1 to update scene every frame, n to update it every n frames, 0 to skip its update.
+	 */
+	protected int getUpdateInterval(Scene scene, BoundingBox bounds, Camera camera){
+		float radius;
+		if(bounds != null){
+			bounds.getCenter(center);
+			radius = bounds.getDimensions(dimensions).len() * .5f;
+			if(!camera.frustum.sphereInFrustum(center, radius)){
+				return hiddenInterval;
+			}
+		}else{
+			scene.modelInstance.transform.getTranslation(center);
+			radius = defaultRadius;
+		}
+		if(camera.position.dst(center) - radius <= nearDistance){
+			return 1;
+		}
+		return farInterval;
+	}
+}
@@ -0,0 +1,130 @@
+package net.mgsx.gltf.scene3d.scene;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pool;
+
+import net.mgsx.gltf.scene3d.model.InstanceBuffer;
+import net.mgsx.gltf.scene3d.model.InstancedMesh;
+
+/**
+ * Scene rendered many times with GPU instancing (requires GL30): a single model instance (nodes, materials, animations)
+ * drawn once per instance transform with one instanced draw call per node part.
+ * <p>
+ * Instance transforms are applied on top of the model instance transform: world transform of a node is
+ * instance transform * model instance transform * node global transform. All instances share the same animation state.
+ * <p>
+ * Skinned models are not supported. Model cameras and lights are not instanced and thus not created.
+ * Renderables are never culled individually, see {@link #getBounds(BoundingBox)} for whole scene culling. When
+ * {@link SceneManager} scene tree is enabled, instances changes should be notified with {@link SceneManager#updateSceneBounds(Scene)}.
+ * Instanced scenes need to be disposed.
+ */
+public class InstancedScene extends Scene implements Disposable {
+
+	/** instance transforms, may be modified at any time */
+	public final InstanceBuffer instances = new InstanceBuffer();
+
+	private final ObjectMap<Mesh, InstancedMesh> instancedMeshes = new ObjectMap<Mesh, InstancedMesh>();
+
+	private final BoundingBox localBounds = new BoundingBox();
+	private final Matrix4 instanceTransform = new Matrix4();
+	private final Vector3 corner = new Vector3();
+
+	public InstancedScene(SceneModel sceneModel) {
+		this(sceneModel.model);
+	}
+
+	public InstancedScene(Model model) {
+		super(model);
+		for(int i=0, n=modelInstance.nodes.size ; i<n ; i++){
+			checkNode(modelInstance.nodes.get(i));
+		}
+	}
+
+	private static void checkNode(Node node){
+		Array<NodePart> parts = node.parts;
+		for(int i=0, n=parts.size ; i<n ; i++){
+			if(parts.get(i).bones != null) throw new GdxRuntimeException("skinned node parts can't be instanced: " + node.id);
+		}
+		for(int i=0, n=node.getChildCount() ; i<n ; i++){
+			checkNode(node.getChild(i));
+		}
+	}
+
+	/** add an instance, shortcut for {@link InstanceBuffer#add(Matrix4)} */
+	public int addInstance(Matrix4 transform){
+		return instances.add(transform);
+	}
+
+	@Override
+	public void getRenderables(Array<Renderable> renderables, Pool<Renderable> pool) {
+		if(instances.size() == 0) return;
+		int start = renderables.size;
+		modelInstance.getRenderables(renderables, pool);
+		for(int i=start, n=renderables.size ; i<n ; i++){
+			Renderable renderable = renderables.get(i);
+			renderable.meshPart.mesh = getInstancedMesh(renderable.meshPart.mesh);
+		}
+	}
+
+	/**
+	 * Node parts are not culled individually since instances may be spread all over the world.
+	 */
+	@Override
+	public void getRenderables(Array<Renderable> renderables, Pool<Renderable> pool, Camera camera) {
+		getRenderables(renderables, pool);
+	}
+
+	private InstancedMesh getInstancedMesh(Mesh mesh){
+		InstancedMesh instancedMesh = instancedMeshes.get(mesh);
+		if(instancedMesh == null){
+			instancedMesh = new InstancedMesh(mesh, instances);
+			instancedMeshes.put(mesh, instancedMesh);
+		}
+		return instancedMesh;
+	}
+
+	/**
+	 * Compute bounds of all instances from model instance bounds, see {@link Scene#getBounds(BoundingBox)}.
+	 * @return false if bounds are unknown or there is no instances.
+	 */
+	@Override
+	public boolean getBounds(BoundingBox out) {
+		if(instances.size() == 0 || !super.getBounds(localBounds)){
+			out.inf();
+			return false;
+		}
+		out.inf();
+		for(int i=0, n=instances.size() ; i<n ; i++){
+			instances.get(i, instanceTransform);
+			for(int c=0 ; c<8 ; c++){
+				corner.set(
+					(c & 1) == 0 ? localBounds.min.x : localBounds.max.x,
+					(c & 2) == 0 ? localBounds.min.y : localBounds.max.y,
+					(c & 4) == 0 ? localBounds.min.z : localBounds.max.z);
+				out.ext(corner.mul(instanceTransform));
+			}
+		}
+		return out.isValid();
+	}
+
+	@Override
+	public void dispose() {
+		for(InstancedMesh mesh : instancedMeshes.values()){
+			mesh.dispose();
+		}
+		instancedMeshes.clear();
+		instances.dispose();
+	}
+}
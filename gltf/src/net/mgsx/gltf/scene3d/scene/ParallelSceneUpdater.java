@@ -0,0 +1,99 @@
+package net.mgsx.gltf.scene3d.scene;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+
+/**
+ * Update scenes split into contiguous ranges, one task per range. First range is updated by the calling thread
+ * while other ranges are updated by the executor threads. Returns when all scenes are updated.
+ * <p>
+ * It relies on {@link Scene#update(Camera, float)} only modifying its own state (model instance, animation controllers,
+ * cameras and lights), scenes sharing a model instance should not be updated in parallel.
+ */
+class ParallelSceneUpdater {
+
+	private class UpdateTask implements AsyncTask<Void> {
+		int from, to;
+
+		@Override
+		public Void call() throws Exception {
+			updateRange(from, to);
+			return null;
+		}
+	}
+
+	private final AsyncExecutor executor;
+	private final int tasks;
+
+	/** scenes to update and their delta time, see {@link #add(Scene, float)} */
+	final Array<Scene> scenes = new Array<Scene>();
+	final FloatArray deltas = new FloatArray();
+
+	private final Array<UpdateTask> updateTasks = new Array<UpdateTask>();
+	private final Array<AsyncResult<Void>> results = new Array<AsyncResult<Void>>();
+	private Camera camera;
+
+	/**
+	 * @param executor executor used for the other ranges, not owned by this updater.
+	 * @param tasks maximum number of ranges, including the calling thread one.
+	 */
+	ParallelSceneUpdater(AsyncExecutor executor, int tasks) {
+		this.executor = executor;
+		this.tasks = tasks;
+		for(int i=1 ; i<tasks ; i++){
+			updateTasks.add(new UpdateTask());
+		}
+	}
+
+	void add(Scene scene, float delta){
+		scenes.add(scene);
+		deltas.add(delta);
+	}
+
+	/**
+	 * Update all added scenes and clear them.
+	 * @throws GdxRuntimeException first exception thrown by a scene update, once all tasks are done.
+	 */
+	void update(Camera camera){
+		this.camera = camera;
+		final int n = scenes.size;
+		final int count = Math.max(1, Math.min(tasks, n));
+		RuntimeException error = null;
+		try{
+			for(int t=1 ; t<count ; t++){
+				UpdateTask task = updateTasks.get(t - 1);
+				task.from = (int)((long)n * t / count);
+				task.to = (int)((long)n * (t + 1) / count);
+				results.add(executor.submit(task));
+			}
+			updateRange(0, n / count);
+		}catch(RuntimeException e){
+			error = e;
+		}finally{
+			// always wait for submitted tasks : scenes shouldn't be modified while being updated.
+			for(int i=0 ; i<results.size ; i++){
+				try{
+					results.get(i).get();
+				}catch(GdxRuntimeException e){
+					if(error == null) error = e;
+				}
+			}
+			results.clear();
+			scenes.clear();
+			deltas.clear();
+			this.camera = null;
+		}
+		if(error != null) throw error;
+	}
+
+	private void updateRange(int from, int to){
+		for(int i=from ; i<to ; i++){
+			scenes.get(i).update(camera, deltas.get(i));
+		}
+	}
+}
@@ -11,10 +11,14 @@ import com.badlogic.gdx.graphics.g3d.environment.BaseLight;
 import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
 import com.badlogic.gdx.graphics.g3d.environment.PointLight;
 import com.badlogic.gdx.graphics.g3d.environment.SpotLight;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
 import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
 import com.badlogic.gdx.graphics.g3d.utils.AnimationController;
+import com.badlogic.gdx.math.Frustum;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.ObjectMap;
@@ -36,7 +40,10 @@ public class Scene implements RenderableProvider, Updatable {
 	public final ObjectMap<Node, Camera> cameras = new ObjectMap<Node, Camera>();
 	public final AnimationsPlayer animations;
 	
-	private static final Matrix4 transform = new Matrix4();
+	private final Matrix4 transform = new Matrix4();
+	private final Matrix4 cullingTransform = new Matrix4();
+	private final Vector3 boundsCenter = new Vector3();
+	private final Vector3 boundsHalfExtents = new Vector3();
 	
 	public Scene(SceneModel sceneModel) {
 		this(new ModelInstanceHack(sceneModel.model), sceneModel);
@@ -136,6 +143,13 @@ public class Scene implements RenderableProvider, Updatable {
 		this(new ModelInstanceHack(model), animated);
 	}
 
+	/**
+	 * @return true when scene nodes are animated on update, either by {@link #animationController} or {@link #animations}.
+	 */
+	public boolean isAnimating(){
+		return animations.isAnimating();
+	}
+
 	@Override
 	public void update(Camera camera, float delta){
 		animations.update(delta);
@@ -203,4 +217,93 @@ public class Scene implements RenderableProvider, Updatable {
 	public void getRenderables(Array<Renderable> renderables, Pool<Renderable> pool) {
 		modelInstance.getRenderables(renderables, pool);
 	}
+	
+	/**
+	 * Same as {@link #getRenderables(Array, Pool)} but node parts outside of the camera frustum are skipped.
+	 * Node parts without bounds (see {@link MeshPart#radius}) and skinned node parts are never culled.
+	 * @param camera camera used for culling, it should be up to date.
+	 */
+	public void getRenderables(Array<Renderable> renderables, Pool<Renderable> pool, Camera camera) {
+		Array<Node> nodes = modelInstance.nodes;
+		for(int i=0, n=nodes.size ; i<n ; i++){
+			getRenderables(nodes.get(i), renderables, pool, camera.frustum);
+		}
+	}
+	
+	private void getRenderables(Node node, Array<Renderable> renderables, Pool<Renderable> pool, Frustum frustum) {
+		Array<NodePart> parts = node.parts;
+		if(parts.size > 0){
+			cullingTransform.set(modelInstance.transform).mul(node.globalTransform);
+			for(int i=0, n=parts.size ; i<n ; i++){
+				NodePart nodePart = parts.get(i);
+				if(nodePart.enabled && isVisible(frustum, cullingTransform, nodePart)){
+					renderables.add(modelInstance.getRenderable(pool.obtain(), node, nodePart));
+				}
+			}
+		}
+		for(int i=0, n=node.getChildCount() ; i<n ; i++){
+			getRenderables(node.getChild(i), renderables, pool, frustum);
+		}
+	}
+	
+	/**
+	 * @param frustum
+	 * @param transform node part world transform
+	 * @param nodePart
+	 * @return false if node part bounds are outside of the frustum.
+	 */
+	protected boolean isVisible(Frustum frustum, Matrix4 transform, NodePart nodePart){
+		MeshPart meshPart = nodePart.meshPart;
+		if(meshPart.radius < 0 || nodePart.bones != null) return true;
+		transformBounds(transform, meshPart, boundsCenter, boundsHalfExtents);
+		return frustum.boundsInFrustum(boundsCenter.x, boundsCenter.y, boundsCenter.z, boundsHalfExtents.x, boundsHalfExtents.y, boundsHalfExtents.z);
+	}
+	
+	/**
+	 * Compute scene world bounds from its enabled node parts bounds (see {@link MeshPart#radius}).
+	 * @param out bounds to fill.
+	 * @return false if bounds are unknown: some node parts don't have bounds, are skinned or there is no node parts at all.
+	 */
+	public boolean getBounds(BoundingBox out){
+		out.inf();
+		Array<Node> nodes = modelInstance.nodes;
+		for(int i=0, n=nodes.size ; i<n ; i++){
+			if(!extendBounds(nodes.get(i), out)) return false;
+		}
+		return out.isValid();
+	}
+	
+	private boolean extendBounds(Node node, BoundingBox out){
+		Array<NodePart> parts = node.parts;
+		if(parts.size > 0){
+			cullingTransform.set(modelInstance.transform).mul(node.globalTransform);
+			for(int i=0, n=parts.size ; i<n ; i++){
+				NodePart nodePart = parts.get(i);
+				if(!nodePart.enabled) continue;
+				if(nodePart.meshPart.radius < 0 || nodePart.bones != null) return false;
+				transformBounds(cullingTransform, nodePart.meshPart, boundsCenter, boundsHalfExtents);
+				out.ext(boundsCenter.x - boundsHalfExtents.x, boundsCenter.y - boundsHalfExtents.y, boundsCenter.z - boundsHalfExtents.z);
+				out.ext(boundsCenter.x + boundsHalfExtents.x, boundsCenter.y + boundsHalfExtents.y, boundsCenter.z + boundsHalfExtents.z);
+			}
+		}
+		for(int i=0, n=node.getChildCount() ; i<n ; i++){
+			if(!extendBounds(node.getChild(i), out)) return false;
+		}
+		return true;
+	}
+	
+	/** compute world axis aligned box containing the transformed mesh part local box. */
+	private static void transformBounds(Matrix4 transform, MeshPart meshPart, Vector3 center, Vector3 halfExtents){
+		final float [] m = transform.val;
+		final Vector3 c = meshPart.center;
+		final Vector3 h = meshPart.halfExtents;
+		center.set(
+			m[Matrix4.M00] * c.x + m[Matrix4.M01] * c.y + m[Matrix4.M02] * c.z + m[Matrix4.M03],
+			m[Matrix4.M10] * c.x + m[Matrix4.M11] * c.y + m[Matrix4.M12] * c.z + m[Matrix4.M13],
+			m[Matrix4.M20] * c.x + m[Matrix4.M21] * c.y + m[Matrix4.M22] * c.z + m[Matrix4.M23]);
+		halfExtents.set(
+			Math.abs(m[Matrix4.M00]) * h.x + Math.abs(m[Matrix4.M01]) * h.y + Math.abs(m[Matrix4.M02]) * h.z,
+			Math.abs(m[Matrix4.M10]) * h.x + Math.abs(m[Matrix4.M11]) * h.y + Math.abs(m[Matrix4.M12]) * h.z,
+			Math.abs(m[Matrix4.M20]) * h.x + Math.abs(m[Matrix4.M21]) * h.y + Math.abs(m[Matrix4.M22]) * h.z);
+	}
 }
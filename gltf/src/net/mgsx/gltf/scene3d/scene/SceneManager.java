@@ -1,9 +1,12 @@
 package net.mgsx.gltf.scene3d.scene;
 
+import java.util.Arrays;
+
 import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.g3d.Attribute;
 import com.badlogic.gdx.graphics.g3d.Environment;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.Renderable;
 import com.badlogic.gdx.graphics.g3d.RenderableProvider;
 import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.DirectionalLightsAttribute;
@@ -14,19 +17,26 @@ import com.badlogic.gdx.graphics.g3d.environment.DirectionalLight;
 import com.badlogic.gdx.graphics.g3d.environment.PointLight;
 import com.badlogic.gdx.graphics.g3d.environment.SpotLight;
 import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
 import com.badlogic.gdx.graphics.g3d.utils.DepthShaderProvider;
 import com.badlogic.gdx.graphics.g3d.utils.RenderableSorter;
 import com.badlogic.gdx.graphics.g3d.utils.ShaderProvider;
+import com.badlogic.gdx.math.collision.BoundingBox;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.ObjectMap.Entry;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
 
 import net.mgsx.gltf.scene3d.attributes.PBRMatrixAttribute;
 import net.mgsx.gltf.scene3d.lights.DirectionalShadowLight;
 import net.mgsx.gltf.scene3d.lights.PointLightEx;
 import net.mgsx.gltf.scene3d.lights.SpotLightEx;
+import net.mgsx.gltf.scene3d.shaders.BoneTexture;
 import net.mgsx.gltf.scene3d.shaders.PBRCommon;
 import net.mgsx.gltf.scene3d.shaders.PBRShaderProvider;
+import net.mgsx.gltf.scene3d.utils.DynamicBVH;
 import net.mgsx.gltf.scene3d.utils.EnvironmentCache;
 import net.mgsx.gltf.scene3d.utils.EnvironmentUtil;
 
@@ -57,6 +67,85 @@ public class SceneManager implements Disposable {
 	
 	private PointLightsAttribute pointLights = new PointLightsAttribute();
 	private SpotLightsAttribute spotLights = new SpotLightsAttribute();
+	
+	private boolean frustumCulling = false;
+	private final CullingRenderableProvider cullingProvider = new CullingRenderableProvider();
+	
+	/** null when scene tree is disabled */
+	private DynamicBVH<SceneEntry> sceneTree;
+	private final ObjectMap<Scene, SceneEntry> sceneEntries = new ObjectMap<Scene, SceneEntry>();
+	/** all scenes in scene tree mode */
+	private final Array<SceneEntry> treeScenes = new Array<SceneEntry>();
+	/** scenes without bounds in scene tree mode, they're always rendered */
+	private final Array<SceneEntry> unboundedScenes = new Array<SceneEntry>();
+	private final Array<SceneEntry> visibleScenes = new Array<SceneEntry>();
+	private final BoundingBox sceneBounds = new BoundingBox();
+	
+	/** null when parallel update is disabled */
+	private ParallelSceneUpdater parallelUpdater;
+	
+	/** null when animation LOD is disabled */
+	private AnimationLodPolicy animationLod;
+	
+	/** null when bone texture skinning is disabled */
+	private BoneTexture boneTexture;
+	
+	private static class SceneEntry {
+		final Scene scene;
+		int proxy = DynamicBVH.NULL;
+		/** index in all scenes array */
+		int index;
+		/** index in unbounded scenes array, -1 if not unbounded */
+		int unboundedIndex = -1;
+		/** scene transform when bounds were last computed */
+		final float[] transform = new float[16];
+		/** whether scene has been updated this frame */
+		boolean updated = true;
+		/** whether scene was playing an animation at its last update */
+		boolean animating;
+		/** scene world bounds, only valid when scene is in the tree */
+		final BoundingBox bounds = new BoundingBox();
+		
+		SceneEntry(Scene scene) {
+			this.scene = scene;
+		}
+	}
+	
+	/** Render all providers, culling {@link Scene} against a camera frustum. */
+	private class CullingRenderableProvider implements RenderableProvider {
+		Camera camera;
+		
+		@Override
+		public void getRenderables(Array<Renderable> renderables, Pool<Renderable> pool) {
+			for(int i=0, n=renderableProviders.size ; i<n ; i++){
+				RenderableProvider provider = renderableProviders.get(i);
+				if(provider instanceof Scene){
+					getSceneRenderables((Scene) provider, renderables, pool);
+				}else{
+					provider.getRenderables(renderables, pool);
+				}
+			}
+			if(sceneTree != null){
+				visibleScenes.clear();
+				sceneTree.query(camera.frustum, visibleScenes);
+				for(int i=0, n=visibleScenes.size ; i<n ; i++){
+					getSceneRenderables(visibleScenes.get(i).scene, renderables, pool);
+				}
+				visibleScenes.clear();
+				for(int i=0, n=unboundedScenes.size ; i<n ; i++){
+					getSceneRenderables(unboundedScenes.get(i).scene, renderables, pool);
+				}
+			}
+		}
+		
+		private void getSceneRenderables(Scene scene, Array<Renderable> renderables, Pool<Renderable> pool){
+			if(frustumCulling){
+				scene.getRenderables(renderables, pool, camera);
+			}else{
+				scene.getRenderables(renderables, pool);
+			}
+		}
+	}
 			
 
 	public SceneManager() {
@@ -158,12 +247,164 @@ public class SceneManager implements Disposable {
 		}
 	}
 	
+	/**
+	 * Enable/disable per node part frustum culling for all rendering passes (colors, shadows, mirror and transmission).
+	 * Disabled by default. See {@link Scene#getRenderables(Array, Pool, Camera)}
+	 */
+	public void setFrustumCulling(boolean frustumCulling) {
+		this.frustumCulling = frustumCulling;
+	}
+	
+	public boolean isFrustumCulling() {
+		return frustumCulling;
+	}
+	
+	/**
+	 * Enable/disable scene tree: scenes are stored in a bounding volume hierarchy and rendering passes
+	 * (colors, shadows, cascade shadows, mirror and transmission) only visit scenes intersecting the pass camera frustum.
+	 * Scenes add/remove and bounds update are O(log n). Recommended for large amount of scenes.
+	 * <p>
+	 * When enabled, scenes are no longer in {@link #getRenderableProviders()}.
+	 * Scenes bounds are computed from node parts bounds (see {@link Scene#getBounds(BoundingBox)}), scenes without bounds
+	 * (skinned or without glTF bounds) are always rendered.
+	 * Animated scenes bounds and scenes which transform changed are updated in {@link #update(float)},
+	 * other changes should be notified with {@link #updateSceneBounds(Scene)}.
+	 * Disabled by default.
+	 * 
+	 * @param enabled
+	 */
+	public void setSceneTreeEnabled(boolean enabled){
+		if(enabled == (sceneTree != null)) return;
+		if(enabled){
+			sceneTree = new DynamicBVH<SceneEntry>();
+			// move scenes to the tree, keeping other providers order.
+			int count = 0;
+			for(int i=0, n=renderableProviders.size ; i<n ; i++){
+				RenderableProvider provider = renderableProviders.get(i);
+				if(provider instanceof Scene){
+					addTreeScene((Scene)provider);
+				}else{
+					renderableProviders.set(count++, provider);
+				}
+			}
+			renderableProviders.truncate(count);
+		}else{
+			for(int i=0 ; i<treeScenes.size ; i++){
+				renderableProviders.add(treeScenes.get(i).scene);
+			}
+			sceneTree = null;
+			sceneEntries.clear();
+			treeScenes.clear();
+			unboundedScenes.clear();
+		}
+	}
+	
+	public boolean isSceneTreeEnabled(){
+		return sceneTree != null;
+	}
+	
+	/**
+	 * Update a scene bounds in scene tree. Only required when scene tree is enabled and scene bounds have changed
+	 * without animation or transform change (eg. nodes or node parts changed manually).
+	 * @param scene
+	 */
+	public void updateSceneBounds(Scene scene){
+		if(sceneTree != null){
+			SceneEntry entry = sceneEntries.get(scene);
+			if(entry != null) updateBounds(entry, true);
+		}
+	}
+	
+	private void addTreeScene(Scene scene){
+		if(sceneEntries.containsKey(scene)) return;
+		SceneEntry entry = new SceneEntry(scene);
+		entry.index = treeScenes.size;
+		treeScenes.add(entry);
+		sceneEntries.put(scene, entry);
+		updateBounds(entry, true);
+	}
+	
+	private void removeTreeScene(SceneEntry entry){
+		if(entry.proxy != DynamicBVH.NULL){
+			sceneTree.remove(entry.proxy);
+			entry.proxy = DynamicBVH.NULL;
+		}
+		removeUnbounded(entry);
+		SceneEntry last = treeScenes.pop();
+		if(last != entry){
+			treeScenes.set(entry.index, last);
+			last.index = entry.index;
+		}
+	}
+	
+	private void removeUnbounded(SceneEntry entry){
+		if(entry.unboundedIndex >= 0){
+			SceneEntry last = unboundedScenes.pop();
+			if(last != entry){
+				unboundedScenes.set(entry.unboundedIndex, last);
+				last.unboundedIndex = entry.unboundedIndex;
+			}
+			entry.unboundedIndex = -1;
+		}
+	}
+	
+	private void updateBounds(SceneEntry entry, boolean force){
+		Scene scene = entry.scene;
+		float[] transform = scene.modelInstance.transform.val;
+		boolean animated = false;
+		if(entry.updated){
+			boolean animating = scene.isAnimating();
+			// bounds are computed once more when an animation ends in order to get its final pose.
+			animated = animating || entry.animating;
+			entry.animating = animating;
+		}
+		if(!force && !animated && Arrays.equals(transform, entry.transform)){
+			return;
+		}
+		System.arraycopy(transform, 0, entry.transform, 0, 16);
+		if(scene.getBounds(sceneBounds)){
+			entry.bounds.set(sceneBounds);
+			removeUnbounded(entry);
+			if(entry.proxy == DynamicBVH.NULL){
+				entry.proxy = sceneTree.insert(sceneBounds, entry);
+			}else{
+				sceneTree.update(entry.proxy, sceneBounds);
+			}
+		}else{
+			if(entry.proxy != DynamicBVH.NULL){
+				sceneTree.remove(entry.proxy);
+				entry.proxy = DynamicBVH.NULL;
+			}
+			if(entry.unboundedIndex < 0){
+				entry.unboundedIndex = unboundedScenes.size;
+				unboundedScenes.add(entry);
+			}
+		}
+	}
+	
+	/**
+	 * @param camera camera used for culling.
+	 * @return the renderable provider to use for given camera.
+	 */
+	protected RenderableProvider getRenderableProvider(Camera camera){
+		cullingProvider.camera = camera;
+		return cullingProvider;
+	}
+	
+	private boolean isCulling(){
+		return frustumCulling || sceneTree != null;
+	}
+	
 	public void addScene(Scene scene){
 		addScene(scene, true);
 	}
 	
 	public void addScene(Scene scene, boolean appendLights){
-		renderableProviders.add(scene);
+		if(sceneTree != null){
+			addTreeScene(scene);
+		}else{
+			renderableProviders.add(scene);
+		}
 		if(appendLights){
 			for(Entry<Node, BaseLight> e : scene.lights){
 				environment.add(e.value);
@@ -178,15 +419,137 @@ public class SceneManager implements Disposable {
 	public void update(float delta){
 		if(camera != null){
 			updateEnvironment();
-			for(RenderableProvider r : renderableProviders){
-				if(r instanceof Updatable){
+			if(animationLod != null) animationLod.begin();
+			for(int i=0, n=renderableProviders.size ; i<n ; i++){
+				RenderableProvider r = renderableProviders.get(i);
+				if(r instanceof Scene){
+					updateScene((Scene)r, null, delta);
+				}else if(r instanceof Updatable){
 					((Updatable) r).update(camera, delta);
 				}
 			}
+			if(sceneTree != null){
+				for(int i=0, n=treeScenes.size ; i<n ; i++){
+					SceneEntry entry = treeScenes.get(i);
+					entry.updated = updateScene(entry.scene, entry, delta);
+				}
+			}
+			if(parallelUpdater != null){
+				parallelUpdater.update(camera);
+			}
+			if(sceneTree != null){
+				for(int i=0, n=treeScenes.size ; i<n ; i++){
+					updateBounds(treeScenes.get(i), false);
+				}
+			}
+			if(boneTexture != null) packBones();
 			if(skyBox != null) skyBox.update(camera, delta);
 		}
 	}
 	
+	/**
+	 * Update a scene, or defer its update when parallel update is enabled.
+	 * @param entry scene tree entry, null if scene is not in the tree.
+	 * @return false if scene update is skipped by animation LOD.
+	 */
+	private boolean updateScene(Scene scene, SceneEntry entry, float delta){
+		if(animationLod != null){
+			// scene tree bounds are reused (computed at previous frame), other scenes bounds are computed.
+			BoundingBox bounds;
+			if(entry != null){
+				bounds = entry.proxy != DynamicBVH.NULL ? entry.bounds : null;
+			}else{
+				bounds = scene.getBounds(sceneBounds) ? sceneBounds : null;
+			}
+			if(!animationLod.update(scene, bounds, camera, delta)) return false;
+			delta = animationLod.delta;
+		}
+		if(parallelUpdater != null){
+			parallelUpdater.add(scene, delta);
+		}else{
+			scene.update(camera, delta);
+		}
+		return true;
+	}
+	
+	/**
+	 * Enable/disable animation level of detail: scenes far from the camera or outside of its frustum 
+	 * are updated less often, see {@link AnimationLodPolicy}.
+	 * Disabled by default.
+	 * @param policy null to update all scenes every frame.
+	 */
+	public void setAnimationLodPolicy(AnimationLodPolicy policy){
+		this.animationLod = policy;
+	}
+	
+	public AnimationLodPolicy getAnimationLodPolicy(){
+		return animationLod;
+	}
+	
+	/**
+	 * Enable/disable bone texture skinning: bones of all skinned scenes are packed into given texture 
+	 * once per frame by {@link #update(float)} and read by shaders instead of bones uniform arrays, 
+	 * removing max bones limit and per renderable bones upload.
+	 * Shader providers have to be configured with the same texture, see {@link PBRShaderProvider#setBoneTexture(BoneTexture)}
+	 * and {@link net.mgsx.gltf.scene3d.shaders.PBRDepthShaderProvider#setBoneTexture(BoneTexture)}. Requires GL30.
+	 * Disabled by default.
+	 * @param boneTexture bone texture, not owned by this manager. null to disable.
+	 */
+	public void setBoneTexture(BoneTexture boneTexture){
+		this.boneTexture = boneTexture;
+	}
+	
+	public BoneTexture getBoneTexture(){
+		return boneTexture;
+	}
+	
+	private void packBones(){
+		boneTexture.begin();
+		for(int i=0, n=renderableProviders.size ; i<n ; i++){
+			RenderableProvider r = renderableProviders.get(i);
+			if(r instanceof Scene){
+				packBones((Scene)r);
+			}
+		}
+		if(sceneTree != null){
+			for(int i=0, n=treeScenes.size ; i<n ; i++){
+				packBones(treeScenes.get(i).scene);
+			}
+		}
+	}
+	
+	private void packBones(Scene scene){
+		Array<Node> nodes = scene.modelInstance.nodes;
+		for(int i=0, n=nodes.size ; i<n ; i++){
+			packBones(nodes.get(i));
+		}
+	}
+	
+	private void packBones(Node node){
+		for(int i=0, n=node.parts.size ; i<n ; i++){
+			NodePart nodePart = node.parts.get(i);
+			if(nodePart.enabled && nodePart.bones != null) boneTexture.add(nodePart.bones);
+		}
+		for(int i=0, n=node.getChildCount() ; i<n ; i++){
+			packBones(node.getChild(i));
+		}
+	}
+	
+	/**
+	 * Enable/disable parallel update: {@link #update(float)} splits scenes into several tasks run by given executor,
+	 * the calling thread updates its own part and waits for other tasks to complete.
+	 * Scenes update (animations, nodes transforms, cameras and lights) only modify their own model instance so
+	 * they can run concurrently, but scenes should not share a model instance and animation listeners
+	 * are called from executor threads. Other {@link Updatable} providers are still updated on the calling thread. 
+	 * Disabled by default.
+	 * 
+	 * @param executor executor used to update scenes, not owned by this manager. null to disable parallel update.
+	 * @param tasks number of tasks per update (including the calling thread one), typically executor threads count plus one.
+	 */
+	public void setUpdateExecutor(AsyncExecutor executor, int tasks){
+		parallelUpdater = executor != null && tasks > 1 ? new ParallelSceneUpdater(executor, tasks) : null;
+	}
+	
 	/**
 	 * Automatically set skybox rotation matching this environement rotation.
 	 * Subclasses could override this method in order to change this behavior.
@@ -276,7 +639,11 @@ public class SceneManager implements Disposable {
 	public void renderTransmission() {
 		if(transmissionSource != null){
 			transmissionSource.begin(camera);
-			transmissionSource.render(renderableProviders, environment);
+			if(isCulling()){
+				transmissionSource.render(getRenderableProvider(camera), environment);
+			}else{
+				transmissionSource.render(renderableProviders, environment);
+			}
 			if(skyBox != null) transmissionSource.render(skyBox);
 			transmissionSource.end();
 			computedEnvironement.set(transmissionSource.attribute);
@@ -325,7 +692,11 @@ public class SceneManager implements Disposable {
 	 */
 	public void renderDepth(Camera camera){
 		depthBatch.begin(camera);
-		depthBatch.render(renderableProviders);
+		if(isCulling()){
+			depthBatch.render(getRenderableProvider(camera));
+		}else{
+			depthBatch.render(renderableProviders);
+		}
 		depthBatch.end();
 	}
 	
@@ -335,7 +706,11 @@ public class SceneManager implements Disposable {
 	 */
 	public void renderColors(){
 		batch.begin(camera);
-		batch.render(renderableProviders, computedEnvironement);
+		if(isCulling()){
+			batch.render(getRenderableProvider(camera), computedEnvironement);
+		}else{
+			batch.render(renderableProviders, computedEnvironement);
+		}
 		if(skyBox != null) batch.render(skyBox);
 		batch.end();
 	}
@@ -381,12 +756,21 @@ public class SceneManager implements Disposable {
 	}
 
 	public void removeScene(Scene scene) {
-		renderableProviders.removeValue(scene, true);
+		if(animationLod != null) animationLod.remove(scene);
+		if(sceneTree != null){
+			SceneEntry entry = sceneEntries.remove(scene);
+			if(entry != null) removeTreeScene(entry);
+		}else{
+			renderableProviders.removeValue(scene, true);
+		}
 		for(Entry<Node, BaseLight> e : scene.lights){
 			environment.remove(e.value);
 		}
 	}
 	
+	/**
+	 * @return rendered providers, scenes are not part of it when scene tree is enabled (see {@link #setSceneTreeEnabled(boolean)}).
+	 */
 	public Array<RenderableProvider> getRenderableProviders() {
 		return renderableProviders;
 	}
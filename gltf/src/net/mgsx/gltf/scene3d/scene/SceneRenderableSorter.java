@@ -1,8 +1,10 @@
 package net.mgsx.gltf.scene3d.scene;
 
+import java.util.Arrays;
 import java.util.Comparator;
 
 import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g3d.Material;
 import com.badlogic.gdx.graphics.g3d.Renderable;
 import com.badlogic.gdx.graphics.g3d.attributes.BlendingAttribute;
 import com.badlogic.gdx.graphics.g3d.utils.RenderableSorter;
@@ -12,22 +14,129 @@ import com.badlogic.gdx.utils.Array;
 
 /**
  * Advanced RenderableSorter providing hints and limit shader, material and mesh switches.
- * Usefull for Skybox : should be rendererd before transparent renderables but after all opaque renderables. 
+ * Usefull for Skybox : should be rendererd before transparent renderables but after all opaque renderables.
+ * <p>
+ * A 64 bits key is computed once per renderable and renderables are sorted by key with a radix sort (no allocation
+ * once internal buffers are large enough). Order is :
+ * <ul>
+ * <li>opaque renderables, grouped by shader, environment, material and mesh, then front to back,</li>
+ * <li>renderables with {@link Hints#OPAQUE_LAST} hint (eg. skybox),</li>
+ * <li>blended renderables, back to front.</li>
+ * </ul>
+ * Shaders, environments, materials and meshes ids are assigned in order of first appearance,
+ * so result only depends on renderables order. Equal keys keep their relative order.
  */
 public class SceneRenderableSorter implements RenderableSorter, Comparator<Renderable> {
-	
+
 	public static enum Hints {
 		OPAQUE_LAST
 	}
-	
+
+	// key layout from most significant bits : group (2), shader (10), environment (4), material (14), mesh (14), depth (20)
+	private static final int DEPTH_BITS = 20;
+	private static final int MESH_BITS = 14;
+	private static final int MATERIAL_BITS = 14;
+	private static final int ENVIRONMENT_BITS = 4;
+	private static final int SHADER_BITS = 10;
+
+	private static final int MESH_SHIFT = DEPTH_BITS;
+	private static final int MATERIAL_SHIFT = MESH_SHIFT + MESH_BITS;
+	private static final int ENVIRONMENT_SHIFT = MATERIAL_SHIFT + MATERIAL_BITS;
+	private static final int SHADER_SHIFT = ENVIRONMENT_SHIFT + ENVIRONMENT_BITS;
+	private static final int GROUP_SHIFT = SHADER_SHIFT + SHADER_BITS;
+
+	private static final long GROUP_OPAQUE = 0L;
+	private static final long GROUP_OPAQUE_LAST = 1L << GROUP_SHIFT;
+	private static final long GROUP_BLENDED = 2L << GROUP_SHIFT;
+
+	private final IdentityIds shaderIds = new IdentityIds();
+	private final IdentityIds environmentIds = new IdentityIds();
+	private final IdentityIds materialIds = new IdentityIds();
+	private final IdentityIds meshIds = new IdentityIds();
+
+	private long[] keys = new long[0];
+	private long[] tmpKeys = new long[0];
+	private int[] indices = new int[0];
+	private int[] tmpIndices = new int[0];
+	private Object[] tmpRenderables = new Object[0];
+	private final int[] counts = new int[256];
+
 	private Camera camera;
-	private final Vector3 tmpV1 = new Vector3();
-	private final Vector3 tmpV2 = new Vector3();
+	private final Vector3 tmpV = new Vector3();
 
 	@Override
 	public void sort (final Camera camera, final Array<Renderable> renderables) {
 		this.camera = camera;
-		renderables.sort(this);
+		final int n = renderables.size;
+		if(n < 2) return;
+
+		ensureCapacity(n);
+		for(int i=0 ; i<n ; i++){
+			keys[i] = computeKey(camera, renderables.get(i));
+			indices[i] = i;
+		}
+		shaderIds.clear();
+		environmentIds.clear();
+		materialIds.clear();
+		meshIds.clear();
+
+		radixSort(n);
+
+		final Object[] items = renderables.items;
+		System.arraycopy(items, 0, tmpRenderables, 0, n);
+		for(int i=0 ; i<n ; i++){
+			items[i] = tmpRenderables[indices[i]];
+		}
+		Arrays.fill(tmpRenderables, 0, n, null);
+	}
+
+	/**
+	 * Compute renderable sorting key, renderables are sorted by ascending unsigned key.
+	 */
+	protected long computeKey(Camera camera, Renderable renderable){
+		final boolean blended = isBlended(renderable.material);
+
+		// squared distance bits preserve ordering since distance is positive.
+		final float dst2 = camera.position.dst2(getTranslation(renderable.worldTransform, renderable.meshPart.center, tmpV));
+		final int depthBits = Float.floatToIntBits(dst2) & 0x7FFFFFFF;
+
+		if(renderable.userData == Hints.OPAQUE_LAST){
+			return GROUP_OPAQUE_LAST | key(renderable, depthBits);
+		}
+		if(blended){
+			// back to front
+			return GROUP_BLENDED | ((long)(0x7FFFFFFF - depthBits) << (GROUP_SHIFT - 31));
+		}
+		return GROUP_OPAQUE | key(renderable, depthBits);
+	}
+
+	/**
+	 * Compare renderables keys (see {@link #computeKey(Camera, Renderable)}) for the camera of the last
+	 * {@link #sort(Camera, Array)} call. Not used by {@link #sort(Camera, Array)}, only provided for subclasses
+	 * sorting with a comparator.
+	 */
+	@Override
+	public int compare(Renderable o1, Renderable o2) {
+		// unsigned comparison
+		return Long.compare(computeKey(camera, o1) + Long.MIN_VALUE, computeKey(camera, o2) + Long.MIN_VALUE);
+	}
+
+	private long key(Renderable renderable, int depthBits){
+		return id(shaderIds, renderable.shader, SHADER_BITS) << SHADER_SHIFT |
+				id(environmentIds, renderable.environment, ENVIRONMENT_BITS) << ENVIRONMENT_SHIFT |
+				id(materialIds, renderable.material, MATERIAL_BITS) << MATERIAL_SHIFT |
+				id(meshIds, renderable.meshPart.mesh, MESH_BITS) << MESH_SHIFT |
+				(depthBits >>> (31 - DEPTH_BITS));
+	}
+
+	private static long id(IdentityIds ids, Object object, int bits){
+		// ids overflow is clamped : sorting is still correct, only state switches are less optimized.
+		return Math.min(ids.get(object), (1 << bits) - 1);
+	}
+
+	private static boolean isBlended(Material material){
+		BlendingAttribute blending = material.get(BlendingAttribute.class, BlendingAttribute.Type);
+		return blending != null && blending.blended;
 	}
 
 	private Vector3 getTranslation (Matrix4 worldTransform, Vector3 center, Vector3 output) {
@@ -39,65 +148,94 @@ public class SceneRenderableSorter implements RenderableSorter, Comparator<Rende
 			output.set(center).mul(worldTransform);
 		return output;
 	}
-	
-	@Override
-	public int compare(Renderable o1, Renderable o2) 
-	{
-		// original (blending and hints)
-		final boolean b1 = o1.material.has(BlendingAttribute.Type) && ((BlendingAttribute)o1.material.get(BlendingAttribute.Type)).blended;
-		final boolean b2 = o2.material.has(BlendingAttribute.Type) && ((BlendingAttribute)o2.material.get(BlendingAttribute.Type)).blended;
-
-		final Hints h1 = o1.userData instanceof Hints ? (Hints)o1.userData : null;
-		final Hints h2 = o2.userData instanceof Hints ? (Hints)o2.userData : null;
-		
-		if(h1 != h2){
-			if(h1 == Hints.OPAQUE_LAST){
-				return b2 ? -1 : 1;
+
+	private void ensureCapacity(int n){
+		if(keys.length < n){
+			int capacity = Math.max(n, keys.length * 2);
+			keys = new long[capacity];
+			tmpKeys = new long[capacity];
+			indices = new int[capacity];
+			tmpIndices = new int[capacity];
+			tmpRenderables = new Object[capacity];
+		}
+	}
+
+	/** LSD radix sort (8 bits per pass) of keys, applying the same permutation to indices. */
+	private void radixSort(int n){
+		long[] srcKeys = keys, dstKeys = tmpKeys;
+		int[] srcIndices = indices, dstIndices = tmpIndices;
+		for(int shift=0 ; shift<64 ; shift+=8){
+			Arrays.fill(counts, 0);
+			for(int i=0 ; i<n ; i++){
+				counts[(int)(srcKeys[i] >>> shift) & 0xFF]++;
+			}
+			// skip pass when all keys have the same digit
+			if(counts[(int)(srcKeys[0] >>> shift) & 0xFF] == n) continue;
+
+			int offset = 0;
+			for(int b=0 ; b<256 ; b++){
+				int count = counts[b];
+				counts[b] = offset;
+				offset += count;
 			}
-			if(h2 == Hints.OPAQUE_LAST){
-				return b1 ? 1 : -1;
+			for(int i=0 ; i<n ; i++){
+				int d = counts[(int)(srcKeys[i] >>> shift) & 0xFF]++;
+				dstKeys[d] = srcKeys[i];
+				dstIndices[d] = srcIndices[i];
 			}
+			long[] k = srcKeys; srcKeys = dstKeys; dstKeys = k;
+			int[] t = srcIndices; srcIndices = dstIndices; dstIndices = t;
 		}
-		
-		// solid models are grouped by context (same shader, env, material, mesh) to minimize switches.
-		if(!b1 && !b2){
-			
-			int shaderCompare = compareIdentity(o1.shader, o2.shader);
-			if(shaderCompare != 0) return shaderCompare;
-			
-			int envCompare = compareIdentityNullable(o1.environment, o2.environment);
-			if(envCompare != 0) return envCompare;
-			
-			int materialCompare = compareIdentity(o1.material, o2.material);
-			if(materialCompare != 0) return materialCompare;
-			
-			int meshCompare = compareIdentity(o1.meshPart.mesh, o2.meshPart.mesh);
-			if(meshCompare != 0) return meshCompare;
+		keys = srcKeys;
+		tmpKeys = dstKeys;
+		indices = srcIndices;
+		tmpIndices = dstIndices;
+	}
+
+	/** Assign sequential ids to objects (compared by identity) in order of first appearance, null id is 0. */
+	private static class IdentityIds {
+		private Object[] objects = new Object[64];
+		private int[] ids = new int[64];
+		private int size;
+
+		public int get(Object object){
+			if(object == null) return 0;
+			int mask = objects.length - 1;
+			int index = (System.identityHashCode(object) * 0x9E3779B9) >>> 7 & mask;
+			while(true){
+				Object o = objects[index];
+				if(o == object) return ids[index];
+				if(o == null) break;
+				index = (index + 1) & mask;
+			}
+			objects[index] = object;
+			ids[index] = ++size;
+			if(size * 2 > objects.length) resize();
+			return size;
 		}
-		// solid models should be rendered before transparent models
-		else if(b1 && !b2){
-			return 1;
-		}else if(!b1 && b2){
-			return -1;
+
+		private void resize(){
+			Object[] oldObjects = objects;
+			int[] oldIds = ids;
+			objects = new Object[oldObjects.length * 2];
+			ids = new int[oldObjects.length * 2];
+			int mask = objects.length - 1;
+			for(int i=0 ; i<oldObjects.length ; i++){
+				Object object = oldObjects[i];
+				if(object != null){
+					int index = (System.identityHashCode(object) * 0x9E3779B9) >>> 7 & mask;
+					while(objects[index] != null) index = (index + 1) & mask;
+					objects[index] = object;
+					ids[index] = oldIds[i];
+				}
+			}
+		}
+
+		public void clear(){
+			if(size > 0){
+				Arrays.fill(objects, null);
+				size = 0;
+			}
 		}
-		
-		// classic with distance : front to back for solid, back to front for transparent.
-		getTranslation(o1.worldTransform, o1.meshPart.center, tmpV1);
-		getTranslation(o2.worldTransform, o2.meshPart.center, tmpV2);
-		final float dst = (int)(camera.position.dst2(tmpV1)) - (int)(camera.position.dst2(tmpV2));
-		final int result = dst < 0 ? -1 : (dst > 0 ? 1 : 0);
-		return b1 ? -result : result;
-	}
-	
-	private int compareIdentityNullable(Object o1, Object o2){
-		if(o1 == null && o2 == null) return 0;
-		if(o1 == null) return -1;
-		if(o2 == null) return 1;
-		return compareIdentity(o1, o2);
-	}
-	
-	private int compareIdentity(Object o1, Object o2){
-		if(o1 == o2) return 0;
-		return Integer.compare(o1.hashCode(), o2.hashCode());
 	}
 }
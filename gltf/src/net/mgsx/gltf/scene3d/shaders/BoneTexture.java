@@ -0,0 +1,169 @@
+package net.mgsx.gltf.scene3d.shaders;
+
+import java.nio.FloatBuffer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g3d.utils.TextureBinder;
+import com.badlogic.gdx.graphics.glutils.FloatTextureData;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Float texture (RGBA32F, requires GL30) holding bone matrices of all skinned renderables for a frame, used
+ * by shaders instead of a fixed size bones uniform array.
+ * <p>
+ * Each matrix takes 4 texels (one column per texel), {@link #WIDTH} texels per row and as many rows as needed.
+ * Bone arrays are packed once per frame: {@link #begin()} clears packing, {@link #add(Matrix4[])} packs
+ * a bone array if not already packed and returns its offset (in matrices) to be passed to the shader, pending
+ * matrices are uploaded when texture is bound. Bone arrays are identified by reference
+ * (typically {@link com.badlogic.gdx.graphics.g3d.model.NodePart#bones}), so a bone array shared by several
+ * passes (color, depth, shadows) is packed and uploaded only once per frame.
+ * <p>
+ * Shader providers should be configured with the same bone texture, see {@link PBRShaderProvider#setBoneTexture(BoneTexture)}
+ * and {@link PBRDepthShaderProvider#setBoneTexture(BoneTexture)}.
+ */
+public class BoneTexture implements Disposable {
+
+	/** texture width in texels (4 texels per matrix) */
+	public static final int WIDTH = 1024;
+
+	private static final int MATRICES_PER_ROW = WIDTH / 4;
+	private static final int FLOATS_PER_ROW = WIDTH * 4;
+
+	/** used in place of renderable bones when creating shaders in bone texture mode, see {@link PBRShaderProvider} */
+	static final Matrix4[] NO_BONES = new Matrix4[0];
+
+	private float[] data;
+	private int count;
+	private int uploaded;
+	private final ObjectIntMap<Matrix4[]> offsets = new ObjectIntMap<Matrix4[]>();
+
+	private Texture texture;
+	private FloatBuffer buffer;
+
+	public BoneTexture() {
+		this(MATRICES_PER_ROW);
+	}
+
+	/**
+	 * @param capacity initial number of matrices, texture grows as needed.
+	 */
+	public BoneTexture(int capacity) {
+		data = new float[getRows(Math.max(1, capacity)) * FLOATS_PER_ROW];
+	}
+
+	private static int getRows(int matrices){
+		return (matrices + MATRICES_PER_ROW - 1) / MATRICES_PER_ROW;
+	}
+
+	/**
+	 * Clear packed bone arrays, should be called once per frame before any skinned renderable is rendered.
+	 */
+	public void begin(){
+		offsets.clear();
+		count = 0;
+		uploaded = 0;
+	}
+
+	/**
+	 * Pack a bone array if not already packed since last {@link #begin()} call.
+	 * @param bones bone matrices, null entries are packed as identity.
+	 * @return offset of first bone matrix.
+	 */
+	public int add(Matrix4[] bones){
+		int offset = offsets.get(bones, -1);
+		if(offset >= 0) return offset;
+		offset = count;
+		int required = (count + bones.length) * 16;
+		if(required > data.length){
+			float[] newData = new float[getRows(Math.max(count + bones.length, count * 7 / 4)) * FLOATS_PER_ROW];
+			System.arraycopy(data, 0, newData, 0, count * 16);
+			data = newData;
+		}
+		for(int i=0 ; i<bones.length ; i++){
+			int index = (count + i) * 16;
+			if(bones[i] != null){
+				System.arraycopy(bones[i].val, 0, data, index, 16);
+			}else{
+				for(int j=0 ; j<16 ; j++) data[index + j] = (j % 5) == 0 ? 1f : 0f;
+			}
+		}
+		count += bones.length;
+		offsets.put(bones, offset);
+		return offset;
+	}
+
+	/**
+	 * @return offset of first bone matrix or -1 if bones are not packed since last {@link #begin()} call.
+	 */
+	public int getOffset(Matrix4[] bones){
+		return offsets.get(bones, -1);
+	}
+
+	/** @return number of packed matrices */
+	public int size(){
+		return count;
+	}
+
+	/** @return packed matrices, 16 floats (column major) per matrix. */
+	public float[] getData(){
+		return data;
+	}
+
+	/**
+	 * Bind texture and upload pending matrices. Texture is (re)created if needed.
+	 * @return texture unit
+	 */
+	public int bind(TextureBinder binder){
+		if(Gdx.gl30 == null) throw new GdxRuntimeException("bone texture requires GL30");
+		int rows = data.length / FLOATS_PER_ROW;
+		if(texture == null || texture.getHeight() != rows){
+			if(texture != null) texture.dispose();
+			texture = new Texture(new FloatTextureData(WIDTH, rows, GL30.GL_RGBA32F, GL20.GL_RGBA, GL20.GL_FLOAT, true));
+			texture.setFilter(TextureFilter.Nearest, TextureFilter.Nearest);
+			buffer = BufferUtils.newFloatBuffer(data.length);
+			uploaded = 0;
+		}
+		int unit = binder.bind(texture);
+		if(uploaded < count){
+			int firstRow = uploaded / MATRICES_PER_ROW;
+			int lastRow = getRows(count);
+			buffer.clear();
+			buffer.put(data, firstRow * FLOATS_PER_ROW, (lastRow - firstRow) * FLOATS_PER_ROW);
+			buffer.flip();
+			Gdx.gl.glActiveTexture(GL20.GL_TEXTURE0 + unit);
+			Gdx.gl.glTexSubImage2D(GL20.GL_TEXTURE_2D, 0, 0, firstRow, WIDTH, lastRow - firstRow, GL20.GL_RGBA, GL20.GL_FLOAT, buffer);
+			uploaded = count;
+		}
+		return unit;
+	}
+
+	/** @return texture, null until first bind */
+	public Texture getTexture(){
+		return texture;
+	}
+
+	public float getInvWidth(){
+		return 1f / WIDTH;
+	}
+
+	public float getInvHeight(){
+		return 1f / (data.length / FLOATS_PER_ROW);
+	}
+
+	@Override
+	public void dispose() {
+		if(texture != null){
+			texture.dispose();
+			texture = null;
+		}
+		buffer = null;
+	}
+}
@@ -9,11 +9,17 @@ import com.badlogic.gdx.graphics.g3d.Renderable;
 import com.badlogic.gdx.utils.BufferUtils;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 
+import net.mgsx.gltf.scene3d.model.MorphTargetsMesh;
+import net.mgsx.gltf.scene3d.model.MorphTargetsTexture;
+import net.mgsx.gltf.scene3d.model.WeightVector;
+
 public class PBRCommon {
 	public static final int MAX_MORPH_TARGETS = 8;
 	
 	private static final IntBuffer intBuffer = BufferUtils.newIntBuffer(16);
 	
+	private static float[] morphWeights = new float[MAX_MORPH_TARGETS];
+	
 	public static int getCapability(int pname){
 		intBuffer.clear();
 		Gdx.gl.glGetIntegerv(pname, intBuffer);
@@ -28,6 +34,35 @@ public class PBRCommon {
 		}
 	}
 	
+	/**
+	 * @return shader defines for morph targets stored in a {@link MorphTargetsTexture}, empty if renderable mesh doesn't use one.
+	 */
+	public static String morphTargetsTexturePrefix(Renderable renderable){
+		MorphTargetsTexture morphTargets = MorphTargetsMesh.getMorphTargets(renderable.meshPart.mesh);
+		if(morphTargets == null) return "";
+		StringBuilder prefix = new StringBuilder();
+		prefix.append("#define morphTextureFlag\n");
+		prefix.append("#define morphTextureTargets ").append(morphTargets.targets).append("\n");
+		prefix.append("#define morphTextureStride ").append(morphTargets.stride).append("\n");
+		if(morphTargets.positionOffset >= 0) prefix.append("#define morphTexturePositionOffset ").append(morphTargets.positionOffset).append("\n");
+		if(morphTargets.normalOffset >= 0) prefix.append("#define morphTextureNormalOffset ").append(morphTargets.normalOffset).append("\n");
+		if(morphTargets.tangentOffset >= 0) prefix.append("#define morphTextureTangentOffset ").append(morphTargets.tangentOffset).append("\n");
+		return prefix.toString();
+	}
+	
+	/**
+	 * @return renderable morph targets weights (see {@link WeightVector}), missing weights are zeros.
+	 * Returned array is reused by next call.
+	 */
+	public static float[] getMorphWeights(Renderable renderable, int count){
+		if(morphWeights.length < count) morphWeights = new float[count];
+		WeightVector weightVector = renderable.userData instanceof WeightVector ? (WeightVector)renderable.userData : null;
+		for(int i=0 ; i<count ; i++){
+			morphWeights[i] = weightVector != null && i < weightVector.count ? weightVector.values[i] : 0;
+		}
+		return morphWeights;
+	}
+	
 	private static Boolean seamlessCubemapsShouldBeEnabled = null;
 	
 	public static void enableSeamlessCubemaps(){
@@ -5,21 +5,38 @@ import com.badlogic.gdx.graphics.VertexAttributes;
 import com.badlogic.gdx.graphics.g3d.Attributes;
 import com.badlogic.gdx.graphics.g3d.Renderable;
 import com.badlogic.gdx.graphics.g3d.shaders.DepthShader;
+import com.badlogic.gdx.math.Matrix4;
 
 import net.mgsx.gltf.scene3d.attributes.PBRVertexAttributes;
+import net.mgsx.gltf.scene3d.model.InstancedMesh;
+import net.mgsx.gltf.scene3d.model.MorphTargetsMesh;
+import net.mgsx.gltf.scene3d.model.MorphTargetsTexture;
 import net.mgsx.gltf.scene3d.model.WeightVector;
 
 public class PBRDepthShader extends DepthShader
 {
 	public final long morphTargetsMask;
+	public final int instancingMode;
 	
 	// morph targets
 	private int u_morphTargets1;
 	private int u_morphTargets2;
 	
+	// morph targets texture
+	private int u_morphTexture;
+	private int u_morphTextureInvSize;
+	private int u_morphWeights;
+	
+	// bone texture skinning
+	private int u_bonesTexture;
+	private int u_bonesOffset;
+	private int u_bonesTextureInvSize;
+	private BoneTexture boneTexture;
+	
 	public PBRDepthShader(Renderable renderable, Config config, String prefix) {
 		super(renderable, config, prefix);
 		this.morphTargetsMask = computeMorphTargetsMask(renderable);
+		this.instancingMode = InstancedMesh.getInstancingMode(renderable.meshPart.mesh);
 	}
 	
 	protected long computeMorphTargetsMask(Renderable renderable){
@@ -30,6 +47,8 @@ public class PBRDepthShader extends DepthShader
 			final VertexAttribute attr = vertexAttributes.get(i);
 			if (attr.usage == PBRVertexAttributes.Usage.PositionTarget) morphTargetsFlag |= (1 << attr.unit);
 		}
+		MorphTargetsTexture morphTargets = MorphTargetsMesh.getMorphTargets(renderable.meshPart.mesh);
+		if(morphTargets != null) return morphTargetsFlag | (morphTargets.getShaderMask() << 32);
 		return morphTargetsFlag;
 	}
 	
@@ -38,15 +57,49 @@ public class PBRDepthShader extends DepthShader
 		
 		if(this.morphTargetsMask != computeMorphTargetsMask(renderable)) return false;
 		
+		if(this.instancingMode != InstancedMesh.getInstancingMode(renderable.meshPart.mesh)) return false;
+		
+		// bone texture shaders don't have bones limit
+		if(boneTexture != null){
+			Matrix4[] bones = renderable.bones;
+			if(bones == null) return false;
+			renderable.bones = BoneTexture.NO_BONES;
+			try{
+				return super.canRender(renderable);
+			}finally{
+				renderable.bones = bones;
+			}
+		}
+		
 		return super.canRender(renderable);
 	}
 	
+	/**
+	 * Enable bone texture skinning for this shader, should only be called by shader providers right after
+	 * shader creation, see {@link PBRDepthShaderProvider#setBoneTexture(BoneTexture)}.
+	 */
+	public void setBoneTexture(BoneTexture boneTexture){
+		this.boneTexture = boneTexture;
+	}
+	
+	public BoneTexture getBoneTexture(){
+		return boneTexture;
+	}
+	
 	@Override
 	public void init() {
 		super.init();
 		
 		u_morphTargets1 = program.fetchUniformLocation("u_morphTargets1", false);
 		u_morphTargets2 = program.fetchUniformLocation("u_morphTargets2", false);
+		
+		u_morphTexture = program.fetchUniformLocation("u_morphTexture", false);
+		u_morphTextureInvSize = program.fetchUniformLocation("u_morphTextureInvSize", false);
+		u_morphWeights = program.fetchUniformLocation("u_morphWeights", false);
+		
+		u_bonesTexture = program.fetchUniformLocation("u_bonesTexture", false);
+		u_bonesOffset = program.fetchUniformLocation("u_bonesOffset", false);
+		u_bonesTextureInvSize = program.fetchUniformLocation("u_bonesTextureInvSize", false);
 
 	}
 	
@@ -70,6 +123,24 @@ public class PBRDepthShader extends DepthShader
 			}
 		}
 		
+		if(u_morphTexture >= 0){
+			MorphTargetsTexture morphTargets = MorphTargetsMesh.getMorphTargets(renderable.meshPart.mesh);
+			program.setUniformi(u_morphTexture, context.textureBinder.bind(morphTargets.getTexture()));
+			program.setUniformf(u_morphTextureInvSize, morphTargets.getInvWidth(), morphTargets.getInvHeight());
+			if(u_morphWeights >= 0){
+				// weights are packed in vec4 uniforms, padded with zeros.
+				int count = (morphTargets.targets + 3) / 4 * 4;
+				program.setUniform4fv(u_morphWeights, PBRCommon.getMorphWeights(renderable, count), 0, count);
+			}
+		}
+		
+		if(boneTexture != null && u_bonesTexture >= 0 && renderable.bones != null){
+			int offset = boneTexture.add(renderable.bones);
+			program.setUniformi(u_bonesTexture, boneTexture.bind(context.textureBinder));
+			program.setUniformf(u_bonesOffset, offset);
+			program.setUniformf(u_bonesTextureInvSize, boneTexture.getInvWidth(), boneTexture.getInvHeight());
+		}
+		
 		super.render(renderable, combinedAttributes);
 	}
 
@@ -7,8 +7,10 @@ import com.badlogic.gdx.graphics.g3d.Shader;
 import com.badlogic.gdx.graphics.g3d.shaders.DepthShader;
 import com.badlogic.gdx.graphics.g3d.shaders.DepthShader.Config;
 import com.badlogic.gdx.graphics.g3d.utils.DepthShaderProvider;
+import com.badlogic.gdx.math.Matrix4;
 
 import net.mgsx.gltf.scene3d.attributes.PBRVertexAttributes;
+import net.mgsx.gltf.scene3d.model.InstancedMesh;
 
 public class PBRDepthShaderProvider extends DepthShaderProvider
 {
@@ -35,6 +37,7 @@ public class PBRDepthShaderProvider extends DepthShaderProvider
 		return config;
 	};
 
+	private BoneTexture boneTexture;
 	
 	public PBRDepthShaderProvider(Config config) {
 		super(config == null ? new DepthShader.Config() : config);
@@ -42,6 +45,19 @@ public class PBRDepthShaderProvider extends DepthShaderProvider
 		if(config.fragmentShader == null) config.fragmentShader = getDefaultFragmentShader();
 	}
 
+	/**
+	 * Enable/disable bone texture skinning, see {@link PBRShaderProvider#setBoneTexture(BoneTexture)}.
+	 * Config numBones still has to be greater than zero to enable skinning but is no longer a limit.
+	 * @param boneTexture null to use bones uniform array (default).
+	 */
+	public void setBoneTexture(BoneTexture boneTexture){
+		this.boneTexture = boneTexture;
+	}
+	
+	public BoneTexture getBoneTexture(){
+		return boneTexture;
+	}
+	
 	protected String morphTargetsPrefix(Renderable renderable){
 		String prefix = "";
 		for(VertexAttribute att : renderable.meshPart.mesh.getVertexAttributes()){
@@ -51,15 +67,67 @@ public class PBRDepthShaderProvider extends DepthShaderProvider
 				}
 			}
 		}
+		prefix += PBRCommon.morphTargetsTexturePrefix(renderable);
+		return prefix;
+	}
+	
+	protected String instancingPrefix(Renderable renderable){
+		String prefix = "";
+		int instancingMode = InstancedMesh.getInstancingMode(renderable.meshPart.mesh);
+		if(instancingMode > 0) prefix += "#define instancedFlag\n";
+		if(instancingMode > 1) prefix += "#define instancedLocalFlag\n";
 		return prefix;
 	}
 	
+	protected String boneTexturePrefix(Renderable renderable){
+		return boneTexture != null && renderable.bones != null ? "#define boneTextureFlag\n" : "";
+	}
+	
+	/**
+	 * Same as default implementation except that shaders skinning mode (bones uniform array or bone texture) has to match.
+	 */
+	@Override
+	public Shader getShader(Renderable renderable) {
+		boolean textureSkinning = boneTexture != null && renderable.bones != null;
+		Shader suggestedShader = renderable.shader;
+		if(suggestedShader != null && isSkinningModeMatching(suggestedShader, textureSkinning) && suggestedShader.canRender(renderable)){
+			return suggestedShader;
+		}
+		for(int i=0 ; i<shaders.size ; i++){
+			Shader shader = shaders.get(i);
+			if(isSkinningModeMatching(shader, textureSkinning) && shader.canRender(renderable)) return shader;
+		}
+		// bone texture shaders don't have bones limit
+		Matrix4[] bones = renderable.bones;
+		if(textureSkinning) renderable.bones = BoneTexture.NO_BONES;
+		Shader shader;
+		try{
+			shader = createShader(renderable);
+			shader.init();
+		}finally{
+			renderable.bones = bones;
+		}
+		shaders.add(shader);
+		return shader;
+	}
+	
+	private static boolean isSkinningModeMatching(Shader shader, boolean textureSkinning){
+		if(shader instanceof PBRDepthShader){
+			return (((PBRDepthShader)shader).getBoneTexture() != null) == textureSkinning;
+		}
+		return !textureSkinning;
+	}
+	
 	@Override
 	protected Shader createShader(Renderable renderable) {
 		
 		// TODO only count used attributes, depth shader only require a few of them.
 		PBRCommon.checkVertexAttributes(renderable);
 		
-		return new PBRDepthShader(renderable, config, DepthShader.createPrefix(renderable, config) + morphTargetsPrefix(renderable));
+		PBRDepthShader shader = new PBRDepthShader(renderable, config, DepthShader.createPrefix(renderable, config) + morphTargetsPrefix(renderable) + instancingPrefix(renderable) + boneTexturePrefix(renderable));
+		if(boneTexture != null && renderable.bones != null){
+			shader.setBoneTexture(boneTexture);
+		}
+		return shader;
 	}
 }
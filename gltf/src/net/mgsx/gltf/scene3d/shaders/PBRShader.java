@@ -1,6 +1,7 @@
 package net.mgsx.gltf.scene3d.shaders;
 
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Mesh;
 import com.badlogic.gdx.graphics.VertexAttribute;
 import com.badlogic.gdx.graphics.VertexAttributes;
 import com.badlogic.gdx.graphics.g3d.Attributes;
@@ -13,6 +14,7 @@ import com.badlogic.gdx.graphics.g3d.shaders.BaseShader;
 import com.badlogic.gdx.graphics.g3d.shaders.DefaultShader;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.math.Matrix3;
+import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
@@ -32,6 +34,9 @@ import net.mgsx.gltf.scene3d.attributes.PBRVertexAttributes;
 import net.mgsx.gltf.scene3d.attributes.PBRVolumeAttribute;
 import net.mgsx.gltf.scene3d.lights.DirectionalLightEx;
 import net.mgsx.gltf.scene3d.lights.DirectionalShadowLight;
+import net.mgsx.gltf.scene3d.model.InstancedMesh;
+import net.mgsx.gltf.scene3d.model.MorphTargetsMesh;
+import net.mgsx.gltf.scene3d.model.MorphTargetsTexture;
 import net.mgsx.gltf.scene3d.model.WeightVector;
 
 public class PBRShader extends DefaultShader
@@ -472,6 +477,17 @@ public class PBRShader extends DefaultShader
 	private int u_morphTargets1;
 	private int u_morphTargets2;
 	
+	// morph targets texture
+	private int u_morphTexture;
+	private int u_morphTextureInvSize;
+	private int u_morphWeights;
+	
+	// bone texture skinning
+	private int u_bonesTexture;
+	private int u_bonesOffset;
+	private int u_bonesTextureInvSize;
+	private BoneTexture boneTexture;
+	
 	private int u_mipmapScale;
 
 	private int u_texCoord0Transform;
@@ -484,6 +500,8 @@ public class PBRShader extends DefaultShader
 	private long morphTargetsMask;
 	
 	private int vertexColorLayers;
+	
+	private int instancingMode;
 
 	public int u_emissive;
 
@@ -535,7 +553,9 @@ public class PBRShader extends DefaultShader
 		
 		morphTargetsMask = computeMorphTargetsMask(renderable);
 		
-		vertexColorLayers = computeVertexColorLayers(renderable);
+		vertexColorLayers = computeVertexColorLayers(renderable.meshPart.mesh.getVertexAttributes());
+		
+		instancingMode = InstancedMesh.getInstancingMode(renderable.meshPart.mesh);
 		
 		// base color
 		u_BaseColorTexture = register(baseColorTextureUniform, baseColorTextureSetter);
@@ -606,9 +626,8 @@ public class PBRShader extends DefaultShader
 		u_clippingPlane = register(clippingPlaneUniform, clippingPlaneSetter);
 	}
 
-	private int computeVertexColorLayers(Renderable renderable) {
+	static int computeVertexColorLayers(VertexAttributes vertexAttributes) {
 		int num = 0;
-		VertexAttributes vertexAttributes = renderable.meshPart.mesh.getVertexAttributes();
 		final int n = vertexAttributes.size();
 		for (int i = 0; i < n; i++) {
 			final VertexAttribute attr = vertexAttributes.get(i);
@@ -631,14 +650,52 @@ public class PBRShader extends DefaultShader
 		if(this.morphTargetsMask != computeMorphTargetsMask(renderable)) return false;
 		
 		// compare vertex colors count
-		if(this.vertexColorLayers != computeVertexColorLayers(renderable)) return false;
+		if(this.vertexColorLayers != computeVertexColorLayers(renderable.meshPart.mesh.getVertexAttributes())) return false;
+		
+		// compare GPU instancing
+		if(this.instancingMode != InstancedMesh.getInstancingMode(renderable.meshPart.mesh)) return false;
+		
+		// bone texture shaders don't have bones limit
+		if(boneTexture != null){
+			Matrix4[] bones = renderable.bones;
+			if(bones == null) return false;
+			renderable.bones = BoneTexture.NO_BONES;
+			try{
+				return super.canRender(renderable);
+			}finally{
+				renderable.bones = bones;
+			}
+		}
 		
 		return super.canRender(renderable);
 	}
 	
+	/**
+	 * Enable bone texture skinning for this shader, should only be called by shader providers right after
+	 * shader creation. Shader have to be compiled with boneTextureFlag, see {@link PBRShaderProvider#setBoneTexture(BoneTexture)}.
+	 */
+	public void setBoneTexture(BoneTexture boneTexture){
+		this.boneTexture = boneTexture;
+	}
+	
+	public BoneTexture getBoneTexture(){
+		return boneTexture;
+	}
+	
 	public long computeMorphTargetsMask(Renderable renderable){
+		return getMorphTargetsMask(renderable.meshPart.mesh);
+	}
+	
+	/** morph targets attributes mask, morph targets texture layout in higher bits. */
+	static long getMorphTargetsMask(Mesh mesh){
+		long mask = getMorphTargetsMask(mesh.getVertexAttributes());
+		MorphTargetsTexture morphTargets = MorphTargetsMesh.getMorphTargets(mesh);
+		if(morphTargets != null) mask |= morphTargets.getShaderMask() << 32;
+		return mask;
+	}
+	
+	static long getMorphTargetsMask(VertexAttributes vertexAttributes){
 		int morphTargetsFlag = 0;
-		VertexAttributes vertexAttributes = renderable.meshPart.mesh.getVertexAttributes();
 		final int n = vertexAttributes.size();
 		for (int i = 0; i < n; i++) {
 			final VertexAttribute attr = vertexAttributes.get(i);
@@ -661,7 +718,7 @@ public class PBRShader extends DefaultShader
 		PBRTextureAttribute.IridescenceThicknessTexture
 	};
 
-	private static long getTextureCoordinateMapMask(Attributes attributes){
+	static long getTextureCoordinateMapMask(Attributes attributes){
 		// encode texture coordinate unit in a 5 bits integer.
 		// 5 texture types with 1 bits per texture type.
 		// 0 means no texture or unit 0
@@ -690,6 +747,14 @@ public class PBRShader extends DefaultShader
 		u_morphTargets1 = program.fetchUniformLocation("u_morphTargets1", false);
 		u_morphTargets2 = program.fetchUniformLocation("u_morphTargets2", false);
 		
+		u_morphTexture = program.fetchUniformLocation("u_morphTexture", false);
+		u_morphTextureInvSize = program.fetchUniformLocation("u_morphTextureInvSize", false);
+		u_morphWeights = program.fetchUniformLocation("u_morphWeights", false);
+		
+		u_bonesTexture = program.fetchUniformLocation("u_bonesTexture", false);
+		u_bonesOffset = program.fetchUniformLocation("u_bonesOffset", false);
+		u_bonesTextureInvSize = program.fetchUniformLocation("u_bonesTextureInvSize", false);
+		
 		u_ambientLight = program.fetchUniformLocation("u_ambientLight", false);
 		
 		u_csmSamplers = program.fetchUniformLocation("u_csmSamplers", false);
@@ -769,6 +834,25 @@ public class PBRShader extends DefaultShader
 			}
 		}
 		
+		if(u_morphTexture >= 0){
+			MorphTargetsTexture morphTargets = MorphTargetsMesh.getMorphTargets(renderable.meshPart.mesh);
+			program.setUniformi(u_morphTexture, context.textureBinder.bind(morphTargets.getTexture()));
+			program.setUniformf(u_morphTextureInvSize, morphTargets.getInvWidth(), morphTargets.getInvHeight());
+			if(u_morphWeights >= 0){
+				// weights are packed in vec4 uniforms, padded with zeros.
+				int count = (morphTargets.targets + 3) / 4 * 4;
+				program.setUniform4fv(u_morphWeights, PBRCommon.getMorphWeights(renderable, count), 0, count);
+			}
+		}
+		
+		if(boneTexture != null && u_bonesTexture >= 0 && renderable.bones != null){
+			// bones are usually packed before rendering, see SceneManager
+			int offset = boneTexture.add(renderable.bones);
+			program.setUniformi(u_bonesTexture, boneTexture.bind(context.textureBinder));
+			program.setUniformf(u_bonesOffset, offset);
+			program.setUniformf(u_bonesTextureInvSize, boneTexture.getInvWidth(), boneTexture.getInvHeight());
+		}
+		
 		super.render(renderable, combinedAttributes);
 	}
 	
@@ -10,13 +10,17 @@ import com.badlogic.gdx.graphics.VertexAttributes.Usage;
 import com.badlogic.gdx.graphics.g3d.Renderable;
 import com.badlogic.gdx.graphics.g3d.Shader;
 import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.attributes.DepthTestAttribute;
+import com.badlogic.gdx.graphics.g3d.attributes.IntAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
 import com.badlogic.gdx.graphics.g3d.shaders.DefaultShader;
 import com.badlogic.gdx.graphics.g3d.shaders.DepthShader;
 import com.badlogic.gdx.graphics.g3d.utils.DefaultShaderProvider;
 import com.badlogic.gdx.graphics.g3d.utils.DepthShaderProvider;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
 
 import net.mgsx.gltf.scene3d.attributes.CascadeShadowMapAttribute;
 import net.mgsx.gltf.scene3d.attributes.ClippingPlaneAttribute;
@@ -34,6 +38,7 @@ import net.mgsx.gltf.scene3d.attributes.PBRTextureAttribute;
 import net.mgsx.gltf.scene3d.attributes.PBRVertexAttributes;
 import net.mgsx.gltf.scene3d.attributes.PBRVolumeAttribute;
 import net.mgsx.gltf.scene3d.shaders.PBRShaderConfig.SRGB;
+import net.mgsx.gltf.scene3d.model.InstancedMesh;
 import net.mgsx.gltf.scene3d.utils.LightUtils;
 import net.mgsx.gltf.scene3d.utils.LightUtils.LightsInfo;
 import net.mgsx.gltf.scene3d.utils.ShaderParser;
@@ -44,6 +49,79 @@ public class PBRShaderProvider extends DefaultShaderProvider
 	
 	private static final LightsInfo lightsInfo = new LightsInfo();
 	
+	/** same as DefaultShader optional attributes, they don't change shader code */
+	private static final long OPTIONAL_ATTRIBUTES = IntAttribute.CullFace | DepthTestAttribute.Type;
+	
+	/**
+	 * Shader variant key, see {@link PBRShaderProvider#computeVariantKey(Renderable, VariantKey)}
+	 */
+	public static class VariantKey {
+		public static final int LIGHTING = 1;
+		public static final int LINE_OR_POINT = 2;
+		public static final int SKINNING = 4;
+		public static final int BONES_OVERFLOW = 8;
+		public static final int INSTANCED = 16;
+		public static final int INSTANCED_LOCAL = 32;
+		public static final int BONE_TEXTURE = 64;
+		
+		/** combined material and environment attributes mask */
+		public long attributesMask;
+		/** vertex attributes usage mask and count */
+		public long vertexMask;
+		public long textureCoordinateMapMask;
+		public long morphTargetsMask;
+		public int vertexColorLayers;
+		public int cascadeCount;
+		public int flags;
+		/** free for subclasses to store their own features */
+		public long userMask;
+		
+		public VariantKey set(VariantKey key){
+			attributesMask = key.attributesMask;
+			vertexMask = key.vertexMask;
+			textureCoordinateMapMask = key.textureCoordinateMapMask;
+			morphTargetsMask = key.morphTargetsMask;
+			vertexColorLayers = key.vertexColorLayers;
+			cascadeCount = key.cascadeCount;
+			flags = key.flags;
+			userMask = key.userMask;
+			return this;
+		}
+		
+		@Override
+		public int hashCode() {
+			long h = attributesMask;
+			h = h * 31 + vertexMask;
+			h = h * 31 + textureCoordinateMapMask;
+			h = h * 31 + morphTargetsMask;
+			h = h * 31 + vertexColorLayers;
+			h = h * 31 + cascadeCount;
+			h = h * 31 + flags;
+			h = h * 31 + userMask;
+			return (int)(h ^ (h >>> 32));
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) return true;
+			if(!(obj instanceof VariantKey)) return false;
+			VariantKey other = (VariantKey)obj;
+			return attributesMask == other.attributesMask &&
+				vertexMask == other.vertexMask &&
+				textureCoordinateMapMask == other.textureCoordinateMapMask &&
+				morphTargetsMask == other.morphTargetsMask &&
+				vertexColorLayers == other.vertexColorLayers &&
+				cascadeCount == other.cascadeCount &&
+				flags == other.flags &&
+				userMask == other.userMask;
+		}
+	}
+	
+	private final ObjectMap<VariantKey, Shader> variants = new ObjectMap<VariantKey, Shader>();
+	private final VariantKey tmpKey = new VariantKey();
+	
+	private BoneTexture boneTexture;
+	
 	private static String defaultVertexShader = null;
 
 	public static String getDefaultVertexShader () {
@@ -102,21 +180,121 @@ public class PBRShaderProvider extends DefaultShaderProvider
 		return shaders.size;
 	}
 	
+	/**
+	 * Enable/disable bone texture skinning: skinned renderables bones are read from given texture instead of
+	 * a bones uniform array, config numBones is then no longer a limit.
+	 * Should be set before rendering and the same bone texture should be used by the depth shader provider.
+	 * @param boneTexture null to use bones uniform array (default).
+	 */
+	public void setBoneTexture(BoneTexture boneTexture){
+		this.boneTexture = boneTexture;
+	}
+	
+	public BoneTexture getBoneTexture(){
+		return boneTexture;
+	}
+	
+	/**
+	 * Shaders are looked up by a {@link VariantKey} computed once per renderable instead of
+	 * calling {@link Shader#canRender(Renderable)} on every known shader.
+	 */
+	@Override
+	public Shader getShader(Renderable renderable) {
+		computeVariantKey(renderable, tmpKey);
+		Shader shader = variants.get(tmpKey);
+		Shader suggestedShader = renderable.shader;
+		if(suggestedShader != null && suggestedShader != shader && suggestedShader.canRender(renderable)){
+			return suggestedShader;
+		}
+		if(shader == null){
+			// bone texture shaders don't have bones limit
+			Matrix4[] bones = renderable.bones;
+			if(boneTexture != null && bones != null) renderable.bones = BoneTexture.NO_BONES;
+			try{
+				shader = createShader(renderable);
+				shader.init();
+			}finally{
+				renderable.bones = bones;
+			}
+			shaders.add(shader);
+			variants.put(new VariantKey().set(tmpKey), shader);
+		}
+		return shader;
+	}
+	
+	/**
+	 * Compute renderable shader variant key, 2 renderables with the same key have to be rendered
+	 * by the same shader. Key contains everything checked by {@link PBRShader#canRender(Renderable)}.
+	 * Override this method when your shaders depend on other renderable properties.
+	 * @param renderable
+	 * @param key key to fill.
+	 */
+	protected void computeVariantKey(Renderable renderable, VariantKey key){
+		VertexAttributes vertexAttributes = renderable.meshPart.mesh.getVertexAttributes();
+		
+		long attributesMask = renderable.material.getMask() | OPTIONAL_ATTRIBUTES;
+		if(renderable.environment != null) attributesMask |= renderable.environment.getMask();
+		key.attributesMask = attributesMask;
+		key.vertexMask = vertexAttributes.getMask() | ((long)vertexAttributes.size() << 32);
+		key.textureCoordinateMapMask = PBRShader.getTextureCoordinateMapMask(renderable.material);
+		key.morphTargetsMask = computeMorphTargetsMask(renderable);
+		key.vertexColorLayers = PBRShader.computeVertexColorLayers(vertexAttributes);
+		
+		int primitiveType = renderable.meshPart.primitiveType;
+		boolean isLineOrPoint = primitiveType == GL20.GL_POINTS || primitiveType == GL20.GL_LINES || primitiveType == GL20.GL_LINE_LOOP || primitiveType == GL20.GL_LINE_STRIP;
+		
+		int flags = 0;
+		if(renderable.environment != null) flags |= VariantKey.LIGHTING;
+		if(isLineOrPoint) flags |= VariantKey.LINE_OR_POINT;
+		if(renderable.bones != null){
+			flags |= VariantKey.SKINNING;
+			if(boneTexture != null){
+				flags |= VariantKey.BONE_TEXTURE;
+			}else if(renderable.bones.length > config.numBones){
+				// shaders are compiled with a fixed number of bones, exceeding it is an error reported on shader creation.
+				flags |= VariantKey.BONES_OVERFLOW;
+			}
+		}
+		int instancingMode = InstancedMesh.getInstancingMode(renderable.meshPart.mesh);
+		if(instancingMode > 0) flags |= VariantKey.INSTANCED;
+		if(instancingMode > 1) flags |= VariantKey.INSTANCED_LOCAL;
+		key.flags = flags;
+		
+		CascadeShadowMapAttribute csm = renderable.environment == null ? null : 
+			renderable.environment.get(CascadeShadowMapAttribute.class, CascadeShadowMapAttribute.Type);
+		key.cascadeCount = csm == null ? 0 : csm.cascadeShadowMap.lights.size;
+	}
+	
+	/**
+	 * Compute renderable morph targets mask used in variant keys, it has to match {@link PBRShader#computeMorphTargetsMask(Renderable)}
+	 * of created shaders: override both methods when your shaders handle morph targets differently.
+	 * @param renderable
+	 * @return morph targets mask
+	 */
+	protected long computeMorphTargetsMask(Renderable renderable){
+		return PBRShader.getMorphTargetsMask(renderable.meshPart.mesh);
+	}
+	
+	@Override
+	public void dispose() {
+		super.dispose();
+		variants.clear();
+	}
+	
 	public static String morphTargetsPrefix(Renderable renderable){
-		String prefix = "";
-		// TODO optimize double loop
+		StringBuilder prefix = new StringBuilder();
 		for(VertexAttribute att : renderable.meshPart.mesh.getVertexAttributes()){
-			for(int i=0 ; i<PBRCommon.MAX_MORPH_TARGETS ; i++){
-				if(att.usage == PBRVertexAttributes.Usage.PositionTarget && att.unit == i){
-					prefix += "#define " + "position" + i + "Flag\n";
-				}else if(att.usage == PBRVertexAttributes.Usage.NormalTarget && att.unit == i){
-					prefix += "#define " + "normal" + i + "Flag\n";
-				}else if(att.usage == PBRVertexAttributes.Usage.TangentTarget && att.unit == i){
-					prefix += "#define " + "tangent" + i + "Flag\n";
-				}
+			if(att.unit < 0 || att.unit >= PBRCommon.MAX_MORPH_TARGETS) continue;
+			if(att.usage == PBRVertexAttributes.Usage.PositionTarget){
+				prefix.append("#define position").append(att.unit).append("Flag\n");
+			}else if(att.usage == PBRVertexAttributes.Usage.NormalTarget){
+				prefix.append("#define normal").append(att.unit).append("Flag\n");
+			}else if(att.usage == PBRVertexAttributes.Usage.TangentTarget){
+				prefix.append("#define tangent").append(att.unit).append("Flag\n");
 			}
 		}
-		return prefix;
+		prefix.append(PBRCommon.morphTargetsTexturePrefix(renderable));
+		return prefix.toString();
 	}
 	
 	/**
@@ -147,52 +325,66 @@ public class PBRShaderProvider extends DefaultShaderProvider
 					version = "#version 300 es\n" + "#define GLSL3\n";
 			}
 		}
-		String prefix = "";
-		if(version != null) prefix += version;
-		if(config.prefix != null) prefix += config.prefix;
-		prefix += defaultPrefix;
+		StringBuilder prefix = new StringBuilder();
+		if(version != null) prefix.append(version);
+		if(config.prefix != null) prefix.append(config.prefix);
+		prefix.append(defaultPrefix);
 		
-		return prefix;
+		return prefix.toString();
 	}
 	
 	public String createPrefixSRGB(Renderable renderable, PBRShaderConfig config){
-		String prefix = "";
+		StringBuilder prefix = new StringBuilder();
 		if(config.manualSRGB != SRGB.NONE){
-			prefix += "#define MANUAL_SRGB\n";
+			prefix.append("#define MANUAL_SRGB\n");
 			if(config.manualSRGB == SRGB.FAST){
-				prefix += "#define SRGB_FAST_APPROXIMATION\n";
+				prefix.append("#define SRGB_FAST_APPROXIMATION\n");
 			}
 		}
 		if(config.manualGammaCorrection){
-			prefix += "#define GAMMA_CORRECTION " + config.gamma + "\n";
+			prefix.append("#define GAMMA_CORRECTION ").append(config.gamma).append("\n");
 		}
 		if(config.transmissionSRGB != SRGB.NONE){
-			prefix += "#define TS_MANUAL_SRGB\n";
+			prefix.append("#define TS_MANUAL_SRGB\n");
 			if(config.transmissionSRGB == SRGB.FAST){
-				prefix += "#define TS_SRGB_FAST_APPROXIMATION\n";
+				prefix.append("#define TS_SRGB_FAST_APPROXIMATION\n");
 			}
 		}
 		if(config.mirrorSRGB != SRGB.NONE){
-			prefix += "#define MS_MANUAL_SRGB\n";
+			prefix.append("#define MS_MANUAL_SRGB\n");
 			if(config.mirrorSRGB == SRGB.FAST){
-				prefix += "#define MS_SRGB_FAST_APPROXIMATION\n";
+				prefix.append("#define MS_SRGB_FAST_APPROXIMATION\n");
 			}
 		}
-		return prefix;
+		return prefix.toString();
 	}
 	
 	protected Shader createShader(Renderable renderable) {
 		
 		PBRShaderConfig config = (PBRShaderConfig)this.config;
 		
-		String prefix = createPrefixBase(renderable, config);
+		StringBuilder prefix = new StringBuilder(createPrefixBase(renderable, config));
 		
 		// Morph targets
-		prefix += morphTargetsPrefix(renderable);
+		prefix.append(morphTargetsPrefix(renderable));
+		
+		// GPU instancing
+		int instancingMode = InstancedMesh.getInstancingMode(renderable.meshPart.mesh);
+		if(instancingMode > 0){
+			prefix.append("#define instancedFlag\n");
+		}
+		if(instancingMode > 1){
+			prefix.append("#define instancedLocalFlag\n");
+		}
+		
+		// Bone texture skinning
+		if(boneTexture != null && renderable.bones != null){
+			prefix.append("#define boneTextureFlag\n");
+		}
 		
 		// optional base color factor
 		if(renderable.material.has(PBRColorAttribute.BaseColorFactor)){
-			prefix += "#define baseColorFactorFlag\n";
+			prefix.append("#define baseColorFactorFlag\n");
 		}
 		
 		// Lighting
@@ -202,70 +394,70 @@ public class PBRShaderProvider extends DefaultShaderProvider
 		
 		if(unlit){
 			
-			prefix += "#define unlitFlag\n";
+			prefix.append("#define unlitFlag\n");
 			
 		}else{
 			
 			if(renderable.material.has(PBRTextureAttribute.MetallicRoughnessTexture)){
-				prefix += "#define metallicRoughnessTextureFlag\n";
+				prefix.append("#define metallicRoughnessTextureFlag\n");
 			}
 			if(renderable.material.has(PBRTextureAttribute.OcclusionTexture)){
-				prefix += "#define occlusionTextureFlag\n";
+				prefix.append("#define occlusionTextureFlag\n");
 			}
 			if(renderable.material.has(PBRFloatAttribute.TransmissionFactor)){
-				prefix += "#define transmissionFlag\n";
+				prefix.append("#define transmissionFlag\n");
 			}
 			if(renderable.material.has(PBRTextureAttribute.TransmissionTexture)){
-				prefix += "#define transmissionTextureFlag\n";
+				prefix.append("#define transmissionTextureFlag\n");
 			}
 			if(renderable.material.has(PBRVolumeAttribute.Type)){
-				prefix += "#define volumeFlag\n";
+				prefix.append("#define volumeFlag\n");
 			}
 			if(renderable.material.has(PBRTextureAttribute.ThicknessTexture)){
-				prefix += "#define thicknessTextureFlag\n";
+				prefix.append("#define thicknessTextureFlag\n");
 			}
 			if(renderable.material.has(PBRFloatAttribute.IOR)){
-				prefix += "#define iorFlag\n";
+				prefix.append("#define iorFlag\n");
 			}
 			
 			// Material specular
 			boolean hasSpecular = false;
 			if(renderable.material.has(PBRFloatAttribute.SpecularFactor)){
-				prefix += "#define specularFactorFlag\n";
+				prefix.append("#define specularFactorFlag\n");
 				hasSpecular = true;
 			}
 			if(renderable.material.has(PBRHDRColorAttribute.Specular)){
 				hasSpecular = true;
-				prefix += "#define specularColorFlag\n";
+				prefix.append("#define specularColorFlag\n");
 			}
 			if(renderable.material.has(PBRTextureAttribute.SpecularFactorTexture)){
-				prefix += "#define specularFactorTextureFlag\n";
+				prefix.append("#define specularFactorTextureFlag\n");
 				hasSpecular = true;
 			}
 			if(renderable.material.has(PBRTextureAttribute.SpecularColorTexture)){
-				prefix += "#define specularColorTextureFlag\n";
+				prefix.append("#define specularColorTextureFlag\n");
 				hasSpecular = true;
 			}
 			if(hasSpecular){
-				prefix += "#define specularFlag\n";
+				prefix.append("#define specularFlag\n");
 			}
 			
 			// Material Iridescence
 			if(renderable.material.has(PBRIridescenceAttribute.Type)){
-				prefix += "#define iridescenceFlag\n";
+				prefix.append("#define iridescenceFlag\n");
 			}
 			if(renderable.material.has(PBRTextureAttribute.IridescenceTexture)){
-				prefix += "#define iridescenceTextureFlag\n";
+				prefix.append("#define iridescenceTextureFlag\n");
 			}
 			if(renderable.material.has(PBRTextureAttribute.IridescenceThicknessTexture)){
-				prefix += "#define iridescenceThicknessTextureFlag\n";
+				prefix.append("#define iridescenceThicknessTextureFlag\n");
 			}
 			if(renderable.environment.has(ClippingPlaneAttribute.Type)){
-				prefix += "#define clippingPlaneFlag\n";
+				prefix.append("#define clippingPlaneFlag\n");
 			}
 			CascadeShadowMapAttribute csm = renderable.environment.get(CascadeShadowMapAttribute.class, CascadeShadowMapAttribute.Type);
 			if(csm != null){
-				prefix += "#define numCSM " + csm.cascadeShadowMap.lights.size + "\n";
+				prefix.append("#define numCSM ").append(csm.cascadeShadowMap.lights.size).append("\n");
 			}
 			
 			// IBL options
@@ -273,10 +465,10 @@ public class PBRShaderProvider extends DefaultShaderProvider
 			MirrorAttribute specularMirrorAttribute = null;
 			if(renderable.environment != null){
 				if(renderable.environment.has(PBRTextureAttribute.TransmissionSourceTexture)){
-					prefix += "#define transmissionSourceFlag\n";
+					prefix.append("#define transmissionSourceFlag\n");
 				}
 				if(renderable.environment.has(PBRCubemapAttribute.SpecularEnv)){
-					prefix += "#define diffuseSpecularEnvSeparateFlag\n";
+					prefix.append("#define diffuseSpecularEnvSeparateFlag\n");
 					specualarCubemapAttribute = renderable.environment.get(PBRCubemapAttribute.class, PBRCubemapAttribute.SpecularEnv);
 				}else if(renderable.environment.has(PBRCubemapAttribute.DiffuseEnv)){
 					specualarCubemapAttribute = renderable.environment.get(PBRCubemapAttribute.class, PBRCubemapAttribute.DiffuseEnv);
@@ -286,17 +478,17 @@ public class PBRShaderProvider extends DefaultShaderProvider
 				
 				if(renderable.environment.has(MirrorSourceAttribute.Type) && renderable.material.has(MirrorAttribute.Specular)){
 					specularMirrorAttribute = renderable.environment.get(MirrorAttribute.class, MirrorAttribute.Specular);
-					prefix += "#define mirrorSpecularFlag\n";
+					prefix.append("#define mirrorSpecularFlag\n");
 				}
 				
 				if(specualarCubemapAttribute != null || specularMirrorAttribute != null){
-					prefix += "#define USE_IBL\n";
+					prefix.append("#define USE_IBL\n");
 					
 					boolean textureLodSupported;
 					if(isGL3()){
 						textureLodSupported = true;
 					}else if(Gdx.graphics.supportsExtension("EXT_shader_texture_lod")){
-						prefix += "#define USE_TEXTURE_LOD_EXT\n";
+						prefix.append("#define USE_TEXTURE_LOD_EXT\n");
 						textureLodSupported = true;
 					}else{
 						textureLodSupported = false;
@@ -305,29 +497,29 @@ public class PBRShaderProvider extends DefaultShaderProvider
 					if(specualarCubemapAttribute != null){
 						TextureFilter textureFilter = specualarCubemapAttribute.textureDescription.minFilter != null ? specualarCubemapAttribute.textureDescription.minFilter : specualarCubemapAttribute.textureDescription.texture.getMinFilter();
 						if(textureLodSupported && textureFilter.equals(TextureFilter.MipMap)){
-							prefix += "#define USE_TEX_LOD\n";
+							prefix.append("#define USE_TEX_LOD\n");
 						}
 					}
 					
 					if(renderable.environment.has(PBRTextureAttribute.BRDFLUTTexture)){
-						prefix += "#define brdfLUTTexture\n";
+						prefix.append("#define brdfLUTTexture\n");
 					}
 				}
 				// TODO check GLSL extension 'OES_standard_derivatives' for WebGL
 				
 				if(renderable.environment.has(ColorAttribute.AmbientLight)){
-					prefix += "#define ambientLightFlag\n";
+					prefix.append("#define ambientLightFlag\n");
 				}
 				
 				if(renderable.environment.has(PBRMatrixAttribute.EnvRotation)){
-					prefix += "#define ENV_ROTATION\n";
+					prefix.append("#define ENV_ROTATION\n");
 				}
 			}
 			
 		}
 		
 		// SRGB
-		prefix += createPrefixSRGB(renderable, config);
+		prefix.append(createPrefixSRGB(renderable, config));
 		
 		
 		// multi UVs
@@ -336,86 +528,86 @@ public class PBRShaderProvider extends DefaultShaderProvider
 		{
 			TextureAttribute attribute = renderable.material.get(TextureAttribute.class, TextureAttribute.Diffuse);
 			if(attribute != null){
-				prefix += "#define v_diffuseUV v_texCoord" + attribute.uvIndex + "\n";
+				prefix.append("#define v_diffuseUV v_texCoord").append(attribute.uvIndex).append("\n");
 				maxUVIndex = Math.max(maxUVIndex, attribute.uvIndex);
 			}
 		}
 		{
 			TextureAttribute attribute = renderable.material.get(TextureAttribute.class, TextureAttribute.Emissive);
 			if(attribute != null){
-				prefix += "#define v_emissiveUV v_texCoord" + attribute.uvIndex + "\n";
+				prefix.append("#define v_emissiveUV v_texCoord").append(attribute.uvIndex).append("\n");
 				maxUVIndex = Math.max(maxUVIndex, attribute.uvIndex);
 			}
 		}
 		{
 			TextureAttribute attribute = renderable.material.get(TextureAttribute.class, TextureAttribute.Normal);
 			if(attribute != null){
-				prefix += "#define v_normalUV v_texCoord" + attribute.uvIndex + "\n";
+				prefix.append("#define v_normalUV v_texCoord").append(attribute.uvIndex).append("\n");
 				maxUVIndex = Math.max(maxUVIndex, attribute.uvIndex);
 			}
 		}
 		{
 			TextureAttribute attribute = renderable.material.get(TextureAttribute.class, PBRTextureAttribute.MetallicRoughnessTexture);
 			if(attribute != null){
-				prefix += "#define v_metallicRoughnessUV v_texCoord" + attribute.uvIndex + "\n";
+				prefix.append("#define v_metallicRoughnessUV v_texCoord").append(attribute.uvIndex).append("\n");
 				maxUVIndex = Math.max(maxUVIndex, attribute.uvIndex);
 			}
 		}
 		{
 			TextureAttribute attribute = renderable.material.get(TextureAttribute.class, PBRTextureAttribute.OcclusionTexture);
 			if(attribute != null){
-				prefix += "#define v_occlusionUV v_texCoord" + attribute.uvIndex + "\n";
+				prefix.append("#define v_occlusionUV v_texCoord").append(attribute.uvIndex).append("\n");
 				maxUVIndex = Math.max(maxUVIndex, attribute.uvIndex);
 			}
 		}
 		{
 			TextureAttribute attribute = renderable.material.get(TextureAttribute.class, PBRTextureAttribute.TransmissionTexture);
 			if(attribute != null){
-				prefix += "#define v_transmissionUV v_texCoord" + attribute.uvIndex + "\n";
+				prefix.append("#define v_transmissionUV v_texCoord").append(attribute.uvIndex).append("\n");
 				maxUVIndex = Math.max(maxUVIndex, attribute.uvIndex);
 			}
 		}
 		{
 			TextureAttribute attribute = renderable.material.get(TextureAttribute.class, PBRTextureAttribute.ThicknessTexture);
 			if(attribute != null){
-				prefix += "#define v_thicknessUV v_texCoord" + attribute.uvIndex + "\n";
+				prefix.append("#define v_thicknessUV v_texCoord").append(attribute.uvIndex).append("\n");
 				maxUVIndex = Math.max(maxUVIndex, attribute.uvIndex);
 			}
 		}
 		{
 			TextureAttribute attribute = renderable.material.get(TextureAttribute.class, PBRTextureAttribute.SpecularFactorTexture);
 			if(attribute != null){
-				prefix += "#define v_specularFactorUV v_texCoord" + attribute.uvIndex + "\n";
+				prefix.append("#define v_specularFactorUV v_texCoord").append(attribute.uvIndex).append("\n");
 				maxUVIndex = Math.max(maxUVIndex, attribute.uvIndex);
 			}
 		}
 		{
 			TextureAttribute attribute = renderable.material.get(TextureAttribute.class, PBRTextureAttribute.Specular);
 			if(attribute != null){
-				prefix += "#define v_specularColorUV v_texCoord" + attribute.uvIndex + "\n";
+				prefix.append("#define v_specularColorUV v_texCoord").append(attribute.uvIndex).append("\n");
 				maxUVIndex = Math.max(maxUVIndex, attribute.uvIndex);
 			}
 		}
 		{
 			TextureAttribute attribute = renderable.material.get(TextureAttribute.class, PBRTextureAttribute.IridescenceTexture);
 			if(attribute != null){
-				prefix += "#define v_iridescenceUV v_texCoord" + attribute.uvIndex + "\n";
+				prefix.append("#define v_iridescenceUV v_texCoord").append(attribute.uvIndex).append("\n");
 				maxUVIndex = Math.max(maxUVIndex, attribute.uvIndex);
 			}
 		}
 		{
 			TextureAttribute attribute = renderable.material.get(TextureAttribute.class, PBRTextureAttribute.IridescenceThicknessTexture);
 			if(attribute != null){
-				prefix += "#define v_iridescenceThicknessUV v_texCoord" + attribute.uvIndex + "\n";
+				prefix.append("#define v_iridescenceThicknessUV v_texCoord").append(attribute.uvIndex).append("\n");
 				maxUVIndex = Math.max(maxUVIndex, attribute.uvIndex);
 			}
 		}
 		
 		if(maxUVIndex >= 0){
-			prefix += "#define textureFlag\n";
+			prefix.append("#define textureFlag\n");
 		}
 		if(maxUVIndex == 1){
-			prefix += "#define textureCoord1Flag\n";
+			prefix.append("#define textureCoord1Flag\n");
 		}else if(maxUVIndex > 1){
 			throw new GdxRuntimeException("more than 2 texture coordinates attribute not supported");
 		}
@@ -423,14 +615,14 @@ public class PBRShaderProvider extends DefaultShaderProvider
 		// Fog
 		
 		if(renderable.environment != null && renderable.environment.has(FogAttribute.FogEquation)){
-			prefix += "#define fogEquationFlag\n";
+			prefix.append("#define fogEquationFlag\n");
 		}
 		
 		
 		// colors
 		for(VertexAttribute attribute : renderable.meshPart.mesh.getVertexAttributes()){
 			if(attribute.usage == VertexAttributes.Usage.ColorUnpacked){
-				prefix += "#define color" + attribute.unit + "Flag\n";
+				prefix.append("#define color").append(attribute.unit).append("Flag\n");
 			}
 		}
 		
@@ -483,9 +675,13 @@ public class PBRShaderProvider extends DefaultShaderProvider
 			}
 		}
 		
-		PBRShader shader = createShader(renderable, config, prefix);
+		PBRShader shader = createShader(renderable, config, prefix.toString());
 		checkShaderCompilation(shader.program);
 		
+		if(boneTexture != null && renderable.bones != null){
+			shader.setBoneTexture(boneTexture);
+		}
+		
 		// prevent infinite loop (TODO remove this for libgdx 1.9.12+)
 		if(!shader.canRender(renderable)){
 			throw new GdxRuntimeException("cannot render with this shader");
@@ -0,0 +1,494 @@
+package net.mgsx.gltf.scene3d.utils;
+
+import com.badlogic.gdx.math.Frustum;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Dynamic bounding volume hierarchy of axis aligned boxes (binary tree balanced with rotations,
+ * insertion guided by surface area heuristic).
+ * <p>
+ * Leaves store enlarged boxes (by a margin) so that small moves don't require any tree change.
+ * Insert, update and remove are O(log n), queries only visit overlapping branches.
+ * <p>
+ * Nodes are stored in flat arrays, no allocation occurs once capacity is reached.
+ *
+ * @param <T> leaves user data type.
+ */
+public class DynamicBVH<T> {
+
+	/** invalid proxy id */
+	public static final int NULL = -1;
+
+	private final float margin;
+
+	private int root = NULL;
+	private int freeList = NULL;
+	private int leafCount;
+
+	/** min x, y, z, max x, y, z per node */
+	private float[] boxes;
+	/** parent node or next free node */
+	private int[] parents;
+	private int[] children1;
+	private int[] children2;
+	/** 0 for leaves, -1 for free nodes */
+	private int[] heights;
+	private Object[] userData;
+
+	private int[] stack = new int[64];
+
+	/**
+	 * Create a tree with 10 centimeters margin.
+	 */
+	public DynamicBVH() {
+		this(.1f);
+	}
+
+	/**
+	 * @param margin leaves boxes are enlarged by this amount in all directions.
+	 */
+	public DynamicBVH(float margin) {
+		this.margin = margin;
+		allocateNodes(16);
+	}
+
+	private void allocateNodes(int capacity){
+		int oldCapacity = heights == null ? 0 : heights.length;
+		float[] newBoxes = new float[capacity * 6];
+		int[] newParents = new int[capacity];
+		int[] newChildren1 = new int[capacity];
+		int[] newChildren2 = new int[capacity];
+		int[] newHeights = new int[capacity];
+		Object[] newUserData = new Object[capacity];
+		if(oldCapacity > 0){
+			System.arraycopy(boxes, 0, newBoxes, 0, oldCapacity * 6);
+			System.arraycopy(parents, 0, newParents, 0, oldCapacity);
+			System.arraycopy(children1, 0, newChildren1, 0, oldCapacity);
+			System.arraycopy(children2, 0, newChildren2, 0, oldCapacity);
+			System.arraycopy(heights, 0, newHeights, 0, oldCapacity);
+			System.arraycopy(userData, 0, newUserData, 0, oldCapacity);
+		}
+		boxes = newBoxes;
+		parents = newParents;
+		children1 = newChildren1;
+		children2 = newChildren2;
+		heights = newHeights;
+		userData = newUserData;
+
+		// link new nodes into the free list.
+		for(int i=oldCapacity ; i<capacity ; i++){
+			parents[i] = i + 1 < capacity ? i + 1 : freeList;
+			heights[i] = -1;
+		}
+		freeList = oldCapacity;
+	}
+
+	private int allocateNode(){
+		if(freeList == NULL){
+			allocateNodes(heights.length * 2);
+		}
+		int node = freeList;
+		freeList = parents[node];
+		parents[node] = NULL;
+		children1[node] = NULL;
+		children2[node] = NULL;
+		heights[node] = 0;
+		userData[node] = null;
+		return node;
+	}
+
+	private void freeNode(int node){
+		parents[node] = freeList;
+		heights[node] = -1;
+		userData[node] = null;
+		freeList = node;
+	}
+
+	/**
+	 * Insert a leaf.
+	 * @param box leaf bounds, should be valid.
+	 * @param data leaf user data.
+	 * @return proxy id used to update or remove this leaf.
+	 */
+	public int insert(BoundingBox box, T data){
+		int leaf = allocateNode();
+		setFatBox(leaf, box);
+		userData[leaf] = data;
+		insertLeaf(leaf);
+		leafCount++;
+		return leaf;
+	}
+
+	/**
+	 * Remove a leaf.
+	 * @param proxy id returned by {@link #insert(BoundingBox, Object)}
+	 */
+	public void remove(int proxy){
+		removeLeaf(proxy);
+		freeNode(proxy);
+		leafCount--;
+	}
+
+	/**
+	 * Update leaf bounds. Tree is only changed when the new box isn't contained by the enlarged leaf box.
+	 * @param proxy id returned by {@link #insert(BoundingBox, Object)}
+	 * @param box new leaf bounds
+	 * @return true if leaf has been moved in the tree.
+	 */
+	public boolean update(int proxy, BoundingBox box){
+		int o = proxy * 6;
+		if(boxes[o] <= box.min.x && boxes[o+1] <= box.min.y && boxes[o+2] <= box.min.z &&
+			boxes[o+3] >= box.max.x && boxes[o+4] >= box.max.y && boxes[o+5] >= box.max.z){
+			return false;
+		}
+		removeLeaf(proxy);
+		setFatBox(proxy, box);
+		insertLeaf(proxy);
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T getUserData(int proxy){
+		return (T)userData[proxy];
+	}
+
+	/**
+	 * Get a leaf enlarged bounds.
+	 * @param proxy id returned by {@link #insert(BoundingBox, Object)}
+	 * @param out
+	 * @return out for chaining.
+	 */
+	public BoundingBox getBounds(int proxy, BoundingBox out){
+		int o = proxy * 6;
+		return out.inf().ext(boxes[o], boxes[o+1], boxes[o+2]).ext(boxes[o+3], boxes[o+4], boxes[o+5]);
+	}
+
+	/**
+	 * @return number of leaves.
+	 */
+	public int size(){
+		return leafCount;
+	}
+
+	/**
+	 * @return tree height (0 for a single leaf, -1 when empty)
+	 */
+	public int getHeight(){
+		return root == NULL ? -1 : heights[root];
+	}
+
+	/**
+	 * Remove all leaves.
+	 */
+	public void clear(){
+		int capacity = heights.length;
+		for(int i=0 ; i<capacity ; i++){
+			parents[i] = i + 1 < capacity ? i + 1 : NULL;
+			heights[i] = -1;
+			userData[i] = null;
+		}
+		freeList = 0;
+		root = NULL;
+		leafCount = 0;
+	}
+
+	/**
+	 * Collect user data of all leaves which bounds intersect the frustum.
+	 * @param frustum
+	 * @param out results are appended to this array.
+	 */
+	@SuppressWarnings("unchecked")
+	public void query(Frustum frustum, Array<T> out){
+		if(root == NULL) return;
+		int top = 0;
+		stack[top++] = root;
+		while(top > 0){
+			int node = stack[--top];
+			int o = node * 6;
+			float hx = (boxes[o+3] - boxes[o]) * .5f;
+			float hy = (boxes[o+4] - boxes[o+1]) * .5f;
+			float hz = (boxes[o+5] - boxes[o+2]) * .5f;
+			if(!frustum.boundsInFrustum(boxes[o] + hx, boxes[o+1] + hy, boxes[o+2] + hz, hx, hy, hz)) continue;
+			if(children1[node] == NULL){
+				out.add((T)userData[node]);
+			}else{
+				top = push(top, children1[node], children2[node]);
+			}
+		}
+	}
+
+	/**
+	 * Collect user data of all leaves which bounds intersect the box.
+	 * @param box
+	 * @param out results are appended to this array.
+	 */
+	@SuppressWarnings("unchecked")
+	public void query(BoundingBox box, Array<T> out){
+		if(root == NULL) return;
+		int top = 0;
+		stack[top++] = root;
+		while(top > 0){
+			int node = stack[--top];
+			int o = node * 6;
+			if(boxes[o] > box.max.x || boxes[o+1] > box.max.y || boxes[o+2] > box.max.z ||
+				boxes[o+3] < box.min.x || boxes[o+4] < box.min.y || boxes[o+5] < box.min.z) continue;
+			if(children1[node] == NULL){
+				out.add((T)userData[node]);
+			}else{
+				top = push(top, children1[node], children2[node]);
+			}
+		}
+	}
+
+	private int push(int top, int child1, int child2){
+		if(top + 2 > stack.length){
+			int[] newStack = new int[stack.length * 2];
+			System.arraycopy(stack, 0, newStack, 0, top);
+			stack = newStack;
+		}
+		stack[top++] = child1;
+		stack[top++] = child2;
+		return top;
+	}
+
+	private void setFatBox(int node, BoundingBox box){
+		int o = node * 6;
+		boxes[o] = box.min.x - margin;
+		boxes[o+1] = box.min.y - margin;
+		boxes[o+2] = box.min.z - margin;
+		boxes[o+3] = box.max.x + margin;
+		boxes[o+4] = box.max.y + margin;
+		boxes[o+5] = box.max.z + margin;
+	}
+
+	private void setUnion(int node, int a, int b){
+		int o = node * 6, oa = a * 6, ob = b * 6;
+		boxes[o] = Math.min(boxes[oa], boxes[ob]);
+		boxes[o+1] = Math.min(boxes[oa+1], boxes[ob+1]);
+		boxes[o+2] = Math.min(boxes[oa+2], boxes[ob+2]);
+		boxes[o+3] = Math.max(boxes[oa+3], boxes[ob+3]);
+		boxes[o+4] = Math.max(boxes[oa+4], boxes[ob+4]);
+		boxes[o+5] = Math.max(boxes[oa+5], boxes[ob+5]);
+	}
+
+	/** half surface area of a node box */
+	private float area(int node){
+		int o = node * 6;
+		float dx = boxes[o+3] - boxes[o];
+		float dy = boxes[o+4] - boxes[o+1];
+		float dz = boxes[o+5] - boxes[o+2];
+		return dx * dy + dy * dz + dz * dx;
+	}
+
+	/** half surface area of 2 nodes union box */
+	private float unionArea(int a, int b){
+		int oa = a * 6, ob = b * 6;
+		float dx = Math.max(boxes[oa+3], boxes[ob+3]) - Math.min(boxes[oa], boxes[ob]);
+		float dy = Math.max(boxes[oa+4], boxes[ob+4]) - Math.min(boxes[oa+1], boxes[ob+1]);
+		float dz = Math.max(boxes[oa+5], boxes[ob+5]) - Math.min(boxes[oa+2], boxes[ob+2]);
+		return dx * dy + dy * dz + dz * dx;
+	}
+
+	private void insertLeaf(int leaf){
+		if(root == NULL){
+			root = leaf;
+			parents[leaf] = NULL;
+			return;
+		}
+
+		// find best sibling
+		int index = root;
+		while(children1[index] != NULL){
+			int child1 = children1[index];
+			int child2 = children2[index];
+
+			float area = area(index);
+			float combinedArea = unionArea(index, leaf);
+
+			// cost of creating a new parent for this node and the new leaf
+			float cost = 2 * combinedArea;
+
+			// minimum cost of pushing the leaf further down the tree
+			float inheritanceCost = 2 * (combinedArea - area);
+
+			float cost1 = descendCost(child1, leaf) + inheritanceCost;
+			float cost2 = descendCost(child2, leaf) + inheritanceCost;
+
+			if(cost < cost1 && cost < cost2) break;
+
+			index = cost1 < cost2 ? child1 : child2;
+		}
+		int sibling = index;
+
+		// create a new parent
+		int oldParent = parents[sibling];
+		int newParent = allocateNode();
+		parents[newParent] = oldParent;
+		setUnion(newParent, leaf, sibling);
+		heights[newParent] = heights[sibling] + 1;
+		children1[newParent] = sibling;
+		children2[newParent] = leaf;
+		parents[sibling] = newParent;
+		parents[leaf] = newParent;
+
+		if(oldParent != NULL){
+			if(children1[oldParent] == sibling){
+				children1[oldParent] = newParent;
+			}else{
+				children2[oldParent] = newParent;
+			}
+		}else{
+			root = newParent;
+		}
+
+		refit(parents[leaf]);
+	}
+
+	private float descendCost(int child, int leaf){
+		if(children1[child] == NULL){
+			return unionArea(leaf, child);
+		}
+		return unionArea(leaf, child) - area(child);
+	}
+
+	private void removeLeaf(int leaf){
+		if(leaf == root){
+			root = NULL;
+			return;
+		}
+
+		int parent = parents[leaf];
+		int grandParent = parents[parent];
+		int sibling = children1[parent] == leaf ? children2[parent] : children1[parent];
+
+		if(grandParent != NULL){
+			// destroy parent and connect sibling to grand parent.
+			if(children1[grandParent] == parent){
+				children1[grandParent] = sibling;
+			}else{
+				children2[grandParent] = sibling;
+			}
+			parents[sibling] = grandParent;
+			freeNode(parent);
+
+			refit(grandParent);
+		}else{
+			root = sibling;
+			parents[sibling] = NULL;
+			freeNode(parent);
+		}
+	}
+
+	/** walk up the tree from given node fixing heights and boxes, balancing on the way. */
+	private void refit(int index){
+		while(index != NULL){
+			index = balance(index);
+
+			int child1 = children1[index];
+			int child2 = children2[index];
+
+			heights[index] = 1 + Math.max(heights[child1], heights[child2]);
+			setUnion(index, child1, child2);
+
+			index = parents[index];
+		}
+	}
+
+	/**
+	 * Perform a left or right rotation if node A is imbalanced.
+	 * @return the new root of this sub tree.
+	 */
+	private int balance(int iA){
+		if(children1[iA] == NULL || heights[iA] < 2){
+			return iA;
+		}
+
+		int iB = children1[iA];
+		int iC = children2[iA];
+
+		int balance = heights[iC] - heights[iB];
+
+		// rotate C up
+		if(balance > 1){
+			int iF = children1[iC];
+			int iG = children2[iC];
+
+			// swap A and C
+			children1[iC] = iA;
+			parents[iC] = parents[iA];
+			parents[iA] = iC;
+
+			// A's old parent should point to C
+			replaceChild(parents[iC], iA, iC);
+
+			// rotate
+			if(heights[iF] > heights[iG]){
+				children2[iC] = iF;
+				children2[iA] = iG;
+				parents[iG] = iA;
+				setUnion(iA, iB, iG);
+				setUnion(iC, iA, iF);
+				heights[iA] = 1 + Math.max(heights[iB], heights[iG]);
+				heights[iC] = 1 + Math.max(heights[iA], heights[iF]);
+			}else{
+				children2[iC] = iG;
+				children2[iA] = iF;
+				parents[iF] = iA;
+				setUnion(iA, iB, iF);
+				setUnion(iC, iA, iG);
+				heights[iA] = 1 + Math.max(heights[iB], heights[iF]);
+				heights[iC] = 1 + Math.max(heights[iA], heights[iG]);
+			}
+			return iC;
+		}
+
+		// rotate B up
+		if(balance < -1){
+			int iD = children1[iB];
+			int iE = children2[iB];
+
+			// swap A and B
+			children1[iB] = iA;
+			parents[iB] = parents[iA];
+			parents[iA] = iB;
+
+			// A's old parent should point to B
+			replaceChild(parents[iB], iA, iB);
+
+			// rotate
+			if(heights[iD] > heights[iE]){
+				children2[iB] = iD;
+				children1[iA] = iE;
+				parents[iE] = iA;
+				setUnion(iA, iC, iE);
+				setUnion(iB, iA, iD);
+				heights[iA] = 1 + Math.max(heights[iC], heights[iE]);
+				heights[iB] = 1 + Math.max(heights[iA], heights[iD]);
+			}else{
+				children2[iB] = iE;
+				children1[iA] = iD;
+				parents[iD] = iA;
+				setUnion(iA, iC, iD);
+				setUnion(iB, iA, iE);
+				heights[iA] = 1 + Math.max(heights[iC], heights[iD]);
+				heights[iB] = 1 + Math.max(heights[iA], heights[iE]);
+			}
+			return iB;
+		}
+
+		return iA;
+	}
+
+	private void replaceChild(int parent, int oldChild, int newChild){
+		if(parent != NULL){
+			if(children1[parent] == oldChild){
+				children1[parent] = newChild;
+			}else{
+				children2[parent] = newChild;
+			}
+		}else{
+			root = newChild;
+		}
+	}
+}
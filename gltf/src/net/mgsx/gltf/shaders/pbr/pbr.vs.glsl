@@ -98,6 +98,34 @@ uniform vec4 u_morphTargets1;
 uniform vec4 u_morphTargets2;
 #endif
 
+#ifdef morphTextureFlag
+#ifndef morphTargetsFlag
+#define morphTargetsFlag
+#endif
+attribute float a_morphIndex;
+uniform HIGH sampler2D u_morphTexture;
+uniform vec2 u_morphTextureInvSize;
+// weights packed by 4
+uniform vec4 u_morphWeights[(morphTextureTargets + 3) / 4];
+#ifdef GLSL3
+#define morphTexture2D texture
+#else
+#define morphTexture2D texture2D
+#endif
+vec3 getMorphDelta(int target, int offset){
+	// texels are ordered by vertex, target and target attribute. Float math is exact since
+	// texels count is limited to 2^24 and width is a power of two (see MorphTargetsTexture).
+	float texel = (a_morphIndex * float(morphTextureTargets) + float(target)) * float(morphTextureStride) + float(offset);
+	float row = floor((texel + 0.5) * u_morphTextureInvSize.x);
+	float column = texel - row / u_morphTextureInvSize.x;
+	return morphTexture2D(u_morphTexture, (vec2(column, row) + 0.5) * u_morphTextureInvSize).xyz;
+}
+float getMorphWeight(int target){
+	int index = target / 4;
+	return dot(u_morphWeights[index], vec4(equal(ivec4(target - index * 4), ivec4(0, 1, 2, 3))));
+}
+#endif //morphTextureFlag
+
 
 #if defined(colorFlag)
 varying vec4 v_color;
@@ -185,20 +213,63 @@ attribute vec2 a_boneWeight6;
 attribute vec2 a_boneWeight7;
 #endif //boneWeight7Flag
 
-#if defined(numBones) && defined(boneWeightsFlag)
-#if (numBones > 0) 
+#if defined(boneTextureFlag)
+#ifdef boneWeightsFlag
+#define skinningFlag
+#endif
+#elif defined(numBones) && defined(boneWeightsFlag)
+#if (numBones > 0)
 #define skinningFlag
 #endif
 #endif
 
 uniform mat4 u_worldTrans;
 
-#if defined(numBones)
+#ifdef instancedFlag
+attribute vec4 a_instanceTrans0;
+attribute vec4 a_instanceTrans1;
+attribute vec4 a_instanceTrans2;
+attribute vec4 a_instanceTrans3;
+#endif //instancedFlag
+
+#if defined(numBones) && !defined(boneTextureFlag)
 #if numBones > 0
 uniform mat4 u_bones[numBones];
 #endif //numBones
 #endif
 
+#ifdef boneTextureFlag
+uniform HIGH sampler2D u_bonesTexture;
+uniform float u_bonesOffset;
+uniform vec2 u_bonesTextureInvSize;
+#ifdef GLSL3
+#define boneTexture2D texture
+#else
+#define boneTexture2D texture2D
+#endif
+#endif //boneTextureFlag
+
+#ifdef skinningFlag
+mat4 getBoneMatrix(float index){
+#ifdef boneTextureFlag
+	// 4 texels (matrix columns) per bone
+	float bone = u_bonesOffset + index;
+	float bonesPerRow = 0.25 / u_bonesTextureInvSize.x;
+	float row = floor((bone + 0.5) / bonesPerRow);
+	float column = (bone - row * bonesPerRow) * 4.0;
+	vec2 uv = (vec2(column, row) + 0.5) * u_bonesTextureInvSize;
+	float dx = u_bonesTextureInvSize.x;
+	return mat4(
+		boneTexture2D(u_bonesTexture, uv),
+		boneTexture2D(u_bonesTexture, uv + vec2(dx, 0.0)),
+		boneTexture2D(u_bonesTexture, uv + vec2(dx * 2.0, 0.0)),
+		boneTexture2D(u_bonesTexture, uv + vec2(dx * 3.0, 0.0)));
+#else
+	return u_bones[int(index)];
+#endif
+}
+#endif //skinningFlag
+
 #ifdef shadowMapFlag
 uniform mat4 u_shadowMapProjViewTrans;
 varying vec3 v_shadowMapUv;
@@ -225,28 +296,28 @@ void main() {
 	#ifdef skinningFlag
 		mat4 skinning = mat4(0.0);
 		#ifdef boneWeight0Flag
-			skinning += (a_boneWeight0.y) * u_bones[int(a_boneWeight0.x)];
+			skinning += (a_boneWeight0.y) * getBoneMatrix(a_boneWeight0.x);
 		#endif //boneWeight0Flag
 		#ifdef boneWeight1Flag				
-			skinning += (a_boneWeight1.y) * u_bones[int(a_boneWeight1.x)];
+			skinning += (a_boneWeight1.y) * getBoneMatrix(a_boneWeight1.x);
 		#endif //boneWeight1Flag
 		#ifdef boneWeight2Flag		
-			skinning += (a_boneWeight2.y) * u_bones[int(a_boneWeight2.x)];
+			skinning += (a_boneWeight2.y) * getBoneMatrix(a_boneWeight2.x);
 		#endif //boneWeight2Flag
 		#ifdef boneWeight3Flag
-			skinning += (a_boneWeight3.y) * u_bones[int(a_boneWeight3.x)];
+			skinning += (a_boneWeight3.y) * getBoneMatrix(a_boneWeight3.x);
 		#endif //boneWeight3Flag
 		#ifdef boneWeight4Flag
-			skinning += (a_boneWeight4.y) * u_bones[int(a_boneWeight4.x)];
+			skinning += (a_boneWeight4.y) * getBoneMatrix(a_boneWeight4.x);
 		#endif //boneWeight4Flag
 		#ifdef boneWeight5Flag
-			skinning += (a_boneWeight5.y) * u_bones[int(a_boneWeight5.x)];
+			skinning += (a_boneWeight5.y) * getBoneMatrix(a_boneWeight5.x);
 		#endif //boneWeight5Flag
 		#ifdef boneWeight6Flag
-			skinning += (a_boneWeight6.y) * u_bones[int(a_boneWeight6.x)];
+			skinning += (a_boneWeight6.y) * getBoneMatrix(a_boneWeight6.x);
 		#endif //boneWeight6Flag
 		#ifdef boneWeight7Flag
-			skinning += (a_boneWeight7.y) * u_bones[int(a_boneWeight7.x)];
+			skinning += (a_boneWeight7.y) * getBoneMatrix(a_boneWeight7.x);
 		#endif //boneWeight7Flag
 	#endif //skinningFlag
 	
@@ -276,14 +347,27 @@ void main() {
 		#ifdef position7Flag
 			morph_pos += a_position7 * u_morphTargets2.w;
 		#endif
+		#if defined(morphTextureFlag) && defined(morphTexturePositionOffset)
+			for(int i=0 ; i<morphTextureTargets ; i++){
+				morph_pos += getMorphDelta(i, morphTexturePositionOffset) * getMorphWeight(i);
+			}
+		#endif
 	#else
 		vec3 morph_pos = a_position;
 	#endif		
 	
+	#if defined(instancedFlag) && defined(instancedLocalFlag)
+		mat4 worldTrans = u_worldTrans * mat4(a_instanceTrans0, a_instanceTrans1, a_instanceTrans2, a_instanceTrans3);
+	#elif defined(instancedFlag)
+		mat4 worldTrans = mat4(a_instanceTrans0, a_instanceTrans1, a_instanceTrans2, a_instanceTrans3) * u_worldTrans;
+	#else
+		mat4 worldTrans = u_worldTrans;
+	#endif
+	
 	#ifdef skinningFlag
-		vec4 pos = u_worldTrans * skinning * vec4(morph_pos, 1.0);
+		vec4 pos = worldTrans * skinning * vec4(morph_pos, 1.0);
 	#else
-		vec4 pos = u_worldTrans * vec4(morph_pos, 1.0);
+		vec4 pos = worldTrans * vec4(morph_pos, 1.0);
 	#endif
 	
 	v_position = vec3(pos.xyz) / pos.w;
@@ -303,6 +387,16 @@ void main() {
 	
 	#if defined(normalFlag)
 		
+		#ifdef instancedFlag
+			// normal matrix from world matrix cofactors, only its direction matters since normals are normalized.
+			vec3 w0 = worldTrans[0].xyz;
+			vec3 w1 = worldTrans[1].xyz;
+			vec3 w2 = worldTrans[2].xyz;
+			mat3 normalMatrix = mat3(cross(w1, w2), cross(w2, w0), cross(w0, w1)) * sign(dot(w0, cross(w1, w2)));
+		#else
+			mat3 normalMatrix = u_normalMatrix;
+		#endif
+		
 		vec3 morph_nor = a_normal;
 		#ifdef morphTargetsFlag
 			#ifdef normal0Flag
@@ -329,6 +423,11 @@ void main() {
 			#ifdef normal7Flag
 				morph_nor += a_normal7 * u_morphTargets2.w;
 			#endif
+			#if defined(morphTextureFlag) && defined(morphTextureNormalOffset)
+				for(int i=0 ; i<morphTextureTargets ; i++){
+					morph_nor += getMorphDelta(i, morphTextureNormalOffset) * getMorphWeight(i);
+				}
+			#endif
 		#endif	
 		
 		#if defined(skinningFlag)
@@ -366,6 +465,11 @@ void main() {
 				#ifdef tangent7Flag
 					morph_tan += a_tangent7 * u_morphTargets2.w;
 				#endif
+				#if defined(morphTextureFlag) && defined(morphTextureTangentOffset)
+					for(int i=0 ; i<morphTextureTargets ; i++){
+						morph_tan += getMorphDelta(i, morphTextureTangentOffset) * getMorphWeight(i);
+					}
+				#endif
 			#endif	
 			
 			#if defined(skinningFlag)
@@ -375,12 +479,12 @@ void main() {
 			#endif
 			
 			
-			vec3 normalW = normalize(vec3(u_normalMatrix * normal.xyz));
-			vec3 tangentW = normalize(vec3(u_worldTrans * vec4(tangent, 0.0)));
+			vec3 normalW = normalize(vec3(normalMatrix * normal.xyz));
+			vec3 tangentW = normalize(vec3(worldTrans * vec4(tangent, 0.0)));
 			vec3 bitangentW = cross(normalW, tangentW) * a_tangent.w;
 			v_TBN = mat3(tangentW, bitangentW, normalW);
 		#else // tangentFlag != 1
-			v_normal = normalize(vec3(u_normalMatrix * normal.xyz));
+			v_normal = normalize(vec3(normalMatrix * normal.xyz));
 		#endif
 	#endif // normalFlag
 	
@@ -0,0 +1,311 @@
+package net.mgsx.gltf;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.model.Animation;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodeAnimation;
+import com.badlogic.gdx.graphics.g3d.model.NodeKeyframe;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Json;
+
+import net.mgsx.gltf.data.GLTF;
+import net.mgsx.gltf.data.data.GLTFAccessor;
+import net.mgsx.gltf.data.extensions.KHRLightsPunctual;
+import net.mgsx.gltf.data.extensions.KHRLightsPunctual.GLTFLights;
+import net.mgsx.gltf.data.extensions.KHRTextureTransform;
+import net.mgsx.gltf.data.texture.GLTFTextureInfo;
+import net.mgsx.gltf.loaders.shared.GLTFLoaderBase;
+import net.mgsx.gltf.loaders.shared.GLTFTypes;
+import net.mgsx.gltf.loaders.shared.TestAssets;
+import net.mgsx.gltf.loaders.shared.animation.Interpolation;
+import net.mgsx.gltf.loaders.shared.data.DataFileResolver;
+import net.mgsx.gltf.loaders.shared.data.DataResolver;
+import net.mgsx.gltf.scene3d.animation.AnimationControllerHack;
+import net.mgsx.gltf.scene3d.animation.NodeAnimationHack;
+import net.mgsx.gltf.scene3d.animation.PackedTrack;
+import net.mgsx.gltf.scene3d.model.CubicQuaternion;
+import net.mgsx.gltf.scene3d.model.CubicVector3;
+import net.mgsx.gltf.scene3d.model.ModelInstanceHack;
+import net.mgsx.gltf.scene3d.model.NodePlus;
+
+/**
+ * Runs the same work from several threads at once, each thread with its own instances
+ * (or sharing instances documented as thread safe), and checks results against a sequential run.
+ */
+public class ConcurrencyStressTest {
+
+	private static final int THREADS = 8;
+	private static final int ROUNDS = 20;
+	private static final int NODES = 32;
+	private static final int STEPS = 100;
+	private static final int LIGHTS = 64;
+	private static final int MATERIALS = 64;
+
+	@Test
+	public void testConcurrentAnimationControllers() throws Exception {
+		final Model model = createModel();
+		final float[][] expected = animate(model);
+
+		runConcurrently(new Callable<Boolean>() {
+			@Override
+			public Boolean call() throws Exception {
+				for(int round=0 ; round<ROUNDS ; round++){
+					float[][] result = animate(model);
+					for(int i=0 ; i<expected.length ; i++){
+						Assert.assertArrayEquals(expected[i], result[i], 0f);
+					}
+				}
+				return true;
+			}
+		});
+	}
+
+	@Test
+	public void testConcurrentExtensionsParsing() throws Exception {
+		final String json = createJson();
+
+		runConcurrently(new Callable<Boolean>() {
+			@Override
+			public Boolean call() throws Exception {
+				for(int round=0 ; round<ROUNDS ; round++){
+					GLTF glModel = new Json().fromJson(GLTF.class, json);
+					GLTFLights lights = glModel.extensions.get(GLTFLights.class, KHRLightsPunctual.EXT);
+					Assert.assertEquals(LIGHTS, lights.lights.size);
+					for(int i=0 ; i<LIGHTS ; i++){
+						Assert.assertEquals(i, lights.lights.get(i).intensity, 0f);
+					}
+				}
+				return true;
+			}
+		});
+	}
+
+	@Test
+	public void testSharedModelExtensionsParsing() throws Exception {
+		final String json = createMaterialsJson();
+
+		for(int round=0 ; round<ROUNDS ; round++){
+			// extensions of a same model are parsed lazily by concurrent loading tasks, each thread starting with a different material.
+			final GLTF glModel = new Json().fromJson(GLTF.class, json);
+			final AtomicInteger thread = new AtomicInteger();
+			runConcurrently(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					int offset = thread.getAndIncrement() * MATERIALS / THREADS;
+					for(int i=0 ; i<MATERIALS ; i++){
+						int index = (i + offset) % MATERIALS;
+						GLTFTextureInfo normalTexture = glModel.materials.get(index).normalTexture;
+						KHRTextureTransform ext = normalTexture.extensions.get(KHRTextureTransform.class, KHRTextureTransform.EXT);
+						Assert.assertEquals(index, ext.texCoord.intValue());
+					}
+					return true;
+				}
+			});
+		}
+	}
+
+	@Test
+	public void testConcurrentLoaders() throws Exception {
+		final Array<float[]> expected = new PreparedLoader().prepare(TestAssets.createMorphAnimated());
+
+		runConcurrently(new Callable<Boolean>() {
+			@Override
+			public Boolean call() throws Exception {
+				for(int round=0 ; round<ROUNDS ; round++){
+					assertSame(expected, new PreparedLoader().prepare(TestAssets.createMorphAnimated()));
+				}
+				return true;
+			}
+		});
+	}
+
+	@Test
+	public void testSharedDataResolver() throws Exception {
+		final GLTF glModel = TestAssets.createMorphAnimated().getRoot();
+		final Array<float[]> expected = readAccessors(glModel, new DataResolver(glModel, TestAssets.createMorphAnimated()));
+		
+		for(int round=0 ; round<ROUNDS ; round++){
+			// cache disabled every other round so that accessors are decoded by all threads.
+			final DataResolver dataResolver = new DataResolver(glModel, TestAssets.createMorphAnimated());
+			if(round % 2 == 1) dataResolver.setCacheSize(0);
+			runConcurrently(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					assertSame(expected, readAccessors(glModel, dataResolver));
+					return true;
+				}
+			});
+		}
+	}
+
+	private static void assertSame(Array<float[]> expected, Array<float[]> result){
+		Assert.assertEquals(expected.size, result.size);
+		for(int i=0 ; i<expected.size ; i++){
+			Assert.assertArrayEquals(expected.get(i), result.get(i), 0f);
+		}
+	}
+
+	/** read all float accessors, both decoded and as raw buffers */
+	private static Array<float[]> readAccessors(GLTF glModel, DataResolver dataResolver){
+		Array<float[]> result = new Array<float[]>();
+		for(int i=0 ; i<glModel.accessors.size ; i++){
+			GLTFAccessor accessor = dataResolver.getAccessor(i);
+			if(accessor.componentType != GLTFTypes.C_FLOAT) continue;
+			result.add(dataResolver.readBufferFloat(i));
+			FloatBuffer buffer = dataResolver.getBufferFloat(accessor);
+			float[] raw = new float[accessor.count * GLTFTypes.accessorTypeSize(accessor)];
+			buffer.get(raw);
+			result.add(raw);
+		}
+		return result;
+	}
+
+	/** prepare a model (CPU side only) and collect decoded data */
+	private static class PreparedLoader extends GLTFLoaderBase {
+		Array<float[]> prepare(DataFileResolver dataFileResolver){
+			setPackedAnimations(true);
+			prepare(dataFileResolver, false);
+			Array<float[]> result = readAccessors(glModel, dataResolver);
+			for(int i=0 ; i<glModel.nodes.size ; i++){
+				NodePlus node = (NodePlus)nodeResolver.get(i);
+				result.add(new float[]{node.translation.x, node.translation.y, node.translation.z, node.weights.count});
+			}
+			for(Animation animation : animationLoader.animations){
+				for(NodeAnimation nodeAnimation : animation.nodeAnimations){
+					NodeAnimationHack nodeAnimationHack = (NodeAnimationHack)nodeAnimation;
+					PackedTrack track = nodeAnimationHack.weightsTrack != null ? nodeAnimationHack.weightsTrack : nodeAnimationHack.translationTrack;
+					result.add(track.times);
+					result.add(track.values);
+				}
+			}
+			dispose();
+			return result;
+		}
+	}
+
+	private static void runConcurrently(final Callable<Boolean> task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try{
+			final CountDownLatch start = new CountDownLatch(1);
+			List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+			for(int i=0 ; i<THREADS ; i++){
+				futures.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						start.await();
+						return task.call();
+					}
+				}));
+			}
+			start.countDown();
+			for(Future<Boolean> future : futures){
+				// rethrows assertion errors from worker threads.
+				Assert.assertTrue(future.get());
+			}
+		}finally{
+			executor.shutdownNow();
+		}
+	}
+
+	/** play a transition from linear animation to cubic animation and collect local transforms at each step */
+	private static float[][] animate(Model model){
+		ModelInstanceHack instance = new ModelInstanceHack(model);
+		AnimationControllerHack controller = new AnimationControllerHack(instance);
+		controller.animate("linear", -1, 1f, null, 0f);
+		controller.update(0.01f);
+		controller.animate("cubic", -1, 1f, null, STEPS * 0.005f);
+
+		float[][] result = new float[STEPS * NODES][];
+		for(int step=0 ; step<STEPS ; step++){
+			controller.update(0.01f);
+			for(int i=0 ; i<NODES ; i++){
+				result[step * NODES + i] = instance.nodes.get(i).localTransform.val.clone();
+			}
+		}
+		return result;
+	}
+
+	private static Model createModel(){
+		Model model = new Model();
+		for(int i=0 ; i<NODES ; i++){
+			Node node = new NodePlus();
+			node.id = "node" + i;
+			model.nodes.add(node);
+		}
+		model.animations.add(createAnimation(model, "linear", Interpolation.LINEAR));
+		model.animations.add(createAnimation(model, "cubic", Interpolation.CUBICSPLINE));
+		return model;
+	}
+
+	private static Animation createAnimation(Model model, String id, Interpolation interpolation){
+		Animation animation = new Animation();
+		animation.id = id;
+		animation.duration = 2f;
+		for(int i=0 ; i<NODES ; i++){
+			NodeAnimationHack nodeAnimation = new NodeAnimationHack();
+			nodeAnimation.node = model.nodes.get(i);
+			nodeAnimation.translationMode = interpolation;
+			nodeAnimation.rotationMode = interpolation;
+			nodeAnimation.scalingMode = interpolation;
+			nodeAnimation.translation = new Array<NodeKeyframe<Vector3>>();
+			nodeAnimation.rotation = new Array<NodeKeyframe<Quaternion>>();
+			for(int k=0 ; k<=4 ; k++){
+				float time = k * 0.5f;
+				Vector3 translation = interpolation == Interpolation.CUBICSPLINE ? new CubicVector3() : new Vector3();
+				translation.set(i, k, i * k);
+				Quaternion rotation = interpolation == Interpolation.CUBICSPLINE ? new CubicQuaternion() : new Quaternion();
+				rotation.setEulerAngles(i * 10, k * 20, 0);
+				if(interpolation == Interpolation.CUBICSPLINE){
+					((CubicVector3)translation).tangentIn.set(1, 0, 0);
+					((CubicVector3)translation).tangentOut.set(0, 1, 0);
+					((CubicQuaternion)rotation).tangentIn.set(0.1f, 0, 0, 0);
+					((CubicQuaternion)rotation).tangentOut.set(0, 0.1f, 0, 0);
+				}
+				nodeAnimation.translation.add(new NodeKeyframe<Vector3>(time, translation));
+				nodeAnimation.rotation.add(new NodeKeyframe<Quaternion>(time, rotation));
+			}
+			animation.nodeAnimations.add(nodeAnimation);
+		}
+		return animation;
+	}
+
+	private static String createJson(){
+		StringBuilder json = new StringBuilder();
+		json.append("{\"asset\":{\"version\":\"2.0\"},\"extensionsUsed\":[\"").append(KHRLightsPunctual.EXT).append("\"],");
+		json.append("\"extensions\":{\"").append(KHRLightsPunctual.EXT).append("\":{\"lights\":[");
+		for(int i=0 ; i<LIGHTS ; i++){
+			if(i > 0) json.append(",");
+			json.append("{\"type\":\"point\",\"intensity\":").append(i).append("}");
+		}
+		json.append("]}}}");
+		return json.toString();
+	}
+
+	private static String createMaterialsJson(){
+		StringBuilder json = new StringBuilder();
+		json.append("{\"asset\":{\"version\":\"2.0\"},\"extensionsUsed\":[\"").append(KHRTextureTransform.EXT).append("\"],");
+		json.append("\"materials\":[");
+		for(int i=0 ; i<MATERIALS ; i++){
+			if(i > 0) json.append(",");
+			json.append("{\"normalTexture\":{\"index\":0,\"extensions\":{\"").append(KHRTextureTransform.EXT);
+			json.append("\":{\"texCoord\":").append(i).append(",\"scale\":[").append(i).append(",1]}}}}");
+		}
+		json.append("]}");
+		return json.toString();
+	}
+}
@@ -0,0 +1,166 @@
+package net.mgsx.gltf.loaders.shared;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.g3d.model.Animation;
+import com.badlogic.gdx.graphics.g3d.model.NodeAnimation;
+import com.badlogic.gdx.utils.Array;
+
+import net.mgsx.gltf.data.GLTF;
+import net.mgsx.gltf.data.scene.GLTFSkin;
+import net.mgsx.gltf.loaders.shared.data.DataFileResolver;
+import net.mgsx.gltf.scene3d.animation.NodeAnimationHack;
+import net.mgsx.gltf.scene3d.model.NodePlus;
+import net.mgsx.gltf.scene3d.scene.SceneAsset;
+
+public class GLTFLoaderBaseTest {
+
+	private MockGL gl;
+
+	@Before
+	public void setUp(){
+		gl = MockGL.install();
+	}
+
+	@After
+	public void tearDown(){
+		gl.uninstall();
+	}
+
+	@Test
+	public void testUploadSteps(){
+		GLTFLoaderBase loader = new GLTFLoaderBase();
+		loader.prepare(TestAssets.createTextured(2), false);
+		// 2 textures, all materials, 2 nodes meshes and final asset.
+		Assert.assertEquals(2 + 1 + 2 + 1, loader.getUploadSteps());
+		
+		for(int step=0 ; step<2 ; step++){
+			Assert.assertFalse(loader.uploadStep());
+			Assert.assertEquals(step + 1, gl.getCalls("glGenTexture"));
+		}
+		Assert.assertFalse(loader.uploadStep());
+		Assert.assertEquals(0, gl.getCalls("glGenBuffer"));
+		for(int step=0 ; step<2 ; step++){
+			Assert.assertFalse(loader.uploadStep());
+			// vertex and index buffers
+			Assert.assertEquals((step + 1) * 2, gl.getCalls("glGenBuffer"));
+		}
+		Assert.assertNull(loader.getAsset());
+		Assert.assertTrue(loader.uploadStep());
+		Assert.assertEquals(loader.getUploadSteps(), loader.getUploadedSteps());
+		
+		SceneAsset asset = loader.getAsset();
+		Assert.assertNotNull(asset);
+		Assert.assertEquals(2, asset.textures.size);
+		Assert.assertEquals(2, asset.meshes.size);
+		
+		// further steps do nothing
+		Assert.assertTrue(loader.uploadStep());
+		Assert.assertEquals(loader.getUploadSteps(), loader.getUploadedSteps());
+		Assert.assertSame(asset, loader.getAsset());
+		Assert.assertEquals(2, gl.getCalls("glGenTexture"));
+		Assert.assertEquals(4, gl.getCalls("glGenBuffer"));
+		
+		asset.dispose();
+		Assert.assertEquals(2, gl.getCalls("glDeleteTexture"));
+		Assert.assertEquals(4, gl.getCalls("glDeleteBuffer"));
+	}
+
+	@Test
+	public void testLoad(){
+		// meshes are decoded while uploading when loading without executor.
+		SceneAsset asset = new GLTFLoaderBase().load(TestAssets.createTextured(2), false);
+		Assert.assertEquals(2, asset.textures.size);
+		Assert.assertEquals(2, asset.meshes.size);
+		Assert.assertEquals(2, asset.scene.model.nodes.size);
+		Assert.assertEquals(1, asset.scene.model.nodes.get(0).parts.size);
+		asset.dispose();
+	}
+
+	@Test
+	public void testDisposeOnFailure(){
+		DataFileResolver dataFileResolver = TestAssets.createTextured(2);
+		// skin with missing inverse bind matrices, only resolved when creating the final asset.
+		GLTF glModel = dataFileResolver.getRoot();
+		GLTFSkin glSkin = new GLTFSkin();
+		glSkin.joints = new Array<Integer>();
+		glSkin.joints.add(0);
+		glSkin.inverseBindMatrices = glModel.accessors.size;
+		glModel.skins = new Array<GLTFSkin>();
+		glModel.skins.add(glSkin);
+		glModel.nodes.get(0).skin = 0;
+		
+		GLTFLoaderBase loader = new GLTFLoaderBase();
+		loader.prepare(dataFileResolver, false);
+		try{
+			loader.upload();
+			Assert.fail("exception expected");
+		}catch(RuntimeException e){
+			// expected
+		}
+		Assert.assertNull(loader.getAsset());
+		Assert.assertEquals(loader.getUploadSteps() - 1, loader.getUploadedSteps());
+		
+		// textures and meshes created by previous steps are released.
+		Assert.assertEquals(2, gl.getCalls("glGenTexture"));
+		Assert.assertEquals(2, gl.getCalls("glDeleteTexture"));
+		Assert.assertEquals(4, gl.getCalls("glGenBuffer"));
+		Assert.assertEquals(4, gl.getCalls("glDeleteBuffer"));
+	}
+
+	@Test
+	public void testMorphAnimation(){
+		GLTFLoaderBase loader = prepareMorphAnimated(false);
+		NodeAnimationHack nodeAnimation = getNodeAnimation(loader, 0);
+		Assert.assertEquals(2, nodeAnimation.weights.size);
+		for(int k=0 ; k<nodeAnimation.weights.size ; k++){
+			Assert.assertEquals(TestAssets.MORPH_TARGETS, nodeAnimation.weights.get(k).value.count);
+			for(int i=0 ; i<TestAssets.MORPH_TARGETS ; i++){
+				Assert.assertEquals(TestAssets.MORPH_WEIGHTS[k * TestAssets.MORPH_TARGETS + i], nodeAnimation.weights.get(k).value.values[i], 0f);
+			}
+		}
+		loader.dispose();
+	}
+
+	@Test
+	public void testPackedMorphAnimation(){
+		GLTFLoaderBase loader = prepareMorphAnimated(true);
+		NodeAnimationHack nodeAnimation = getNodeAnimation(loader, 0);
+		Assert.assertEquals(TestAssets.MORPH_TARGETS, nodeAnimation.weightsTrack.components);
+		Assert.assertArrayEquals(TestAssets.MORPH_WEIGHTS, nodeAnimation.weightsTrack.values, 0f);
+		loader.dispose();
+	}
+
+	@Test
+	public void testSharedMeshWeights(){
+		GLTFLoaderBase loader = prepareMorphAnimated(false);
+		// both nodes have their own weights even if the mesh is only loaded once.
+		NodePlus first = (NodePlus)loader.nodeResolver.get(0);
+		NodePlus second = (NodePlus)loader.nodeResolver.get(1);
+		Assert.assertEquals(TestAssets.MORPH_TARGETS, first.weights.count);
+		Assert.assertEquals(TestAssets.MORPH_TARGETS, second.weights.count);
+		Assert.assertNotSame(first.weights, second.weights);
+		loader.dispose();
+	}
+
+	/** morph weights are required by animations which are loaded before meshes are uploaded */
+	private static GLTFLoaderBase prepareMorphAnimated(boolean packed){
+		GLTFLoaderBase loader = new GLTFLoaderBase();
+		loader.setPackedAnimations(packed);
+		loader.prepare(TestAssets.createMorphAnimated(), false);
+		return loader;
+	}
+
+	private static NodeAnimationHack getNodeAnimation(GLTFLoaderBase loader, int id){
+		Animation animation = loader.animationLoader.animations.first();
+		for(NodeAnimation nodeAnimation : animation.nodeAnimations){
+			if(nodeAnimation.node == loader.nodeResolver.get(id)){
+				return (NodeAnimationHack)nodeAnimation;
+			}
+		}
+		throw new AssertionError("node animation not found");
+	}
+}
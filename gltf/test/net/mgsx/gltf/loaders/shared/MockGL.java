@@ -0,0 +1,95 @@
+package net.mgsx.gltf.loaders.shared;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * GL20 context without display for tests creating GPU resources: calls do nothing and are counted by method name,
+ * handles are generated from a counter. GL30 is only available when requested.
+ * Application and Graphics are mocked the same way (no extension supported, log calls ignored).
+ */
+public class MockGL implements InvocationHandler {
+
+	private final ObjectIntMap<String> calls = new ObjectIntMap<String>();
+	private int handles;
+
+	private Application app;
+	private Graphics graphics;
+	private GL20 gl20;
+	private GL30 gl30;
+
+	/**
+	 * Replace Gdx context by mocks, natives are loaded as well (buffers and pixmaps).
+	 * {@link #uninstall()} has to be called to restore previous context.
+	 */
+	public static MockGL install(){
+		return install(false);
+	}
+
+	/**
+	 * @param gl30 whether GL30 is available, see {@link #install()}.
+	 */
+	public static MockGL install(boolean gl30){
+		GdxNativesLoader.load();
+		MockGL mock = new MockGL();
+		mock.app = Gdx.app;
+		mock.graphics = Gdx.graphics;
+		mock.gl20 = Gdx.gl20;
+		mock.gl30 = Gdx.gl30;
+		Gdx.app = mock.create(Application.class);
+		Gdx.graphics = mock.create(Graphics.class);
+		if(gl30){
+			Gdx.gl = Gdx.gl20 = Gdx.gl30 = mock.create(GL30.class);
+		}else{
+			Gdx.gl = Gdx.gl20 = mock.create(GL20.class);
+			Gdx.gl30 = null;
+		}
+		return mock;
+	}
+
+	public void uninstall(){
+		Gdx.app = app;
+		Gdx.graphics = graphics;
+		Gdx.gl = Gdx.gl20 = gl20;
+		Gdx.gl30 = gl30;
+	}
+
+	/**
+	 * @return number of calls of a method, eg. "glDeleteBuffer".
+	 */
+	public synchronized int getCalls(String method){
+		return calls.get(method, 0);
+	}
+
+	private <T> T create(Class<T> type){
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, this));
+	}
+
+	@Override
+	public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+		// proxies are used as map keys (eg. managed meshes per application).
+		if(name.equals("hashCode")) return System.identityHashCode(proxy);
+		if(name.equals("equals")) return proxy == args[0];
+		if(name.equals("toString")) return "mock " + proxy.getClass().getInterfaces()[0].getSimpleName();
+
+		calls.getAndIncrement(name, 0, 1);
+
+		Class<?> type = method.getReturnType();
+		if(type == int.class) return name.startsWith("glGen") || name.startsWith("glCreate") ? ++handles : 0;
+		if(type == boolean.class) return false;
+		if(type == float.class) return 0f;
+		if(type == long.class) return 0L;
+		if(type == String.class) return "";
+		return null;
+	}
+}
@@ -0,0 +1,64 @@
+package net.mgsx.gltf.loaders.shared;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SceneAssetUploaderTest {
+
+	private MockGL gl;
+
+	@Before
+	public void setUp(){
+		gl = MockGL.install();
+	}
+
+	@After
+	public void tearDown(){
+		gl.uninstall();
+	}
+
+	@Test
+	public void testStepsProgress(){
+		GLTFLoaderBase loader = new GLTFLoaderBase();
+		loader.prepare(TestAssets.createTextured(3), false);
+		SceneAssetUploader uploader = new SceneAssetUploader(loader);
+		
+		// 3 textures, all materials, 3 nodes meshes and final asset.
+		int steps = 3 + 1 + 3 + 1;
+		Assert.assertEquals(steps, loader.getUploadSteps());
+		Assert.assertEquals(0f, uploader.getProgress(), 0f);
+		
+		// a single step is performed when budget is exhausted.
+		for(int step=1 ; step<steps ; step++){
+			Assert.assertFalse(uploader.step(0));
+			Assert.assertFalse(uploader.isDone());
+			Assert.assertNull(uploader.getAsset());
+			Assert.assertEquals((float)step / steps, uploader.getProgress(), 1e-6f);
+		}
+		Assert.assertTrue(uploader.step(0));
+		Assert.assertTrue(uploader.isDone());
+		Assert.assertEquals(1f, uploader.getProgress(), 0f);
+		Assert.assertNotNull(uploader.getAsset());
+		Assert.assertSame(loader.getAsset(), uploader.getAsset());
+		Assert.assertTrue(uploader.getMaxStepTime() >= 0);
+		
+		// nothing more is uploaded once done.
+		Assert.assertTrue(uploader.step(0));
+		Assert.assertEquals(steps, loader.getUploadedSteps());
+		Assert.assertEquals(3, gl.getCalls("glGenTexture"));
+		
+		uploader.getAsset().dispose();
+	}
+
+	@Test
+	public void testLargeBudget(){
+		GLTFLoaderBase loader = new GLTFLoaderBase();
+		loader.prepare(TestAssets.createTextured(3), false);
+		SceneAssetUploader uploader = new SceneAssetUploader(loader);
+		Assert.assertTrue(uploader.step(60000));
+		Assert.assertEquals(loader.getUploadSteps(), loader.getUploadedSteps());
+		uploader.getAsset().dispose();
+	}
+}
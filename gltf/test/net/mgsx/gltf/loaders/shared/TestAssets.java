@@ -0,0 +1,143 @@
+package net.mgsx.gltf.loaders.shared;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.utils.Json;
+
+import net.mgsx.gltf.data.GLTF;
+import net.mgsx.gltf.data.texture.GLTFImage;
+import net.mgsx.gltf.loaders.shared.data.DataFileResolver;
+
+/**
+ * In memory glTF assets for loader tests.
+ */
+public class TestAssets {
+
+	/** morph targets count of the morph animated asset mesh */
+	public static final int MORPH_TARGETS = 2;
+
+	/** keyframes of the morph animated asset, each one having 2 weights */
+	public static final float[] MORPH_WEIGHTS = {0, 0, 1, .5f};
+
+	private static final String MORPH_ANIMATED_JSON =
+		"{\"asset\":{\"version\":\"2.0\"}," +
+		"\"buffers\":[{\"byteLength\":224}]," +
+		"\"bufferViews\":[{\"buffer\":0,\"byteLength\":224}]," +
+		"\"accessors\":[" +
+			"{\"bufferView\":0,\"byteOffset\":0,\"componentType\":5126,\"count\":3,\"type\":\"VEC3\",\"min\":[0,0,0],\"max\":[1,1,0]}," +
+			"{\"bufferView\":0,\"byteOffset\":36,\"componentType\":5126,\"count\":3,\"type\":\"VEC3\"}," +
+			"{\"bufferView\":0,\"byteOffset\":72,\"componentType\":5126,\"count\":3,\"type\":\"VEC2\"}," +
+			"{\"bufferView\":0,\"byteOffset\":96,\"componentType\":5123,\"count\":3,\"type\":\"SCALAR\"}," +
+			"{\"bufferView\":0,\"byteOffset\":104,\"componentType\":5126,\"count\":3,\"type\":\"VEC3\",\"min\":[0,0,0],\"max\":[0,0,1]}," +
+			"{\"bufferView\":0,\"byteOffset\":140,\"componentType\":5126,\"count\":3,\"type\":\"VEC3\",\"min\":[0,0,0],\"max\":[1,0,0]}," +
+			"{\"bufferView\":0,\"byteOffset\":176,\"componentType\":5126,\"count\":2,\"type\":\"SCALAR\",\"min\":[0],\"max\":[1]}," +
+			"{\"bufferView\":0,\"byteOffset\":184,\"componentType\":5126,\"count\":4,\"type\":\"SCALAR\"}," +
+			"{\"bufferView\":0,\"byteOffset\":200,\"componentType\":5126,\"count\":2,\"type\":\"VEC3\"}]," +
+		"\"meshes\":[{\"name\":\"morph\",\"primitives\":[{\"attributes\":{\"POSITION\":0,\"NORMAL\":1,\"TEXCOORD_0\":2},\"indices\":3," +
+			"\"targets\":[{\"POSITION\":4},{\"POSITION\":5}]}],\"weights\":[0,0]}]," +
+		"\"nodes\":[{\"name\":\"morph\",\"mesh\":0},{\"name\":\"shared\",\"mesh\":0,\"translation\":[1,0,0]}]," +
+		"\"scenes\":[{\"nodes\":[0,1]}],\"scene\":0," +
+		"\"animations\":[{\"name\":\"anim\",\"channels\":[" +
+			"{\"sampler\":0,\"target\":{\"node\":0,\"path\":\"weights\"}}," +
+			"{\"sampler\":1,\"target\":{\"node\":1,\"path\":\"translation\"}}]," +
+			"\"samplers\":[{\"input\":6,\"output\":7},{\"input\":6,\"output\":8}]}]}";
+
+	/**
+	 * Create a single triangle mesh having 2 morph targets, used by 2 nodes:
+	 * first one has a morph weights animation, second one has a translation animation.
+	 * Each resolver has its own glTF model.
+	 */
+	public static DataFileResolver createMorphAnimated(){
+		ByteBuffer buffer = ByteBuffer.allocate(224).order(ByteOrder.LITTLE_ENDIAN);
+		putTriangle(buffer);
+		// morph targets displacements
+		putFloats(buffer, 0, 0, 1, 0, 0, 1, 0, 0, 1);
+		putFloats(buffer, 1, 0, 0, 1, 0, 0, 1, 0, 0);
+		// animation times, weights and translations
+		putFloats(buffer, 0, 1);
+		putFloats(buffer, MORPH_WEIGHTS);
+		putFloats(buffer, 0, 0, 0, 0, 2, 0);
+		buffer.flip();
+
+		return createResolver(new Json().fromJson(GLTF.class, MORPH_ANIMATED_JSON), buffer);
+	}
+
+	/**
+	 * Create an asset having given number of textures (each one having its own image), each texture is used by a material
+	 * and each material by a mesh having its own node. Meshes share the same triangle geometry.
+	 * Images are decoded as 1x1 pixmaps.
+	 */
+	public static DataFileResolver createTextured(int count){
+		StringBuilder json = new StringBuilder();
+		json.append("{\"asset\":{\"version\":\"2.0\"},");
+		json.append("\"buffers\":[{\"byteLength\":104}],");
+		json.append("\"bufferViews\":[{\"buffer\":0,\"byteLength\":104}],");
+		json.append("\"accessors\":[");
+		json.append("{\"bufferView\":0,\"byteOffset\":0,\"componentType\":5126,\"count\":3,\"type\":\"VEC3\",\"min\":[0,0,0],\"max\":[1,1,0]},");
+		json.append("{\"bufferView\":0,\"byteOffset\":36,\"componentType\":5126,\"count\":3,\"type\":\"VEC3\"},");
+		json.append("{\"bufferView\":0,\"byteOffset\":72,\"componentType\":5126,\"count\":3,\"type\":\"VEC2\"},");
+		json.append("{\"bufferView\":0,\"byteOffset\":96,\"componentType\":5123,\"count\":3,\"type\":\"SCALAR\"}],");
+		StringBuilder images = new StringBuilder(), textures = new StringBuilder(), materials = new StringBuilder();
+		StringBuilder meshes = new StringBuilder(), nodes = new StringBuilder(), sceneNodes = new StringBuilder();
+		for(int i=0 ; i<count ; i++){
+			String separator = i > 0 ? "," : "";
+			images.append(separator).append("{\"uri\":\"image").append(i).append(".png\"}");
+			textures.append(separator).append("{\"source\":").append(i).append("}");
+			materials.append(separator).append("{\"pbrMetallicRoughness\":{\"baseColorTexture\":{\"index\":").append(i).append("}}}");
+			meshes.append(separator).append("{\"primitives\":[{\"attributes\":{\"POSITION\":0,\"NORMAL\":1,\"TEXCOORD_0\":2},\"indices\":3,\"material\":").append(i).append("}]}");
+			nodes.append(separator).append("{\"name\":\"node").append(i).append("\",\"mesh\":").append(i).append("}");
+			sceneNodes.append(separator).append(i);
+		}
+		json.append("\"images\":[").append(images).append("],");
+		json.append("\"textures\":[").append(textures).append("],");
+		json.append("\"materials\":[").append(materials).append("],");
+		json.append("\"meshes\":[").append(meshes).append("],");
+		json.append("\"nodes\":[").append(nodes).append("],");
+		json.append("\"scenes\":[{\"nodes\":[").append(sceneNodes).append("]}],\"scene\":0}");
+		
+		ByteBuffer buffer = ByteBuffer.allocate(104).order(ByteOrder.LITTLE_ENDIAN);
+		putTriangle(buffer);
+		buffer.flip();
+		
+		return createResolver(new Json().fromJson(GLTF.class, json.toString()), buffer);
+	}
+
+	private static void putTriangle(ByteBuffer buffer){
+		// positions
+		putFloats(buffer, 0, 0, 0, 1, 0, 0, 0, 1, 0);
+		// normals
+		putFloats(buffer, 0, 0, 1, 0, 0, 1, 0, 0, 1);
+		// texture coordinates
+		putFloats(buffer, 0, 0, 1, 0, 0, 1);
+		// indices (padded to 4 bytes)
+		buffer.putShort((short)0).putShort((short)1).putShort((short)2).putShort((short)0);
+	}
+
+	private static void putFloats(ByteBuffer buffer, float...values){
+		for(float value : values) buffer.putFloat(value);
+	}
+
+	private static DataFileResolver createResolver(final GLTF glModel, final ByteBuffer buffer){
+		return new DataFileResolver() {
+			@Override
+			public void load(FileHandle file) {
+			}
+			@Override
+			public GLTF getRoot() {
+				return glModel;
+			}
+			@Override
+			public ByteBuffer getBuffer(int index) {
+				return buffer;
+			}
+			@Override
+			public Pixmap load(GLTFImage glImage) {
+				return new Pixmap(1, 1, Format.RGBA8888);
+			}
+		};
+	}
+}
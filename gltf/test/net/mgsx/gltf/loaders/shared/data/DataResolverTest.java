@@ -0,0 +1,131 @@
+package net.mgsx.gltf.loaders.shared.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.Array;
+
+import net.mgsx.gltf.data.GLTF;
+import net.mgsx.gltf.data.GLTFExtensions;
+import net.mgsx.gltf.data.data.GLTFAccessor;
+import net.mgsx.gltf.data.data.GLTFBufferView;
+import net.mgsx.gltf.data.extensions.EXTMeshoptCompression;
+import net.mgsx.gltf.data.texture.GLTFImage;
+import net.mgsx.gltf.loaders.shared.GLTFTypes;
+
+public class DataResolverTest {
+
+	private static DataResolver createResolver(){
+		final ByteBuffer buffer = ByteBuffer.allocate(6 * 4).order(ByteOrder.LITTLE_ENDIAN);
+		for(int i=0 ; i<6 ; i++) buffer.putFloat(i);
+		buffer.flip();
+		
+		// 2 scalar accessors on the same data
+		return createResolver(buffer, createAccessor(GLTFTypes.C_FLOAT, false, 6), createAccessor(GLTFTypes.C_FLOAT, false, 6));
+	}
+	
+	private static GLTFAccessor createAccessor(int componentType, boolean normalized, int count){
+		GLTFAccessor accessor = new GLTFAccessor();
+		accessor.bufferView = 0;
+		accessor.componentType = componentType;
+		accessor.normalized = normalized;
+		accessor.type = "SCALAR";
+		accessor.count = count;
+		return accessor;
+	}
+	
+	private static DataResolver createResolver(final ByteBuffer buffer, GLTFAccessor...accessors){
+		GLTF glModel = new GLTF();
+		glModel.bufferViews = new Array<GLTFBufferView>();
+		GLTFBufferView bufferView = new GLTFBufferView();
+		bufferView.buffer = 0;
+		bufferView.byteLength = buffer.capacity();
+		glModel.bufferViews.add(bufferView);
+		
+		glModel.accessors = new Array<GLTFAccessor>();
+		for(GLTFAccessor accessor : accessors){
+			glModel.accessors.add(accessor);
+		}
+		
+		return new DataResolver(glModel, new DataFileResolver() {
+			@Override
+			public void load(FileHandle file) {
+			}
+			@Override
+			public GLTF getRoot() {
+				return null;
+			}
+			@Override
+			public ByteBuffer getBuffer(int index) {
+				return buffer;
+			}
+			@Override
+			public Pixmap load(GLTFImage glImage) {
+				return null;
+			}
+		});
+	}
+	
+	@Test
+	public void testAccessorDecodedOnce(){
+		DataResolver dataResolver = createResolver();
+		float[] data = dataResolver.readBufferFloat(0);
+		Assert.assertArrayEquals(new float[]{0, 1, 2, 3, 4, 5}, data, 0f);
+		Assert.assertSame(data, dataResolver.readBufferFloat(0));
+		Assert.assertNotSame(data, dataResolver.readBufferFloat(1));
+		
+		dataResolver.clearCache();
+		Assert.assertNotSame(data, dataResolver.readBufferFloat(0));
+	}
+	
+	@Test
+	public void testCacheSize(){
+		DataResolver dataResolver = createResolver();
+		dataResolver.setCacheSize(10);
+		float[] data = dataResolver.readBufferFloat(0);
+		Assert.assertSame(data, dataResolver.readBufferFloat(0));
+		// cache is full
+		float[] other = dataResolver.readBufferFloat(1);
+		Assert.assertNotSame(other, dataResolver.readBufferFloat(1));
+		Assert.assertArrayEquals(data, other, 0f);
+	}
+	
+	@Test
+	public void testQuantizedAccessors(){
+		ByteBuffer buffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putShort((short)-32768).putShort((short)32767).putShort((short)-1).putShort((short)0);
+		buffer.flip();
+		DataResolver dataResolver = createResolver(buffer, 
+				createAccessor(GLTFTypes.C_SHORT, true, 4), 
+				createAccessor(GLTFTypes.C_SHORT, false, 4),
+				createAccessor(GLTFTypes.C_USHORT, true, 4));
+		Assert.assertArrayEquals(new float[]{-1, 1, -1f / 32767, 0}, dataResolver.readBufferFloat(0), 1e-6f);
+		Assert.assertArrayEquals(new float[]{-32768, 32767, -1, 0}, dataResolver.readBufferFloat(1), 0f);
+		Assert.assertArrayEquals(new float[]{32768f / 65535, 32767f / 65535, 1, 0}, dataResolver.readBufferFloat(2), 1e-6f);
+	}
+	
+	@Test
+	public void testMeshoptBufferView(){
+		// index sequence : 0, 1, 3, 2, 300
+		ByteBuffer buffer = ByteBuffer.wrap(new byte[]{(byte)0xD1, 0, 4, 13, 4, (byte)0xA5, 0x09, 0, 0, 0, 0});
+		DataResolver dataResolver = createResolver(buffer, createAccessor(GLTFTypes.C_USHORT, false, 5));
+		
+		EXTMeshoptCompression ext = new EXTMeshoptCompression();
+		ext.byteLength = buffer.capacity();
+		ext.byteStride = 2;
+		ext.count = 5;
+		ext.mode = EXTMeshoptCompression.MODE_INDICES;
+		GLTFBufferView bufferView = dataResolver.getBufferView(0);
+		bufferView.byteLength = 10;
+		bufferView.extensions = new GLTFExtensions();
+		bufferView.extensions.set(EXTMeshoptCompression.EXT, ext);
+		
+		Assert.assertArrayEquals(new int[]{0, 1, 3, 2, 300}, dataResolver.readBufferUShort(0));
+		Assert.assertEquals(300, dataResolver.getBufferShort(dataResolver.getAccessor(0)).get(4));
+	}
+}
@@ -0,0 +1,101 @@
+package net.mgsx.gltf.loaders.shared.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.mgsx.gltf.data.extensions.EXTMeshoptCompression;
+import net.mgsx.gltf.loaders.exceptions.GLTFIllegalException;
+
+public class MeshoptDecoderTest {
+
+	@Test
+	public void testVertexBuffer(){
+		// 2 vertices of 4 bytes, one byte column per group encoding (raw, 2 bits, 4 bits and zeros).
+		ByteBuffer src = ByteBuffer.allocate(1 + 17 + 6 + 9 + 1 + 32);
+		src.put((byte)0xA0);
+		// deltas +1, +2
+		src.put((byte)0x03).put(new byte[]{2, 4, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+		// deltas +1, -57 (escaped)
+		src.put(new byte[]{0x01, (byte)0xB0, 0, 0, 0, 0x71});
+		// deltas +5, -1
+		src.put(new byte[]{0x02, (byte)0xA1, 0, 0, 0, 0, 0, 0, 0});
+		src.put((byte)0x00);
+		// tail : zero base vertex
+		src.put(new byte[32]);
+
+		byte[] dst = new byte[8];
+		MeshoptDecoder.decodeVertexBuffer(dst, 2, 4, src.array());
+		Assert.assertArrayEquals(new byte[]{1, 1, 5, 0, 3, (byte)200, 4, 0}, dst);
+	}
+
+	@Test(expected=GLTFIllegalException.class)
+	public void testTruncatedVertexBuffer(){
+		byte[] src = new byte[]{(byte)0xA0, 0, 0, 0, 0, 0, 0, 0};
+		MeshoptDecoder.decodeVertexBuffer(new byte[8], 2, 4, src);
+	}
+
+	@Test
+	public void testIndexBuffer(){
+		byte[] src = new byte[1 + 3 + 4 + 16];
+		// codes : new triangle from table, triangle from edge fifo and new vertex, triangle with free indices.
+		src[0] = (byte)0xE1;
+		src[1] = (byte)0xF0;
+		src[2] = (byte)0x10;
+		src[3] = (byte)0xFF;
+		// data : code auxiliary and free indices as zigzag deltas
+		src[4] = (byte)0xFF;
+		src[5] = 20;
+		src[6] = 2;
+		src[7] = 2;
+		// code auxiliary table (first entry 0x00)
+
+		byte[] dst = new byte[9 * 2];
+		MeshoptDecoder.decodeIndexBuffer(dst, 9, 2, src);
+		Assert.assertArrayEquals(new int[]{0, 1, 2, 2, 1, 3, 10, 11, 12}, readShorts(dst));
+	}
+
+	@Test
+	public void testIndexSequence(){
+		// baseline 0 : 0, 1, baseline 1 : 3, baseline 0 : 2, baseline 1 : 300 (2 bytes)
+		byte[] src = new byte[]{(byte)0xD1, 0, 4, 13, 4, (byte)0xA5, 0x09, 0, 0, 0, 0};
+		EXTMeshoptCompression ext = new EXTMeshoptCompression();
+		ext.byteLength = src.length;
+		ext.byteStride = 2;
+		ext.count = 5;
+		ext.mode = EXTMeshoptCompression.MODE_INDICES;
+		ByteBuffer dst = MeshoptDecoder.decode(ext, ByteBuffer.wrap(src));
+		Assert.assertArrayEquals(new int[]{0, 1, 3, 2, 300}, readShorts(dst.array()));
+	}
+
+	@Test
+	public void testFilters(){
+		ByteBuffer exp = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+		exp.putInt(0xFE000006).putInt(0x01FFFFFD);
+		MeshoptDecoder.decodeFilterExp(exp.array(), 1, 8);
+		Assert.assertEquals(1.5f, exp.getFloat(0), 0f);
+		Assert.assertEquals(-6f, exp.getFloat(4), 0f);
+
+		byte[] oct = new byte[]{0, 0, 127, 5, 127, 0, 127, 0, 100, 100, 127, 0};
+		MeshoptDecoder.decodeFilterOct(oct, 3, 4);
+		Assert.assertArrayEquals(new byte[]{0, 0, 127, 5, 127, 0, 0, 0, 42, 42, -113, 0}, oct);
+
+		ByteBuffer quat = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+		// identity, then x largest
+		quat.putShort((short)0).putShort((short)0).putShort((short)0).putShort((short)32767);
+		quat.putShort((short)23170).putShort((short)0).putShort((short)0).putShort((short)(32767 & ~3));
+		MeshoptDecoder.decodeFilterQuat(quat.array(), 2, 8);
+		Assert.assertArrayEquals(new int[]{0, 0, 0, 32767, 28377, 16384, 0, 0}, readShorts(quat.array()));
+	}
+
+	private static int[] readShorts(byte[] bytes){
+		ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+		int[] values = new int[bytes.length / 2];
+		for(int i=0 ; i<values.length ; i++){
+			values[i] = buffer.getShort() & 0xFFFF;
+		}
+		return values;
+	}
+}
@@ -0,0 +1,77 @@
+package net.mgsx.gltf.loaders.shared.geometry;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.GL20;
+
+import net.mgsx.gltf.loaders.shared.GLTFTypes;
+
+public class MeshInterleaverTest {
+	
+	@Test
+	public void testPackedCopy(){
+		FloatBuffer src = FloatBuffer.wrap(new float[]{1, 2, 3, 4, 5, 6});
+		float[] dst = new float[6];
+		MeshInterleaver.copy(src, 3, 2, 3, dst, 0, 3);
+		Assert.assertArrayEquals(new float[]{1, 2, 3, 4, 5, 6}, dst, 0);
+	}
+	
+	@Test
+	public void testInterleavedCopy(){
+		// source interleaved with an other 1 float attribute, destination interleaved with 2 other floats.
+		FloatBuffer src = FloatBuffer.wrap(new float[]{1, 2, -1, 3, 4, -1, 5, 6});
+		float[] dst = new float[12];
+		MeshInterleaver.copy(src, 3, 3, 2, dst, 1, 4);
+		Assert.assertArrayEquals(new float[]{0, 1, 2, 0, 0, 3, 4, 0, 0, 5, 6, 0}, dst, 0);
+	}
+	
+	@Test
+	public void testBytesCopy(){
+		// 2 VEC3 unsigned bytes elements with a 4 bytes stride, padding byte has to be ignored.
+		ByteBuffer src = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+		src.put(new byte[]{1, 2, 3, (byte)0xFF, 4, 5, 6, (byte)0xFF}).rewind();
+		float[] dst = new float[4];
+		MeshInterleaver.copyBytes(src, 4, 2, 3, dst, 1, 2);
+		Assert.assertEquals(0, Float.floatToRawIntBits(dst[0]));
+		Assert.assertEquals(0x030201, Float.floatToRawIntBits(dst[1]));
+		Assert.assertEquals(0x060504, Float.floatToRawIntBits(dst[3]));
+	}
+	
+	@Test
+	public void testNormalizedCopy(){
+		// VEC3 normals to bytes padded to 4 bytes, VEC2 texture coordinates to unsigned shorts.
+		FloatBuffer normals = FloatBuffer.wrap(new float[]{1, -1, 0, 0.5f, 2, -2});
+		float[] dst = new float[4];
+		MeshInterleaver.copyNormalized(normals, 3, 2, 3, GL20.GL_BYTE, dst, 0, 2);
+		Assert.assertEquals(0x00817F, Float.floatToRawIntBits(dst[0]));
+		Assert.assertEquals(0x817F40, Float.floatToRawIntBits(dst[2]));
+		
+		FloatBuffer uvs = FloatBuffer.wrap(new float[]{0, 1, 0.5f, -1});
+		MeshInterleaver.copyNormalized(uvs, 2, 2, 2, GL20.GL_UNSIGNED_SHORT, dst, 1, 2);
+		Assert.assertEquals(0xFFFF0000, Float.floatToRawIntBits(dst[1]));
+		Assert.assertEquals(0x00008000, Float.floatToRawIntBits(dst[3]));
+	}
+	
+	@Test
+	public void testBones(){
+		ByteBuffer joints = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+		joints.put(new byte[]{1, 2, 3, 4, (byte)200, 6, 7, 8}).rewind();
+		ByteBuffer weights = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+		weights.putShort((short)0xFFFF).putShort((short)0).putShort((short)0).putShort((short)0);
+		weights.putShort((short)0).putShort((short)0xFFFF).putShort((short)0).putShort((short)0).rewind();
+		
+		float[] dst = new float[4];
+		MeshInterleaver.copyJoints(joints, GLTFTypes.C_UBYTE, 4, 2, 0, dst, 0, 2);
+		MeshInterleaver.copyWeights(weights, GLTFTypes.C_USHORT, 8, 2, 0, dst, 1, 2);
+		Assert.assertArrayEquals(new float[]{1, 1, 200, 0}, dst, 0);
+		
+		MeshInterleaver.copyJoints(joints, GLTFTypes.C_UBYTE, 4, 2, 1, dst, 0, 2);
+		MeshInterleaver.copyWeights(weights, GLTFTypes.C_USHORT, 8, 2, 1, dst, 1, 2);
+		Assert.assertArrayEquals(new float[]{2, 0, 6, 1}, dst, 0);
+	}
+}
@@ -0,0 +1,76 @@
+package net.mgsx.gltf.loaders.shared.geometry;
+
+import java.util.Random;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Measure {@link MeshSpliter} time on grid meshes from 1M to 10M indices, in grid order and
+ * with shuffled triangles (worst case: most triangles span several batches).
+ * Time per index should stay roughly constant.
+ */
+public class MeshSpliterBenchmark {
+	
+	private static final int STRIDE = 8;
+	
+	public static void main(String[] args) {
+		System.out.println("Warmup...");
+		run(1000000, false, false);
+		run(1000000, true, false);
+		
+		System.out.println("Measuring...");
+		for(int million=1 ; million<=10 ; million++){
+			run(million * 1000000, false, true);
+			run(million * 1000000, true, true);
+		}
+		System.out.println("Done.");
+	}
+	
+	private static void run(int indexCount, boolean shuffle, boolean trace){
+		// square grid of quads having about indexCount indices
+		int size = (int)Math.sqrt(indexCount / 6) + 1;
+		int vertexCount = (size + 1) * (size + 1);
+		float[] vertices = new float[vertexCount * STRIDE];
+		int[] indices = new int[size * size * 6];
+		int index = 0;
+		for(int y=0 ; y<size ; y++){
+			for(int x=0 ; x<size ; x++){
+				int a = y * (size + 1) + x;
+				int b = a + 1;
+				int c = a + size + 1;
+				int d = c + 1;
+				indices[index++] = a;
+				indices[index++] = b;
+				indices[index++] = c;
+				indices[index++] = c;
+				indices[index++] = b;
+				indices[index++] = d;
+			}
+		}
+		if(shuffle){
+			Random random = new Random(0);
+			for(int t = indices.length / 3 - 1 ; t > 0 ; t--){
+				int s = random.nextInt(t + 1);
+				for(int k=0 ; k<3 ; k++){
+					int tmp = indices[t*3+k];
+					indices[t*3+k] = indices[s*3+k];
+					indices[s*3+k] = tmp;
+				}
+			}
+		}
+		
+		Array<float[]> splitVertices = new Array<float[]>();
+		Array<short[]> splitIndices = new Array<short[]>();
+		long time = System.nanoTime();
+		MeshSpliter.split(splitVertices, splitIndices, vertices, STRIDE, indices, 3, MeshSpliter.MAX_VERTICES);
+		time = System.nanoTime() - time;
+		
+		if(trace){
+			int splitVertexCount = 0;
+			for(int i=0 ; i<splitVertices.size ; i++) splitVertexCount += splitVertices.get(i).length / STRIDE;
+			System.out.println((shuffle ? "shuffled " : "ordered  ") + indices.length + " indices, " + vertexCount + " vertices: " 
+					+ splitIndices.size + " meshes, " + splitVertexCount + " vertices, " 
+					+ (time / 1000000) + " ms, " + (time / indices.length) + " ns/index");
+		}
+	}
+}
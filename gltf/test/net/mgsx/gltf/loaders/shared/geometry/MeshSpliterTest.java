@@ -0,0 +1,84 @@
+package net.mgsx.gltf.loaders.shared.geometry;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.utils.Array;
+
+public class MeshSpliterTest {
+	
+	/** check that split meshes draw the same primitives in the same order */
+	private static void assertSplit(float[] vertices, int stride, int[] indices, int verticesPerPrimitive, int maxVertices, int expectedBatches){
+		Array<float[]> splitVertices = new Array<float[]>();
+		Array<short[]> splitIndices = new Array<short[]>();
+		MeshSpliter.split(splitVertices, splitIndices, vertices, stride, indices, verticesPerPrimitive, maxVertices);
+		Assert.assertEquals(expectedBatches, splitIndices.size);
+		Assert.assertEquals(expectedBatches, splitVertices.size);
+		
+		int index = 0;
+		for(int b=0 ; b<splitIndices.size ; b++){
+			float[] batchVertices = splitVertices.get(b);
+			short[] batchIndices = splitIndices.get(b);
+			Assert.assertTrue(batchVertices.length / stride <= maxVertices);
+			Assert.assertEquals(0, batchIndices.length % verticesPerPrimitive);
+			for(int i=0 ; i<batchIndices.length ; i++){
+				int src = indices[index++];
+				int dst = batchIndices[i] & 0xFFFF;
+				for(int k=0 ; k<stride ; k++){
+					Assert.assertEquals(vertices[src * stride + k], batchVertices[dst * stride + k], 0f);
+				}
+			}
+		}
+		Assert.assertEquals(indices.length, index);
+	}
+	
+	private static float[] createVertices(int count, int stride){
+		float[] vertices = new float[count * stride];
+		for(int i=0 ; i<vertices.length ; i++) vertices[i] = i;
+		return vertices;
+	}
+	
+	@Test
+	public void testSingleBatch(){
+		float[] vertices = createVertices(4, 2);
+		int[] indices = {0, 1, 2, 2, 1, 3};
+		assertSplit(vertices, 2, indices, 3, 4, 1);
+	}
+	
+	@Test
+	public void testSharedVerticesDuplicated(){
+		// triangle fan around vertex 0, 3 new vertices per batch max.
+		float[] vertices = createVertices(6, 3);
+		int[] indices = {0, 1, 2, 0, 2, 3, 0, 3, 4, 0, 4, 5};
+		assertSplit(vertices, 3, indices, 3, 4, 2);
+	}
+	
+	@Test
+	public void testDegeneratePrimitives(){
+		float[] vertices = createVertices(4, 1);
+		int[] indices = {0, 0, 0, 1, 1, 2, 2, 3, 3};
+		// duplicated indices count once: {0}, {1, 2} then {2, 3} in a new batch
+		assertSplit(vertices, 1, indices, 3, 3, 2);
+	}
+	
+	@Test
+	public void testShuffledPrimitives(){
+		int vertexCount = 1000;
+		int primitives = 5000;
+		Random random = new Random(1);
+		int[] indices = new int[primitives * 2];
+		for(int i=0 ; i<indices.length ; i++) indices[i] = random.nextInt(vertexCount);
+		
+		Array<float[]> splitVertices = new Array<float[]>();
+		Array<short[]> splitIndices = new Array<short[]>();
+		MeshSpliter.split(splitVertices, splitIndices, createVertices(vertexCount, 1), 1, indices, 2, 100);
+		assertSplit(createVertices(vertexCount, 1), 1, indices, 2, 100, splitIndices.size);
+		
+		// batches are full except the last one
+		for(int b=0 ; b<splitVertices.size-1 ; b++){
+			Assert.assertTrue(splitVertices.get(b).length >= 99);
+		}
+	}
+}
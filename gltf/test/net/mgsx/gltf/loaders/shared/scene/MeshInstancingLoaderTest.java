@@ -0,0 +1,37 @@
+package net.mgsx.gltf.loaders.shared.scene;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector3;
+
+import net.mgsx.gltf.scene3d.model.InstanceBuffer;
+
+public class MeshInstancingLoaderTest {
+
+	@Test
+	public void testTRS(){
+		Quaternion q0 = new Quaternion(Vector3.Y, 90);
+		Quaternion q1 = new Quaternion(Vector3.X, 45);
+		float[] translations = {1, 2, 3, -4, 5, -6};
+		float[] rotations = {q0.x, q0.y, q0.z, q0.w, q1.x, q1.y, q1.z, q1.w};
+		float[] scales = {1, 1, 1, 2, 3, 4};
+		InstanceBuffer instances = MeshInstancingLoader.createInstances(2, translations, rotations, scales);
+		Assert.assertEquals(2, instances.size());
+		Assert.assertArrayEquals(new Matrix4().set(new Vector3(1, 2, 3), q0, new Vector3(1, 1, 1)).val, instances.get(0, new Matrix4()).val, 1e-6f);
+		Assert.assertArrayEquals(new Matrix4().set(new Vector3(-4, 5, -6), q1, new Vector3(2, 3, 4)).val, instances.get(1, new Matrix4()).val, 1e-6f);
+	}
+
+	@Test
+	public void testMissingAttributesDefaults(){
+		float[] translations = {1, 2, 3, 4, 5, 6};
+		InstanceBuffer instances = MeshInstancingLoader.createInstances(2, translations, null, null);
+		Assert.assertArrayEquals(new Matrix4().setToTranslation(4, 5, 6).val, instances.get(1, new Matrix4()).val, 0f);
+
+		float[] scales = {2, 2, 2};
+		instances = MeshInstancingLoader.createInstances(1, null, null, scales);
+		Assert.assertArrayEquals(new Matrix4().setToScaling(2, 2, 2).val, instances.get(0, new Matrix4()).val, 0f);
+	}
+}
@@ -0,0 +1,77 @@
+package net.mgsx.gltf.scene3d.animation;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.g3d.model.NodeKeyframe;
+import com.badlogic.gdx.utils.Array;
+
+public class KeyframeLookupTest {
+
+	private final Random random = new Random(0);
+
+	@Test
+	public void testMatchesLinearScan(){
+		for(int size=1 ; size<40 ; size++){
+			Array<NodeKeyframe<Object>> keyframes = createKeyframes(size, false);
+			check(keyframes);
+		}
+	}
+
+	@Test
+	public void testDuplicateKeytimes(){
+		for(int size=2 ; size<40 ; size++){
+			Array<NodeKeyframe<Object>> keyframes = createKeyframes(size, true);
+			check(keyframes);
+		}
+	}
+
+	@Test
+	public void testPlayback(){
+		Array<NodeKeyframe<Object>> keyframes = createKeyframes(5000, false);
+		float duration = keyframes.peek().keytime;
+		int cursor = 0;
+		for(float time = -1 ; time < duration + 1 ; time += 0.013f){
+			cursor = AnimationControllerHack.getFirstKeyframeIndexAtTime(keyframes, time, cursor);
+			Assert.assertEquals(linearScan(keyframes, time), cursor);
+		}
+		// backward
+		for(float time = duration + 1 ; time > -1 ; time -= 0.013f){
+			cursor = AnimationControllerHack.getFirstKeyframeIndexAtTime(keyframes, time, cursor);
+			Assert.assertEquals(linearScan(keyframes, time), cursor);
+		}
+	}
+
+	private void check(Array<NodeKeyframe<Object>> keyframes){
+		float duration = keyframes.peek().keytime;
+		for(int i=0 ; i<200 ; i++){
+			float time = i % 4 == 0 ? keyframes.get(random.nextInt(keyframes.size)).keytime : (random.nextFloat() * 1.2f - 0.1f) * duration;
+			int expected = linearScan(keyframes, time);
+			int cursor = random.nextInt(keyframes.size + 2) - 1;
+			Assert.assertEquals(expected, AnimationControllerHack.getFirstKeyframeIndexAtTime(keyframes, time, cursor));
+		}
+	}
+
+	/** reference implementation */
+	private static int linearScan(Array<NodeKeyframe<Object>> arr, float time){
+		final int n = arr.size - 1;
+		for (int i = 0; i < n; i++) {
+			if (time >= arr.get(i).keytime && time <= arr.get(i + 1).keytime) {
+				return i;
+			}
+		}
+		return n;
+	}
+
+	private Array<NodeKeyframe<Object>> createKeyframes(int size, boolean duplicates){
+		Array<NodeKeyframe<Object>> keyframes = new Array<NodeKeyframe<Object>>();
+		float time = random.nextFloat();
+		for(int i=0 ; i<size ; i++){
+			keyframes.add(new NodeKeyframe<Object>(time, null));
+			if(!duplicates || random.nextBoolean()) time += random.nextFloat() + 0.01f;
+		}
+		return keyframes;
+	}
+}
@@ -0,0 +1,175 @@
+package net.mgsx.gltf.scene3d.animation;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.model.Animation;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodeKeyframe;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+
+import net.mgsx.gltf.loaders.shared.GLTFTypes;
+import net.mgsx.gltf.loaders.shared.animation.Interpolation;
+import net.mgsx.gltf.scene3d.model.CubicQuaternion;
+import net.mgsx.gltf.scene3d.model.CubicVector3;
+import net.mgsx.gltf.scene3d.model.CubicWeightVector;
+import net.mgsx.gltf.scene3d.model.ModelInstanceHack;
+import net.mgsx.gltf.scene3d.model.NodePlus;
+import net.mgsx.gltf.scene3d.model.WeightVector;
+
+public class PackedTrackTest {
+
+	private static final int KEYS = 20;
+	private static final int WEIGHTS = 3;
+
+	private final Random random = new Random(0);
+
+	@Test
+	public void testLinear(){
+		check(Interpolation.LINEAR);
+	}
+
+	@Test
+	public void testStep(){
+		check(Interpolation.STEP);
+	}
+
+	@Test
+	public void testCubic(){
+		check(Interpolation.CUBICSPLINE);
+	}
+
+	@Test
+	public void testKeyframeIndex(){
+		float[] times = new float[KEYS];
+		for(int i=1 ; i<KEYS ; i++) times[i] = times[i-1] + (i % 5 == 0 ? 0 : random.nextFloat());
+		PackedTrack track = new PackedTrack(Interpolation.LINEAR, 1, times, new float[KEYS]);
+		for(int i=0 ; i<500 ; i++){
+			float time = i % 3 == 0 ? times[random.nextInt(KEYS)] : (random.nextFloat() * 1.2f - 0.1f) * times[KEYS-1];
+			int cursor = random.nextInt(KEYS + 2) - 1;
+			Array<NodeKeyframe<Object>> keyframes = new Array<NodeKeyframe<Object>>();
+			for(float t : times) keyframes.add(new NodeKeyframe<Object>(t, null));
+			Assert.assertEquals(AnimationControllerHack.getFirstKeyframeIndexAtTime(keyframes, time, cursor), track.getKeyframeIndex(time, cursor));
+		}
+	}
+
+	/** same animation data, as keyframes and as packed tracks, should produce exactly the same transforms. */
+	private void check(Interpolation interpolation){
+		float[] times = new float[KEYS];
+		times[0] = 0.25f; // not starting at zero
+		for(int i=1 ; i<KEYS ; i++) times[i] = times[i-1] + 0.05f + random.nextFloat();
+		int stride = interpolation == Interpolation.CUBICSPLINE ? 3 : 1;
+		float[] translations = randomValues(KEYS * stride * 3);
+		float[] rotations = randomValues(KEYS * stride * 4);
+		float[] weights = randomValues(KEYS * stride * WEIGHTS);
+
+		Model keyframesModel = createModel();
+		keyframesModel.animations.add(createKeyframesAnimation(keyframesModel.nodes.first(), interpolation, times, translations, rotations, weights));
+
+		Model packedModel = createModel();
+		packedModel.animations.add(createPackedAnimation(packedModel.nodes.first(), interpolation, times, translations, rotations, weights));
+
+		ModelInstanceHack keyframesInstance = new ModelInstanceHack(keyframesModel);
+		ModelInstanceHack packedInstance = new ModelInstanceHack(packedModel);
+		AnimationControllerHack keyframesController = new AnimationControllerHack(keyframesInstance);
+		AnimationControllerHack packedController = new AnimationControllerHack(packedInstance);
+		keyframesController.setAnimation("animation", -1);
+		packedController.setAnimation("animation", -1);
+
+		float delta = 0.031f;
+		for(int i=0 ; i<2000 ; i++){
+			if(i == 1000) delta = -0.017f;
+			keyframesController.update(delta);
+			packedController.update(delta);
+			Node keyframesNode = keyframesInstance.nodes.first();
+			Node packedNode = packedInstance.nodes.first();
+			Assert.assertArrayEquals(keyframesNode.localTransform.val, packedNode.localTransform.val, 0f);
+			WeightVector keyframesWeights = ((NodePlus)keyframesNode).weights;
+			WeightVector packedWeights = ((NodePlus)packedNode).weights;
+			Assert.assertEquals(keyframesWeights.count, packedWeights.count);
+			for(int w=0 ; w<WEIGHTS ; w++){
+				Assert.assertEquals(keyframesWeights.get(w), packedWeights.get(w), 0f);
+			}
+		}
+	}
+
+	private float[] randomValues(int count){
+		float[] values = new float[count];
+		for(int i=0 ; i<count ; i++) values[i] = random.nextFloat() * 2 - 1;
+		return values;
+	}
+
+	private static Model createModel(){
+		Model model = new Model();
+		NodePlus node = new NodePlus();
+		node.id = "node";
+		node.weights = new WeightVector(WEIGHTS);
+		model.nodes.add(node);
+		return model;
+	}
+
+	private static Animation createKeyframesAnimation(Node node, Interpolation interpolation, float[] times, float[] translations, float[] rotations, float[] weights){
+		NodeAnimationHack nodeAnimation = createNodeAnimation(node, interpolation, times);
+		boolean cubic = interpolation == Interpolation.CUBICSPLINE;
+		int stride = cubic ? 3 : 1;
+		nodeAnimation.translation = new Array<NodeKeyframe<Vector3>>();
+		nodeAnimation.rotation = new Array<NodeKeyframe<Quaternion>>();
+		nodeAnimation.weights = new Array<NodeKeyframe<WeightVector>>();
+		for(int k=0 ; k<times.length ; k++){
+			Vector3 translation = cubic ? GLTFTypes.map(new CubicVector3(), translations, k * stride * 3) : GLTFTypes.map(new Vector3(), translations, k * 3);
+			Quaternion rotation = cubic ? GLTFTypes.map(new CubicQuaternion(), rotations, k * stride * 4) : GLTFTypes.map(new Quaternion(), rotations, k * 4);
+			WeightVector weight = cubic ? GLTFTypes.map(new CubicWeightVector(WEIGHTS), weights, k * stride * WEIGHTS) : GLTFTypes.map(new WeightVector(WEIGHTS), weights, k * WEIGHTS);
+			if(k == 0){
+				// copy first frame at zero time as loader does
+				nodeAnimation.translation.add(new NodeKeyframe<Vector3>(0, translation));
+				nodeAnimation.rotation.add(new NodeKeyframe<Quaternion>(0, rotation));
+				nodeAnimation.weights.add(new NodeKeyframe<WeightVector>(0, weight));
+			}
+			nodeAnimation.translation.add(new NodeKeyframe<Vector3>(times[k], translation));
+			nodeAnimation.rotation.add(new NodeKeyframe<Quaternion>(times[k], rotation));
+			nodeAnimation.weights.add(new NodeKeyframe<WeightVector>(times[k], weight));
+		}
+		return createAnimation(nodeAnimation, times);
+	}
+
+	private static Animation createPackedAnimation(Node node, Interpolation interpolation, float[] times, float[] translations, float[] rotations, float[] weights){
+		NodeAnimationHack nodeAnimation = createNodeAnimation(node, interpolation, times);
+		int stride = interpolation == Interpolation.CUBICSPLINE ? 3 : 1;
+		float[] packedTimes = new float[times.length + 1];
+		System.arraycopy(times, 0, packedTimes, 1, times.length);
+		nodeAnimation.translationTrack = new PackedTrack(interpolation, 3, packedTimes, prependFirst(translations, stride * 3));
+		nodeAnimation.rotationTrack = new PackedTrack(interpolation, 4, packedTimes, prependFirst(rotations, stride * 4));
+		nodeAnimation.weightsTrack = new PackedTrack(interpolation, WEIGHTS, packedTimes, prependFirst(weights, stride * WEIGHTS));
+		return createAnimation(nodeAnimation, times);
+	}
+
+	private static float[] prependFirst(float[] values, int stride){
+		float[] result = new float[values.length + stride];
+		System.arraycopy(values, 0, result, 0, stride);
+		System.arraycopy(values, 0, result, stride, values.length);
+		return result;
+	}
+
+	private static NodeAnimationHack createNodeAnimation(Node node, Interpolation interpolation, float[] times){
+		NodeAnimationHack nodeAnimation = new NodeAnimationHack();
+		nodeAnimation.node = node;
+		nodeAnimation.translationMode = interpolation;
+		nodeAnimation.rotationMode = interpolation;
+		nodeAnimation.scalingMode = interpolation;
+		nodeAnimation.weightsMode = interpolation;
+		return nodeAnimation;
+	}
+
+	private static Animation createAnimation(NodeAnimationHack nodeAnimation, float[] times){
+		Animation animation = new Animation();
+		animation.id = "animation";
+		animation.duration = times[times.length-1];
+		animation.nodeAnimations.add(nodeAnimation);
+		return animation;
+	}
+}
@@ -0,0 +1,92 @@
+package net.mgsx.gltf.scene3d.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import net.mgsx.gltf.loaders.shared.MockGL;
+
+public class InstanceBufferTest {
+
+	@Test
+	public void testAddGrowsBuffer(){
+		InstanceBuffer instances = new InstanceBuffer(2);
+		for(int i=0 ; i<100 ; i++){
+			Assert.assertEquals(i, instances.add(new Matrix4().setToTranslation(i, 0, 0)));
+		}
+		Assert.assertEquals(100, instances.size());
+		for(int i=0 ; i<100 ; i++){
+			Assert.assertEquals(i, getX(instances, i), 0f);
+		}
+	}
+
+	@Test
+	public void testSetAndGet(){
+		InstanceBuffer instances = new InstanceBuffer();
+		instances.add(new Matrix4());
+		instances.add(new Matrix4());
+		instances.set(1, new Matrix4().setToTranslation(1, 2, 3));
+		Assert.assertArrayEquals(new Matrix4().val, instances.get(0, new Matrix4()).val, 0f);
+		Assert.assertArrayEquals(new Matrix4().setToTranslation(1, 2, 3).val, instances.get(1, new Matrix4()).val, 0f);
+		// raw transforms are column major matrices
+		Assert.assertEquals(2, instances.getTransforms()[InstanceBuffer.STRIDE + 13], 0f);
+	}
+
+	@Test
+	public void testRemoveSwapsLast(){
+		InstanceBuffer instances = new InstanceBuffer();
+		for(int i=0 ; i<4 ; i++) instances.add(new Matrix4().setToTranslation(i, 0, 0));
+		instances.remove(1);
+		Assert.assertEquals(3, instances.size());
+		Assert.assertEquals(0, getX(instances, 0), 0f);
+		Assert.assertEquals(3, getX(instances, 1), 0f);
+		Assert.assertEquals(2, getX(instances, 2), 0f);
+		instances.remove(2);
+		Assert.assertEquals(2, instances.size());
+		Assert.assertEquals(3, getX(instances, 1), 0f);
+		instances.clear();
+		Assert.assertEquals(0, instances.size());
+	}
+
+	@Test(expected=GdxRuntimeException.class)
+	public void testOutOfBounds(){
+		InstanceBuffer instances = new InstanceBuffer();
+		instances.add(new Matrix4());
+		instances.get(1, new Matrix4());
+	}
+
+	@Test
+	public void testContextLoss(){
+		MockGL gl = MockGL.install(true);
+		try{
+			InstanceBuffer instances = new InstanceBuffer();
+			instances.add(new Matrix4());
+			ShaderProgram shader = new ShaderProgram("", "");
+			instances.bind(shader);
+			Assert.assertEquals(1, gl.getCalls("glGenBuffer"));
+			Assert.assertEquals(1, gl.getCalls("glBufferData"));
+			
+			// buffer is created again and transforms uploaded after context restoration.
+			Mesh.invalidateAllMeshes(Gdx.app);
+			instances.bind(shader);
+			Assert.assertEquals(2, gl.getCalls("glGenBuffer"));
+			Assert.assertEquals(2, gl.getCalls("glBufferData"));
+			
+			instances.dispose();
+			shader.dispose();
+			Assert.assertEquals(1, gl.getCalls("glDeleteBuffer"));
+		}finally{
+			gl.uninstall();
+		}
+	}
+
+	private static float getX(InstanceBuffer instances, int index){
+		return instances.get(index, new Matrix4()).getTranslation(new Vector3()).x;
+	}
+}
@@ -0,0 +1,64 @@
+package net.mgsx.gltf.scene3d.model;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import net.mgsx.gltf.loaders.shared.MockGL;
+
+public class InstancedMeshTest {
+
+	private MockGL gl;
+	private Mesh mesh;
+
+	@Before
+	public void setUp(){
+		gl = MockGL.install();
+		mesh = new Mesh(true, 3, 3, new VertexAttributes(VertexAttribute.Position()));
+		mesh.setVertices(new float[]{0, 0, 0, 1, 0, 0, 0, 2, 0});
+		mesh.setIndices(new short[]{0, 1, 2});
+	}
+
+	@After
+	public void tearDown(){
+		mesh.dispose();
+		gl.uninstall();
+	}
+
+	@Test
+	public void testSharedData(){
+		int buffers = gl.getCalls("glGenBuffer");
+		InstancedMesh instancedMesh = new InstancedMesh(mesh, new InstanceBuffer());
+		// no GL buffers allocated for the instanced mesh itself.
+		Assert.assertEquals(buffers, gl.getCalls("glGenBuffer"));
+		
+		Assert.assertSame(mesh.getVertexAttributes(), instancedMesh.getVertexAttributes());
+		Assert.assertEquals(3, instancedMesh.getNumVertices());
+		Assert.assertEquals(3, instancedMesh.getNumIndices());
+		Assert.assertEquals(2f, instancedMesh.calculateBoundingBox(new BoundingBox()).max.y, 0f);
+		
+		// shared mesh buffers are not released.
+		instancedMesh.dispose();
+		Assert.assertEquals(0, gl.getCalls("glDeleteBuffer"));
+	}
+
+	@Test
+	public void testNotManaged(){
+		String status = Mesh.getManagedStatus();
+		new InstancedMesh(mesh, new InstanceBuffer());
+		// not kept by libGDX managed meshes when not disposed.
+		Assert.assertEquals(status, Mesh.getManagedStatus());
+	}
+
+	@Test(expected=GdxRuntimeException.class)
+	public void testReadOnly(){
+		new InstancedMesh(mesh, new InstanceBuffer()).setVertices(new float[9]);
+	}
+}
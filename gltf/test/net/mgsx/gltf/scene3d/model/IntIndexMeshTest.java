@@ -0,0 +1,63 @@
+package net.mgsx.gltf.scene3d.model;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.VertexAttributes.Usage;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.collision.BoundingBox;
+
+import net.mgsx.gltf.loaders.shared.MockGL;
+
+public class IntIndexMeshTest {
+
+	private MockGL gl;
+
+	@Before
+	public void setUp(){
+		gl = MockGL.install();
+	}
+
+	@After
+	public void tearDown(){
+		gl.uninstall();
+	}
+
+	@Test
+	public void testQuantizedBounds(){
+		// normalized shorts positions, padded to 4 components.
+		VertexAttributes attributes = new VertexAttributes(new VertexAttribute(Usage.Position, 4, GL20.GL_SHORT, true, ShaderProgram.POSITION_ATTRIBUTE));
+		float[] vertices = {pack(16384, -32767), pack(0, 0), pack(32767, 0), pack(-16384, 0)};
+		
+		IntIndexMesh mesh = new IntIndexMesh(true, 2, 2, attributes);
+		mesh.setVertices(vertices);
+		mesh.setIndices(new int[]{1, 0});
+		assertBounds(mesh.extendBoundingBox(new BoundingBox().inf(), 0, 2, null));
+		mesh.dispose();
+		
+		// non indexed
+		mesh = new IntIndexMesh(true, 2, 0, attributes);
+		mesh.setVertices(vertices);
+		assertBounds(mesh.extendBoundingBox(new BoundingBox().inf(), 0, 2, null));
+		mesh.dispose();
+	}
+
+	private static void assertBounds(BoundingBox bounds){
+		Assert.assertEquals(16384 / 32767f, bounds.min.x, 1e-6f);
+		Assert.assertEquals(-1f, bounds.min.y, 0f);
+		Assert.assertEquals(-16384 / 32767f, bounds.min.z, 1e-6f);
+		Assert.assertEquals(1f, bounds.max.x, 0f);
+		Assert.assertEquals(0f, bounds.max.y, 0f);
+		Assert.assertEquals(0f, bounds.max.z, 0f);
+	}
+
+	/** pack 2 shorts in a float (little endian) */
+	private static float pack(int low, int high){
+		return Float.intBitsToFloat((low & 0xFFFF) | (high << 16));
+	}
+}
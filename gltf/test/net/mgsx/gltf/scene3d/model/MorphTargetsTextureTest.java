@@ -0,0 +1,62 @@
+package net.mgsx.gltf.scene3d.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+public class MorphTargetsTextureTest {
+
+	@Test
+	public void testLayout(){
+		// 3 vertices, 2 targets with positions and tangents only
+		MorphTargetsTexture morphTargets = new MorphTargetsTexture(3, 2, true, false, true);
+		Assert.assertEquals(2, morphTargets.stride);
+		Assert.assertEquals(0, morphTargets.positionOffset);
+		Assert.assertEquals(-1, morphTargets.normalOffset);
+		Assert.assertEquals(1, morphTargets.tangentOffset);
+
+		morphTargets.set(1, morphTargets.positionOffset, new float[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+		morphTargets.set(0, morphTargets.tangentOffset, new float[]{-1, -2, -3, -4, -5, -6, -7, -8, -9});
+
+		float[] data = morphTargets.getData();
+		Assert.assertEquals(MorphTargetsTexture.WIDTH * 4, data.length);
+		// vertex 2, target 1, position: texel (2 * 2 + 1) * 2 + 0
+		Assert.assertEquals(7, data[10 * 4], 0f);
+		Assert.assertEquals(9, data[10 * 4 + 2], 0f);
+		// vertex 1, target 0, tangent: texel (1 * 2 + 0) * 2 + 1
+		Assert.assertEquals(-4, data[5 * 4], 0f);
+		// vertex 0, target 0, position is not set
+		Assert.assertEquals(0, data[0], 0f);
+	}
+
+	@Test
+	public void testRows(){
+		MorphTargetsTexture morphTargets = new MorphTargetsTexture(1000, 60, true, true, false);
+		// 1000 * 60 * 2 texels
+		Assert.assertEquals(1f / 59, morphTargets.getInvHeight(), 0f);
+	}
+
+	@Test
+	public void testShaderMask(){
+		long a = new MorphTargetsTexture(10, 50, true, true, false).getShaderMask();
+		long b = new MorphTargetsTexture(20, 50, true, true, false).getShaderMask();
+		long c = new MorphTargetsTexture(10, 51, true, true, false).getShaderMask();
+		long d = new MorphTargetsTexture(10, 50, true, false, false).getShaderMask();
+		Assert.assertEquals(a, b);
+		Assert.assertNotEquals(a, c);
+		Assert.assertNotEquals(a, d);
+	}
+
+	@Test(expected=GdxRuntimeException.class)
+	public void testMissingAttribute(){
+		MorphTargetsTexture morphTargets = new MorphTargetsTexture(1, 1, true, false, false);
+		morphTargets.set(0, 1, new float[3]);
+	}
+
+	@Test(expected=GdxRuntimeException.class)
+	public void testTooManyTexels(){
+		// (2^21 + 1) vertices * 8 targets, more than 2^24 texels
+		new MorphTargetsTexture((1 << 21) + 1, 8, true, false, false);
+	}
+}
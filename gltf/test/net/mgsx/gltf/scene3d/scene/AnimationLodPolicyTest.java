@@ -0,0 +1,129 @@
+package net.mgsx.gltf.scene3d.scene;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.environment.PointLight;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+
+public class AnimationLodPolicyTest {
+
+	private static final float DELTA = 0.1f;
+
+	@Test
+	public void testIntervals(){
+		Camera camera = createCamera();
+		AnimationLodPolicy policy = new AnimationLodPolicy();
+		policy.nearDistance = 10;
+		policy.farInterval = 4;
+		policy.hiddenInterval = 0;
+
+		Scene near = createScene(0, 0, -5);
+		Scene far = createScene(0, 0, -50);
+		Scene hidden = createScene(0, 0, 50);
+
+		int nearUpdates = 0, farUpdates = 0, hiddenUpdates = 0;
+		float farTime = 0;
+		for(int frame=0 ; frame<40 ; frame++){
+			policy.begin();
+			if(policy.update(near, getBounds(near), camera, DELTA)){
+				nearUpdates++;
+				Assert.assertEquals(DELTA, policy.delta, 1e-6f);
+			}
+			if(policy.update(far, getBounds(far), camera, DELTA)){
+				farUpdates++;
+				farTime += policy.delta;
+			}
+			if(policy.update(hidden, getBounds(hidden), camera, DELTA)) hiddenUpdates++;
+		}
+		Assert.assertEquals(40, nearUpdates);
+		Assert.assertEquals(10, farUpdates);
+		Assert.assertEquals(0, hiddenUpdates);
+		// far scene animation time is late by at most interval frames
+		Assert.assertTrue(farTime > (40 - 4) * DELTA - 1e-4f);
+
+		// hidden scene becomes visible : time is caught up.
+		hidden.modelInstance.transform.setToTranslation(0, 0, -5);
+		policy.begin();
+		Assert.assertTrue(policy.update(hidden, getBounds(hidden), camera, DELTA));
+		Assert.assertEquals(41 * DELTA, policy.delta, 1e-4f);
+	}
+
+	@Test
+	public void testStaggered(){
+		Camera camera = createCamera();
+		AnimationLodPolicy policy = new AnimationLodPolicy();
+		policy.farInterval = 4;
+		Scene[] scenes = new Scene[8];
+		for(int i=0 ; i<scenes.length ; i++) scenes[i] = createScene(i, 0, -50);
+		for(int frame=0 ; frame<8 ; frame++){
+			policy.begin();
+			int updates = 0;
+			for(Scene scene : scenes){
+				if(policy.update(scene, getBounds(scene), camera, DELTA)) updates++;
+			}
+			Assert.assertEquals(2, updates);
+		}
+	}
+
+	@Test
+	public void testScenesWithLightsAlwaysUpdated(){
+		Camera camera = createCamera();
+		AnimationLodPolicy policy = new AnimationLodPolicy();
+		Scene scene = createScene(0, 0, 50);
+		scene.lights.put(scene.modelInstance.nodes.first(), new PointLight());
+		for(int frame=0 ; frame<10 ; frame++){
+			policy.begin();
+			Assert.assertTrue(policy.update(scene, getBounds(scene), camera, DELTA));
+		}
+	}
+
+	@Test
+	public void testScenesWithoutBoundsNotHidden(){
+		Camera camera = createCamera();
+		AnimationLodPolicy policy = new AnimationLodPolicy();
+		policy.nearDistance = 10;
+		policy.farInterval = 4;
+		policy.hiddenInterval = 0;
+		// scene origin is outside of the frustum but its (unknown) bounds may not.
+		Scene near = createScene(0, 0, 5);
+		Scene far = createScene(0, 0, 50);
+		int nearUpdates = 0, farUpdates = 0;
+		for(int frame=0 ; frame<40 ; frame++){
+			policy.begin();
+			if(policy.update(near, null, camera, DELTA)) nearUpdates++;
+			if(policy.update(far, null, camera, DELTA)) farUpdates++;
+		}
+		Assert.assertEquals(40, nearUpdates);
+		Assert.assertEquals(10, farUpdates);
+	}
+
+	private static Camera createCamera(){
+		PerspectiveCamera camera = new PerspectiveCamera(60, 100, 100);
+		camera.near = 1;
+		camera.far = 100;
+		camera.update();
+		return camera;
+	}
+
+	private static Scene createScene(float x, float y, float z){
+		Model model = new Model();
+		Node node = new Node();
+		node.id = "node";
+		model.nodes.add(node);
+		Scene scene = new Scene(model);
+		scene.modelInstance.transform.setToTranslation(x, y, z);
+		return scene;
+	}
+
+	/** unit box at scene origin */
+	private static BoundingBox getBounds(Scene scene){
+		Vector3 position = scene.modelInstance.transform.getTranslation(new Vector3());
+		return new BoundingBox(new Vector3(position).sub(.5f), new Vector3(position).add(.5f));
+	}
+}
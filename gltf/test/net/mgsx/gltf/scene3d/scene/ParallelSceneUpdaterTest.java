@@ -0,0 +1,146 @@
+package net.mgsx.gltf.scene3d.scene;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.model.Animation;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.graphics.g3d.model.NodeKeyframe;
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+
+import net.mgsx.gltf.loaders.shared.animation.Interpolation;
+import net.mgsx.gltf.scene3d.animation.NodeAnimationHack;
+import net.mgsx.gltf.scene3d.model.NodePlus;
+
+public class ParallelSceneUpdaterTest {
+
+	private static final int SCENES = 200;
+	private static final int NODES = 8;
+	private static final int STEPS = 50;
+
+	private final Camera camera = new PerspectiveCamera();
+
+	@Test
+	public void testSameResultsAsSequential(){
+		Model model = createModel();
+		Array<Scene> sequential = createScenes(model);
+		Array<Scene> parallel = createScenes(model);
+
+		AsyncExecutor executor = new AsyncExecutor(4, "test");
+		try{
+			ParallelSceneUpdater updater = new ParallelSceneUpdater(executor, 5);
+			for(int step=0 ; step<STEPS ; step++){
+				for(Scene scene : sequential) scene.update(camera, 0.02f);
+				for(Scene scene : parallel) updater.add(scene, 0.02f);
+				updater.update(camera);
+				Assert.assertEquals(0, updater.scenes.size);
+
+				for(int i=0 ; i<SCENES ; i++){
+					Scene expected = sequential.get(i);
+					Scene actual = parallel.get(i);
+					for(int j=0 ; j<NODES ; j++){
+						String id = "node" + j;
+						Assert.assertArrayEquals(expected.modelInstance.getNode(id).globalTransform.val, actual.modelInstance.getNode(id).globalTransform.val, 0f);
+					}
+					Camera expectedCamera = expected.cameras.values().next();
+					Camera actualCamera = actual.cameras.values().next();
+					Assert.assertEquals(expectedCamera.position, actualCamera.position);
+					Assert.assertEquals(expectedCamera.direction, actualCamera.direction);
+				}
+			}
+		}finally{
+			executor.dispose();
+		}
+	}
+
+	@Test
+	public void testFewerScenesThanTasks(){
+		Model model = createModel();
+		AsyncExecutor executor = new AsyncExecutor(4, "test");
+		try{
+			ParallelSceneUpdater updater = new ParallelSceneUpdater(executor, 5);
+			updater.update(camera);
+			updater.add(new Scene(model), 0.02f);
+			updater.update(camera);
+			Assert.assertEquals(0, updater.scenes.size);
+		}finally{
+			executor.dispose();
+		}
+	}
+
+	@Test
+	public void testExceptionIsRethrown(){
+		Model model = createModel();
+		AsyncExecutor executor = new AsyncExecutor(4, "test");
+		try{
+			ParallelSceneUpdater updater = new ParallelSceneUpdater(executor, 5);
+			for(Scene scene : createScenes(model)) updater.add(scene, 0.02f);
+			updater.add(new Scene(model){
+				@Override
+				public void update(Camera camera, float delta) {
+					throw new GdxRuntimeException("failure");
+				}
+			}, 0.02f);
+			try{
+				updater.update(camera);
+				Assert.fail();
+			}catch(GdxRuntimeException e){
+				// expected
+			}
+			Assert.assertEquals(0, updater.scenes.size);
+		}finally{
+			executor.dispose();
+		}
+	}
+
+	private Array<Scene> createScenes(Model model){
+		Array<Scene> scenes = new Array<Scene>();
+		for(int i=0 ; i<SCENES ; i++){
+			Scene scene = new Scene(model);
+			scene.modelInstance.transform.setToTranslation(i, 0, 0);
+			scene.cameras.put(scene.modelInstance.getNode("node" + (NODES - 1)), new PerspectiveCamera());
+			scene.animationController.setAnimation("animation", -1);
+			// different animation times for each scene
+			scene.animationController.update(i * 0.01f);
+			scenes.add(scene);
+		}
+		return scenes;
+	}
+
+	private static Model createModel(){
+		Model model = new Model();
+		Node parent = null;
+		for(int i=0 ; i<NODES ; i++){
+			Node node = new NodePlus();
+			node.id = "node" + i;
+			if(parent == null) model.nodes.add(node); else parent.addChild(node);
+			parent = node;
+		}
+		Animation animation = new Animation();
+		animation.id = "animation";
+		animation.duration = 2f;
+		for(int i=0 ; i<NODES ; i++){
+			NodeAnimationHack nodeAnimation = new NodeAnimationHack();
+			nodeAnimation.node = model.getNode("node" + i);
+			nodeAnimation.translationMode = Interpolation.LINEAR;
+			nodeAnimation.rotationMode = Interpolation.LINEAR;
+			nodeAnimation.translation = new Array<NodeKeyframe<Vector3>>();
+			nodeAnimation.rotation = new Array<NodeKeyframe<Quaternion>>();
+			for(int k=0 ; k<=4 ; k++){
+				float time = k * 0.5f;
+				nodeAnimation.translation.add(new NodeKeyframe<Vector3>(time, new Vector3(i, k, i * k)));
+				nodeAnimation.rotation.add(new NodeKeyframe<Quaternion>(time, new Quaternion().setEulerAngles(i * 10, k * 20, 0)));
+			}
+			animation.nodeAnimations.add(nodeAnimation);
+		}
+		model.animations.add(animation);
+		return model;
+	}
+}
@@ -0,0 +1,105 @@
+package net.mgsx.gltf.scene3d.scene;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.graphics.g3d.model.Node;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+
+import net.mgsx.gltf.scene3d.model.NodePartPlus;
+import net.mgsx.gltf.scene3d.model.NodePlus;
+
+public class SceneCullingTest {
+
+	private final Pool<Renderable> pool = new Pool<Renderable>() {
+		@Override
+		protected Renderable newObject() {
+			return new Renderable();
+		}
+	};
+
+	@Test
+	public void testCulling(){
+		Model model = new Model();
+		model.nodes.add(createNode("front", 0, 0, -10, true));
+		model.nodes.add(createNode("behind", 0, 0, 10, true));
+		model.nodes.add(createNode("unbounded", 0, 0, 10, false));
+		model.nodes.add(createNode("outside", 500, 0, -10, true));
+
+		Array<String> ids = render(new Scene(model));
+		Assert.assertEquals(2, ids.size);
+		Assert.assertTrue(ids.contains("front", false));
+		Assert.assertTrue(ids.contains("unbounded", false));
+	}
+
+	@Test
+	public void testHierarchy(){
+		Model model = new Model();
+		// parent behind the camera, rotated so its child is in front of the camera.
+		Node parent = createNode("parent", 0, 0, 10, true);
+		parent.rotation.set(Vector3.Y, 180);
+		parent.addChild(createNode("child", 0, 0, 20, true));
+		model.nodes.add(parent);
+
+		Array<String> ids = render(new Scene(model));
+		Assert.assertEquals(1, ids.size);
+		Assert.assertEquals("child", ids.first());
+	}
+
+	@Test
+	public void testSceneTransform(){
+		Model model = new Model();
+		model.nodes.add(createNode("node", 0, 0, 0, true));
+		Scene scene = new Scene(model);
+
+		scene.modelInstance.transform.setToTranslation(0, 0, -10);
+		Assert.assertEquals(1, render(scene).size);
+
+		scene.modelInstance.transform.setToTranslation(0, 0, 10);
+		Assert.assertEquals(0, render(scene).size);
+	}
+
+	private Array<String> render(Scene scene){
+		PerspectiveCamera camera = new PerspectiveCamera(60, 100, 100);
+		camera.near = 1;
+		camera.far = 100;
+		camera.update();
+
+		Array<Renderable> renderables = new Array<Renderable>();
+		scene.getRenderables(renderables, pool, camera);
+		Array<String> ids = new Array<String>();
+		for(Renderable renderable : renderables){
+			ids.add(renderable.meshPart.id);
+		}
+		pool.freeAll(renderables);
+		return ids;
+	}
+
+	private Node createNode(String id, float x, float y, float z, boolean bounded){
+		Node node = new NodePlus();
+		node.id = id;
+		node.translation.set(x, y, z);
+
+		MeshPart meshPart = new MeshPart();
+		meshPart.id = id;
+		if(bounded){
+			meshPart.center.setZero();
+			meshPart.halfExtents.set(1, 1, 1);
+			meshPart.radius = meshPart.halfExtents.len();
+		}else{
+			meshPart.radius = -1;
+		}
+		NodePartPlus nodePart = new NodePartPlus();
+		nodePart.meshPart = meshPart;
+		nodePart.material = new Material();
+		node.parts.add(nodePart);
+		return node;
+	}
+}
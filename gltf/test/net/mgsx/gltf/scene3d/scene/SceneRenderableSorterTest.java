@@ -0,0 +1,126 @@
+package net.mgsx.gltf.scene3d.scene;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.attributes.BlendingAttribute;
+import com.badlogic.gdx.utils.Array;
+
+public class SceneRenderableSorterTest {
+
+	private final Camera camera = new PerspectiveCamera();
+	private final Material opaqueA = new Material("a");
+	private final Material opaqueB = new Material("b");
+	private final Material blended = new Material("blended", new BlendingAttribute());
+
+	@Test
+	public void testGroups(){
+		Renderable blendedNear = create(blended, 1);
+		Renderable blendedFar = create(blended, 5);
+		Renderable opaque = create(opaqueA, 3);
+		Renderable skybox = create(opaqueA, 0);
+		skybox.userData = SceneRenderableSorter.Hints.OPAQUE_LAST;
+
+		Array<Renderable> renderables = Array.with(blendedNear, skybox, blendedFar, opaque);
+		new SceneRenderableSorter().sort(camera, renderables);
+
+		Assert.assertSame(opaque, renderables.get(0));
+		Assert.assertSame(skybox, renderables.get(1));
+		Assert.assertSame(blendedFar, renderables.get(2));
+		Assert.assertSame(blendedNear, renderables.get(3));
+	}
+
+	@Test
+	public void testOpaqueGroupedByMaterialThenFrontToBack(){
+		Renderable a1 = create(opaqueA, 4);
+		Renderable b1 = create(opaqueB, 1);
+		Renderable a2 = create(opaqueA, 2);
+		Renderable b2 = create(opaqueB, 3);
+
+		Array<Renderable> renderables = Array.with(a1, b1, a2, b2);
+		new SceneRenderableSorter().sort(camera, renderables);
+
+		Assert.assertSame(a2, renderables.get(0));
+		Assert.assertSame(a1, renderables.get(1));
+		Assert.assertSame(b1, renderables.get(2));
+		Assert.assertSame(b2, renderables.get(3));
+	}
+
+	@Test
+	public void testComparator(){
+		Renderable a = create(opaqueA, 4);
+		Renderable b = create(opaqueB, 1);
+		Renderable c = create(blended, 2);
+		SceneRenderableSorter sorter = new SceneRenderableSorter();
+		Array<Renderable> renderables = Array.with(c, b, a);
+		sorter.sort(camera, renderables);
+		// same order as sort
+		Array<Renderable> sorted = Array.with(c, b, a);
+		sorted.sort(sorter);
+		for(int i=0 ; i<renderables.size ; i++){
+			Assert.assertSame(renderables.get(i), sorted.get(i));
+		}
+		Assert.assertEquals(0, sorter.compare(a, a));
+		Assert.assertTrue(sorter.compare(a, c) < 0);
+		Assert.assertTrue(sorter.compare(c, a) > 0);
+	}
+
+	@Test
+	public void testDeterministic(){
+		SceneRenderableSorter sorter = new SceneRenderableSorter();
+		Array<Renderable> reference = new Array<Renderable>();
+		for(int i=0 ; i<1000 ; i++){
+			Material material = i % 7 == 0 ? blended : (i % 2 == 0 ? opaqueA : opaqueB);
+			reference.add(create(material, (i * 31) % 17));
+		}
+		Array<Renderable> first = new Array<Renderable>(reference);
+		sorter.sort(camera, first);
+		for(int n=0 ; n<3 ; n++){
+			Array<Renderable> renderables = new Array<Renderable>(reference);
+			sorter.sort(camera, renderables);
+			for(int i=0 ; i<renderables.size ; i++){
+				Assert.assertSame(first.get(i), renderables.get(i));
+			}
+		}
+		// check order
+		for(int i=1 ; i<first.size ; i++){
+			Renderable prev = first.get(i-1);
+			Renderable next = first.get(i);
+			boolean prevBlended = prev.material == blended;
+			boolean nextBlended = next.material == blended;
+			Assert.assertTrue(!prevBlended || nextBlended);
+			if(prevBlended && nextBlended){
+				Assert.assertTrue(prev.worldTransform.val[14] >= next.worldTransform.val[14]);
+			}
+		}
+	}
+
+	@Test
+	public void testManyMaterialsAreGrouped(){
+		Array<Material> materials = new Array<Material>();
+		for(int i=0 ; i<300 ; i++) materials.add(new Material("m" + i));
+		Array<Renderable> renderables = new Array<Renderable>();
+		for(int i=0 ; i<3000 ; i++){
+			renderables.add(create(materials.get((i * 7) % materials.size), i % 13));
+		}
+		new SceneRenderableSorter().sort(camera, renderables);
+		
+		// each material appears in a single contiguous run
+		int runs = 1;
+		for(int i=1 ; i<renderables.size ; i++){
+			if(renderables.get(i).material != renderables.get(i-1).material) runs++;
+		}
+		Assert.assertEquals(materials.size, runs);
+	}
+	
+	private Renderable create(Material material, float distance){
+		Renderable renderable = new Renderable();
+		renderable.material = material;
+		renderable.worldTransform.setToTranslation(0, 0, distance);
+		return renderable;
+	}
+}
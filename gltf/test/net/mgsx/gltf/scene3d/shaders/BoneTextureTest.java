@@ -0,0 +1,53 @@
+package net.mgsx.gltf.scene3d.shaders;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.math.Matrix4;
+
+public class BoneTextureTest {
+
+	@Test
+	public void testBonesPackedOncePerFrame(){
+		BoneTexture boneTexture = new BoneTexture();
+		Matrix4[] bonesA = {new Matrix4().setToTranslation(1, 2, 3), new Matrix4()};
+		Matrix4[] bonesB = {new Matrix4().setToScaling(2, 2, 2)};
+
+		boneTexture.begin();
+		Assert.assertEquals(-1, boneTexture.getOffset(bonesA));
+		Assert.assertEquals(0, boneTexture.add(bonesA));
+		Assert.assertEquals(2, boneTexture.add(bonesB));
+		Assert.assertEquals(0, boneTexture.add(bonesA));
+		Assert.assertEquals(3, boneTexture.size());
+
+		// column major matrices, 16 floats per bone
+		float[] data = boneTexture.getData();
+		Assert.assertEquals(2, data[13], 0f);
+		Assert.assertEquals(2, data[2 * 16 + 5], 0f);
+
+		boneTexture.begin();
+		Assert.assertEquals(0, boneTexture.size());
+		Assert.assertEquals(-1, boneTexture.getOffset(bonesA));
+		Assert.assertEquals(0, boneTexture.add(bonesB));
+	}
+
+	@Test
+	public void testGrowth(){
+		BoneTexture boneTexture = new BoneTexture(1);
+		Matrix4[] bones = new Matrix4[BoneTexture.WIDTH];
+		bones[bones.length - 1] = new Matrix4().setToTranslation(5, 0, 0);
+
+		boneTexture.begin();
+		Assert.assertEquals(0, boneTexture.add(new Matrix4[]{new Matrix4()}));
+		Assert.assertEquals(1, boneTexture.add(bones));
+		Assert.assertEquals(1 + bones.length, boneTexture.size());
+
+		// texture rows hold WIDTH / 4 bones
+		Assert.assertEquals(1f / 5, boneTexture.getInvHeight(), 0f);
+		float[] data = boneTexture.getData();
+		Assert.assertEquals(5, data[bones.length * 16 + 12], 0f);
+		// missing bones are identity
+		Assert.assertEquals(1, data[16], 0f);
+		Assert.assertEquals(0, data[16 + 12], 0f);
+	}
+}
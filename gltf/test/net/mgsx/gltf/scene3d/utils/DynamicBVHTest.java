@@ -0,0 +1,102 @@
+package net.mgsx.gltf.scene3d.utils;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+
+public class DynamicBVHTest {
+
+	private static final int COUNT = 2000;
+
+	private final Random random = new Random(0);
+
+	@Test
+	public void testQueryMatchesBruteForce(){
+		DynamicBVH<Integer> tree = new DynamicBVH<Integer>(0);
+		BoundingBox[] boxes = new BoundingBox[COUNT];
+		int[] proxies = new int[COUNT];
+		for(int i=0 ; i<COUNT ; i++){
+			boxes[i] = randomBox(new BoundingBox());
+			proxies[i] = tree.insert(boxes[i], i);
+		}
+		Assert.assertEquals(COUNT, tree.size());
+		check(tree, boxes);
+
+		// move half, remove a quarter
+		for(int i=0 ; i<COUNT/2 ; i++){
+			tree.update(proxies[i], randomBox(boxes[i]));
+		}
+		for(int i=COUNT/2 ; i<COUNT*3/4 ; i++){
+			tree.remove(proxies[i]);
+			boxes[i] = null;
+		}
+		Assert.assertEquals(COUNT/4*3, tree.size());
+		check(tree, boxes);
+
+		// tree stays balanced
+		Assert.assertTrue("height " + tree.getHeight(), tree.getHeight() <= 4 * (32 - Integer.numberOfLeadingZeros(tree.size())));
+	}
+
+	@Test
+	public void testSmallMoveKeepsTree(){
+		DynamicBVH<Integer> tree = new DynamicBVH<Integer>(1f);
+		BoundingBox box = new BoundingBox();
+		box.inf().ext(0, 0, 0).ext(1, 1, 1);
+		int proxy = tree.insert(box, 0);
+		box.inf().ext(.5f, .5f, .5f).ext(1.5f, 1.5f, 1.5f);
+		Assert.assertFalse(tree.update(proxy, box));
+		box.inf().ext(5, 5, 5).ext(6, 6, 6);
+		Assert.assertTrue(tree.update(proxy, box));
+	}
+
+	@Test
+	public void testClear(){
+		DynamicBVH<Integer> tree = new DynamicBVH<Integer>();
+		for(int i=0 ; i<100 ; i++){
+			tree.insert(randomBox(new BoundingBox()), i);
+		}
+		tree.clear();
+		Assert.assertEquals(0, tree.size());
+		Assert.assertEquals(-1, tree.getHeight());
+		Array<Integer> results = new Array<Integer>();
+		tree.query(new BoundingBox().inf().ext(-1000, -1000, -1000).ext(1000, 1000, 1000), results);
+		Assert.assertEquals(0, results.size);
+	}
+
+	private void check(DynamicBVH<Integer> tree, BoundingBox[] boxes){
+		Array<Integer> results = new Array<Integer>();
+		BoundingBox query = new BoundingBox();
+		for(int q=0 ; q<50 ; q++){
+			float x = random.nextFloat() * 100, y = random.nextFloat() * 100, z = random.nextFloat() * 100;
+			float s = random.nextFloat() * 30;
+			query.inf().ext(x, y, z).ext(x + s, y + s, z + s);
+
+			results.clear();
+			tree.query(query, results);
+
+			int expected = 0;
+			for(int i=0 ; i<boxes.length ; i++){
+				if(boxes[i] != null && intersects(boxes[i], query)){
+					expected++;
+					Assert.assertTrue(results.contains(i, false));
+				}
+			}
+			Assert.assertEquals(expected, results.size);
+		}
+	}
+
+	private static boolean intersects(BoundingBox a, BoundingBox b){
+		return a.min.x <= b.max.x && a.min.y <= b.max.y && a.min.z <= b.max.z &&
+			a.max.x >= b.min.x && a.max.y >= b.min.y && a.max.z >= b.min.z;
+	}
+
+	private BoundingBox randomBox(BoundingBox box){
+		float x = random.nextFloat() * 100, y = random.nextFloat() * 100, z = random.nextFloat() * 100;
+		float s = random.nextFloat() * 3;
+		return box.inf().ext(x, y, z).ext(x + s, y + s, z + s);
+	}
+}